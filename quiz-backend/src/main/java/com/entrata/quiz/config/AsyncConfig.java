@@ -0,0 +1,47 @@
+package com.entrata.quiz.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class AsyncConfig {
+    
+    /**
+     * Runs phase two of deferred generation (explanations) off the request thread.
+     */
+    @Bean(name = "explanationExecutor")
+    public ThreadPoolTaskExecutor explanationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("explanation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * Runs generation jobs claimed by this node's worker. The worker only claims a job when a
+     * thread is free, so jobs wait (in priority order) in the database rather than in here.
+     */
+    @Bean(name = "generationJobExecutor", destroyMethod = "shutdown")
+    public ExecutorService generationJobExecutor(GenerationConfig generationConfig) {
+        return Executors.newFixedThreadPool(Math.max(1, generationConfig.getJobs().getThreads()),
+                new CustomizableThreadFactory("generation-job-"));
+    }
+    
+    /**
+     * Reloads refreshed cache entries from the database and runs cache maintenance, so neither
+     * blocks the common fork-join pool.
+     */
+    @Bean(name = "cacheRefreshExecutor", destroyMethod = "shutdown")
+    public ExecutorService cacheRefreshExecutor() {
+        return Executors.newFixedThreadPool(2, new CustomizableThreadFactory("cache-refresh-"));
+    }
+}
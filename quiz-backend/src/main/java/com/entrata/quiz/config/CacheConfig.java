@@ -0,0 +1,63 @@
+package com.entrata.quiz.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CacheConfig {
+    
+    private SecondLevel secondLevel = new SecondLevel();
+    
+    /**
+     * Spring caches (@Cacheable) by name. Every cache the application uses must be listed here;
+     * there is no unbounded fallback.
+     */
+    private Map<String, Named> named = new LinkedHashMap<>(Map.of("quizzes", new Named()));
+    
+    private ResponseBodies responseBodies = new ResponseBodies();
+    
+    @Data
+    public static class SecondLevel {
+        /** Quizzes held in Hibernate's second-level cache, and as many question lists. */
+        private long maxQuizzes = 10_000;
+        /** Questions held in the second-level cache. */
+        private long maxQuestions = 100_000;
+        /** Results of cacheable queries (a listing page each) held at most. */
+        private long maxQueryResults = 1_000;
+        /**
+         * Every entry, query results included, is dropped this long after it was cached, which
+         * bounds how stale it can be after a write this process did not see.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+    
+    @Data
+    public static class Named {
+        /** Estimated heap size of the cached values at most; W-TinyLFU picks which entries to evict. */
+        private long maxWeightBytes = 64L * 1024 * 1024;
+        /** Entries not read for this long are dropped. */
+        private Duration expireAfterAccess = Duration.ofHours(1);
+        /**
+         * Entries older than this are reloaded in the background on their next read, which still gets
+         * the old value; unset to keep entries until evicted. Needs a loader for the cache.
+         */
+        private Duration refreshAfterWrite;
+    }
+    
+    @Data
+    public static class ResponseBodies {
+        /** Serialized quiz bodies (plain and gzip) held at most, in bytes. */
+        private long maxWeightBytes = 32L * 1024 * 1024;
+        /** Bodies not served for this long are dropped. */
+        private Duration expireAfterAccess = Duration.ofHours(1);
+        /** Bodies shorter than this are always sent uncompressed. */
+        private int minGzipBytes = 1024;
+    }
+}
@@ -0,0 +1,73 @@
+package com.entrata.quiz.config;
+
+import com.entrata.quiz.dto.QuizResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.List;
+
+/**
+ * Approximate heap bytes of a cached entry, so caches can be bounded by memory rather than by
+ * entry count. Quiz responses are measured field by field (compressed references, compact
+ * Latin-1 strings); values of other types by the length of their JSON form.
+ */
+final class CacheEntryWeigher implements Weigher<Object, Object> {
+    
+    // Cache node with its key
+    private static final int ENTRY_BYTES = 96;
+    private static final int OBJECT_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int BOXED_BYTES = 16;
+    private static final int STRING_BYTES = 40;
+    private static final int DATE_TIME_BYTES = 72;
+    private static final int LIST_BYTES = 40;
+    
+    private final ObjectMapper objectMapper;
+    
+    CacheEntryWeigher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = ENTRY_BYTES + (value instanceof QuizResponse quiz ? weigh(quiz) : weighAsJson(value));
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+    
+    static long weigh(QuizResponse quiz) {
+        long bytes = OBJECT_BYTES + 6 * REFERENCE_BYTES + BOXED_BYTES + DATE_TIME_BYTES
+                + weigh(quiz.getTopic()) + weigh(quiz.getTitle()) + weigh(quiz.getDescription())
+                + weigh(quiz.getQuestions());
+        if (quiz.getQuestions() != null) {
+            for (QuizResponse.QuestionResponse question : quiz.getQuestions()) {
+                bytes += OBJECT_BYTES + 5 * REFERENCE_BYTES + 2 * BOXED_BYTES
+                        + weigh(question.getQuestionText()) + weigh(question.getCorrectAnswer())
+                        + weigh(question.getOptions());
+                if (question.getOptions() != null) {
+                    for (QuizResponse.QuestionOptionResponse option : question.getOptions()) {
+                        bytes += OBJECT_BYTES + 2 * REFERENCE_BYTES
+                                + weigh(option.getOptionLabel()) + weigh(option.getOptionText());
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+    
+    private static long weigh(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+    
+    private static long weigh(List<?> list) {
+        return list == null ? 0 : LIST_BYTES + (long) list.size() * REFERENCE_BYTES;
+    }
+    
+    private long weighAsJson(Object value) {
+        try {
+            return OBJECT_BYTES + objectMapper.writeValueAsBytes(value).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot weigh cached value of " + value.getClass(), e);
+        }
+    }
+}
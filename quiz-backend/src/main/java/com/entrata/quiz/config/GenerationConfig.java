@@ -0,0 +1,111 @@
+package com.entrata.quiz.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "generation")
+public class GenerationConfig {
+    
+    private Batch batch = new Batch();
+    private Bulk bulk = new Bulk();
+    private Jobs jobs = new Jobs();
+    private Pool pool = new Pool();
+    private SemanticCache semanticCache = new SemanticCache();
+    
+    @Data
+    public static class Batch {
+        /** Topics generated concurrently (RAG + LLM) within one batch request. */
+        private int maxParallelism = 4;
+        /** Completed quizzes are inserted together in groups of at most this size. */
+        private int persistBatchSize = 5;
+        /** Longest time a completed quiz waits for its group before being inserted. */
+        private long persistFlushMillis = 2000;
+    }
+    
+    @Data
+    public static class Bulk {
+        /** Directory where request and result JSONL files of bulk jobs are kept. */
+        private String workDir = System.getProperty("java.io.tmpdir") + "/quiz-bulk";
+        /** Completion window requested from the batch endpoint. */
+        private String completionWindow = "24h";
+        /** How often submitted bulk jobs are checked for results. */
+        private long pollIntervalMillis = 300_000;
+        /** Lease on a job taken for ingestion; it is extended after every saved group and reclaimable once expired. */
+        private long ingestLeaseSeconds = 600;
+        /** Cron for the nightly bulk job; "-" disables it. */
+        private String nightlyCron = "-";
+        /** Topics submitted by the nightly bulk job. */
+        private List<String> nightlyTopics = new ArrayList<>();
+        /** Questions per quiz generated by the nightly bulk job. */
+        private int nightlyQuestionCount = 5;
+    }
+    
+    @Data
+    public static class Jobs {
+        /** Whether this node claims and runs queued jobs; API-only nodes turn this off. */
+        private boolean workerEnabled = true;
+        /** Jobs this node runs concurrently. */
+        private int threads = 4;
+        /** How often the worker looks for due jobs when idle. */
+        private long pollIntervalMillis = 1000;
+        /** Lease on a claimed job; it is extended on every stage change and reclaimable once expired. */
+        private long visibilityTimeoutSeconds = 300;
+        /** Attempts per job before it is moved to the dead-letter state. */
+        private int maxAttempts = 3;
+        /** Delay before the first retry; doubled for each further attempt. */
+        private long retryBackoffSeconds = 30;
+        /** Interactive jobs waiting for a worker before new submissions are rejected. */
+        private int queueCapacity = 100;
+        /** Prefetch jobs waiting for a worker before new prefetch submissions are rejected. */
+        private int prefetchQueueCapacity = 50;
+        /** How long saved or failed jobs remain queryable. */
+        private long retentionMinutes = 60;
+        /** Lifetime of an SSE progress stream. */
+        private long sseTimeoutSeconds = 300;
+        /** How often subscribed progress streams are refreshed from the queue. */
+        private long progressPollMillis = 500;
+    }
+    
+    @Data
+    public static class Pool {
+        /** Keep pre-generated quizzes ready for the hot topics below. */
+        private boolean enabled = false;
+        /** Hot topics; requests whose topic normalizes to the same key are served from the pool. */
+        private List<String> topics = new ArrayList<>();
+        /** Unserved quizzes kept ready per topic. */
+        private int sizePerTopic = 3;
+        /** Question count of pooled quizzes; only requests asking for this count are served from the pool. */
+        private int questionCount = 5;
+        /** When the refill check runs. */
+        private String refillCron = "0 */5 * * * *";
+        /** Off-peak window (hours, server time) in which refill always runs. */
+        private int offPeakStartHour = 1;
+        private int offPeakEndHour = 6;
+        /** Outside off-peak hours, refill only while at most this fraction of the LLM call budget is in use. */
+        private double peakIdleBudgetFraction = 0.25;
+        /** Refill jobs enqueued per run at most. */
+        private int maxRefillJobsPerRun = 10;
+    }
+    
+    @Data
+    public static class SemanticCache {
+        /** Serve an existing quiz when a request's topic is a near duplicate of a recent quiz's topic. */
+        private boolean enabled = true;
+        /** Cosine similarity of topic embeddings at or above which a recent quiz is served. */
+        private double similarityThreshold = 0.9;
+        /** Recent quizzes kept in the index; the oldest are dropped first. */
+        private int maxEntries = 10_000;
+        /** Indexes larger than this are searched through an HNSW graph instead of a full scan. */
+        private int graphThreshold = 2_000;
+        /** HNSW links per node (twice as many on the bottom layer). */
+        private int graphLinks = 16;
+        private int efConstruction = 100;
+        private int efSearch = 50;
+    }
+}
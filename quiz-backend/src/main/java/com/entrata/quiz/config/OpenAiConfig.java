@@ -5,6 +5,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import jakarta.annotation.PostConstruct;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "openai")
@@ -14,6 +17,42 @@ public class OpenAiConfig {
     private String model;
     private String baseUrl;
     
+    /**
+     * Maximum number of questions requested from a single completion. Larger quizzes
+     * are split into slices of this size and generated in parallel. Zero disables chunking.
+     */
+    private int questionsPerCall = 5;
+    
+    /**
+     * Upper bound on concurrent completion calls used for one chunked quiz.
+     */
+    private int maxParallelCalls = 4;
+    
+    /**
+     * Outbound completion calls allowed in flight across the whole node (all features combined).
+     */
+    private int maxConcurrentCalls = 8;
+    
+    /**
+     * Generate explanations in a second phase after the quiz is returned.
+     */
+    private boolean deferExplanations = false;
+    
+    /**
+     * How long a submission waits for deferred explanations before answering without them.
+     */
+    private int explanationWaitSeconds = 30;
+    
+    /**
+     * Record/replay of raw completions, keyed by a hash of the full request (model, prompt, parameters).
+     */
+    private Recording recording = new Recording();
+    
+    /**
+     * Token usage aggregation and the prices used to estimate cost.
+     */
+    private Usage usage = new Usage();
+    
     @PostConstruct
     public void validateConfiguration() {
         if (apiKey == null || apiKey.trim().isEmpty()) {
@@ -26,4 +65,42 @@ public class OpenAiConfig {
             throw new IllegalStateException("OpenAI base URL is not configured.");
         }
     }
+    
+    @Data
+    public static class Recording {
+        private RecordingMode mode = RecordingMode.OFF;
+        /** Append-only file holding the recorded completions. */
+        private String path = "data/completions.store";
+    }
+    
+    @Data
+    public static class Usage {
+        /** Rolling window, in hours, of the in-memory usage aggregates. */
+        private int windowHours = 24;
+        /** Topics listed in the usage report, most expensive first. */
+        private int maxTopics = 50;
+        /**
+         * USD per million tokens by model. Reported model names are matched by the longest
+         * configured prefix, so "gpt-4o-mini" also prices "gpt-4o-mini-2024-07-18".
+         */
+        private Map<String, ModelPrice> prices = new HashMap<>();
+    }
+    
+    @Data
+    public static class ModelPrice {
+        private double input;
+        private double cachedInput;
+        private double output;
+    }
+    
+    public enum RecordingMode {
+        /** Every prompt goes to the API. */
+        OFF,
+        /** Every prompt goes to the API and the completion is stored. */
+        RECORD,
+        /** Stored completions are served; other prompts go to the API and are stored. */
+        REPLAY,
+        /** Only stored completions are served; other prompts fail without calling the API. */
+        REPLAY_ONLY
+    }
 }
@@ -0,0 +1,52 @@
+package com.entrata.quiz.config;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.Quiz;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+public class SecondLevelCacheConfig {
+    
+    /**
+     * Caffeine-backed JCache manager holding Hibernate's cache regions. Every region is created
+     * here with its size bound and time to live, and Hibernate is set to fail rather than create
+     * one without. Each context gets its own provider, so test contexts do not share regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(CacheConfig cacheConfig) {
+        CacheConfig.SecondLevel config = cacheConfig.getSecondLevel();
+        Duration ttl = config.getExpireAfterWrite();
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        createRegion(cacheManager, Quiz.class.getName(), config.getMaxQuizzes(), ttl);
+        createRegion(cacheManager, Quiz.class.getName() + ".questions", config.getMaxQuizzes(), ttl);
+        createRegion(cacheManager, Question.class.getName(), config.getMaxQuestions(), ttl);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                config.getMaxQueryResults(), ttl);
+        // Last-update time per table, checked before any cached query result is used; never evicted
+        // by size. It expires like the results, and is written after those cached before it.
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, -1, ttl);
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxEntries < 0 ? OptionalLong.empty() : OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -65,6 +65,7 @@ public class SecurityConfig {
                 // Admin-only endpoints
                 .requestMatchers(HttpMethod.DELETE, "/api/quizzes/**").hasRole("ADMIN")
                 .requestMatchers("/api/users/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**", "/actuator/metrics/**").hasRole("ADMIN")
                 
                 // Authenticated endpoints
                 .requestMatchers("/api/quizzes/**").authenticated()
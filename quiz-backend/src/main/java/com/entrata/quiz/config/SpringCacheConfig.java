@@ -0,0 +1,72 @@
+package com.entrata.quiz.config;
+
+import com.entrata.quiz.service.QuizService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+@Configuration
+public class SpringCacheConfig {
+    
+    /**
+     * Caffeine caches for @Cacheable, each bounded by estimated bytes and expiring after access as
+     * configured in cache.named. Caches not configured there do not exist. Statistics are recorded
+     * and published by Spring Boot as cache.* meters (gets by result, evictions, load durations).
+     */
+    @Bean
+    public CacheManager cacheManager(CacheConfig cacheConfig, ObjectMapper objectMapper,
+                                     ObjectProvider<QuizService> quizService,
+                                     @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor) {
+        // Reloads entries being refreshed; the service is looked up late as its proxy uses this manager
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                "quizzes", id -> quizService.getObject().findQuiz((Long) id).orElse(null));
+        CacheEntryWeigher weigher = new CacheEntryWeigher(objectMapper);
+        
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheConfig.getNamed().forEach((name, named) -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .maximumWeight(named.getMaxWeightBytes())
+                    .weigher(weigher)
+                    .expireAfterAccess(named.getExpireAfterAccess())
+                    .executor(cacheRefreshExecutor)
+                    .recordStats();
+            if (named.getRefreshAfterWrite() == null) {
+                cacheManager.registerCustomCache(name, builder.build());
+                return;
+            }
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            if (loader == null) {
+                throw new IllegalStateException("Cache '" + name + "' sets refresh-after-write but has no loader");
+            }
+            cacheManager.registerCustomCache(name, builder.refreshAfterWrite(named.getRefreshAfterWrite()).build(loader));
+        });
+        return cacheManager;
+    }
+    
+    /**
+     * Hit ratio of every cache since startup, as cache.hit.ratio tagged with the cache name.
+     */
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+            Gauge.builder("cache.hit.ratio", cache.getNativeCache(), nativeCache -> nativeCache.stats().hitRate())
+                    .tag("cache", name)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.entrata.quiz.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "submission")
+public class SubmissionConfig {
+    
+    /**
+     * Store an attempt's selected options and correctness packed into its own row instead of one
+     * question_responses row per answer. Attempts with answers matching no option keep the rows.
+     */
+    private boolean compactResponses = true;
+    
+    private Ingestion ingestion = new Ingestion();
+    
+    @Data
+    public static class Ingestion {
+        /** Acknowledge scored submissions once logged and insert them in the background, in groups. */
+        private boolean enabled = false;
+        /** Longest time an acknowledged submission waits for its group before being inserted. */
+        private long flushMillis = 50;
+        /** Submissions inserted together in one transaction at most. */
+        private int maxBatch = 200;
+        /** Acknowledged submissions waiting to be inserted before new submissions block. */
+        private int queueCapacity = 10_000;
+        /** Write-ahead log holding acknowledged submissions until they are inserted. */
+        private String walPath = "data/submissions.wal";
+    }
+}
@@ -1,21 +1,42 @@
 package com.entrata.quiz.controller;
 
 import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.dto.BatchQuizGenerationRequest;
+import com.entrata.quiz.dto.BatchTopicResult;
+import com.entrata.quiz.dto.BulkGenerationJob;
+import com.entrata.quiz.dto.CursorPage;
+import com.entrata.quiz.dto.GenerationJobResponse;
+import com.entrata.quiz.dto.GenerationPriority;
 import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.dto.QuizPoolStats;
 import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.service.BatchGenerationService;
+import com.entrata.quiz.service.BulkGenerationService;
+import com.entrata.quiz.service.GenerationJobService;
+import com.entrata.quiz.service.QuizBodyCache;
+import com.entrata.quiz.service.QuizPoolService;
+import com.entrata.quiz.service.QuizSearchIndex;
 import com.entrata.quiz.service.QuizService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -25,11 +46,19 @@ import java.util.Map;
 @Tag(name = "Quiz Management", description = "APIs for generating and managing quizzes")
 public class QuizController {
     
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+    
     private final QuizService quizService;
+    private final BatchGenerationService batchGenerationService;
+    private final BulkGenerationService bulkGenerationService;
+    private final GenerationJobService generationJobService;
+    private final QuizPoolService quizPoolService;
+    private final QuizBodyCache quizBodyCache;
     private final OpenAiConfig openAiConfig;
     
     @PostMapping("/generate")
-    @Operation(summary = "Generate a new quiz", description = "Generate a quiz with 5 MCQs using AI for a given topic")
+    @Operation(summary = "Generate a new quiz", description = "Generate a quiz of MCQs (5 by default, configurable via questionCount) using AI for a given topic")
     public ResponseEntity<QuizResponse> generateQuiz(@Valid @RequestBody QuizGenerationRequest request) {
         log.info("Received quiz generation request for topic: {}", request.getTopic());
         
@@ -38,34 +67,177 @@ public class QuizController {
         return ResponseEntity.status(HttpStatus.CREATED).body(quiz);
     }
     
+    @PostMapping(value = "/generate/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Generate quizzes for many topics",
+            description = "Generate one quiz per topic with bounded parallelism; per-topic status is streamed as each topic completes")
+    public Flux<BatchTopicResult> generateQuizBatch(@Valid @RequestBody BatchQuizGenerationRequest request) {
+        log.info("Received batch quiz generation request for {} topics", request.getTopics().size());
+        
+        return batchGenerationService.generateBatch(request);
+    }
+    
+    @PostMapping("/generate/bulk")
+    @Operation(summary = "Submit an offline bulk generation job",
+            description = "Submit topics through the batch completion endpoint; results are ingested when the batch finishes, typically within hours")
+    public ResponseEntity<BulkGenerationJob> submitBulkGeneration(@Valid @RequestBody BatchQuizGenerationRequest request) {
+        log.info("Received bulk quiz generation request for {} topics", request.getTopics().size());
+        
+        BulkGenerationJob job = bulkGenerationService.submit(request);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/generate/bulk/{jobId}")
+    @Operation(summary = "Get bulk generation job", description = "Check a bulk generation job, ingesting its results if the batch has finished")
+    public ResponseEntity<BulkGenerationJob> getBulkGeneration(@PathVariable String jobId) {
+        log.info("Fetching bulk generation job: {}", jobId);
+        
+        BulkGenerationJob job = bulkGenerationService.poll(jobId);
+        
+        return ResponseEntity.ok(job);
+    }
+    
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit a quiz generation job",
+            description = "Queue quiz generation and return immediately with a job ID; PREFETCH jobs only run when no interactive job is waiting")
+    public ResponseEntity<GenerationJobResponse> submitGenerationJob(
+            @Valid @RequestBody QuizGenerationRequest request,
+            @RequestParam(defaultValue = "INTERACTIVE") GenerationPriority priority) {
+        log.info("Received {} generation job for topic: {}", priority, request.getTopic());
+        
+        GenerationJobResponse job = generationJobService.submit(request, priority);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get generation job", description = "Current stage of a generation job and the quiz ID once saved")
+    public ResponseEntity<GenerationJobResponse> getGenerationJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(generationJobService.getJob(jobId));
+    }
+    
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream generation job progress", description = "Server-sent 'stage' events until the job is saved or fails")
+    public SseEmitter streamGenerationJob(@PathVariable String jobId) {
+        return generationJobService.subscribe(jobId);
+    }
+    
+    @GetMapping("/pool/stats")
+    @Operation(summary = "Pre-generation pool statistics", description = "Ready quizzes, pending refills and hit rate per pooled topic")
+    public ResponseEntity<QuizPoolStats> getPoolStats() {
+        return ResponseEntity.ok(quizPoolService.getStats());
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Get quiz by ID", description = "Retrieve a specific quiz with all its questions")
-    public ResponseEntity<QuizResponse> getQuizById(@PathVariable Long id) {
+    @Operation(summary = "Get quiz by ID",
+            description = "Retrieve a specific quiz with all its questions; gzip-encoded when the client accepts it",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = QuizResponse.class))))
+    public ResponseEntity<byte[]> getQuizById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("Fetching quiz with ID: {}", id);
         
-        QuizResponse quiz = quizService.getQuizById(id);
-        
-        return ResponseEntity.ok(quiz);
+        // Written once per quiz and copied to the response as is
+        QuizBodyCache.Body body = quizBodyCache.get(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
     }
     
     @GetMapping
-    @Operation(summary = "Get all quizzes", description = "Retrieve all available quizzes")
-    public ResponseEntity<List<QuizResponse>> getAllQuizzes() {
-        log.info("Fetching all quizzes");
+    @Operation(summary = "Get all quizzes",
+            description = "Retrieve quizzes newest first, one page at a time; X-Next-Cursor holds the 'after' value of the next page. "
+                    + "view=summary returns id, topic, title, createdAt and questionCount only")
+    public ResponseEntity<? extends List<?>> getAllQuizzes(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + QuizService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        log.info("Fetching all quizzes ({} view)", view);
         
-        List<QuizResponse> quizzes = quizService.getAllQuizzes();
+        if (isSummaryView(view)) {
+            return pageResponse(quizService.getQuizSummaries(page, size, after));
+        }
+        CursorPage<QuizResponse> quizzes = quizService.getQuizzes(page, size, after);
         
-        return ResponseEntity.ok(quizzes);
+        return pageResponse(quizzes);
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search quizzes by topic", description = "Search quizzes containing the specified topic")
-    public ResponseEntity<List<QuizResponse>> searchQuizzesByTopic(@RequestParam String topic) {
-        log.info("Searching quizzes by topic: {}", topic);
+    @Operation(summary = "Search quizzes",
+            description = "Full-text search, best match first, one page at a time. 'topic' matches quiz topics only; "
+                    + "'q' matches topics, titles and question text. Words match as prefixes and all must match; supports view=summary")
+    public ResponseEntity<? extends List<?>> searchQuizzes(
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + QuizService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        if ((topic == null) == (q == null)) {
+            throw new IllegalArgumentException("Specify exactly one of 'topic' or 'q'");
+        }
+        QuizSearchIndex.Scope scope = q != null ? QuizSearchIndex.Scope.ALL : QuizSearchIndex.Scope.TOPIC;
+        String query = q != null ? q : topic;
+        log.info("Searching quizzes for '{}' in {} ({} view)", query, scope, view);
         
-        List<QuizResponse> quizzes = quizService.searchQuizzesByTopic(topic);
+        if (isSummaryView(view)) {
+            return pageResponse(quizService.searchQuizSummaries(query, scope, page, size, after));
+        }
+        CursorPage<QuizResponse> quizzes = quizService.searchQuizzes(query, scope, page, size, after);
         
-        return ResponseEntity.ok(quizzes);
+        return pageResponse(quizzes);
+    }
+    
+    private boolean isSummaryView(String view) {
+        if (VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            return true;
+        }
+        if (!VIEW_FULL.equalsIgnoreCase(view)) {
+            throw new IllegalArgumentException("Unknown view: " + view + " (expected full or summary)");
+        }
+        return false;
+    }
+    
+    /**
+     * The page items as the body (a plain array, as before pagination) with paging state in headers.
+     */
+    private <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Has-Next", String.valueOf(page.isHasNext()));
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip, explicitly or through "*", with a non-zero weight.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
     
     @GetMapping("/config/check")
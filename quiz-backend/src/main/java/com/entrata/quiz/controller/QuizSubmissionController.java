@@ -1,8 +1,11 @@
 package com.entrata.quiz.controller;
 
+import com.entrata.quiz.dto.CursorPage;
 import com.entrata.quiz.dto.QuizResultResponse;
 import com.entrata.quiz.dto.QuizSubmissionRequest;
+import com.entrata.quiz.service.QuizService;
 import com.entrata.quiz.service.QuizSubmissionService;
+import com.entrata.quiz.service.SubmissionIngestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -22,6 +25,7 @@ import java.util.Map;
 public class QuizSubmissionController {
     
     private final QuizSubmissionService quizSubmissionService;
+    private final SubmissionIngestionService submissionIngestionService;
     
     @PostMapping("/submit")
     @Operation(summary = "Submit quiz answers", description = "Submit quiz answers and get immediate scoring and feedback")
@@ -29,32 +33,55 @@ public class QuizSubmissionController {
         log.info("Received quiz submission for quiz ID: {} by user: {}", 
                 request.getQuizId(), request.getUserName());
         
-        // Get the quiz attempt
-        var attempt = quizSubmissionService.submitQuizAndReturnAttempt(request);
-        
-        // Return frontend-compatible format
-        Map<String, Object> frontendResponse = quizSubmissionService.buildFrontendResponse(attempt, attempt.getQuiz());
+        // Score the attempt and return frontend-compatible format
+        Map<String, Object> frontendResponse = submissionIngestionService.submit(request);
         
         return ResponseEntity.ok(frontendResponse);
     }
     
     @GetMapping("/user/{userName}/history")
-    @Operation(summary = "Get user quiz history", description = "Retrieve all quiz attempts for a specific user")
-    public ResponseEntity<List<QuizResultResponse>> getUserQuizHistory(@PathVariable String userName) {
+    @Operation(summary = "Get user quiz history",
+            description = "Retrieve a user's quiz attempts newest first, one page at a time; X-Next-Cursor holds the "
+                    + "'after' value of the next page. details=false leaves out per-question results")
+    public ResponseEntity<List<QuizResultResponse>> getUserQuizHistory(
+            @PathVariable String userName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + QuizService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean details) {
         log.info("Fetching quiz history for user: {}", userName);
         
-        List<QuizResultResponse> history = quizSubmissionService.getUserQuizHistory(userName);
+        CursorPage<QuizResultResponse> history = quizSubmissionService.getUserQuizHistory(userName, page, size, after, details);
         
-        return ResponseEntity.ok(history);
+        return pageResponse(history);
     }
     
     @GetMapping("/quiz/{quizId}/attempts")
-    @Operation(summary = "Get quiz attempts", description = "Retrieve all attempts for a specific quiz")
-    public ResponseEntity<List<QuizResultResponse>> getQuizAttempts(@PathVariable Long quizId) {
+    @Operation(summary = "Get quiz attempts",
+            description = "Retrieve the attempts of a quiz newest first, one page at a time; X-Next-Cursor holds the "
+                    + "'after' value of the next page. details=false leaves out per-question results")
+    public ResponseEntity<List<QuizResultResponse>> getQuizAttempts(
+            @PathVariable Long quizId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + QuizService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean details) {
         log.info("Fetching all attempts for quiz ID: {}", quizId);
         
-        List<QuizResultResponse> attempts = quizSubmissionService.getQuizAttempts(quizId);
+        CursorPage<QuizResultResponse> attempts = quizSubmissionService.getQuizAttempts(quizId, page, size, after, details);
         
-        return ResponseEntity.ok(attempts);
+        return pageResponse(attempts);
+    }
+    
+    /**
+     * The page items as the body (a plain array, as before pagination) with paging state in headers.
+     */
+    private <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Has-Next", String.valueOf(page.isHasNext()));
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
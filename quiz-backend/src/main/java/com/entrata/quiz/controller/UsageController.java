@@ -0,0 +1,27 @@
+package com.entrata.quiz.controller;
+
+import com.entrata.quiz.dto.TokenUsageReport;
+import com.entrata.quiz.service.TokenUsageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/usage")
+@RequiredArgsConstructor
+@Tag(name = "Usage", description = "LLM token usage and estimated cost")
+public class UsageController {
+    
+    private final TokenUsageService tokenUsageService;
+    
+    @GetMapping
+    @Operation(summary = "Token usage report",
+            description = "Prompt, cached and completion tokens with estimated cost over the rolling window, per model, topic and user")
+    public ResponseEntity<TokenUsageReport> getUsage() {
+        return ResponseEntity.ok(tokenUsageService.getReport());
+    }
+}
@@ -0,0 +1,11 @@
+package com.entrata.quiz.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Attempt fields read by the history listings, joined with the quiz title in one query.
+ * {@code packedResponses} is only read to build per-question details.
+ */
+public record AttemptSummary(Long id, Long quizId, String quizTitle, String userName, Integer score,
+                             Integer totalQuestions, LocalDateTime submittedAt, byte[] packedResponses) {
+}
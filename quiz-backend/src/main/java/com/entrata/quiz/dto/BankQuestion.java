@@ -0,0 +1,20 @@
+package com.entrata.quiz.dto;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+
+import java.util.List;
+
+/**
+ * Question fields indexed by the question bank, joined with the quiz topic in one query without
+ * loading entities.
+ */
+public record BankQuestion(Long id, Long quizId, String topic, String questionText, List<QuestionOption> options,
+                           String correctAnswer, String explanation) {
+    
+    public static BankQuestion of(Question question, Quiz quiz) {
+        return new BankQuestion(question.getId(), quiz.getId(), quiz.getTopic(), question.getQuestionText(),
+                question.getOptions(), question.getCorrectAnswer(), question.getExplanation());
+    }
+}
@@ -0,0 +1,37 @@
+package com.entrata.quiz.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchQuizGenerationRequest {
+    
+    @NotEmpty(message = "At least one topic is required")
+    @Size(max = 50, message = "A batch must not exceed 50 topics")
+    private List<@NotBlank(message = "Topic is required")
+                 @Size(min = 3, max = 100, message = "Topic must be between 3 and 100 characters") String> topics;
+    
+    @Size(max = 200, message = "Description must not exceed 200 characters")
+    private String description;
+    
+    @Min(value = 1, message = "Question count must be at least 1")
+    @Max(value = 50, message = "Question count must not exceed 50")
+    private Integer questionCount = QuizGenerationRequest.DEFAULT_QUESTION_COUNT;
+    
+    private Boolean deferExplanations;
+    
+    public QuizGenerationRequest toGenerationRequest(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        request.setDescription(description);
+        request.setQuestionCount(questionCount);
+        request.setDeferExplanations(deferExplanations);
+        return request;
+    }
+}
@@ -0,0 +1,25 @@
+package com.entrata.quiz.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTopicResult {
+    
+    private String topic;
+    private Status status;
+    private Long quizId;
+    private String title;
+    private Integer questionCount;
+    private String error;
+    private Long durationMs;
+    
+    public enum Status {
+        SAVED, FAILED
+    }
+}
@@ -0,0 +1,25 @@
+package com.entrata.quiz.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class BulkGenerationJob {
+    
+    private String id;
+    private String batchId;
+    private Status status;
+    private String upstreamStatus;
+    private List<String> topics;
+    private List<BatchTopicResult> results;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    
+    public enum Status {
+        SUBMITTED, INGESTING, COMPLETED, FAILED
+    }
+}
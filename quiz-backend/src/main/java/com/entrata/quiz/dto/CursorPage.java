@@ -0,0 +1,19 @@
+package com.entrata.quiz.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a listing. {@code nextCursor} is set when more items follow and can be passed as
+ * {@code after} to fetch them without an offset scan.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;
+    private boolean hasNext;
+    private String nextCursor;
+}
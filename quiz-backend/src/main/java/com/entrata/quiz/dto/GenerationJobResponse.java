@@ -0,0 +1,21 @@
+package com.entrata.quiz.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class GenerationJobResponse {
+    
+    private String id;
+    private String topic;
+    private GenerationPriority priority;
+    private GenerationStage stage;
+    private Integer attempts;
+    private Long quizId;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,9 @@
+package com.entrata.quiz.dto;
+
+/**
+ * How a quiz is produced: freshly generated by the LLM, or composed from questions already in
+ * the question bank (falling back to generation when the bank lacks coverage).
+ */
+public enum GenerationMode {
+    GENERATE, COMPOSE
+}
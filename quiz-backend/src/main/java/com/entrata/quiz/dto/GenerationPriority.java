@@ -0,0 +1,8 @@
+package com.entrata.quiz.dto;
+
+/**
+ * Scheduling lane of a generation job. Interactive jobs always run before queued prefetch work.
+ */
+public enum GenerationPriority {
+    INTERACTIVE, PREFETCH
+}
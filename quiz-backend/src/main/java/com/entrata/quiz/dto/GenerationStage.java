@@ -0,0 +1,17 @@
+package com.entrata.quiz.dto;
+
+/**
+ * Progress of a quiz generation job, in the order the stages are reached. FAILED jobs could not
+ * be run at all; DEAD jobs failed on every allowed attempt and are kept for inspection.
+ */
+public enum GenerationStage {
+    QUEUED, RETRIEVING, GENERATING, PARSING, SAVED, FAILED, DEAD;
+    
+    public boolean isTerminal() {
+        return this == SAVED || this == FAILED || this == DEAD;
+    }
+    
+    public boolean isRunning() {
+        return this == RETRIEVING || this == GENERATING || this == PARSING;
+    }
+}
@@ -0,0 +1,25 @@
+package com.entrata.quiz.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A scored submission as acknowledged to the client, ahead of being stored as an attempt. The
+ * submission ID makes storing it idempotent when it is replayed from the write-ahead log.
+ */
+public record GradedSubmission(UUID submissionId, Long quizId, String userName, LocalDateTime submittedAt,
+                               int score, int totalQuestions, List<Answer> answers) {
+    
+    /**
+     * @param questionIndex  zero-based position of the question in the quiz
+     * @param selectedOption index of the selected option, or -1 for text matching no option
+     * @param feedback       rendered for the acknowledgement only; it is not written to the
+     *                       write-ahead log, so a recovered answer has none
+     */
+    public record Answer(Long questionId, int questionIndex, int selectedOption, String selectedAnswer,
+                         boolean correct, String correctAnswer, @JsonIgnore String feedback) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.entrata.quiz.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -7,10 +9,27 @@ import lombok.Data;
 @Data
 public class QuizGenerationRequest {
     
+    public static final int DEFAULT_QUESTION_COUNT = 5;
+    
     @NotBlank(message = "Topic is required")
     @Size(min = 3, max = 100, message = "Topic must be between 3 and 100 characters")
     private String topic;
     
     @Size(max = 200, message = "Description must not exceed 200 characters")
     private String description;
+    
+    @Min(value = 1, message = "Question count must be at least 1")
+    @Max(value = 50, message = "Question count must not exceed 50")
+    private Integer questionCount = DEFAULT_QUESTION_COUNT;
+    
+    /**
+     * Generate questions and answers first and fill in explanations in the background.
+     * Falls back to openai.defer-explanations when not set.
+     */
+    private Boolean deferExplanations;
+    
+    /**
+     * COMPOSE assembles the quiz from stored questions when the question bank covers the topic.
+     */
+    private GenerationMode mode = GenerationMode.GENERATE;
 }
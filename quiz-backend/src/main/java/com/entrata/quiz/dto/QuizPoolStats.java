@@ -0,0 +1,29 @@
+package com.entrata.quiz.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class QuizPoolStats {
+    
+    private boolean enabled;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private int llmCallsInFlight;
+    private int maxConcurrentLlmCalls;
+    private List<TopicStats> topics;
+    
+    @Data
+    @Builder
+    public static class TopicStats {
+        private String topic;
+        private long available;
+        private long pendingRefills;
+        private long hits;
+        private long misses;
+    }
+}
@@ -0,0 +1,9 @@
+package com.entrata.quiz.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a quiz, selected directly in SQL without loading questions or options.
+ */
+public record QuizSummary(Long id, String topic, String title, LocalDateTime createdAt, Integer questionCount) {
+}
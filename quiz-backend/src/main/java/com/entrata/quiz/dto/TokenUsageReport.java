@@ -0,0 +1,38 @@
+package com.entrata.quiz.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageReport {
+    
+    private int windowHours;
+    private Totals total;
+    private Map<String, Totals> byModel;
+    /** Keyed by normalized topic, so spellings of the same topic are counted together. */
+    private Map<String, Totals> byTopic;
+    private Map<String, Totals> byUser;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+        /** Recorded generations (a quiz or a deferred explanation pass), each of one or more calls. */
+        private long generations;
+        private long promptTokens;
+        private long completionTokens;
+        private long cachedTokens;
+        private long totalTokens;
+        /** Share of prompt tokens served from the provider's prompt cache. */
+        private double cachedPromptRatio;
+        private double estimatedCostUsd;
+    }
+}
@@ -0,0 +1,66 @@
+package com.entrata.quiz.entity;
+
+import com.entrata.quiz.dto.BulkGenerationJob;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * An offline generation submitted as an upstream batch. The generation requests are kept so that
+ * any process can parse the batch's results once it finishes, including after a restart; the
+ * process that moves the job from SUBMITTED to INGESTING is the one that saves the quizzes. Its
+ * claim is a lease: a job left INGESTING past {@code lockedUntil}, e.g. by a crash, is claimed
+ * again, and {@code resultsJson} records every topic already saved so that they are not saved twice.
+ */
+@Entity
+@Table(name = "bulk_jobs", indexes = {
+    @Index(name = "idx_bulk_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJob {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(name = "batch_id", nullable = false, length = 100)
+    private String batchId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkGenerationJob.Status status;
+    
+    @Column(name = "upstream_status", length = 50)
+    private String upstreamStatus;
+    
+    @Column(name = "requests_json", nullable = false, columnDefinition = "TEXT")
+    private String requestsJson;
+    
+    @Column(name = "results_json", columnDefinition = "TEXT")
+    private String resultsJson;
+    
+    /**
+     * User who submitted the job, if any; the quizzes and their token usage are attributed to them.
+     */
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+    
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "locked_by", length = 36)
+    private String lockedBy;
+    
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+}
@@ -0,0 +1,95 @@
+package com.entrata.quiz.entity;
+
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.GenerationStage;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued quiz generation. Workers claim a row by setting {@code lockedBy}/{@code lockedUntil};
+ * a claim whose lease runs out becomes claimable again, and {@code attempts} doubles as the
+ * fencing token for every later update by that claim.
+ */
+@Entity
+@Table(name = "generation_jobs", indexes = {
+    @Index(name = "idx_generation_jobs_stage_available", columnList = "stage, available_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GenerationJob {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(nullable = false)
+    private String topic;
+    
+    @Column(name = "request_json", nullable = false, columnDefinition = "TEXT")
+    private String requestJson;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private GenerationPriority priority;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private GenerationStage stage;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+    
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+    
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+    
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    
+    /**
+     * Set for pool refill jobs; the generated quiz is parked in the pool under this key.
+     */
+    @Column(name = "pool_key", length = 200)
+    private String poolKey;
+    
+    @Column(name = "quiz_id")
+    private Long quizId;
+    
+    /**
+     * User who enqueued the job, if any; the quiz and its token usage are attributed to them.
+     */
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -5,11 +5,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "questions")
+// Options are stored in the row and cached with it. The explanation is set after insert (bulk
+// updates, which evict the region), so the entity is not read-only.
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,13 +22,16 @@ import java.util.List;
 public class Question {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
     
     @Column(columnDefinition = "TEXT", nullable = false)
     private String questionText;
     
-    @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Stored in order with the question; answers are stored as option indexes
+    @Convert(converter = QuestionOptionsConverter.class)
+    @Column(name = "options", columnDefinition = "TEXT")
     private List<QuestionOption> options;
     
     @Column(nullable = false)
@@ -1,30 +1,21 @@
 package com.entrata.quiz.entity;
 
-import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
-@Entity
-@Table(name = "question_options")
+/**
+ * One (label, text) choice of a question. Options have no identity of their own: a question's
+ * options are stored in order in a column of its row (see {@link QuestionOptionsConverter}).
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class QuestionOption {
     
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-    
-    @Column(nullable = false)
     private String optionLabel; // A, B, C, D
     
-    @Column(columnDefinition = "TEXT", nullable = false)
     private String optionText;
-    
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "question_id", nullable = false)
-    private Question question;
 }
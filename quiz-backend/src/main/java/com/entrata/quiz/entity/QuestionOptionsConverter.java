@@ -0,0 +1,72 @@
+package com.entrata.quiz.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a question's options as a JSON array of [label, text] pairs in the question's row, so
+ * that loading questions loads their options without another query or table. Single-letter
+ * labels are read back as shared instances.
+ */
+@Converter
+public class QuestionOptionsConverter implements AttributeConverter<List<QuestionOption>, String> {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String[]>> PAIRS = new TypeReference<>() {
+    };
+    private static final String[] LETTER_LABELS = new String[26];
+    
+    static {
+        for (int i = 0; i < LETTER_LABELS.length; i++) {
+            LETTER_LABELS[i] = String.valueOf((char) ('A' + i));
+        }
+    }
+    
+    @Override
+    public String convertToDatabaseColumn(List<QuestionOption> options) {
+        if (options == null) {
+            return null;
+        }
+        List<String[]> pairs = new ArrayList<>(options.size());
+        for (QuestionOption option : options) {
+            pairs.add(new String[] {option.getOptionLabel(), option.getOptionText()});
+        }
+        try {
+            return MAPPER.writeValueAsString(pairs);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize question options", e);
+        }
+    }
+    
+    @Override
+    public List<QuestionOption> convertToEntityAttribute(String column) {
+        // A question whose options were never stored in the column reads as having none
+        if (column == null) {
+            return new ArrayList<>();
+        }
+        List<String[]> pairs;
+        try {
+            pairs = MAPPER.readValue(column, PAIRS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed question options: " + column, e);
+        }
+        List<QuestionOption> options = new ArrayList<>(pairs.size());
+        for (String[] pair : pairs) {
+            options.add(new QuestionOption(internLabel(pair[0]), pair[1]));
+        }
+        return options;
+    }
+    
+    static String internLabel(String label) {
+        if (label != null && label.length() == 1 && label.charAt(0) >= 'A' && label.charAt(0) <= 'Z') {
+            return LETTER_LABELS[label.charAt(0) - 'A'];
+        }
+        return label;
+    }
+}
@@ -15,7 +15,8 @@ import lombok.Builder;
 public class QuestionResponse {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_response_seq")
+    @SequenceGenerator(name = "question_response_seq", sequenceName = "question_response_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
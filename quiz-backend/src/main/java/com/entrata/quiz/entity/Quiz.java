@@ -5,12 +5,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "quizzes")
+@Table(name = "quizzes", indexes = {
+    @Index(name = "idx_quizzes_pool_key_created", columnList = "pool_key, created_at, id"),
+    @Index(name = "idx_quizzes_created_at", columnList = "created_at")
+})
+// Bulk updates (pool claims, token usage) evict the region; entries also expire, see cache.second-level
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +26,9 @@ import java.util.List;
 public class Quiz {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequences (not IDENTITY) so inserts of a quiz graph can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_seq")
+    @SequenceGenerator(name = "quiz_seq", sequenceName = "quiz_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -30,6 +40,28 @@ public class Quiz {
     @Column(columnDefinition = "TEXT")
     private String description;
     
+    /**
+     * Normalized topic key while the quiz waits unserved in the pre-generation pool; null once served.
+     */
+    @Column(name = "pool_key", length = 200)
+    private String poolKey;
+    
+    /**
+     * Tokens spent generating the quiz (including deferred explanations); null for quizzes
+     * composed from stored questions.
+     */
+    @Embedded
+    private TokenUsage tokenUsage;
+    
+    /**
+     * User who requested the quiz, or null for background generation.
+     */
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+    
+    // Listings initialize questions (options are stored with them) for up to 100 quizzes per query
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Question> questions;
     
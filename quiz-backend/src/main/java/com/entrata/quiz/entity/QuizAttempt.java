@@ -8,9 +8,13 @@ import lombok.Builder;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", indexes = {
+    @Index(name = "idx_quiz_attempts_user_submitted", columnList = "user_name, submitted_at"),
+    @Index(name = "idx_quiz_attempts_quiz_submitted", columnList = "quiz_id, submitted_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,9 +22,16 @@ import java.util.List;
 public class QuizAttempt {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_attempt_seq")
+    @SequenceGenerator(name = "quiz_attempt_seq", sequenceName = "quiz_attempt_seq", allocationSize = 50)
     private Long id;
     
+    /**
+     * Assigned when the submission is scored; makes replaying logged submissions idempotent.
+     */
+    @Column(unique = true)
+    private UUID submissionId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id", nullable = false)
     private Quiz quiz;
@@ -37,11 +48,20 @@ public class QuizAttempt {
     @Column(nullable = false)
     private LocalDateTime submittedAt;
     
+    /**
+     * Selected options and correctness of every answer, when the attempt is stored compactly;
+     * responses is then empty.
+     */
+    @Column(length = 1024)
+    private byte[] packedResponses;
+    
     @OneToMany(mappedBy = "quizAttempt", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<QuestionResponse> responses;
     
     @PrePersist
     protected void onCreate() {
-        submittedAt = LocalDateTime.now();
+        if (submittedAt == null) {
+            submittedAt = LocalDateTime.now();
+        }
     }
 }
@@ -0,0 +1,67 @@
+package com.entrata.quiz.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tokens billed for the completions behind a quiz, as reported in the {@code usage} block of
+ * each response. {@code cachedTokens} is the part of {@code promptTokens} served from the
+ * provider's prompt cache.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenUsage {
+    
+    @Column(name = "llm_model", length = 100)
+    private String model;
+    
+    @Column(name = "prompt_tokens")
+    private Long promptTokens;
+    
+    @Column(name = "completion_tokens")
+    private Long completionTokens;
+    
+    @Column(name = "cached_tokens")
+    private Long cachedTokens;
+    
+    public static TokenUsage of(String model, long promptTokens, long completionTokens, long cachedTokens) {
+        return new TokenUsage(model, promptTokens, completionTokens, cachedTokens);
+    }
+    
+    /**
+     * Sum of both usages; either side may be null.
+     */
+    public static TokenUsage sum(TokenUsage a, TokenUsage b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return of(a.model != null ? a.model : b.model,
+                a.prompt() + b.prompt(), a.completion() + b.completion(), a.cached() + b.cached());
+    }
+    
+    public long prompt() {
+        return promptTokens != null ? promptTokens : 0;
+    }
+    
+    public long completion() {
+        return completionTokens != null ? completionTokens : 0;
+    }
+    
+    public long cached() {
+        return cachedTokens != null ? cachedTokens : 0;
+    }
+    
+    public long total() {
+        return prompt() + completion();
+    }
+}
@@ -0,0 +1,9 @@
+package com.entrata.quiz.event;
+
+import java.util.Map;
+
+/**
+ * Published after deferred explanations of a quiz have been stored, keyed by question ID.
+ */
+public record ExplanationsStoredEvent(Long quizId, Map<Long, String> explanations) {
+}
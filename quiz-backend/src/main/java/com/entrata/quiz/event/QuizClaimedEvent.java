@@ -0,0 +1,7 @@
+package com.entrata.quiz.event;
+
+/**
+ * Published when a pooled quiz is taken out of the pre-generation pool and becomes a regular quiz.
+ */
+public record QuizClaimedEvent(Long quizId) {
+}
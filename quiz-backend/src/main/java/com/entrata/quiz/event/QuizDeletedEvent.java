@@ -0,0 +1,7 @@
+package com.entrata.quiz.event;
+
+/**
+ * Published after a quiz has been deleted.
+ */
+public record QuizDeletedEvent(Long quizId) {
+}
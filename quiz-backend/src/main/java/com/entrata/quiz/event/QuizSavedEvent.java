@@ -0,0 +1,9 @@
+package com.entrata.quiz.event;
+
+import com.entrata.quiz.entity.Quiz;
+
+/**
+ * Published after a quiz and its questions have been saved.
+ */
+public record QuizSavedEvent(Quiz quiz) {
+}
@@ -0,0 +1,46 @@
+package com.entrata.quiz.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Map;
+
+/**
+ * Moves ids from identity columns to pooled sequences (50 ids per round trip). Each sequence
+ * starts past the ids already taken: ddl-auto: update created these sequences at 1 next to
+ * existing rows, so an updated database may hold sequences that would hand out used ids.
+ */
+@Slf4j
+public class V3__pooled_id_sequences extends BaseJavaMigration {
+    
+    static final int ALLOCATION_SIZE = 50;
+    
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "quizzes", "quiz_seq",
+            "questions", "question_seq",
+            "quiz_attempts", "quiz_attempt_seq",
+            "question_responses", "question_response_seq");
+    
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        SEQUENCES.forEach((table, sequence) -> {
+            jdbc.execute("create sequence if not exists " + sequence
+                    + " start with 1 increment by " + ALLOCATION_SIZE);
+            jdbc.execute("alter table " + table + " alter column id drop identity");
+            
+            long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            long next = jdbc.queryForObject("select base_value from information_schema.sequences "
+                    + "where sequence_name = ?", Long.class, sequence.toUpperCase());
+            // Hibernate's pooled optimizer hands out the block of ids ending at the value it reads
+            long restartAt = maxId + ALLOCATION_SIZE + 1;
+            if (next < restartAt) {
+                jdbc.execute("alter sequence " + sequence + " restart with " + restartAt);
+                log.info("Sequence {} restarted at {}, past the ids in {}", sequence, restartAt, table);
+            }
+        });
+    }
+}
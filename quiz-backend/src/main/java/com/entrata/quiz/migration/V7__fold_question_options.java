@@ -0,0 +1,70 @@
+package com.entrata.quiz.migration;
+
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.QuestionOptionsConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves options stored as question_options rows, one per option, into the questions.options
+ * column, then drops the table. Options keep the order of their ids, the order they were loaded
+ * in, so option indexes stored with packed attempts stay valid. Questions that already have the
+ * column set were saved after the move and are left alone.
+ */
+@Slf4j
+public class V7__fold_question_options extends BaseJavaMigration {
+    
+    static final int QUESTIONS_PER_BATCH = 500;
+    
+    private final QuestionOptionsConverter converter = new QuestionOptionsConverter();
+    
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        Integer tables = jdbc.queryForObject("select count(*) from information_schema.tables "
+                + "where table_name = 'QUESTION_OPTIONS'", Integer.class);
+        if (tables == null || tables == 0) {
+            return;
+        }
+        
+        List<Object[]> updates = new ArrayList<>();
+        List<QuestionOption> options = new ArrayList<>();
+        long[] questionId = {-1};
+        long[] folded = {0};
+        jdbc.query("select question_id, option_label, option_text from question_options order by question_id, id", row -> {
+            long id = row.getLong("question_id");
+            if (id != questionId[0] && !options.isEmpty()) {
+                updates.add(new Object[] {converter.convertToDatabaseColumn(options), questionId[0]});
+                options.clear();
+                if (updates.size() >= QUESTIONS_PER_BATCH) {
+                    folded[0] += write(jdbc, updates);
+                }
+            }
+            questionId[0] = id;
+            options.add(new QuestionOption(row.getString("option_label"), row.getString("option_text")));
+        });
+        if (!options.isEmpty()) {
+            updates.add(new Object[] {converter.convertToDatabaseColumn(options), questionId[0]});
+        }
+        folded[0] += write(jdbc, updates);
+        
+        jdbc.execute("drop table question_options");
+        jdbc.execute("drop sequence if exists question_option_seq");
+        log.info("Moved the options of {} questions into questions.options", folded[0]);
+    }
+    
+    private static int write(JdbcTemplate jdbc, List<Object[]> updates) {
+        int written = 0;
+        for (int count : jdbc.batchUpdate("update questions set options = ? where id = ? and options is null", updates)) {
+            written += Math.max(count, 0);
+        }
+        updates.clear();
+        return written;
+    }
+}
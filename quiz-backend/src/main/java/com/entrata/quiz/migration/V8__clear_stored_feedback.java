@@ -0,0 +1,42 @@
+package com.entrata.quiz.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Map;
+
+/**
+ * Clears the feedback text that earlier versions stored with each response; feedback is rendered
+ * from the question's explanation when a response is read. Updates go in id ranges so that no
+ * single statement rewrites the whole table.
+ */
+@Slf4j
+public class V8__clear_stored_feedback extends BaseJavaMigration {
+    
+    static final long IDS_PER_BATCH = 10_000;
+    
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        Map<String, Object> stats = jdbc.queryForMap("select min(id) as from_id, max(id) as to_id, "
+                + "coalesce(sum(length(feedback)), 0) as characters "
+                + "from question_responses where feedback is not null");
+        if (stats.get("from_id") == null) {
+            return;
+        }
+        long fromId = ((Number) stats.get("from_id")).longValue();
+        long toId = ((Number) stats.get("to_id")).longValue();
+        
+        long cleared = 0;
+        for (long start = fromId; start <= toId; start += IDS_PER_BATCH) {
+            cleared += jdbc.update("update question_responses set feedback = null "
+                    + "where feedback is not null and id between ? and ?",
+                    start, Math.min(toId, start + IDS_PER_BATCH - 1));
+        }
+        log.info("Cleared stored feedback from {} responses, {} characters of feedback text",
+                cleared, stats.get("characters"));
+    }
+}
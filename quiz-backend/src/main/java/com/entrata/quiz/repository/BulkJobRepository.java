@@ -0,0 +1,72 @@
+package com.entrata.quiz.repository;
+
+import com.entrata.quiz.dto.BulkGenerationJob;
+import com.entrata.quiz.entity.BulkJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, String> {
+    
+    /**
+     * Submitted jobs, and jobs taken for ingestion whose lease has expired.
+     */
+    @Query("select j.id from BulkJob j " +
+           "where j.status = :submitted or (j.status = :ingesting and j.lockedUntil < :now) " +
+           "order by j.submittedAt")
+    List<String> findPollable(@Param("submitted") BulkGenerationJob.Status submitted,
+                              @Param("ingesting") BulkGenerationJob.Status ingesting,
+                              @Param("now") LocalDateTime now);
+    
+    /**
+     * Take a finished batch for ingestion, or take over one whose lease has expired. Only one
+     * caller, in any process, sees an update count of 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("update BulkJob j set j.status = :ingesting, j.upstreamStatus = :upstreamStatus, " +
+           "j.lockedBy = :lockedBy, j.lockedUntil = :lockedUntil " +
+           "where j.id = :id and (j.status = :submitted or (j.status = :ingesting and j.lockedUntil < :now))")
+    int claimIngestion(@Param("id") String id,
+                       @Param("upstreamStatus") String upstreamStatus,
+                       @Param("lockedBy") String lockedBy,
+                       @Param("submitted") BulkGenerationJob.Status submitted,
+                       @Param("ingesting") BulkGenerationJob.Status ingesting,
+                       @Param("lockedUntil") LocalDateTime lockedUntil,
+                       @Param("now") LocalDateTime now);
+    
+    /**
+     * Record the topics saved so far and extend the lease, provided the claim {@code lockedBy} still holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update BulkJob j set j.resultsJson = :resultsJson, j.lockedUntil = :lockedUntil " +
+           "where j.id = :id and j.lockedBy = :lockedBy and j.status = :ingesting")
+    int updateProgress(@Param("id") String id,
+                       @Param("lockedBy") String lockedBy,
+                       @Param("resultsJson") String resultsJson,
+                       @Param("ingesting") BulkGenerationJob.Status ingesting,
+                       @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    /**
+     * Finish a claim with a terminal status, or hand the job back to the poller as SUBMITTED.
+     */
+    @Transactional
+    @Modifying
+    @Query("update BulkJob j set j.status = :status, j.resultsJson = :resultsJson, j.completedAt = :completedAt, " +
+           "j.lockedBy = null, j.lockedUntil = null " +
+           "where j.id = :id and j.lockedBy = :lockedBy and j.status = :ingesting")
+    int release(@Param("id") String id,
+                @Param("lockedBy") String lockedBy,
+                @Param("status") BulkGenerationJob.Status status,
+                @Param("resultsJson") String resultsJson,
+                @Param("completedAt") LocalDateTime completedAt,
+                @Param("ingesting") BulkGenerationJob.Status ingesting);
+}
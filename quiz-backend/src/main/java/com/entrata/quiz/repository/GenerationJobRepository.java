@@ -0,0 +1,92 @@
+package com.entrata.quiz.repository;
+
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.GenerationStage;
+import com.entrata.quiz.entity.GenerationJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, String> {
+    
+    long countByStageAndPriority(GenerationStage stage, GenerationPriority priority);
+    
+    long countByPoolKeyAndStageIn(String poolKey, Collection<GenerationStage> stages);
+    
+    /**
+     * Queued jobs that are due and running jobs whose lease has expired, interactive first.
+     */
+    @Query("select j from GenerationJob j " +
+           "where (j.stage = :queued and j.availableAt <= :now) " +
+           "   or (j.stage in :running and j.lockedUntil < :now) " +
+           "order by case when j.priority = :interactive then 0 else 1 end, j.availableAt")
+    List<GenerationJob> findClaimable(@Param("queued") GenerationStage queued,
+                                      @Param("running") Collection<GenerationStage> running,
+                                      @Param("interactive") GenerationPriority interactive,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+    
+    /**
+     * Claim a job seen by {@link #findClaimable}. The conditional update locks the row, so when
+     * several workers race for the same job exactly one of them sees an update count of 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("update GenerationJob j set j.stage = :claimedStage, j.lockedBy = :workerId, " +
+           "j.lockedUntil = :lockedUntil, j.attempts = j.attempts + 1, j.updatedAt = :now " +
+           "where j.id = :id and j.attempts = :attempts " +
+           "and ((j.stage = :queued and j.availableAt <= :now) or (j.stage in :running and j.lockedUntil < :now))")
+    int claim(@Param("id") String id,
+              @Param("attempts") int attempts,
+              @Param("workerId") String workerId,
+              @Param("claimedStage") GenerationStage claimedStage,
+              @Param("queued") GenerationStage queued,
+              @Param("running") Collection<GenerationStage> running,
+              @Param("lockedUntil") LocalDateTime lockedUntil,
+              @Param("now") LocalDateTime now);
+    
+    /**
+     * Record progress and extend the lease, provided the claim identified by {@code attempt} still holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update GenerationJob j set j.stage = :stage, j.lockedUntil = :lockedUntil, j.updatedAt = :now " +
+           "where j.id = :id and j.attempts = :attempt and j.stage in :running")
+    int updateProgress(@Param("id") String id,
+                       @Param("attempt") int attempt,
+                       @Param("stage") GenerationStage stage,
+                       @Param("running") Collection<GenerationStage> running,
+                       @Param("lockedUntil") LocalDateTime lockedUntil,
+                       @Param("now") LocalDateTime now);
+    
+    /**
+     * Finish a claim with a terminal stage, or return the job to the queue for a retry.
+     */
+    @Transactional
+    @Modifying
+    @Query("update GenerationJob j set j.stage = :stage, j.quizId = :quizId, j.error = :error, " +
+           "j.availableAt = :availableAt, j.lockedBy = null, j.lockedUntil = null, j.updatedAt = :now " +
+           "where j.id = :id and j.attempts = :attempt and j.stage in :running")
+    int release(@Param("id") String id,
+                @Param("attempt") int attempt,
+                @Param("stage") GenerationStage stage,
+                @Param("quizId") Long quizId,
+                @Param("error") String error,
+                @Param("running") Collection<GenerationStage> running,
+                @Param("availableAt") LocalDateTime availableAt,
+                @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("delete from GenerationJob j where j.stage in :stages and j.updatedAt < :cutoff")
+    int deleteFinishedBefore(@Param("stages") Collection<GenerationStage> stages, @Param("cutoff") LocalDateTime cutoff);
+}
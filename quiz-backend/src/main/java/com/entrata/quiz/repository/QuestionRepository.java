@@ -0,0 +1,52 @@
+package com.entrata.quiz.repository;
+
+import com.entrata.quiz.dto.BankQuestion;
+import com.entrata.quiz.entity.Question;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuestionRepository extends JpaRepository<Question, Long> {
+    
+    /**
+     * Read explanations straight from the database, bypassing entities already loaded in the
+     * current persistence context (they may predate a background explanation update).
+     */
+    @Query("select q.id, q.explanation from Question q where q.quiz.id = :quizId")
+    List<Object[]> findExplanationsByQuizId(@Param("quizId") Long quizId);
+    
+    // Everything the question bank indexes, selected directly in SQL without loading entities
+    String BANK_SELECT = "select new com.entrata.quiz.dto.BankQuestion(q.id, z.id, z.topic, q.questionText, "
+            + "q.options, q.correctAnswer, q.explanation) from Question q join q.quiz z ";
+    
+    @Query(BANK_SELECT)
+    List<BankQuestion> findBankQuestions();
+    
+    @Query(BANK_SELECT + "where z.createdAt >= :since")
+    List<BankQuestion> findBankQuestionsCreatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("select q.id, q.explanation from Question q where q.id in :ids and q.explanation is not null")
+    List<Object[]> findExplanationsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * (quiz id, question text) of every question, for building the search index.
+     */
+    @Query("select q.quiz.id, q.questionText from Question q")
+    List<Object[]> findQuestionTexts();
+    
+    @Query("select q.quiz.id, q.questionText from Question q where q.quiz.id in :quizIds")
+    List<Object[]> findQuestionTextsByQuizIdIn(@Param("quizIds") Collection<Long> quizIds);
+    
+    @Transactional
+    @Modifying
+    @Query("update Question q set q.explanation = :explanation where q.id = :id")
+    int updateExplanation(@Param("id") Long id, @Param("explanation") String explanation);
+}
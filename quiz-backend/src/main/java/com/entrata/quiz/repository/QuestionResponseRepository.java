@@ -0,0 +1,21 @@
+package com.entrata.quiz.repository;
+
+import com.entrata.quiz.entity.QuestionResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuestionResponseRepository extends JpaRepository<QuestionResponse, Long> {
+    
+    /**
+     * The responses of several attempts with their questions, in one query.
+     */
+    @Query("select r from QuestionResponse r join fetch r.question "
+            + "where r.quizAttempt.id in :attemptIds order by r.id")
+    List<QuestionResponse> findWithQuestionByAttemptIdIn(@Param("attemptIds") Collection<Long> attemptIds);
+}
@@ -1,15 +1,54 @@
 package com.entrata.quiz.repository;
 
+import com.entrata.quiz.dto.AttemptSummary;
 import com.entrata.quiz.entity.QuizAttempt;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
     
+    String SUMMARY_SELECT = "select new com.entrata.quiz.dto.AttemptSummary(a.id, q.id, q.title, a.userName, "
+            + "a.score, a.totalQuestions, a.submittedAt, a.packedResponses) from QuizAttempt a join a.quiz q ";
+    String NEWEST_FIRST = "order by a.submittedAt desc, a.id desc";
+    String AFTER_CURSOR = "and (a.submittedAt < :submittedAt or (a.submittedAt = :submittedAt and a.id < :id)) ";
+    
     List<QuizAttempt> findByQuizIdOrderBySubmittedAtDesc(Long quizId);
     
     List<QuizAttempt> findByUserNameOrderBySubmittedAtDesc(String userName);
+    
+    /**
+     * A user's attempts newest first, served by the (user_name, submitted_at) index.
+     */
+    @Query(SUMMARY_SELECT + "where a.userName = :userName " + NEWEST_FIRST)
+    Slice<AttemptSummary> findSummariesByUserName(@Param("userName") String userName, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "where a.userName = :userName " + AFTER_CURSOR + NEWEST_FIRST)
+    Slice<AttemptSummary> findSummariesByUserNameAfter(@Param("userName") String userName,
+                                                       @Param("submittedAt") LocalDateTime submittedAt,
+                                                       @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * A quiz's attempts newest first, served by the (quiz_id, submitted_at) index.
+     */
+    @Query(SUMMARY_SELECT + "where q.id = :quizId " + NEWEST_FIRST)
+    Slice<AttemptSummary> findSummariesByQuizId(@Param("quizId") Long quizId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "where q.id = :quizId " + AFTER_CURSOR + NEWEST_FIRST)
+    Slice<AttemptSummary> findSummariesByQuizIdAfter(@Param("quizId") Long quizId,
+                                                     @Param("submittedAt") LocalDateTime submittedAt,
+                                                     @Param("id") Long id, Pageable pageable);
+    
+    @Query("select a.submissionId from QuizAttempt a where a.submissionId in :submissionIds")
+    Set<UUID> findSubmissionIdsIn(@Param("submissionIds") Collection<UUID> submissionIds);
 }
@@ -1,15 +1,109 @@
 package com.entrata.quiz.repository;
 
+import com.entrata.quiz.dto.QuizSummary;
 import com.entrata.quiz.entity.Quiz;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
     
-    List<Quiz> findByTopicContainingIgnoreCase(String topic);
+    // Listings are ordered by (createdAt, id) descending; quizzes still waiting in the
+    // pre-generation pool are not listed until served. Offset pages are read far more often than
+    // quizzes change, so their results are query-cached until the quizzes table is next written
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select q from Quiz q where q.poolKey is null order by q.createdAt desc, q.id desc")
+    Slice<Quiz> findListed(Pageable pageable);
     
-    List<Quiz> findAllByOrderByCreatedAtDesc();
+    @Query("select q from Quiz q where q.poolKey is null "
+            + "and (q.createdAt < :createdAt or (q.createdAt = :createdAt and q.id < :id)) "
+            + "order by q.createdAt desc, q.id desc")
+    Slice<Quiz> findListedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // Summary views of the same listings; the question count is computed in SQL
+    String SUMMARY_SELECT = "select new com.entrata.quiz.dto.QuizSummary(q.id, q.topic, q.title, q.createdAt, size(q.questions)) ";
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT + "from Quiz q where q.poolKey is null order by q.createdAt desc, q.id desc")
+    Slice<QuizSummary> findListedSummaries(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "from Quiz q where q.poolKey is null "
+            + "and (q.createdAt < :createdAt or (q.createdAt = :createdAt and q.id < :id)) "
+            + "order by q.createdAt desc, q.id desc")
+    Slice<QuizSummary> findListedSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "from Quiz q where q.id in :ids")
+    List<QuizSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("select q.id as id, q.topic as topic, q.title as title, q.poolKey as poolKey from Quiz q")
+    List<SearchEntry> findSearchEntries();
+    
+    @Query("select q.id as id, q.topic as topic, q.title as title, q.poolKey as poolKey from Quiz q "
+            + "where q.createdAt >= :since")
+    List<SearchEntry> findSearchEntriesCreatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("select q.id as id, q.topic as topic, size(q.questions) as questionCount from Quiz q "
+            + "where q.poolKey is null order by q.createdAt desc")
+    List<TopicEntry> findRecentTopics(Pageable pageable);
+    
+    @Query("select q.id as id, q.topic as topic, size(q.questions) as questionCount from Quiz q "
+            + "where q.poolKey is null and q.createdAt >= :since order by q.createdAt")
+    List<TopicEntry> findTopicsCreatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("select q.id from Quiz q where q.poolKey = :poolKey order by q.createdAt")
+    List<Long> findPooledIds(@Param("poolKey") String poolKey, Pageable pageable);
+    
+    long countByPoolKey(String poolKey);
+    
+    /**
+     * Take a pooled quiz out of the pool. Only one caller sees an update count of 1 for a given quiz.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Quiz q set q.poolKey = null, q.createdAt = :now, q.updatedAt = :now where q.id = :id and q.poolKey = :poolKey")
+    int claimPooled(@Param("id") Long id, @Param("poolKey") String poolKey, @Param("now") LocalDateTime now);
+    
+    /**
+     * Add the tokens of a later call (deferred explanations) to a quiz's recorded usage.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Quiz q set q.tokenUsage.model = coalesce(q.tokenUsage.model, :model), "
+            + "q.tokenUsage.promptTokens = coalesce(q.tokenUsage.promptTokens, 0) + :promptTokens, "
+            + "q.tokenUsage.completionTokens = coalesce(q.tokenUsage.completionTokens, 0) + :completionTokens, "
+            + "q.tokenUsage.cachedTokens = coalesce(q.tokenUsage.cachedTokens, 0) + :cachedTokens where q.id = :id")
+    int addTokenUsage(@Param("id") Long id, @Param("model") String model, @Param("promptTokens") long promptTokens,
+                      @Param("completionTokens") long completionTokens, @Param("cachedTokens") long cachedTokens);
+    
+    interface TopicEntry {
+        Long getId();
+        
+        String getTopic();
+        
+        Integer getQuestionCount();
+    }
+    
+    interface SearchEntry {
+        Long getId();
+        
+        String getTopic();
+        
+        String getTitle();
+        
+        String getPoolKey();
+    }
 }
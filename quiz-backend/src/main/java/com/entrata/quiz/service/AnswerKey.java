@@ -0,0 +1,145 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable scoring data for one quiz, compiled from its entities once: questions sorted by ID,
+ * the index of each question's correct option, and the texts feedback is written from. Scoring
+ * a submission against it is a binary search and an integer comparison per answer.
+ */
+public final class AnswerKey {
+    
+    private final long quizId;
+    private final String quizTitle;
+    private final long[] questionIds;
+    private final int[] correctOptions;
+    private final int[] questionNumbers;
+    private final String[] questionTexts;
+    private final String[] correctAnswers;
+    private final String[] explanations;
+    private final String[][] optionTexts;
+    
+    private AnswerKey(Quiz quiz, List<Question> questions, Map<Long, String> pendingExplanations) {
+        int size = questions.size();
+        quizId = quiz.getId();
+        quizTitle = quiz.getTitle();
+        questionIds = new long[size];
+        correctOptions = new int[size];
+        questionNumbers = new int[size];
+        questionTexts = new String[size];
+        correctAnswers = new String[size];
+        explanations = new String[size];
+        optionTexts = new String[size][];
+        
+        for (int i = 0; i < size; i++) {
+            Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            questionNumbers[i] = question.getQuestionNumber() != null ? question.getQuestionNumber() : i + 1;
+            questionTexts[i] = question.getQuestionText();
+            correctAnswers[i] = question.getCorrectAnswer();
+            explanations[i] = question.getExplanation() != null
+                    ? question.getExplanation() : pendingExplanations.get(question.getId());
+            optionTexts[i] = question.getOptions().stream().map(QuestionOption::getOptionText).toArray(String[]::new);
+            // The correct answer is stored as option text
+            correctOptions[i] = Arrays.asList(optionTexts[i]).indexOf(question.getCorrectAnswer());
+        }
+    }
+    
+    /**
+     * Compile the key of a quiz with its questions and options loaded.
+     *
+     * @param pendingExplanations explanations not yet stored on the questions (deferred generation)
+     */
+    public static AnswerKey compile(Quiz quiz, Map<Long, String> pendingExplanations) {
+        List<Question> questions = quiz.getQuestions().stream()
+                .sorted(Comparator.comparing(Question::getId))
+                .toList();
+        return new AnswerKey(quiz, questions, pendingExplanations);
+    }
+    
+    public long quizId() {
+        return quizId;
+    }
+    
+    public String quizTitle() {
+        return quizTitle;
+    }
+    
+    public int size() {
+        return questionIds.length;
+    }
+    
+    /**
+     * Position of a question in this key, or -1 if it does not belong to the quiz.
+     */
+    public int indexOf(long questionId) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index >= 0 ? index : -1;
+    }
+    
+    /**
+     * The option an answer selects: answers are option indexes, or for older clients the option
+     * text itself. Returns -1 for text matching no option.
+     *
+     * @throws RuntimeException for an index outside the question's options
+     */
+    public int optionOf(int index, String selectedAnswer) {
+        String[] options = optionTexts[index];
+        try {
+            int option = Integer.parseInt(selectedAnswer);
+            if (option < 0 || option >= options.length) {
+                throw new RuntimeException("Invalid option index: " + option);
+            }
+            return option;
+        } catch (NumberFormatException e) {
+            return Arrays.asList(options).indexOf(selectedAnswer);
+        }
+    }
+    
+    public boolean isCorrect(int index, int option) {
+        return option >= 0 && option == correctOptions[index];
+    }
+    
+    /**
+     * Whether every question has its explanation, i.e. the key will not change anymore.
+     */
+    public boolean isComplete() {
+        for (String explanation : explanations) {
+            if (explanation == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long questionId(int index) {
+        return questionIds[index];
+    }
+    
+    public int questionNumber(int index) {
+        return questionNumbers[index];
+    }
+    
+    public String questionText(int index) {
+        return questionTexts[index];
+    }
+    
+    public String correctAnswer(int index) {
+        return correctAnswers[index];
+    }
+    
+    public String explanation(int index) {
+        return explanations[index];
+    }
+    
+    public String optionText(int index, int option) {
+        return optionTexts[index][option];
+    }
+}
@@ -0,0 +1,122 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuizRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compiled {@link AnswerKey}s by quiz ID, so that submissions, which arrive in bursts when an
+ * exam ends, are scored without loading the quiz graph. Only complete keys are kept: while a
+ * quiz still waits for deferred explanations, each submission compiles its own.
+ */
+@Service
+@Slf4j
+public class AnswerKeyCache implements MeterBinder {
+    
+    static final int MAX_KEYS = 10_000;
+    
+    private final QuizRepository quizRepository;
+    private final ExplanationService explanationService;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    private final Cache<Long, AnswerKey> keys = Caffeine.newBuilder()
+            .maximumSize(MAX_KEYS)
+            .recordStats()
+            .build();
+    
+    public AnswerKeyCache(QuizRepository quizRepository,
+                          ExplanationService explanationService,
+                          PlatformTransactionManager transactionManager) {
+        this.quizRepository = quizRepository;
+        this.explanationService = explanationService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * The answer key of a quiz, loading and compiling it on first use.
+     */
+    public AnswerKey get(Long quizId) {
+        return find(quizId).orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + quizId));
+    }
+    
+    /**
+     * Like {@link #get}, but empty when the quiz does not exist. The quiz is loaded in a short
+     * transaction of its own. Deferred explanations still being generated are waited for after it
+     * ends, and only when the caller has no transaction open either, so that a waiting submission
+     * holds no connection; within a transaction the key is compiled from what is stored.
+     */
+    public Optional<AnswerKey> find(Long quizId) {
+        AnswerKey key = keys.getIfPresent(quizId);
+        if (key != null) {
+            return Optional.of(key);
+        }
+        
+        boolean mayWait = !TransactionSynchronizationManager.isActualTransactionActive();
+        Loaded loaded = readOnlyTransaction.execute(status -> quizRepository.findById(quizId)
+                .map(quiz -> {
+                    // Compiling loads the questions and options, so the quiz can be compiled again once detached
+                    AnswerKey compiled = AnswerKey.compile(quiz, Map.of());
+                    return new Loaded(quiz, compiled,
+                            compiled.isComplete() ? null : explanationService.explanationsFor(quiz));
+                })
+                .orElse(null));
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        
+        key = loaded.key();
+        if (loaded.explanations() != null && mayWait) {
+            key = AnswerKey.compile(loaded.quiz(), explanationService.awaitExplanations(quizId, loaded.explanations()));
+        }
+        
+        if (key.isComplete()) {
+            keys.put(quizId, key);
+            log.debug("Compiled answer key for quiz {} with {} questions", quizId, key.size());
+        }
+        return Optional.of(key);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizSaved(QuizSavedEvent event) {
+        if (event.quiz().getId() != null) {
+            keys.invalidate(event.quiz().getId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizDeleted(QuizDeletedEvent event) {
+        keys.invalidate(event.quizId());
+    }
+    
+    public long size() {
+        return keys.estimatedSize();
+    }
+    
+    /**
+     * Hits, misses and evictions as cache.* meters tagged cache=answer-keys.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, keys, "answer-keys");
+    }
+    
+    private record Loaded(Quiz quiz, AnswerKey key, CompletableFuture<Map<Long, String>> explanations) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.entrata.quiz.service;
+
+/**
+ * Upstream that accepts a JSONL file of chat completion requests and processes it
+ * asynchronously, following the OpenAI Batch API protocol (files + batches).
+ */
+public interface BatchCompletionClient {
+    
+    /**
+     * Upload a JSONL request file and return its file id.
+     */
+    String uploadRequestFile(String fileName, byte[] jsonl);
+    
+    /**
+     * Create a batch over an uploaded request file.
+     */
+    BatchStatus createBatch(String inputFileId);
+    
+    BatchStatus getBatch(String batchId);
+    
+    /**
+     * Download the content of an output or error file.
+     */
+    String downloadFile(String fileId);
+    
+    record BatchStatus(String id, String status, String outputFileId, String errorFileId) {
+        
+        public boolean isCompleted() {
+            return "completed".equals(status);
+        }
+        
+        /**
+         * Completed, or ended in a state where no further output will appear.
+         */
+        public boolean isTerminal() {
+            return isCompleted() || "failed".equals(status) || "expired".equals(status) || "cancelled".equals(status);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.BatchQuizGenerationRequest;
+import com.entrata.quiz.dto.BatchTopicResult;
+import com.entrata.quiz.entity.Quiz;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates quizzes for many topics in one request. Topics run concurrently up to
+ * {@code generation.batch.max-parallelism}, topics with the same normalized key share one
+ * retrieval, and finished quizzes are inserted in groups rather than one transaction each.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchGenerationService {
+    
+    private final OpenAiService openAiService;
+    private final QuizService quizService;
+    private final GenerationConfig generationConfig;
+    
+    /**
+     * Per-topic results, emitted as each topic's quiz is saved (or fails).
+     */
+    public Flux<BatchTopicResult> generateBatch(BatchQuizGenerationRequest request) {
+        GenerationConfig.Batch batch = generationConfig.getBatch();
+        Map<String, CompletableFuture<RetrievalService.RetrievalContext>> sharedContexts = new ConcurrentHashMap<>();
+        // Generation runs on other threads; capture the requesting user for usage accounting here
+        String requestedBy = TokenUsageService.currentUser();
+        
+        log.info("Starting batch generation for {} topics (parallelism {})",
+                request.getTopics().size(), batch.getMaxParallelism());
+        
+        return Flux.fromIterable(request.getTopics())
+                .flatMap(topic -> Mono.fromCallable(() -> generateTopic(request, topic, requestedBy, sharedContexts))
+                        .subscribeOn(Schedulers.boundedElastic()), Math.max(1, batch.getMaxParallelism()))
+                .bufferTimeout(Math.max(1, batch.getPersistBatchSize()), Duration.ofMillis(batch.getPersistFlushMillis()))
+                .concatMap(outcomes -> Mono.fromCallable(() -> persist(outcomes))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(results -> results);
+    }
+    
+    private TopicOutcome generateTopic(BatchQuizGenerationRequest request, String topic, String requestedBy,
+                                       Map<String, CompletableFuture<RetrievalService.RetrievalContext>> sharedContexts) {
+        long start = System.currentTimeMillis();
+        try {
+            Quiz quiz = openAiService.generateQuiz(request.toGenerationRequest(topic),
+                    t -> sharedContext(t, sharedContexts));
+            quiz.setCreatedBy(requestedBy);
+            return new TopicOutcome(topic, quiz, null, start);
+        } catch (Exception e) {
+            log.error("Batch generation failed for topic: {}", topic, e);
+            return new TopicOutcome(topic, null, e.getMessage(), start);
+        }
+    }
+    
+    /**
+     * The first topic with a given normalized key performs the retrieval; related topics in the
+     * same batch wait for and reuse its result.
+     */
+    private RetrievalService.RetrievalContext sharedContext(
+            String topic, Map<String, CompletableFuture<RetrievalService.RetrievalContext>> sharedContexts) {
+        CompletableFuture<RetrievalService.RetrievalContext> mine = new CompletableFuture<>();
+        CompletableFuture<RetrievalService.RetrievalContext> existing =
+                sharedContexts.putIfAbsent(TopicNormalizer.key(topic), mine);
+        
+        if (existing != null) {
+            log.info("Reusing retrieval results for related topic: {}", topic);
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+        
+        try {
+            RetrievalService.RetrievalContext context = openAiService.retrieveContext(topic);
+            mine.complete(context);
+            return context;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private List<BatchTopicResult> persist(List<TopicOutcome> outcomes) {
+        List<Quiz> generated = outcomes.stream()
+                .filter(outcome -> outcome.quiz() != null)
+                .map(TopicOutcome::quiz)
+                .toList();
+        
+        String persistError = null;
+        if (!generated.isEmpty()) {
+            try {
+                quizService.saveGeneratedQuizzes(generated);
+            } catch (Exception e) {
+                log.error("Failed to save batch of {} quizzes", generated.size(), e);
+                persistError = "Failed to save quiz: " + e.getMessage();
+            }
+        }
+        
+        List<BatchTopicResult> results = new ArrayList<>();
+        for (TopicOutcome outcome : outcomes) {
+            BatchTopicResult.BatchTopicResultBuilder result = BatchTopicResult.builder()
+                    .topic(outcome.topic())
+                    .durationMs(System.currentTimeMillis() - outcome.startedAt());
+            
+            if (outcome.quiz() == null || persistError != null) {
+                result.status(BatchTopicResult.Status.FAILED)
+                        .error(outcome.error() != null ? outcome.error() : persistError);
+            } else {
+                result.status(BatchTopicResult.Status.SAVED)
+                        .quizId(outcome.quiz().getId())
+                        .title(outcome.quiz().getTitle())
+                        .questionCount(outcome.quiz().getQuestions().size());
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+    
+    private record TopicOutcome(String topic, Quiz quiz, String error, long startedAt) {
+    }
+}
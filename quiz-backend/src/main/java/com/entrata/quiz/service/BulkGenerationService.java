@@ -0,0 +1,483 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.BatchQuizGenerationRequest;
+import com.entrata.quiz.dto.BatchTopicResult;
+import com.entrata.quiz.dto.BulkGenerationJob;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.BulkJob;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.BulkJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Offline generation for large, latency-insensitive workloads such as nightly pre-generation.
+ * Requests are written to a JSONL file, one line per slice of a quiz, and submitted through a
+ * {@link BatchCompletionClient}; finished batches are picked up by polling, parsed and saved in groups. Jobs are stored in
+ * {@code bulk_jobs}, so batches submitted before a restart, or by another process, are still
+ * polled and ingested. Each group of quizzes is saved in the same transaction that records it on
+ * the job, so ingestion that is interrupted and taken over later does not save a topic twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkGenerationService {
+    
+    private static final String COMPLETIONS_URL = "/v1/chat/completions";
+    private static final String CUSTOM_ID_PREFIX = "topic-";
+    
+    private final OpenAiService openAiService;
+    private final QuizService quizService;
+    private final BatchCompletionClient batchClient;
+    private final BulkJobRepository bulkJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final GenerationConfig generationConfig;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Write one completion request per topic, upload the file and create the batch.
+     */
+    public BulkGenerationJob submit(BatchQuizGenerationRequest request) {
+        String jobId = UUID.randomUUID().toString();
+        List<QuizGenerationRequest> requests = request.getTopics().stream()
+                .map(request::toGenerationRequest)
+                .toList();
+        
+        byte[] jsonl = buildRequestFile(requests);
+        String fileName = jobId + "-requests.jsonl";
+        writeWorkFile(fileName, jsonl);
+        
+        String inputFileId = batchClient.uploadRequestFile(fileName, jsonl);
+        BatchCompletionClient.BatchStatus batch = batchClient.createBatch(inputFileId);
+        
+        BulkJob job = bulkJobRepository.save(BulkJob.builder()
+                .id(jobId)
+                .batchId(batch.id())
+                .status(BulkGenerationJob.Status.SUBMITTED)
+                .upstreamStatus(batch.status())
+                .requestsJson(toJson(requests))
+                .requestedBy(TokenUsageService.currentUser())
+                .submittedAt(LocalDateTime.now())
+                .build());
+        
+        log.info("Submitted bulk generation job {} as batch {} with {} topics", jobId, batch.id(), requests.size());
+        return toResponse(job, requests);
+    }
+    
+    @Scheduled(fixedDelayString = "${generation.bulk.poll-interval-millis:300000}")
+    public void pollPendingJobs() {
+        bulkJobRepository.findPollable(BulkGenerationJob.Status.SUBMITTED, BulkGenerationJob.Status.INGESTING,
+                LocalDateTime.now()).forEach(jobId -> {
+            try {
+                poll(jobId);
+            } catch (Exception e) {
+                log.warn("Polling bulk generation job {} failed, will retry: {}", jobId, e.getMessage());
+            }
+        });
+    }
+    
+    @Scheduled(cron = "${generation.bulk.nightly-cron:-}")
+    public void submitNightly() {
+        GenerationConfig.Bulk bulk = generationConfig.getBulk();
+        if (bulk.getNightlyTopics().isEmpty()) {
+            log.info("No nightly bulk topics configured, skipping");
+            return;
+        }
+        
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(bulk.getNightlyTopics());
+        request.setQuestionCount(bulk.getNightlyQuestionCount());
+        submit(request);
+    }
+    
+    /**
+     * Check the batch behind a job and ingest its results once it has finished. A job whose
+     * ingestion lease has expired is taken over, skipping the topics already saved.
+     *
+     * @throws ResponseStatusException with 404 if there is no such job
+     */
+    public BulkGenerationJob poll(String jobId) {
+        BulkJob job = bulkJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Bulk generation job not found with ID: " + jobId));
+        List<QuizGenerationRequest> requests = readRequests(job);
+        LocalDateTime now = LocalDateTime.now();
+        boolean leaseExpired = job.getStatus() == BulkGenerationJob.Status.INGESTING
+                && job.getLockedUntil() != null && job.getLockedUntil().isBefore(now);
+        if (job.getStatus() != BulkGenerationJob.Status.SUBMITTED && !leaseExpired) {
+            return toResponse(job, requests);
+        }
+        
+        BatchCompletionClient.BatchStatus batch = batchClient.getBatch(job.getBatchId());
+        job.setUpstreamStatus(batch.status());
+        if (!batch.isTerminal()) {
+            log.debug("Bulk job {} still {}", jobId, batch.status());
+            return toResponse(job, requests);
+        }
+        String claim = UUID.randomUUID().toString();
+        if (bulkJobRepository.claimIngestion(jobId, batch.status(), claim, BulkGenerationJob.Status.SUBMITTED,
+                BulkGenerationJob.Status.INGESTING, leaseFrom(now), now) == 0) {
+            // Another caller got there first and is saving the results
+            job.setStatus(BulkGenerationJob.Status.INGESTING);
+            return toResponse(job, requests);
+        }
+        if (leaseExpired) {
+            log.warn("Taking over bulk generation job {}, whose ingestion lease expired at {}", jobId, job.getLockedUntil());
+        }
+        
+        // Topics saved under an earlier claim are kept as they are
+        BatchTopicResult[] results = savedResults(job, requests.size());
+        List<BatchTopicResult> ordered;
+        try {
+            ordered = ingest(jobId, claim, job.getRequestedBy(), requests, batch, results);
+        } catch (RuntimeException e) {
+            // Hand the job back to the poller; the groups saved so far are recorded and not saved again
+            bulkJobRepository.release(jobId, claim, BulkGenerationJob.Status.SUBMITTED, toJson(Arrays.asList(results)),
+                    null, BulkGenerationJob.Status.INGESTING);
+            throw e;
+        }
+        
+        job.setResultsJson(toJson(ordered));
+        job.setCompletedAt(LocalDateTime.now());
+        job.setStatus(batch.isCompleted() ? BulkGenerationJob.Status.COMPLETED : BulkGenerationJob.Status.FAILED);
+        if (bulkJobRepository.release(jobId, claim, job.getStatus(), job.getResultsJson(), job.getCompletedAt(),
+                BulkGenerationJob.Status.INGESTING) == 0) {
+            throw new RuntimeException("Bulk generation job " + jobId + " was taken over before it finished");
+        }
+        
+        log.info("Bulk generation job {} finished with batch status {}", jobId, batch.status());
+        return toResponse(job, requests);
+    }
+    
+    /**
+     * The recorded results of a job that were saved; the other topics are ingested again.
+     */
+    private BatchTopicResult[] savedResults(BulkJob job, int size) {
+        BatchTopicResult[] results = new BatchTopicResult[size];
+        List<BatchTopicResult> recorded = readResults(job);
+        for (int i = 0; i < Math.min(size, recorded.size()); i++) {
+            BatchTopicResult result = recorded.get(i);
+            if (result != null && result.getStatus() == BatchTopicResult.Status.SAVED) {
+                results[i] = result;
+            }
+        }
+        return results;
+    }
+    
+    private LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plusSeconds(generationConfig.getBulk().getIngestLeaseSeconds());
+    }
+    
+    private BulkGenerationJob toResponse(BulkJob job, List<QuizGenerationRequest> requests) {
+        // While a job is being ingested its results only hold the topics saved so far
+        List<BatchTopicResult> results = readResults(job).stream().filter(Objects::nonNull).toList();
+        return BulkGenerationJob.builder()
+                .id(job.getId())
+                .batchId(job.getBatchId())
+                .status(job.getStatus())
+                .upstreamStatus(job.getUpstreamStatus())
+                .topics(requests.stream().map(QuizGenerationRequest::getTopic).toList())
+                .results(results)
+                .submittedAt(job.getSubmittedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+    
+    private List<BatchTopicResult> readResults(BulkJob job) {
+        if (job.getResultsJson() == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(job.getResultsJson(), new TypeReference<List<BatchTopicResult>>() {});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable results of bulk job " + job.getId() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private List<QuizGenerationRequest> readRequests(BulkJob job) {
+        try {
+            return objectMapper.readValue(job.getRequestsJson(), new TypeReference<List<QuizGenerationRequest>>() {});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable requests of bulk job " + job.getId() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize bulk job: " + e.getMessage(), e);
+        }
+    }
+    
+    private byte[] buildRequestFile(List<QuizGenerationRequest> requests) {
+        // Related topics in one file share a single retrieval, as in batch generation
+        Map<String, RetrievalService.RetrievalContext> contexts = new HashMap<>();
+        StringBuilder jsonl = new StringBuilder();
+        
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                QuizGenerationRequest request = requests.get(i);
+                String key = TopicNormalizer.key(request.getTopic());
+                if (!contexts.containsKey(key)) {
+                    contexts.put(key, openAiService.retrieveContext(request.getTopic()));
+                }
+                
+                // Large quizzes are split as interactive generation splits them, one line per slice
+                List<String> bodies = openAiService.buildCompletionRequests(request, contexts.get(key));
+                for (int slice = 0; slice < bodies.size(); slice++) {
+                    ObjectNode line = objectMapper.createObjectNode();
+                    line.put("custom_id", CUSTOM_ID_PREFIX + i + "-" + slice);
+                    line.put("method", "POST");
+                    line.put("url", COMPLETIONS_URL);
+                    line.set("body", objectMapper.readTree(bodies.get(slice)));
+                    jsonl.append(objectMapper.writeValueAsString(line)).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build bulk request file: " + e.getMessage(), e);
+        }
+        
+        return jsonl.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Parse the batch's results into the topics not yet saved and save them. {@code results} holds
+     * the topics saved under an earlier claim and is kept up to date with what has been recorded.
+     * The quizzes are attributed to {@code requestedBy}, who submitted the job.
+     */
+    private List<BatchTopicResult> ingest(String jobId, String claim, String requestedBy,
+                                          List<QuizGenerationRequest> requests,
+                                          BatchCompletionClient.BatchStatus batch, BatchTopicResult[] results) {
+        boolean[] saved = new boolean[results.length];
+        for (int i = 0; i < results.length; i++) {
+            saved[i] = results[i] != null;
+        }
+        Quiz[] quizzes = new Quiz[requests.size()];
+        List<Map<Integer, String>> completions = new ArrayList<>();
+        requests.forEach(request -> completions.add(new TreeMap<>()));
+        
+        if (batch.outputFileId() != null) {
+            String output = batchClient.downloadFile(batch.outputFileId());
+            writeWorkFile(jobId + "-results.jsonl", output.getBytes(StandardCharsets.UTF_8));
+            
+            for (String line : output.split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode result = readLine(line);
+                int[] position = positionOf(result.path("custom_id").asText(""), requests.size());
+                if (position == null) {
+                    continue;
+                }
+                
+                int index = position[0];
+                if (saved[index]) {
+                    continue;
+                }
+                JsonNode response = result.path("response");
+                if (response.path("status_code").asInt() != 200) {
+                    // One failed slice fails the whole topic
+                    results[index] = failed(requests.get(index), errorMessage(result));
+                    continue;
+                }
+                try {
+                    completions.get(index).put(position[1], objectMapper.writeValueAsString(response.path("body")));
+                } catch (IOException e) {
+                    results[index] = failed(requests.get(index), "Unreadable completion: " + e.getMessage());
+                }
+            }
+        }
+        
+        if (batch.errorFileId() != null) {
+            for (String line : batchClient.downloadFile(batch.errorFileId()).split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode result = readLine(line);
+                int[] position = positionOf(result.path("custom_id").asText(""), requests.size());
+                if (position != null && results[position[0]] == null) {
+                    results[position[0]] = failed(requests.get(position[0]), errorMessage(result));
+                }
+            }
+        }
+        
+        for (int index = 0; index < requests.size(); index++) {
+            if (results[index] == null && !completions.get(index).isEmpty()) {
+                parse(requests.get(index), completions.get(index), index, quizzes, results);
+            }
+            if (quizzes[index] != null) {
+                quizzes[index].setCreatedBy(requestedBy);
+            }
+        }
+        
+        persist(jobId, claim, requests, quizzes, results);
+        
+        List<BatchTopicResult> ordered = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            ordered.add(results[i] != null ? results[i]
+                    : failed(requests.get(i), "No result returned (batch " + batch.status() + ")"));
+        }
+        return ordered;
+    }
+    
+    /**
+     * Merge the slices returned for a topic into a quiz. A quiz with fewer questions than requested,
+     * e.g. because a completion was cut off, is failed rather than saved.
+     */
+    private void parse(QuizGenerationRequest request, Map<Integer, String> slices, int index,
+                       Quiz[] quizzes, BatchTopicResult[] results) {
+        try {
+            Quiz quiz = openAiService.parseCompletions(slices, request);
+            int requested = openAiService.resolveQuestionCount(request);
+            if (quiz.getQuestions().isEmpty()) {
+                results[index] = failed(request, "No questions could be parsed from the completion");
+            } else if (quiz.getQuestions().size() < requested) {
+                results[index] = failed(request, "Only " + quiz.getQuestions().size() + " of " + requested
+                        + " requested questions were returned");
+            } else {
+                quizzes[index] = quiz;
+            }
+        } catch (Exception e) {
+            log.error("Failed to parse bulk result for topic: {}", request.getTopic(), e);
+            results[index] = failed(request, "Failed to parse completion: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Save parsed quizzes in groups of {@code generation.batch.persist-batch-size}. Each group is
+     * recorded on the job, and the lease extended, in the transaction that saves it; if the claim
+     * was lost meanwhile the group is rolled back and ingestion stops.
+     */
+    private void persist(String jobId, String claim, List<QuizGenerationRequest> requests,
+                         Quiz[] quizzes, BatchTopicResult[] results) {
+        int groupSize = Math.max(1, generationConfig.getBatch().getPersistBatchSize());
+        List<Integer> group = new ArrayList<>();
+        
+        for (int i = 0; i <= quizzes.length; i++) {
+            if (i < quizzes.length && quizzes[i] != null) {
+                group.add(i);
+            }
+            if (group.isEmpty() || (group.size() < groupSize && i < quizzes.length)) {
+                continue;
+            }
+            
+            BatchTopicResult[] recorded = results.clone();
+            Boolean held;
+            try {
+                held = transactionTemplate.execute(status -> {
+                    quizService.saveGeneratedQuizzes(group.stream().map(index -> quizzes[index]).toList());
+                    for (int index : group) {
+                        Quiz quiz = quizzes[index];
+                        recorded[index] = BatchTopicResult.builder()
+                                .topic(requests.get(index).getTopic())
+                                .status(BatchTopicResult.Status.SAVED)
+                                .quizId(quiz.getId())
+                                .title(quiz.getTitle())
+                                .questionCount(quiz.getQuestions().size())
+                                .build();
+                    }
+                    if (bulkJobRepository.updateProgress(jobId, claim, toJson(Arrays.asList(recorded)),
+                            BulkGenerationJob.Status.INGESTING, leaseFrom(LocalDateTime.now())) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+            } catch (Exception e) {
+                log.error("Failed to save bulk group of {} quizzes", group.size(), e);
+                for (int index : group) {
+                    results[index] = failed(requests.get(index), "Failed to save quiz: " + e.getMessage());
+                }
+                group.clear();
+                continue;
+            }
+            if (!Boolean.TRUE.equals(held)) {
+                throw new RuntimeException("Bulk generation job " + jobId + " was taken over during ingestion");
+            }
+            for (int index : group) {
+                results[index] = recorded[index];
+            }
+            group.clear();
+        }
+    }
+    
+    private BatchTopicResult failed(QuizGenerationRequest request, String error) {
+        return BatchTopicResult.builder()
+                .topic(request.getTopic())
+                .status(BatchTopicResult.Status.FAILED)
+                .error(error)
+                .build();
+    }
+    
+    private String errorMessage(JsonNode result) {
+        JsonNode error = result.path("error");
+        if (!error.isMissingNode() && !error.isNull()) {
+            return error.path("message").asText("Batch request failed");
+        }
+        return "Batch request failed with status " + result.path("response").path("status_code").asInt();
+    }
+    
+    /**
+     * The topic index and slice of a custom_id, or null if it is not one of ours.
+     */
+    private int[] positionOf(String customId, int size) {
+        if (!customId.startsWith(CUSTOM_ID_PREFIX)) {
+            return null;
+        }
+        String[] parts = customId.substring(CUSTOM_ID_PREFIX.length()).split("-", -1);
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            int index = Integer.parseInt(parts[0]);
+            int slice = Integer.parseInt(parts[1]);
+            return index < size ? new int[] {index, slice} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private JsonNode readLine(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new RuntimeException("Malformed batch result line: " + e.getMessage(), e);
+        }
+    }
+    
+    private void writeWorkFile(String fileName, byte[] content) {
+        try {
+            Path dir = Path.of(generationConfig.getBulk().getWorkDir());
+            Files.createDirectories(dir);
+            Files.write(dir.resolve(fileName), content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write bulk work file " + fileName + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Content-addressed store of raw chat completions: the SHA-256 of the request body (model, prompt
+ * and parameters) maps to the completion returned for it. Records are appended to a memory-mapped
+ * file and located through an in-memory offset index that is rebuilt by scanning the file on
+ * startup; a torn record at the tail (crash mid-write) ends the scan and is overwritten.
+ * <p>
+ * Record layout: magic (int), key (32 bytes), payload length (int), payload CRC32 (int), UTF-8 payload.
+ */
+@Component
+@Slf4j
+public class CompletionStore {
+    
+    private static final int MAGIC = 0x51434D50;
+    private static final int KEY_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + KEY_BYTES + 4 + 4;
+    private static final long INITIAL_MAPPING_BYTES = 1 << 20;
+    
+    private final OpenAiConfig.RecordingMode mode;
+    private final Path path;
+    private final Map<String, Long> offsets = new HashMap<>();
+    
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long writePosition;
+    
+    @Autowired
+    public CompletionStore(OpenAiConfig openAiConfig) {
+        this(openAiConfig.getRecording().getMode(), Path.of(openAiConfig.getRecording().getPath()));
+    }
+    
+    CompletionStore(OpenAiConfig.RecordingMode mode, Path path) {
+        this.mode = mode;
+        this.path = path;
+        if (mode != OpenAiConfig.RecordingMode.OFF) {
+            open();
+        }
+    }
+    
+    public boolean isReplayOnly() {
+        return mode == OpenAiConfig.RecordingMode.REPLAY_ONLY;
+    }
+    
+    /**
+     * The recorded completion for this exact request body, when replaying.
+     */
+    public synchronized Optional<String> replay(String requestBody) {
+        if (mode != OpenAiConfig.RecordingMode.REPLAY && mode != OpenAiConfig.RecordingMode.REPLAY_ONLY) {
+            return Optional.empty();
+        }
+        Long offset = offsets.get(key(requestBody));
+        if (offset == null) {
+            return Optional.empty();
+        }
+        int length = mapped.getInt((int) offset.longValue() + 4 + KEY_BYTES);
+        byte[] payload = new byte[length];
+        mapped.get((int) offset.longValue() + HEADER_BYTES, payload);
+        return Optional.of(new String(payload, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Store the completion returned for a request body; a no-op when recording is off or the
+     * request is already stored.
+     */
+    public synchronized void record(String requestBody, String completion) {
+        if (mode == OpenAiConfig.RecordingMode.OFF) {
+            return;
+        }
+        String key = key(requestBody);
+        if (offsets.containsKey(key)) {
+            return;
+        }
+        
+        byte[] payload = completion.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ensureCapacity(HEADER_BYTES + payload.length);
+        
+        int position = (int) writePosition;
+        mapped.put(position + 4, HexFormat.of().parseHex(key));
+        mapped.putInt(position + 4 + KEY_BYTES, payload.length);
+        mapped.putInt(position + 4 + KEY_BYTES + 4, (int) crc.getValue());
+        mapped.put(position + HEADER_BYTES, payload);
+        // The magic goes in last so a record torn by a crash is never read back as complete
+        mapped.putInt(position, MAGIC);
+        
+        offsets.put(key, writePosition);
+        writePosition += HEADER_BYTES + payload.length;
+    }
+    
+    public synchronized int size() {
+        return offsets.size();
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            mapped.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close completion store {}: {}", path, e.getMessage());
+        }
+        channel = null;
+    }
+    
+    private void open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_MAPPING_BYTES, channel.size()));
+            scan();
+            log.info("Completion store {} opened in {} mode with {} recorded completions", path, mode, offsets.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open completion store " + path, e);
+        }
+    }
+    
+    private void scan() {
+        long position = 0;
+        byte[] keyBytes = new byte[KEY_BYTES];
+        while (position + HEADER_BYTES <= mapped.capacity()) {
+            int index = (int) position;
+            if (mapped.getInt(index) != MAGIC) {
+                break;
+            }
+            int length = mapped.getInt(index + 4 + KEY_BYTES);
+            if (length < 0 || position + HEADER_BYTES + length > mapped.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            mapped.get(index + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != mapped.getInt(index + 4 + KEY_BYTES + 4)) {
+                break;
+            }
+            mapped.get(index + 4, keyBytes);
+            offsets.put(HexFormat.of().formatHex(keyBytes), position);
+            position += HEADER_BYTES + length;
+        }
+        writePosition = position;
+        
+        // Clear a torn tail so a later, shorter record cannot be mistaken for it
+        for (long i = writePosition; i < Math.min(mapped.capacity(), writePosition + HEADER_BYTES); i++) {
+            mapped.put((int) i, (byte) 0);
+        }
+    }
+    
+    private void ensureCapacity(int recordBytes) {
+        // A zeroed header after the record marks the end of the log for the next scan
+        long needed = writePosition + recordBytes + HEADER_BYTES;
+        if (needed <= mapped.capacity()) {
+            return;
+        }
+        long capacity = mapped.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Completion store " + path + " is full");
+        }
+        try {
+            mapped.force();
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow completion store " + path, e);
+        }
+    }
+    
+    private static String key(String requestBody) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(requestBody.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
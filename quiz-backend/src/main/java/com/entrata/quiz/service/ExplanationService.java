@@ -0,0 +1,217 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.entity.TokenUsage;
+import com.entrata.quiz.event.ExplanationsStoredEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Phase two of deferred quiz generation: fills {@link Question#getExplanation()} after the quiz
+ * has already been returned to the user. Generation runs in the background right after the quiz
+ * is saved; a submission that arrives first waits on the in-flight work (or starts it itself),
+ * outside its transaction.
+ */
+@Service
+@Slf4j
+public class ExplanationService {
+    
+    private final OpenAiService openAiService;
+    private final OpenAiConfig openAiConfig;
+    private final QuestionRepository questionRepository;
+    private final QuizRepository quizRepository;
+    private final TokenUsageService tokenUsageService;
+    private final Executor executor;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Map<Long, CompletableFuture<Map<Long, String>>> inFlight = new ConcurrentHashMap<>();
+    
+    public ExplanationService(OpenAiService openAiService,
+                              OpenAiConfig openAiConfig,
+                              QuestionRepository questionRepository,
+                              QuizRepository quizRepository,
+                              TokenUsageService tokenUsageService,
+                              @Qualifier("explanationExecutor") Executor executor,
+                              ApplicationEventPublisher eventPublisher) {
+        this.openAiService = openAiService;
+        this.openAiConfig = openAiConfig;
+        this.questionRepository = questionRepository;
+        this.quizRepository = quizRepository;
+        this.tokenUsageService = tokenUsageService;
+        this.executor = executor;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public static boolean hasPendingExplanations(Quiz quiz) {
+        return quiz.getQuestions() != null
+                && quiz.getQuestions().stream().anyMatch(question -> question.getExplanation() == null);
+    }
+    
+    /**
+     * Start generating explanations for a freshly saved quiz. When called inside a transaction the
+     * work starts after commit so the background update never races the insert.
+     */
+    public void scheduleExplanations(Quiz quiz) {
+        Snapshot snapshot = Snapshot.of(quiz, Set.of());
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    start(snapshot);
+                }
+            });
+        } else {
+            start(snapshot);
+        }
+    }
+    
+    /**
+     * Explanations for every question of the quiz, keyed by question ID, once available: the
+     * in-flight generation, or those stored. If nothing is running and some are missing (e.g. after
+     * a restart), generation of the missing ones is started here. Does not block.
+     */
+    public CompletableFuture<Map<Long, String>> explanationsFor(Quiz quiz) {
+        CompletableFuture<Map<Long, String>> future = inFlight.get(quiz.getId());
+        if (future != null) {
+            return future;
+        }
+        
+        Map<Long, String> stored = loadStoredExplanations(quiz.getId());
+        if (stored.size() >= quiz.getQuestions().size()) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        log.info("Explanations for quiz {} not available yet, generating on submission", quiz.getId());
+        // Only the questions still without one are asked for
+        return start(Snapshot.of(quiz, stored.keySet())).thenApply(generated -> {
+            Map<Long, String> all = new HashMap<>(stored);
+            all.putAll(generated);
+            return all;
+        });
+    }
+    
+    /**
+     * Wait for {@link #explanationsFor} up to {@code openai.explanation-wait-seconds}; empty if
+     * they did not arrive in time. Call outside a transaction, so that no connection is held meanwhile.
+     */
+    public Map<Long, String> awaitExplanations(Long quizId, CompletableFuture<Map<Long, String>> explanations) {
+        try {
+            return explanations.get(openAiConfig.getExplanationWaitSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for explanations of quiz {}", quizId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Explanation generation failed for quiz {}", quizId, e);
+        }
+        return Map.of();
+    }
+    
+    private CompletableFuture<Map<Long, String>> start(Snapshot snapshot) {
+        CompletableFuture<Map<Long, String>> future = new CompletableFuture<>();
+        CompletableFuture<Map<Long, String>> existing = inFlight.putIfAbsent(snapshot.quizId(), future);
+        if (existing != null) {
+            return existing;
+        }
+        
+        executor.execute(() -> {
+            try {
+                future.complete(generateAndStore(snapshot));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(snapshot.quizId(), future);
+            }
+        });
+        return future;
+    }
+    
+    private Map<Long, String> generateAndStore(Snapshot snapshot) {
+        long start = System.currentTimeMillis();
+        OpenAiService.Explanations explanations = openAiService.generateExplanations(snapshot.topic(), snapshot.questions());
+        Map<Integer, String> byNumber = explanations.byNumber();
+        
+        Map<Long, String> byQuestionId = new HashMap<>();
+        for (Question question : snapshot.questions()) {
+            String explanation = byNumber.get(question.getQuestionNumber());
+            if (explanation == null) {
+                // Left pending, so that the next submission or retry asks for it again
+                continue;
+            }
+            questionRepository.updateExplanation(question.getId(), explanation);
+            byQuestionId.put(question.getId(), explanation);
+        }
+        if (byQuestionId.size() < snapshot.questions().size()) {
+            log.warn("{} of {} explanations for quiz {} are still missing", snapshot.questions().size() - byQuestionId.size(),
+                    snapshot.questions().size(), snapshot.quizId());
+        }
+        if (!byQuestionId.isEmpty()) {
+            eventPublisher.publishEvent(new ExplanationsStoredEvent(snapshot.quizId(), byQuestionId));
+        }
+        
+        TokenUsage usage = explanations.usage();
+        if (usage != null) {
+            quizRepository.addTokenUsage(snapshot.quizId(), usage.getModel(), usage.prompt(), usage.completion(), usage.cached());
+            tokenUsageService.record(snapshot.createdBy(), snapshot.topic(), usage);
+        }
+        
+        log.info("Generated explanations for quiz {} in {} ms", snapshot.quizId(), System.currentTimeMillis() - start);
+        return byQuestionId;
+    }
+    
+    private Map<Long, String> loadStoredExplanations(Long quizId) {
+        Map<Long, String> stored = new HashMap<>();
+        for (Object[] row : questionRepository.findExplanationsByQuizId(quizId)) {
+            if (row[1] != null) {
+                stored.put((Long) row[0], (String) row[1]);
+            }
+        }
+        return stored;
+    }
+    
+    /**
+     * Detached copy of the fields the prompt needs, leaving out questions already explained, so
+     * background threads never touch entities that belong to the caller's persistence context.
+     */
+    private record Snapshot(Long quizId, String topic, String createdBy, List<Question> questions) {
+        
+        static Snapshot of(Quiz quiz, Set<Long> explained) {
+            List<Question> questions = quiz.getQuestions().stream()
+                    .filter(question -> !explained.contains(question.getId()))
+                    .map(question -> Question.builder()
+                            .id(question.getId())
+                            .questionNumber(question.getQuestionNumber())
+                            .questionText(question.getQuestionText())
+                            .correctAnswer(question.getCorrectAnswer())
+                            .options(question.getOptions().stream()
+                                    .map(option -> QuestionOption.builder()
+                                            .optionLabel(option.getOptionLabel())
+                                            .optionText(option.getOptionText())
+                                            .build())
+                                    .collect(Collectors.toList()))
+                            .build())
+                    .collect(Collectors.toList());
+            return new Snapshot(quiz.getId(), quiz.getTopic(), quiz.getCreatedBy(), questions);
+        }
+    }
+}
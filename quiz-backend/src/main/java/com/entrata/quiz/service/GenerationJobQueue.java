@@ -0,0 +1,225 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.GenerationStage;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.GenerationJob;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.GenerationJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable queue of generation jobs in the {@code generation_jobs} table, shared by every node
+ * pointing at the same database. Claims are leases: a worker that dies or stalls past the
+ * visibility timeout loses the job to the next poller, and failed attempts are retried with
+ * backoff until {@code max-attempts} is reached, after which the job is dead-lettered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GenerationJobQueue {
+    
+    private static final Set<GenerationStage> RUNNING =
+            EnumSet.of(GenerationStage.RETRIEVING, GenerationStage.GENERATING, GenerationStage.PARSING);
+    private static final int CLAIM_CANDIDATES = 5;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final GenerationJobRepository generationJobRepository;
+    private final OpenAiService openAiService;
+    private final QuizService quizService;
+    private final GenerationConfig generationConfig;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    public GenerationJob enqueue(QuizGenerationRequest request, GenerationPriority priority) {
+        return enqueue(request, priority, null);
+    }
+    
+    /**
+     * Enqueue a job whose quiz is parked in the pre-generation pool under {@code poolKey} instead
+     * of being handed to a caller.
+     */
+    public GenerationJob enqueue(QuizGenerationRequest request, GenerationPriority priority, String poolKey) {
+        GenerationJob job = GenerationJob.builder()
+                .id(UUID.randomUUID().toString())
+                .topic(request.getTopic())
+                .requestJson(toJson(request))
+                .priority(priority)
+                .stage(GenerationStage.QUEUED)
+                .attempts(0)
+                .maxAttempts(Math.max(1, generationConfig.getJobs().getMaxAttempts()))
+                .availableAt(LocalDateTime.now())
+                .poolKey(poolKey)
+                .requestedBy(TokenUsageService.currentUser())
+                .build();
+        return generationJobRepository.save(job);
+    }
+    
+    public Optional<GenerationJob> find(String jobId) {
+        return generationJobRepository.findById(jobId);
+    }
+    
+    public long countQueued(GenerationPriority priority) {
+        return generationJobRepository.countByStageAndPriority(GenerationStage.QUEUED, priority);
+    }
+    
+    /**
+     * Claim the next due job for {@code workerId}, or return empty when there is none.
+     */
+    public Optional<GenerationJob> claimNext(String workerId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<GenerationJob> candidates = generationJobRepository.findClaimable(GenerationStage.QUEUED, RUNNING,
+                GenerationPriority.INTERACTIVE, now, PageRequest.of(0, CLAIM_CANDIDATES));
+        
+        for (GenerationJob candidate : candidates) {
+            boolean expiredLease = candidate.getStage().isRunning();
+            int claimed = generationJobRepository.claim(candidate.getId(), candidate.getAttempts(), workerId,
+                    GenerationStage.RETRIEVING, GenerationStage.QUEUED, RUNNING, leaseUntil(now), now);
+            if (claimed == 0) {
+                // Another worker got there first
+                continue;
+            }
+            
+            int attempt = candidate.getAttempts() + 1;
+            if (expiredLease) {
+                log.warn("Job {} lease held by {} expired, reclaimed by {} (attempt {})",
+                        candidate.getId(), candidate.getLockedBy(), workerId, attempt);
+            }
+            if (attempt > candidate.getMaxAttempts()) {
+                // The previous holder timed out on the last allowed attempt
+                release(candidate.getId(), attempt, GenerationStage.DEAD, null,
+                        "Visibility timeout expired on final attempt", now);
+                continue;
+            }
+            
+            candidate.setAttempts(attempt);
+            candidate.setStage(GenerationStage.RETRIEVING);
+            candidate.setLockedBy(workerId);
+            return Optional.of(candidate);
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Run a claimed job to completion. Failures are retried or dead-lettered; if the claim was
+     * lost to another worker in the meantime, the outcome of this run is discarded.
+     */
+    public void execute(GenerationJob job) {
+        int attempt = job.getAttempts();
+        try {
+            QuizGenerationRequest request = objectMapper.readValue(job.getRequestJson(), QuizGenerationRequest.class);
+            
+            Quiz quiz = openAiService.generateQuiz(request, openAiService::retrieveContext,
+                    stage -> reportProgress(job, attempt, stage));
+            quiz.setPoolKey(job.getPoolKey());
+            quiz.setCreatedBy(job.getRequestedBy());
+            Long quizId = saveAndComplete(job, attempt, quiz);
+            
+            log.info("Generation job {} saved quiz {} on attempt {}", job.getId(), quizId, attempt);
+        } catch (JsonProcessingException e) {
+            log.error("Generation job {} has an unreadable request", job.getId(), e);
+            release(job.getId(), attempt, GenerationStage.FAILED, null, "Unreadable job request: " + e.getMessage(), LocalDateTime.now());
+        } catch (LeaseLostException e) {
+            log.warn("Generation job {} attempt {} lost its lease, discarding result", job.getId(), attempt);
+        } catch (Exception e) {
+            handleFailure(job, attempt, e);
+        }
+    }
+    
+    public int deleteFinishedBefore(LocalDateTime cutoff) {
+        // Dead-lettered jobs are kept until someone looks at them
+        return generationJobRepository.deleteFinishedBefore(EnumSet.of(GenerationStage.SAVED, GenerationStage.FAILED), cutoff);
+    }
+    
+    /**
+     * Save the quiz and mark the job saved in one transaction, so a job whose lease was lost
+     * does not leave a duplicate quiz behind.
+     */
+    private Long saveAndComplete(GenerationJob job, int attempt, Quiz quiz) {
+        return transactionTemplate.execute(status -> {
+            Long quizId = quizService.saveGeneratedQuizzes(List.of(quiz)).get(0).getId();
+            int updated = generationJobRepository.release(job.getId(), attempt, GenerationStage.SAVED, quizId, null,
+                    RUNNING, job.getAvailableAt(), LocalDateTime.now());
+            if (updated == 0) {
+                throw new LeaseLostException();
+            }
+            return quizId;
+        });
+    }
+    
+    private void reportProgress(GenerationJob job, int attempt, GenerationStage stage) {
+        LocalDateTime now = LocalDateTime.now();
+        if (generationJobRepository.updateProgress(job.getId(), attempt, stage, RUNNING, leaseUntil(now), now) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+    
+    private void handleFailure(GenerationJob job, int attempt, Exception e) {
+        if (e.getCause() instanceof LeaseLostException) {
+            log.warn("Generation job {} attempt {} lost its lease, discarding result", job.getId(), attempt);
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        String error = truncate(e.getMessage());
+        if (attempt >= job.getMaxAttempts()) {
+            log.error("Generation job {} failed on final attempt {}, moving to dead letter", job.getId(), attempt, e);
+            release(job.getId(), attempt, GenerationStage.DEAD, null, error, now);
+        } else {
+            long backoffSeconds = generationConfig.getJobs().getRetryBackoffSeconds() * (1L << (attempt - 1));
+            log.warn("Generation job {} attempt {} failed, retrying in {}s: {}", job.getId(), attempt, backoffSeconds, error);
+            release(job.getId(), attempt, GenerationStage.QUEUED, null, error, now.plusSeconds(backoffSeconds));
+        }
+    }
+    
+    private void release(String jobId, int attempt, GenerationStage stage, Long quizId, String error,
+                         LocalDateTime availableAt) {
+        int updated = generationJobRepository.release(jobId, attempt, stage, quizId, error, RUNNING,
+                availableAt, LocalDateTime.now());
+        if (updated == 0) {
+            log.warn("Generation job {} attempt {} no longer holds its lease, {} not recorded", jobId, attempt, stage);
+        }
+    }
+    
+    private LocalDateTime leaseUntil(LocalDateTime now) {
+        return now.plusSeconds(generationConfig.getJobs().getVisibilityTimeoutSeconds());
+    }
+    
+    private String toJson(QuizGenerationRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize generation request: " + e.getMessage(), e);
+        }
+    }
+    
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+    
+    /**
+     * The claim an update was made under has expired and the job belongs to someone else now.
+     */
+    static class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Generation job lease lost");
+        }
+    }
+}
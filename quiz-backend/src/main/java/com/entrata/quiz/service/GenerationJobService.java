@@ -0,0 +1,179 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.GenerationJobResponse;
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.GenerationJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * API side of asynchronous generation. Submitting writes a job to the {@link GenerationJobQueue}
+ * and returns its id immediately; progress can be polled or streamed over SSE. The job itself
+ * runs on whichever {@link GenerationWorker} claims it, interactive jobs before prefetch work.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GenerationJobService {
+    
+    private final GenerationJobQueue queue;
+    private final GenerationConfig generationConfig;
+    private final ObjectProvider<GenerationWorker> localWorker;
+    
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    public GenerationJobResponse submit(QuizGenerationRequest request, GenerationPriority priority) {
+        if (queue.countQueued(priority) >= queueCapacity(priority)) {
+            log.warn("Rejecting {} generation job for topic {}: queue is full", priority, request.getTopic());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Generation queue is full, please retry later");
+        }
+        
+        GenerationJob job = queue.enqueue(request, priority);
+        log.info("Queued {} generation job {} for topic: {}", priority, job.getId(), request.getTopic());
+        
+        // Start right away when this node runs jobs itself; remote workers find it on their next poll
+        localWorker.ifAvailable(GenerationWorker::poll);
+        return toResponse(job);
+    }
+    
+    public GenerationJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+    
+    /**
+     * Stream the job's stage changes. The current state is sent immediately and the stream
+     * completes once the job reaches a terminal stage.
+     */
+    public SseEmitter subscribe(String jobId) {
+        GenerationJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(generationConfig.getJobs().getSseTimeoutSeconds() * 1000);
+        Subscriber subscriber = new Subscriber(emitter);
+        
+        if (!subscriber.offer(toResponse(job))) {
+            return emitter;
+        }
+        if (job.getStage().isTerminal()) {
+            emitter.complete();
+            return emitter;
+        }
+        
+        subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(jobId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(jobId, subscriber));
+        emitter.onError(e -> unsubscribe(jobId, subscriber));
+        return emitter;
+    }
+    
+    /**
+     * Push stage changes to open progress streams. Jobs may run on another node, so changes are
+     * read back from the queue rather than observed in-process.
+     */
+    @Scheduled(fixedDelayString = "${generation.jobs.progress-poll-millis:500}")
+    public void publishProgress() {
+        subscribers.forEach((jobId, jobSubscribers) -> {
+            Optional<GenerationJob> job = queue.find(jobId);
+            if (job.isEmpty()) {
+                jobSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+                subscribers.remove(jobId);
+                return;
+            }
+            
+            GenerationJobResponse response = toResponse(job.get());
+            for (Subscriber subscriber : jobSubscribers) {
+                if (subscriber.offer(response) && response.getStage().isTerminal()) {
+                    subscriber.emitter.complete();
+                }
+            }
+            if (response.getStage().isTerminal()) {
+                subscribers.remove(jobId);
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(generationConfig.getJobs().getRetentionMinutes());
+        int evicted = queue.deleteFinishedBefore(cutoff);
+        if (evicted > 0) {
+            log.info("Evicted {} finished generation jobs", evicted);
+        }
+    }
+    
+    private void unsubscribe(String jobId, Subscriber subscriber) {
+        List<Subscriber> jobSubscribers = subscribers.get(jobId);
+        if (jobSubscribers != null) {
+            jobSubscribers.remove(subscriber);
+        }
+    }
+    
+    /**
+     * @throws ResponseStatusException with 404 if there is no such job
+     */
+    private GenerationJob findJob(String jobId) {
+        return queue.find(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Generation job not found with ID: " + jobId));
+    }
+    
+    private int queueCapacity(GenerationPriority priority) {
+        GenerationConfig.Jobs config = generationConfig.getJobs();
+        return priority == GenerationPriority.INTERACTIVE ? config.getQueueCapacity() : config.getPrefetchQueueCapacity();
+    }
+    
+    private GenerationJobResponse toResponse(GenerationJob job) {
+        return GenerationJobResponse.builder()
+                .id(job.getId())
+                .topic(job.getTopic())
+                .priority(job.getPriority())
+                .stage(job.getStage())
+                .attempts(job.getAttempts())
+                .quizId(job.getQuizId())
+                .error(job.getError())
+                .submittedAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+    
+    /**
+     * An open progress stream and the last state sent on it, so unchanged polls send nothing.
+     */
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private GenerationJobResponse lastSent;
+        
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        private synchronized boolean offer(GenerationJobResponse response) {
+            if (response.equals(lastSent)) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("stage").data(response));
+                lastSent = response;
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping closed progress stream: {}", e.getMessage());
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
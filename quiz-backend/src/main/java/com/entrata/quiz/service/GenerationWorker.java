@@ -0,0 +1,103 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.entity.GenerationJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Claims jobs from the {@link GenerationJobQueue} whenever one of this node's generation threads
+ * is free. Runs on every node unless {@code generation.jobs.worker-enabled} is false, so API-only
+ * nodes and dedicated workers (profile {@code worker}) can be scaled separately.
+ */
+@Component
+@ConditionalOnProperty(prefix = "generation.jobs", name = "worker-enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class GenerationWorker {
+    
+    private final GenerationJobQueue queue;
+    private final ExecutorService executor;
+    private final Semaphore freeThreads;
+    private final String workerId;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    
+    @Autowired
+    public GenerationWorker(GenerationJobQueue queue,
+                            GenerationConfig generationConfig,
+                            @Qualifier("generationJobExecutor") ExecutorService executor) {
+        this(queue, executor, generationConfig.getJobs().getThreads(),
+                ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+    
+    public GenerationWorker(GenerationJobQueue queue, ExecutorService executor, int threads, String workerId) {
+        this.queue = queue;
+        this.executor = executor;
+        this.freeThreads = new Semaphore(Math.max(1, threads));
+        this.workerId = workerId;
+        log.info("Generation worker {} started with {} threads", workerId, Math.max(1, threads));
+    }
+    
+    public String getWorkerId() {
+        return workerId;
+    }
+    
+    /**
+     * Claim due jobs until the queue is empty or every thread is busy.
+     */
+    @Scheduled(fixedDelayString = "${generation.jobs.poll-interval-millis:1000}")
+    public void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (freeThreads.tryAcquire()) {
+                Optional<GenerationJob> job;
+                try {
+                    job = queue.claimNext(workerId);
+                } catch (Exception e) {
+                    freeThreads.release();
+                    log.warn("Worker {} failed to claim a job: {}", workerId, e.getMessage());
+                    return;
+                }
+                
+                if (job.isEmpty()) {
+                    freeThreads.release();
+                    return;
+                }
+                dispatch(job.get());
+            }
+        } finally {
+            polling.set(false);
+        }
+    }
+    
+    private void dispatch(GenerationJob job) {
+        try {
+            executor.execute(() -> {
+                try {
+                    queue.execute(job);
+                } finally {
+                    freeThreads.release();
+                }
+                // Pick up the next job straight away instead of waiting for the next tick
+                poll();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the lease expires and another worker picks the job up
+            freeThreads.release();
+            log.warn("Worker {} is shutting down, leaving job {} to expire", workerId, job.getId());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.entrata.quiz.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph over vectors kept in a caller-owned arena, where node
+ * {@code n} is the vector at offset {@code n * dimensions}. Similarity is the dot product, so
+ * vectors are expected to be unit length. Inserts must be serialized; searches may run
+ * concurrently with each other.
+ */
+final class HnswGraph {
+    
+    private final int dimensions;
+    private final int maxLinks;
+    private final int maxLinksLayerZero;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    
+    /** links.get(node)[layer] holds the node's neighbors on that layer. */
+    private final List<int[][]> links = new ArrayList<>();
+    private final List<int[]> linkCounts = new ArrayList<>();
+    private int entryPoint = -1;
+    private int topLayer = -1;
+    
+    HnswGraph(int dimensions, int maxLinks, int efConstruction) {
+        this.dimensions = dimensions;
+        this.maxLinks = maxLinks;
+        this.maxLinksLayerZero = maxLinks * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(maxLinks);
+    }
+    
+    int size() {
+        return links.size();
+    }
+    
+    /**
+     * Link the next node (the vector at offset {@code size() * dimensions}) into the graph.
+     */
+    void insert(float[] arena) {
+        int node = links.size();
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int layer = 0; layer <= level; layer++) {
+            nodeLinks[layer] = new int[(layer == 0 ? maxLinksLayerZero : maxLinks) + 1];
+        }
+        links.add(nodeLinks);
+        linkCounts.add(new int[level + 1]);
+        
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = level;
+            return;
+        }
+        
+        int offset = node * dimensions;
+        int current = entryPoint;
+        for (int layer = topLayer; layer > level; layer--) {
+            current = greedyClosest(arena, arena, offset, current, layer);
+        }
+        for (int layer = Math.min(level, topLayer); layer >= 0; layer--) {
+            List<Scored> candidates = searchLayer(arena, arena, offset, current, efConstruction, layer);
+            int connections = Math.min(maxLinks, candidates.size());
+            for (int i = 0; i < connections; i++) {
+                int neighbor = candidates.get(i).node();
+                connect(arena, node, neighbor, layer);
+                connect(arena, neighbor, node, layer);
+            }
+            current = candidates.get(0).node();
+        }
+        
+        if (level > topLayer) {
+            topLayer = level;
+            entryPoint = node;
+        }
+    }
+    
+    /**
+     * Approximate nearest nodes to the query, most similar first.
+     */
+    List<Scored> search(float[] arena, float[] query, int ef) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int layer = topLayer; layer > 0; layer--) {
+            current = greedyClosest(arena, query, 0, current, layer);
+        }
+        return searchLayer(arena, query, 0, current, ef, 0);
+    }
+    
+    private int greedyClosest(float[] arena, float[] query, int queryOffset, int start, int layer) {
+        int current = start;
+        float best = similarity(arena, query, queryOffset, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links.get(current)[layer];
+            int count = linkCounts.get(current)[layer];
+            for (int i = 0; i < count; i++) {
+                float similarity = similarity(arena, query, queryOffset, neighbors[i]);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+    
+    private List<Scored> searchLayer(float[] arena, float[] query, int queryOffset, int start, int ef, int layer) {
+        BitSet visited = new BitSet(links.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(Comparator.comparingDouble(Scored::similarity).reversed());
+        PriorityQueue<Scored> results = new PriorityQueue<>(Comparator.comparingDouble(Scored::similarity));
+        
+        Scored first = new Scored(start, similarity(arena, query, queryOffset, start));
+        visited.set(start);
+        candidates.add(first);
+        results.add(first);
+        
+        while (!candidates.isEmpty()) {
+            Scored candidate = candidates.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+            int[] neighbors = links.get(candidate.node())[layer];
+            int count = linkCounts.get(candidate.node())[layer];
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float similarity = similarity(arena, query, queryOffset, neighbor);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Scored scored = new Scored(neighbor, similarity);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        
+        List<Scored> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Scored::similarity).reversed());
+        return ordered;
+    }
+    
+    /**
+     * Add {@code to} to the neighbors of {@code from}; when the list is full the least similar
+     * neighbor is dropped.
+     */
+    private void connect(float[] arena, int from, int to, int layer) {
+        int[] neighbors = links.get(from)[layer];
+        int[] counts = linkCounts.get(from);
+        int limit = neighbors.length - 1;
+        if (counts[layer] < limit) {
+            neighbors[counts[layer]++] = to;
+            return;
+        }
+        
+        int fromOffset = from * dimensions;
+        float newSimilarity = similarity(arena, arena, fromOffset, to);
+        int worst = -1;
+        float worstSimilarity = newSimilarity;
+        for (int i = 0; i < limit; i++) {
+            float similarity = similarity(arena, arena, fromOffset, neighbors[i]);
+            if (similarity < worstSimilarity) {
+                worstSimilarity = similarity;
+                worst = i;
+            }
+        }
+        if (worst >= 0) {
+            neighbors[worst] = to;
+        }
+    }
+    
+    private float similarity(float[] arena, float[] query, int queryOffset, int node) {
+        return TopicEmbedder.dot(query, queryOffset, arena, node * dimensions, dimensions);
+    }
+    
+    record Scored(int node, float similarity) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.entrata.quiz.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Which quizzes an in-memory index reads again on its periodic refresh: those created (or
+ * claimed from the pool, which resets the creation time) since the previous read. Quizzes saved
+ * in this process arrive through events already; the refresh picks up those saved by other
+ * processes sharing the database. Each read reaches back {@link #OVERLAP} further, since a quiz's
+ * creation time is set before its transaction commits; indexes skip quizzes they already hold.
+ */
+final class IndexRefreshWindow {
+    
+    static final Duration OVERLAP = Duration.ofMinutes(5);
+    
+    private volatile LocalDateTime readAt;
+    
+    /**
+     * Call before a full rebuild reads the database.
+     */
+    void rebuilt() {
+        readAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Creation time from which to read, or empty before the first rebuild.
+     */
+    Optional<LocalDateTime> next() {
+        LocalDateTime previous = readAt;
+        if (previous == null) {
+            return Optional.empty();
+        }
+        readAt = LocalDateTime.now();
+        return Optional.of(previous.minus(OVERLAP));
+    }
+}
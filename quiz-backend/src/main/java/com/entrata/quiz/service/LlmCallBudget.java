@@ -0,0 +1,55 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Node-wide cap on outbound completion calls. Every caller (interactive generation, batch,
+ * jobs, pool refill, explanations) takes a permit for the duration of one call.
+ */
+@Component
+@Slf4j
+public class LlmCallBudget {
+    
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    
+    public LlmCallBudget(OpenAiConfig openAiConfig) {
+        this.maxConcurrentCalls = Math.max(1, openAiConfig.getMaxConcurrentCalls());
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+    
+    public void acquire() {
+        try {
+            if (!permits.tryAcquire()) {
+                log.debug("LLM call budget exhausted ({} in flight), waiting", maxConcurrentCalls);
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an LLM call slot", e);
+        }
+    }
+    
+    public void release() {
+        permits.release();
+    }
+    
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+    
+    public int getInFlight() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+    
+    /**
+     * Share of the budget currently in use, between 0 and 1.
+     */
+    public double utilization() {
+        return (double) getInFlight() / maxConcurrentCalls;
+    }
+}
@@ -0,0 +1,133 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.config.OpenAiConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * {@link BatchCompletionClient} backed by the OpenAI Files and Batches endpoints under
+ * {@code openai.base-url}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenAiBatchClient implements BatchCompletionClient {
+    
+    private static final String COMPLETIONS_ENDPOINT = "/v1/chat/completions";
+    
+    private final OpenAiConfig openAiConfig;
+    private final GenerationConfig generationConfig;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    public String uploadRequestFile(String fileName, byte[] jsonl) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("purpose", "batch");
+        body.part("file", new ByteArrayResource(jsonl))
+                .filename(fileName)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM);
+        
+        String response = webClient.post()
+                .uri(openAiConfig.getBaseUrl() + "/files")
+                .header("Authorization", "Bearer " + openAiConfig.getApiKey())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::toError)
+                .bodyToMono(String.class)
+                .block();
+        
+        String fileId = readTree(response).path("id").asText(null);
+        if (fileId == null) {
+            throw new RuntimeException("Batch file upload returned no file id");
+        }
+        log.info("Uploaded batch request file {} ({} bytes) as {}", fileName, jsonl.length, fileId);
+        return fileId;
+    }
+    
+    @Override
+    public BatchStatus createBatch(String inputFileId) {
+        Map<String, String> request = Map.of(
+                "input_file_id", inputFileId,
+                "endpoint", COMPLETIONS_ENDPOINT,
+                "completion_window", generationConfig.getBulk().getCompletionWindow());
+        
+        String response = webClient.post()
+                .uri(openAiConfig.getBaseUrl() + "/batches")
+                .header("Authorization", "Bearer " + openAiConfig.getApiKey())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::toError)
+                .bodyToMono(String.class)
+                .block();
+        
+        return toStatus(response);
+    }
+    
+    @Override
+    public BatchStatus getBatch(String batchId) {
+        String response = webClient.get()
+                .uri(openAiConfig.getBaseUrl() + "/batches/" + batchId)
+                .header("Authorization", "Bearer " + openAiConfig.getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::toError)
+                .bodyToMono(String.class)
+                .block();
+        
+        return toStatus(response);
+    }
+    
+    @Override
+    public String downloadFile(String fileId) {
+        String content = webClient.get()
+                .uri(openAiConfig.getBaseUrl() + "/files/" + fileId + "/content")
+                .header("Authorization", "Bearer " + openAiConfig.getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::toError)
+                .bodyToMono(String.class)
+                .block();
+        
+        return content != null ? content : "";
+    }
+    
+    private Mono<? extends Throwable> toError(ClientResponse response) {
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .flatMap(errorBody -> {
+                    log.error("OpenAI batch API error response: {}", errorBody);
+                    return Mono.error(new RuntimeException("OpenAI batch API error: " + errorBody));
+                });
+    }
+    
+    private BatchStatus toStatus(String response) {
+        JsonNode batch = readTree(response);
+        return new BatchStatus(
+                batch.path("id").asText(null),
+                batch.path("status").asText(null),
+                batch.path("output_file_id").asText(null),
+                batch.path("error_file_id").asText(null));
+    }
+    
+    private JsonNode readTree(String response) {
+        try {
+            return objectMapper.readTree(response == null ? "{}" : response);
+        } catch (Exception e) {
+            throw new RuntimeException("Malformed batch API response: " + e.getMessage(), e);
+        }
+    }
+}
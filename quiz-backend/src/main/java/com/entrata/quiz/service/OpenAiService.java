@@ -2,18 +2,28 @@ package com.entrata.quiz.service;
 
 import com.entrata.quiz.config.OpenAiConfig;
 import com.entrata.quiz.config.RagConfig;
+import com.entrata.quiz.dto.GenerationStage;
 import com.entrata.quiz.dto.QuizGenerationRequest;
 import com.entrata.quiz.entity.Question;
 import com.entrata.quiz.entity.QuestionOption;
 import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.entity.TokenUsage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,8 +36,52 @@ public class OpenAiService {
     private final RagConfig ragConfig;
     private final WebClient webClient;
     private final RetrievalService retrievalService;
+    private final LlmCallBudget llmCallBudget;
+    private final CompletionStore completionStore;
+    
+    private static final Pattern MODEL_PATTERN = Pattern.compile("\"model\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern PROMPT_TOKENS_PATTERN = Pattern.compile("\"prompt_tokens\"\\s*:\\s*(\\d+)");
+    private static final Pattern COMPLETION_TOKENS_PATTERN = Pattern.compile("\"completion_tokens\"\\s*:\\s*(\\d+)");
+    private static final Pattern CACHED_TOKENS_PATTERN = Pattern.compile("\"cached_tokens\"\\s*:\\s*(\\d+)");
+    private static final Pattern EXPLANATION_MARKER_PATTERN = Pattern.compile("EXPLANATION \\d+:");
+    private static final Pattern TRUNCATED_PATTERN = Pattern.compile("\"finish_reason\"\\s*:\\s*\"length\"");
+    
+    /**
+     * Distinct angles handed to each slice of a chunked quiz so that parallel
+     * completions don't all ask the same introductory questions.
+     */
+    private static final String[] SLICE_ANGLES = {
+        "core concepts and definitions",
+        "practical applications and real-world examples",
+        "common mistakes, pitfalls and misconceptions",
+        "advanced details and edge cases",
+        "history, origins and evolution",
+        "comparisons with related concepts or alternatives",
+        "scenario-based problem solving",
+        "key terminology and facts",
+        "best practices and recommendations",
+        "underlying principles and cause-and-effect relationships"
+    };
     
     public Quiz generateQuiz(QuizGenerationRequest request) {
+        return generateQuiz(request, this::retrieveContext);
+    }
+    
+    /**
+     * Generate a quiz using the given retrieval step, so callers generating many topics
+     * can share retrieval results between related ones.
+     */
+    public Quiz generateQuiz(QuizGenerationRequest request,
+                             Function<String, RetrievalService.RetrievalContext> contextProvider) {
+        return generateQuiz(request, contextProvider, stage -> { });
+    }
+    
+    /**
+     * Generate a quiz, reporting each stage (retrieving, generating, parsing) as it starts.
+     */
+    public Quiz generateQuiz(QuizGenerationRequest request,
+                             Function<String, RetrievalService.RetrievalContext> contextProvider,
+                             Consumer<GenerationStage> progress) {
         try {
             // Validate OpenAI configuration
             if (openAiConfig.getApiKey() == null || openAiConfig.getApiKey().trim().isEmpty()) {
@@ -47,27 +101,29 @@ public class OpenAiService {
             
             log.info("Generating quiz for topic: {} using model: {}", request.getTopic(), openAiConfig.getModel());
             
-            // Retrieve context if RAG is enabled
-            RetrievalService.RetrievalContext context = null;
-            if (ragConfig.isEnabled() && ragConfig.getWikipedia().isEnabled()) {
-                if (retrievalService.shouldUseRetrieval(request.getTopic())) {
-                    log.info("Using RAG for topic: {}", request.getTopic());
-                    try {
-                        context = retrievalService.retrieveContext(request.getTopic());
-                    } catch (Exception e) {
-                        log.warn("RAG retrieval failed, falling back to standard generation", e);
-                        if (!ragConfig.getRetrieval().isFallbackOnError()) {
-                            throw new RuntimeException("Failed to retrieve context: " + e.getMessage());
-                        }
-                    }
-                } else {
-                    log.info("Topic '{}' does not benefit from RAG, using standard generation", request.getTopic());
-                }
+            progress.accept(GenerationStage.RETRIEVING);
+            RetrievalService.RetrievalContext context = contextProvider.apply(request.getTopic());
+            
+            int questionCount = resolveQuestionCount(request);
+            int questionsPerCall = openAiConfig.getQuestionsPerCall();
+            
+            progress.accept(GenerationStage.GENERATING);
+            Quiz quiz;
+            if (questionsPerCall <= 0 || questionCount <= questionsPerCall) {
+                String prompt = buildPrompt(request, context, questionCount, null);
+                Completion completion = callOpenAi(prompt);
+                progress.accept(GenerationStage.PARSING);
+                quiz = parseQuizResponse(completion.content(), request, questionCount);
+                quiz.setTokenUsage(completion.usage());
+            } else {
+                quiz = generateInSlices(request, context, questionCount, questionsPerCall);
+                progress.accept(GenerationStage.PARSING);
             }
             
-            String prompt = buildPrompt(request, context);
-            String response = callOpenAi(prompt);
-            Quiz quiz = parseQuizResponse(response, request);
+            if (isDeferExplanations(request)) {
+                // Phase two fills these in; null marks an explanation as still pending
+                quiz.getQuestions().forEach(question -> question.setExplanation(null));
+            }
             
             // Add source attribution if context was used
             if (context != null && context.hasContent()) {
@@ -81,7 +137,216 @@ public class OpenAiService {
         }
     }
     
-    private String buildPrompt(QuizGenerationRequest request, RetrievalService.RetrievalContext context) {
+    /**
+     * Retrieve RAG context for a topic, or {@code null} when RAG is disabled or not useful for it.
+     */
+    public RetrievalService.RetrievalContext retrieveContext(String topic) {
+        RetrievalService.RetrievalContext context = null;
+        if (ragConfig.isEnabled() && ragConfig.getWikipedia().isEnabled()) {
+            if (retrievalService.shouldUseRetrieval(topic)) {
+                log.info("Using RAG for topic: {}", topic);
+                try {
+                    context = retrievalService.retrieveContext(topic);
+                } catch (Exception e) {
+                    log.warn("RAG retrieval failed, falling back to standard generation", e);
+                    if (!ragConfig.getRetrieval().isFallbackOnError()) {
+                        throw new RuntimeException("Failed to retrieve context: " + e.getMessage());
+                    }
+                }
+            } else {
+                log.info("Topic '{}' does not benefit from RAG, using standard generation", topic);
+            }
+        }
+        return context;
+    }
+    
+    /**
+     * Split a large quiz into slices, generate them concurrently and merge the results.
+     * Wall-clock time stays close to a single call instead of growing with the question count.
+     */
+    private Quiz generateInSlices(QuizGenerationRequest request, RetrievalService.RetrievalContext context,
+                                  int questionCount, int questionsPerCall) {
+        int sliceCount = (questionCount + questionsPerCall - 1) / questionsPerCall;
+        int parallelism = Math.max(1, openAiConfig.getMaxParallelCalls());
+        
+        log.info("Generating {} questions for topic '{}' in {} slices (parallelism {})",
+                questionCount, request.getTopic(), sliceCount, parallelism);
+        
+        List<Quiz> slices = Flux.range(0, sliceCount)
+                .flatMapSequential(slice -> Mono.fromCallable(() -> {
+                            int sliceSize = Math.min(questionsPerCall, questionCount - slice * questionsPerCall);
+                            String angle = SLICE_ANGLES[slice % SLICE_ANGLES.length];
+                            String prompt = buildPrompt(request, context, sliceSize, angle);
+                            Completion completion = callOpenAi(prompt);
+                            Quiz sliceQuiz = parseQuizResponse(completion.content(), request, sliceSize);
+                            sliceQuiz.setTokenUsage(completion.usage());
+                            return sliceQuiz;
+                        }).subscribeOn(Schedulers.boundedElastic()), parallelism)
+                .collectList()
+                .block();
+        
+        return mergeSlices(request, slices, questionCount);
+    }
+    
+    /**
+     * Merge generated slices into one quiz, dropping duplicate questions and renumbering the rest.
+     */
+    private Quiz mergeSlices(QuizGenerationRequest request, List<Quiz> slices, int questionCount) {
+        Quiz first = slices.get(0);
+        Quiz merged = Quiz.builder()
+                .topic(request.getTopic())
+                .title(first.getTitle())
+                .description(first.getDescription())
+                .questions(new ArrayList<>())
+                .build();
+        
+        Map<String, Question> unique = new LinkedHashMap<>();
+        for (Quiz slice : slices) {
+            merged.setTokenUsage(TokenUsage.sum(merged.getTokenUsage(), slice.getTokenUsage()));
+            for (Question question : slice.getQuestions()) {
+                unique.putIfAbsent(normalizeQuestionText(question.getQuestionText()), question);
+            }
+        }
+        
+        List<Question> questions = new ArrayList<>();
+        for (Question question : unique.values()) {
+            if (questions.size() == questionCount) {
+                break;
+            }
+            question.setQuiz(merged);
+            question.setQuestionNumber(questions.size() + 1);
+            questions.add(question);
+        }
+        
+        if (questions.size() < questionCount) {
+            log.warn("Only {} of {} requested questions remained after de-duplication for topic '{}'",
+                    questions.size(), questionCount, request.getTopic());
+        }
+        
+        merged.setQuestions(questions);
+        return merged;
+    }
+    
+    private String normalizeQuestionText(String questionText) {
+        return questionText == null ? "" : questionText.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+    
+    /**
+     * Whether explanations are left out of the generation prompt and produced in a second phase.
+     * The request setting wins over the configured default.
+     */
+    public boolean isDeferExplanations(QuizGenerationRequest request) {
+        return request.getDeferExplanations() != null ? request.getDeferExplanations() : openAiConfig.isDeferExplanations();
+    }
+    
+    /**
+     * Phase two of deferred generation: ask for explanations of already generated questions.
+     * Only the explanation text is produced, so the completion is a fraction of a full quiz.
+     *
+     * @return explanation text keyed by question number, with the tokens spent on it; questions
+     *         whose explanation is missing or cut off are left out
+     */
+    public Explanations generateExplanations(String topic, List<Question> questions) {
+        int questionsPerCall = openAiConfig.getQuestionsPerCall();
+        if (questionsPerCall <= 0 || questions.size() <= questionsPerCall) {
+            return explainSlice(topic, questions);
+        }
+        
+        // Split like question generation, so a large quiz is not cut off at max_tokens
+        int sliceCount = (questions.size() + questionsPerCall - 1) / questionsPerCall;
+        int parallelism = Math.max(1, openAiConfig.getMaxParallelCalls());
+        log.info("Generating {} explanations for topic '{}' in {} slices (parallelism {})",
+                questions.size(), topic, sliceCount, parallelism);
+        
+        List<Explanations> slices = Flux.range(0, sliceCount)
+                .flatMapSequential(slice -> Mono.fromCallable(() -> explainSlice(topic, questions.subList(
+                                slice * questionsPerCall, Math.min(questions.size(), (slice + 1) * questionsPerCall))))
+                        .subscribeOn(Schedulers.boundedElastic()), parallelism)
+                .collectList()
+                .block();
+        
+        Map<Integer, String> byNumber = new LinkedHashMap<>();
+        TokenUsage usage = null;
+        for (Explanations slice : slices) {
+            byNumber.putAll(slice.byNumber());
+            usage = TokenUsage.sum(usage, slice.usage());
+        }
+        return new Explanations(byNumber, usage);
+    }
+    
+    private Explanations explainSlice(String topic, List<Question> questions) {
+        StringBuilder promptBuilder = new StringBuilder();
+        promptBuilder.append(String.format("""
+            The following multiple choice questions are about: %s
+            For each question, explain concisely why the marked answer is correct.
+            
+            """, topic));
+        
+        for (Question question : questions) {
+            promptBuilder.append("QUESTION ").append(question.getQuestionNumber()).append(":\n")
+                    .append(question.getQuestionText()).append("\n");
+            for (QuestionOption option : question.getOptions()) {
+                promptBuilder.append(option.getOptionLabel()).append(") ").append(option.getOptionText()).append("\n");
+            }
+            promptBuilder.append("CORRECT: ").append(question.getCorrectAnswer()).append("\n\n");
+        }
+        
+        promptBuilder.append("""
+            Format your response exactly like this, one entry per question:
+            
+            EXPLANATION 1: [Why the correct answer is correct]
+            EXPLANATION 2: [Why the correct answer is correct]
+            
+            For programming code questions, include a step-by-step breakdown of how the code evaluates to the correct answer.
+            """);
+        
+        Completion completion = callOpenAi(promptBuilder.toString());
+        String response = completion.content();
+        
+        Map<Integer, String> explanations = new LinkedHashMap<>();
+        int last = -1;
+        int lastStart = -1;
+        for (Question question : questions) {
+            int number = question.getQuestionNumber();
+            String startMarker = "EXPLANATION " + number + ":";
+            int start = response.indexOf(startMarker);
+            if (start == -1) {
+                log.warn("No explanation returned for question {} of topic '{}'", number, topic);
+                continue;
+            }
+            start += startMarker.length();
+            // Question numbers need not be consecutive, so the entry ends at the next marker of any number
+            Matcher next = EXPLANATION_MARKER_PATTERN.matcher(response);
+            int end = next.find(start) ? next.start() : response.length();
+            String explanation = cleanExplanationText(response.substring(start, end));
+            if (!explanation.isBlank()) {
+                explanations.put(number, explanation);
+                if (start > lastStart) {
+                    last = number;
+                    lastStart = start;
+                }
+            }
+        }
+        if (completion.truncated() && last != -1) {
+            // The completion hit max_tokens: the explanation it ends with is cut off
+            log.warn("Explanations for topic '{}' were cut off at question {}", topic, last);
+            explanations.remove(last);
+        }
+        
+        return new Explanations(explanations, completion.usage());
+    }
+    
+    /**
+     * The number of questions a request asks for, with the default applied.
+     */
+    public int resolveQuestionCount(QuizGenerationRequest request) {
+        Integer questionCount = request.getQuestionCount();
+        return questionCount != null && questionCount > 0 ? questionCount : QuizGenerationRequest.DEFAULT_QUESTION_COUNT;
+    }
+    
+    private String buildPrompt(QuizGenerationRequest request, RetrievalService.RetrievalContext context,
+                               int questionCount, String angle) {
+        boolean withExplanations = !isDeferExplanations(request);
         StringBuilder promptBuilder = new StringBuilder();
         
         // Add context if available
@@ -90,7 +355,7 @@ public class OpenAiService {
         }
         
         promptBuilder.append(String.format("""
-            Create a quiz with exactly 5 multiple choice questions about: %s
+            Create a quiz with exactly %1$d multiple choice questions about: %2$s
 
             Format your response exactly like this:
 
@@ -103,8 +368,7 @@ public class OpenAiService {
             B) [Option B]
             C) [Option C]
             D) [Option D]
-            CORRECT: [A, B, C, or D]
-            EXPLANATION: [Why this is correct]
+            CORRECT: [A, B, C, or D]%3$s
 
             QUESTION 2:
             [Question text]
@@ -112,21 +376,34 @@ public class OpenAiService {
             B) [Option B]
             C) [Option C]
             D) [Option D]
-            CORRECT: [A, B, C, or D]
-            EXPLANATION: [Why this is correct]
+            CORRECT: [A, B, C, or D]%3$s
 
-            Continue for all 5 questions. Each question must have exactly 4 options labeled A, B, C, D, and exactly one correct answer.
+            Continue for all %1$d questions. Each question must have exactly 4 options labeled A, B, C, D, and exactly one correct answer.
 
             CRITICAL REQUIREMENTS:
             - The CORRECT answer MUST be one of the provided options (A, B, C, or D) and match its text EXACTLY.
-            - The EXPLANATION MUST clearly and accurately support the CORRECT answer.
-            - For programming code questions, the explanation MUST include a step-by-step breakdown of how the code evaluates to the correct answer.
+            %4$s
 
             QUALITY STANDARDS:
             - Questions should be clear, unambiguous, and directly related to the topic.
             - Options should be plausible but only one should be definitively correct.
-            - Explanations should be educational, concise, and easy to understand.
-            """, request.getTopic()));
+            %5$s
+            """, questionCount, request.getTopic(),
+                withExplanations ? "\nEXPLANATION: [Why this is correct]" : "",
+                withExplanations
+                        ? "- The EXPLANATION MUST clearly and accurately support the CORRECT answer.\n"
+                          + "- For programming code questions, the explanation MUST include a step-by-step breakdown "
+                          + "of how the code evaluates to the correct answer."
+                        : "- Do NOT include explanations; they are requested separately after the quiz is answered.",
+                withExplanations ? "- Explanations should be educational, concise, and easy to understand." : ""));
+        
+        if (angle != null) {
+            promptBuilder.append(String.format("""
+                
+                FOCUS: Concentrate these questions on %s of the topic. \
+                Avoid general overview questions that a quiz on a different aspect would also ask.
+                """, angle));
+        }
         
         return promptBuilder.toString();
     }
@@ -144,54 +421,142 @@ public class OpenAiService {
         // No longer adding source attribution to quiz description for UI
     }
     
-    private String callOpenAi(String prompt) {
+    /**
+     * Chat completion request bodies for a quiz, split into the same slices as interactive
+     * generation, as submitted by bulk (Batch API) generation instead of calling the endpoint directly.
+     */
+    public List<String> buildCompletionRequests(QuizGenerationRequest request, RetrievalService.RetrievalContext context) {
+        List<Integer> sliceSizes = bulkSliceSizes(request);
+        if (sliceSizes.size() == 1) {
+            return List.of(completionRequestBody(buildPrompt(request, context, sliceSizes.get(0), null)));
+        }
+        
+        List<String> bodies = new ArrayList<>();
+        for (int slice = 0; slice < sliceSizes.size(); slice++) {
+            String angle = SLICE_ANGLES[slice % SLICE_ANGLES.length];
+            bodies.add(completionRequestBody(buildPrompt(request, context, sliceSizes.get(slice), angle)));
+        }
+        return bodies;
+    }
+    
+    /**
+     * Parse the raw chat completion responses to {@link #buildCompletionRequests} (e.g. lines of a
+     * Batch API output file), keyed by slice number, into one quiz. Each slice is parsed for the
+     * number of questions its request asked for.
+     *
+     * @throws IllegalArgumentException if a slice number is not one of the request's slices
+     */
+    public Quiz parseCompletions(Map<Integer, String> completionJsons, QuizGenerationRequest request) {
+        int questionCount = resolveQuestionCount(request);
+        List<Integer> sliceSizes = bulkSliceSizes(request);
+        List<Quiz> slices = new ArrayList<>();
+        for (Map.Entry<Integer, String> completion : new TreeMap<>(completionJsons).entrySet()) {
+            if (completion.getKey() < 0 || completion.getKey() >= sliceSizes.size()) {
+                throw new IllegalArgumentException("Unknown slice " + completion.getKey() + " of " + sliceSizes.size());
+            }
+            String completionJson = completion.getValue();
+            String content = cleanResponseText(extractContentFromJsonResponse(completionJson));
+            Quiz slice = parseQuizResponse(content, request, sliceSizes.get(completion.getKey()));
+            slice.setTokenUsage(extractUsageFromJsonResponse(completionJson));
+            slices.add(slice);
+        }
+        
+        Quiz quiz = slices.size() == 1 ? slices.get(0) : mergeSlices(request, slices, questionCount);
+        if (isDeferExplanations(request)) {
+            quiz.getQuestions().forEach(question -> question.setExplanation(null));
+        }
+        return quiz;
+    }
+    
+    /**
+     * Questions asked for by each of a bulk request's completion requests: one slice unless
+     * {@code openai.questions-per-call} splits the quiz.
+     */
+    private List<Integer> bulkSliceSizes(QuizGenerationRequest request) {
+        int questionCount = resolveQuestionCount(request);
+        int questionsPerCall = openAiConfig.getQuestionsPerCall();
+        if (questionsPerCall <= 0 || questionCount <= questionsPerCall) {
+            return List.of(questionCount);
+        }
+        List<Integer> sizes = new ArrayList<>();
+        for (int slice = 0; slice * questionsPerCall < questionCount; slice++) {
+            sizes.add(Math.min(questionsPerCall, questionCount - slice * questionsPerCall));
+        }
+        return sizes;
+    }
+    
+    private String completionRequestBody(String prompt) {
+        // Escape the prompt content to avoid JSON issues
+        String escapedPrompt = prompt.replace("\"", "\\\"").replace("\n", "\\n");
+        
+        return String.format("""
+            {
+                "model": "%s",
+                "messages": [
+                    {
+                        "role": "user",
+                        "content": "%s"
+                    }
+                ],
+                "max_tokens": 2000,
+                "temperature": 0.7
+            }
+            """, openAiConfig.getModel(), escapedPrompt);
+    }
+    
+    private Completion callOpenAi(String prompt) {
         try {
-            // Escape the prompt content to avoid JSON issues
-            String escapedPrompt = prompt.replace("\"", "\\\"").replace("\n", "\\n");
-            
-            String requestBody = String.format("""
-                {
-                    "model": "%s",
-                    "messages": [
-                        {
-                            "role": "user",
-                            "content": "%s"
-                        }
-                    ],
-                    "max_tokens": 2000,
-                    "temperature": 0.7
-                }
-                """, openAiConfig.getModel(), escapedPrompt);
+            String requestBody = completionRequestBody(prompt);
             
             log.debug("Calling OpenAI API with model: {}, base URL: {}", openAiConfig.getModel(), openAiConfig.getBaseUrl());
             log.debug("Request body: {}", requestBody);
             
-            String response = webClient.post()
-                    .uri(openAiConfig.getBaseUrl() + "/chat/completions")
-                    .header("Authorization", "Bearer " + openAiConfig.getApiKey())
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> {
-                                        log.error("OpenAI API error response: {}", errorBody);
-                                        return Mono.error(new RuntimeException("OpenAI API error: " + errorBody));
-                                    }))
-                    .bodyToMono(String.class)
-                    .block();
+            // Identical requests are answered from the completion store when replaying
+            Optional<String> recorded = completionStore.replay(requestBody);
+            if (recorded.isPresent()) {
+                log.debug("Replaying recorded completion, length: {}", recorded.get().length());
+                // A replayed completion costs nothing
+                return new Completion(cleanResponseText(extractContentFromJsonResponse(recorded.get())),
+                        TokenUsage.of(openAiConfig.getModel(), 0, 0, 0), isTruncated(recorded.get()));
+            }
+            if (completionStore.isReplayOnly()) {
+                throw new RuntimeException("No recorded completion for this prompt (replay-only mode)");
+            }
+            
+            String response;
+            llmCallBudget.acquire();
+            try {
+                response = webClient.post()
+                        .uri(openAiConfig.getBaseUrl() + "/chat/completions")
+                        .header("Authorization", "Bearer " + openAiConfig.getApiKey())
+                        .header("Content-Type", "application/json")
+                        .bodyValue(requestBody)
+                        .retrieve()
+                        .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                                clientResponse -> clientResponse.bodyToMono(String.class)
+                                        .flatMap(errorBody -> {
+                                            log.error("OpenAI API error response: {}", errorBody);
+                                            return Mono.error(new RuntimeException("OpenAI API error: " + errorBody));
+                                        }))
+                        .bodyToMono(String.class)
+                        .block();
+            } finally {
+                llmCallBudget.release();
+            }
             
             if (response == null || response.trim().isEmpty()) {
                 throw new RuntimeException("OpenAI API returned empty response");
             }
             
+            completionStore.record(requestBody, response);
+            
             log.debug("OpenAI API response received, length: {}", response.length());
             
             // Parse JSON response to extract content
             String content = extractContentFromJsonResponse(response);
             
             // Clean up the content by unescaping newlines and other escape sequences
-            return cleanResponseText(content);
+            return new Completion(cleanResponseText(content), extractUsageFromJsonResponse(response), isTruncated(response));
             
         } catch (Exception e) {
             log.error("Error calling OpenAI API: {}", e.getMessage(), e);
@@ -199,7 +564,7 @@ public class OpenAiService {
         }
     }
     
-    private Quiz parseQuizResponse(String response, QuizGenerationRequest request) {
+    private Quiz parseQuizResponse(String response, QuizGenerationRequest request, int questionCount) {
         // Extract title and description
         String title = extractValue(response, "TITLE:", "DESCRIPTION:");
         String description = extractValue(response, "DESCRIPTION:", "QUESTION 1:");
@@ -213,7 +578,7 @@ public class OpenAiService {
         
         // Parse questions
         List<Question> questions = new ArrayList<>();
-        for (int i = 1; i <= 5; i++) {
+        for (int i = 1; i <= questionCount; i++) {
             Question question = parseQuestion(response, i, quiz);
             if (question != null) {
                 questions.add(question);
@@ -281,10 +646,10 @@ public class OpenAiService {
         
         // Create options (with null safety)
         List<QuestionOption> options = new ArrayList<>();
-        options.add(QuestionOption.builder().optionLabel("A").optionText(optionA != null ? optionA.trim() : "Option A").question(question).build());
-        options.add(QuestionOption.builder().optionLabel("B").optionText(optionB != null ? optionB.trim() : "Option B").question(question).build());
-        options.add(QuestionOption.builder().optionLabel("C").optionText(optionC != null ? optionC.trim() : "Option C").question(question).build());
-        options.add(QuestionOption.builder().optionLabel("D").optionText(optionD != null ? optionD.trim() : "Option D").question(question).build());
+        options.add(QuestionOption.builder().optionLabel("A").optionText(optionA != null ? optionA.trim() : "Option A").build());
+        options.add(QuestionOption.builder().optionLabel("B").optionText(optionB != null ? optionB.trim() : "Option B").build());
+        options.add(QuestionOption.builder().optionLabel("C").optionText(optionC != null ? optionC.trim() : "Option C").build());
+        options.add(QuestionOption.builder().optionLabel("D").optionText(optionD != null ? optionD.trim() : "Option D").build());
         
         question.setOptions(options);
         return question;
@@ -346,10 +711,10 @@ public class OpenAiService {
             
             // Create options
             List<QuestionOption> questionOptions = new ArrayList<>();
-            questionOptions.add(QuestionOption.builder().optionLabel("A").optionText(options[0]).question(question).build());
-            questionOptions.add(QuestionOption.builder().optionLabel("B").optionText(options[1]).question(question).build());
-            questionOptions.add(QuestionOption.builder().optionLabel("C").optionText(options[2]).question(question).build());
-            questionOptions.add(QuestionOption.builder().optionLabel("D").optionText(options[3]).question(question).build());
+            questionOptions.add(QuestionOption.builder().optionLabel("A").optionText(options[0]).build());
+            questionOptions.add(QuestionOption.builder().optionLabel("B").optionText(options[1]).build());
+            questionOptions.add(QuestionOption.builder().optionLabel("C").optionText(options[2]).build());
+            questionOptions.add(QuestionOption.builder().optionLabel("D").optionText(options[3]).build());
             
             question.setOptions(questionOptions);
             log.info("Fallback parsing successful for question {}", questionNumber);
@@ -388,18 +753,35 @@ public class OpenAiService {
     
     private String extractQuestionSection(String response, int questionNumber) {
         String startMarker = "QUESTION " + questionNumber + ":";
-        String endMarker = questionNumber < 5 ? "QUESTION " + (questionNumber + 1) + ":" : "";
+        String endMarker = "QUESTION " + (questionNumber + 1) + ":";
         
         int start = response.indexOf(startMarker);
         if (start == -1) return null;
         
         start += startMarker.length();
-        int end = endMarker.isEmpty() ? response.length() : response.indexOf(endMarker, start);
+        int end = response.indexOf(endMarker, start);
         
         if (end == -1) end = response.length();
         return response.substring(start, end).trim();
     }
     
+    /**
+     * Token counts from the usage block of a completion response; counts missing from the
+     * response are taken as zero.
+     */
+    private TokenUsage extractUsageFromJsonResponse(String jsonResponse) {
+        Matcher model = MODEL_PATTERN.matcher(jsonResponse);
+        return TokenUsage.of(model.find() ? model.group(1) : openAiConfig.getModel(),
+                extractCount(PROMPT_TOKENS_PATTERN, jsonResponse),
+                extractCount(COMPLETION_TOKENS_PATTERN, jsonResponse),
+                extractCount(CACHED_TOKENS_PATTERN, jsonResponse));
+    }
+    
+    private long extractCount(Pattern pattern, String jsonResponse) {
+        Matcher matcher = pattern.matcher(jsonResponse);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+    
     /**
      * Extract the actual content from OpenAI's JSON response
      */
@@ -486,12 +868,12 @@ public class OpenAiService {
         
         // Also remove trailing braces and brackets
         int braceStart = cleaned.lastIndexOf("}");
-        if (braceStart > cleaned.length() - 50) { // If brace is near the end
+        if (braceStart >= 0 && braceStart > cleaned.length() - 50) { // If brace is near the end
             cleaned = cleaned.substring(0, braceStart);
         }
         
         int bracketStart = cleaned.lastIndexOf("]");
-        if (bracketStart > cleaned.length() - 50) { // If bracket is near the end
+        if (bracketStart >= 0 && bracketStart > cleaned.length() - 50) { // If bracket is near the end
             cleaned = cleaned.substring(0, bracketStart);
         }
 
@@ -604,4 +986,20 @@ public class OpenAiService {
         
         return cleaned;
     }
+    
+    /**
+     * Explanations by question number and the tokens the explanation call used.
+     */
+    public record Explanations(Map<Integer, String> byNumber, TokenUsage usage) {
+    }
+    
+    /**
+     * Whether the completion stopped at max_tokens, so that its last part is cut off.
+     */
+    private boolean isTruncated(String jsonResponse) {
+        return TRUNCATED_PATTERN.matcher(jsonResponse).find();
+    }
+    
+    private record Completion(String content, TokenUsage usage, boolean truncated) {
+    }
 }
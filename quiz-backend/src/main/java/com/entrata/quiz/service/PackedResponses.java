@@ -0,0 +1,101 @@
+package com.entrata.quiz.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The responses of an attempt packed into a few bytes of its own row, in place of one
+ * question_responses row per answer. Each answer is the position of its question in the quiz's
+ * {@link AnswerKey} and the index of the selected option; correctness is kept as a bitmask, so an
+ * attempt reads back as scored even if the quiz is edited later. Answer texts and feedback are
+ * rebuilt from the answer key when the attempt is read.
+ * <p>
+ * Layout: version (byte), answer count (varint), per answer question position and option index
+ * (varints), correctness bitmask (one bit per answer, little-endian).
+ */
+final class PackedResponses {
+    
+    private static final int VERSION = 1;
+    
+    private final int[] positions;
+    private final int[] options;
+    private final BitSet correct;
+    
+    PackedResponses(int[] positions, int[] options, BitSet correct) {
+        if (positions.length != options.length) {
+            throw new IllegalArgumentException("Expected one option per question, got "
+                    + options.length + " for " + positions.length);
+        }
+        this.positions = positions;
+        this.options = options;
+        this.correct = correct;
+    }
+    
+    int size() {
+        return positions.length;
+    }
+    
+    int position(int answer) {
+        return positions[answer];
+    }
+    
+    int option(int answer) {
+        return options[answer];
+    }
+    
+    boolean isCorrect(int answer) {
+        return correct.get(answer);
+    }
+    
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + positions.length * 2 + (positions.length + 7) / 8);
+        out.write(VERSION);
+        writeVarint(out, positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            writeVarint(out, positions[i]);
+            writeVarint(out, options[i]);
+        }
+        byte[] mask = correct.toByteArray();
+        byte[] paddedMask = new byte[(positions.length + 7) / 8];
+        System.arraycopy(mask, 0, paddedMask, 0, Math.min(mask.length, paddedMask.length));
+        out.writeBytes(paddedMask);
+        return out.toByteArray();
+    }
+    
+    static PackedResponses decode(byte[] packed) {
+        int[] cursor = {0};
+        int version = packed[cursor[0]++];
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported packed responses version: " + version);
+        }
+        int size = readVarint(packed, cursor);
+        int[] positions = new int[size];
+        int[] options = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = readVarint(packed, cursor);
+            options[i] = readVarint(packed, cursor);
+        }
+        BitSet correct = BitSet.valueOf(Arrays.copyOfRange(packed, cursor[0], cursor[0] + (size + 7) / 8));
+        return new PackedResponses(positions, options, correct);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+    
+    private static int readVarint(byte[] packed, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = packed[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.dto.BankQuestion;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.ExplanationsStoredEvent;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of every stored question by normalized topic and keywords, used to compose
+ * new quizzes from existing questions without an LLM call. The index is built from the database
+ * at startup and kept current through quiz saved/deleted events, and through {@link #refresh()}
+ * for quizzes saved by other processes on the same database. Quizzes those delete stay in the
+ * bank until the next start; their questions can still be copied into composed quizzes.
+ * Explanations generated after a quiz was saved are taken in when they are stored, and looked up
+ * when a composed quiz still lacks one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionBankService {
+    
+    private final QuestionRepository questionRepository;
+    
+    /** Keyword (topic or question text token) to the questions containing it. */
+    private final Map<String, Set<BankEntry>> postings = new ConcurrentHashMap<>();
+    /** Normalized question text to its entry; the bank holds each question once. */
+    private final Map<String, BankEntry> byText = new ConcurrentHashMap<>();
+    private final Map<Long, List<BankEntry>> byQuiz = new ConcurrentHashMap<>();
+    /** Question ID to its explanation; deferred ones arrive after the question is indexed. */
+    private final Map<Long, String> explanations = new ConcurrentHashMap<>();
+    private final IndexRefreshWindow refreshWindow = new IndexRefreshWindow();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        refreshWindow.rebuilt();
+        postings.clear();
+        byText.clear();
+        byQuiz.clear();
+        explanations.clear();
+        
+        questionRepository.findBankQuestions().forEach(this::add);
+        
+        log.info("Question bank built with {} questions in {} ms", byText.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Add the questions of quizzes created lately; those already in the bank are skipped.
+     */
+    @Scheduled(fixedDelayString = "${indexes.refresh-millis:30000}")
+    public void refresh() {
+        Optional<LocalDateTime> since = refreshWindow.next();
+        if (since.isEmpty()) {
+            return;
+        }
+        questionRepository.findBankQuestionsCreatedSince(since.get()).stream()
+                .filter(question -> !byQuiz.containsKey(question.quizId()))
+                .toList()
+                .forEach(this::add);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizSaved(QuizSavedEvent event) {
+        Quiz quiz = event.quiz();
+        if (quiz.getQuestions() != null) {
+            quiz.getQuestions().forEach(question -> add(BankQuestion.of(question, quiz)));
+        }
+    }
+    
+    @EventListener
+    public void onExplanationsStored(ExplanationsStoredEvent event) {
+        List<BankEntry> entries = byQuiz.get(event.quizId());
+        if (entries == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.forEach(entry -> {
+                String explanation = event.explanations().get(entry.questionId());
+                if (explanation != null) {
+                    explanations.put(entry.questionId(), explanation);
+                }
+            });
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizDeleted(QuizDeletedEvent event) {
+        List<BankEntry> entries = byQuiz.remove(event.quizId());
+        if (entries == null) {
+            return;
+        }
+        for (BankEntry entry : entries) {
+            byText.remove(entry.textKey(), entry);
+            explanations.remove(entry.questionId());
+            entry.keywords().forEach(keyword -> {
+                Set<BankEntry> posting = postings.get(keyword);
+                if (posting != null) {
+                    posting.remove(entry);
+                }
+            });
+        }
+    }
+    
+    public int size() {
+        return byText.size();
+    }
+    
+    /**
+     * Assemble an unsaved quiz for the request from distinct stored questions. Questions whose
+     * quiz topic is the requested topic come first, then broader topics that contain it, then
+     * questions that only mention all of the topic's keywords.
+     *
+     * @return the composed quiz, or empty if the bank does not hold enough matching questions
+     */
+    public Optional<Quiz> compose(QuizGenerationRequest request) {
+        long start = System.nanoTime();
+        List<String> tokens = new ArrayList<>(new HashSet<>(TopicNormalizer.tokens(request.getTopic())));
+        int questionCount = request.getQuestionCount() != null
+                ? request.getQuestionCount() : QuizGenerationRequest.DEFAULT_QUESTION_COUNT;
+        if (tokens.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        // Only questions in the rarest keyword's posting list can contain every keyword
+        Set<BankEntry> smallest = null;
+        for (String token : tokens) {
+            Set<BankEntry> posting = postings.get(token);
+            if (posting == null || posting.isEmpty()) {
+                return Optional.empty();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        
+        String topicKey = TopicNormalizer.key(request.getTopic());
+        List<List<BankEntry>> tiers = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (BankEntry entry : smallest) {
+            if (!entry.keywords().containsAll(tokens)) {
+                continue;
+            }
+            if (entry.topicKey().equals(topicKey)) {
+                tiers.get(0).add(entry);
+            } else if (entry.topicTokens().containsAll(tokens)) {
+                tiers.get(1).add(entry);
+            } else {
+                tiers.get(2).add(entry);
+            }
+        }
+        
+        List<BankEntry> selected = new ArrayList<>(questionCount);
+        for (List<BankEntry> tier : tiers) {
+            Collections.shuffle(tier, ThreadLocalRandom.current());
+            for (BankEntry entry : tier) {
+                if (selected.size() == questionCount) {
+                    break;
+                }
+                selected.add(entry);
+            }
+        }
+        
+        if (selected.size() < questionCount) {
+            log.info("Question bank has {} of {} questions needed for '{}'", selected.size(), questionCount, request.getTopic());
+            return Optional.empty();
+        }
+        
+        Quiz quiz = toQuiz(request, selected);
+        log.info("Composed quiz for '{}' from the question bank in {} µs", request.getTopic(), (System.nanoTime() - start) / 1000);
+        return Optional.of(quiz);
+    }
+    
+    private void add(BankQuestion question) {
+        if (question.questionText() == null || question.options() == null || question.quizId() == null) {
+            return;
+        }
+        
+        Set<String> topicTokens = new HashSet<>(TopicNormalizer.tokens(question.topic()));
+        Set<String> keywords = new HashSet<>(topicTokens);
+        keywords.addAll(TopicNormalizer.tokens(question.questionText()));
+        
+        List<OptionSnapshot> options = question.options().stream()
+                .map(option -> new OptionSnapshot(option.getOptionLabel(), option.getOptionText()))
+                .toList();
+        BankEntry entry = new BankEntry(question.id(), question.quizId(), TopicNormalizer.key(question.topic()),
+                topicTokens, keywords, textKey(question.questionText()), question.questionText(),
+                options, question.correctAnswer());
+        
+        // Composed quizzes re-save existing questions; keep only the first copy
+        if (byText.putIfAbsent(entry.textKey(), entry) != null) {
+            return;
+        }
+        if (question.explanation() != null) {
+            explanations.put(entry.questionId(), question.explanation());
+        }
+        byQuiz.computeIfAbsent(entry.quizId(), id -> Collections.synchronizedList(new ArrayList<>())).add(entry);
+        keywords.forEach(keyword -> postings.computeIfAbsent(keyword, k -> ConcurrentHashMap.newKeySet()).add(entry));
+    }
+    
+    private Quiz toQuiz(QuizGenerationRequest request, List<BankEntry> entries) {
+        Map<Long, String> explanations = explanationsOf(entries);
+        Quiz quiz = Quiz.builder()
+                .topic(request.getTopic())
+                .title("Quiz on " + request.getTopic())
+                .description(request.getDescription() != null ? request.getDescription() : "")
+                .questions(new ArrayList<>())
+                .build();
+        
+        for (int i = 0; i < entries.size(); i++) {
+            BankEntry entry = entries.get(i);
+            Question question = Question.builder()
+                    .questionText(entry.questionText())
+                    .correctAnswer(entry.correctAnswer())
+                    .explanation(explanations.get(entry.questionId()))
+                    .questionNumber(i + 1)
+                    .quiz(quiz)
+                    .build();
+            question.setOptions(entry.options().stream()
+                    .map(option -> QuestionOption.builder()
+                            .optionLabel(option.label())
+                            .optionText(option.text())
+                            .build())
+                    .collect(Collectors.toList()));
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+    
+    /**
+     * Explanations of the entries; those not indexed yet (stored by another process, or before the
+     * question was indexed) are read from the database, and the rest are left to be generated.
+     */
+    private Map<Long, String> explanationsOf(List<BankEntry> entries) {
+        Map<Long, String> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (BankEntry entry : entries) {
+            String explanation = explanations.get(entry.questionId());
+            if (explanation != null) {
+                found.put(entry.questionId(), explanation);
+            } else {
+                missing.add(entry.questionId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Object[] row : questionRepository.findExplanationsByIdIn(missing)) {
+                explanations.put((Long) row[0], (String) row[1]);
+                found.put((Long) row[0], (String) row[1]);
+            }
+        }
+        return found;
+    }
+    
+    private static String textKey(String questionText) {
+        return questionText.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+    
+    private record OptionSnapshot(String label, String text) {
+    }
+    
+    /**
+     * Detached copy of a stored question; compose never touches the database.
+     */
+    private record BankEntry(Long questionId, Long quizId, String topicKey, Set<String> topicTokens,
+                             Set<String> keywords, String textKey, String questionText,
+                             List<OptionSnapshot> options, String correctAnswer) {
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BankEntry entry && questionId.equals(entry.questionId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return questionId.hashCode();
+        }
+    }
+}
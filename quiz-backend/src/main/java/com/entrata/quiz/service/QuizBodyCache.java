@@ -0,0 +1,127 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.CacheConfig;
+import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.event.QuizClaimedEvent;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response bodies of GET /api/quizzes/{id}, serialized once and gzipped once per quiz, so that
+ * repeat reads of a popular quiz only copy bytes. A body is tied to the {@link QuizResponse} it was
+ * written from: when the "quizzes" cache hands out a different one (reloaded or evicted), the body
+ * is written again, so it is never staler than that cache.
+ */
+@Service
+@Slf4j
+public class QuizBodyCache implements MeterBinder {
+    
+    private final QuizService quizService;
+    private final ObjectMapper objectMapper;
+    private final int minGzipBytes;
+    
+    private final Cache<Long, Body> bodies;
+    
+    public QuizBodyCache(QuizService quizService, ObjectMapper objectMapper, CacheConfig cacheConfig) {
+        this.quizService = quizService;
+        this.objectMapper = objectMapper;
+        CacheConfig.ResponseBodies config = cacheConfig.getResponseBodies();
+        this.minGzipBytes = config.getMinGzipBytes();
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxWeightBytes())
+                .weigher((Long id, Body body) -> body.size())
+                .expireAfterAccess(config.getExpireAfterAccess())
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * The serialized quiz, loading it through {@link QuizService#getQuizById} when not cached.
+     *
+     * @throws RuntimeException if the quiz does not exist
+     */
+    public Body get(Long quizId) {
+        QuizResponse quiz = quizService.getQuizById(quizId);
+        Body body = bodies.getIfPresent(quizId);
+        if (body != null && body.source() == quiz) {
+            return body;
+        }
+        
+        body = write(quiz);
+        bodies.put(quizId, body);
+        log.debug("Serialized quiz {}: {} bytes, {} gzipped", quizId, body.json().length,
+                body.gzip() == null ? "not" : body.gzip().length);
+        return body;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizDeleted(QuizDeletedEvent event) {
+        bodies.invalidate(event.quizId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizClaimed(QuizClaimedEvent event) {
+        bodies.invalidate(event.quizId());
+    }
+    
+    public long size() {
+        return bodies.estimatedSize();
+    }
+    
+    /**
+     * Hits, misses and evictions as cache.* meters tagged cache=quiz-bodies.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bodies, "quiz-bodies");
+    }
+    
+    private Body write(QuizResponse quiz) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(quiz);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quiz " + quiz.getId(), e);
+        }
+        return new Body(quiz, json, json.length < minGzipBytes ? null : gzip(json));
+    }
+    
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        // Not worth a Content-Encoding header when it barely shrinks
+        return compressed.length < json.length * 9L / 10 ? compressed : null;
+    }
+    
+    /**
+     * A quiz serialized as UTF-8 JSON, and gzipped when that pays off.
+     *
+     * @param source the response the bytes were written from
+     * @param gzip   the JSON gzipped, or null to always send it as is
+     */
+    public record Body(QuizResponse source, byte[] json, byte[] gzip) {
+        
+        int size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
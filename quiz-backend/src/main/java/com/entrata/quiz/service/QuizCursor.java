@@ -0,0 +1,45 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.dto.AttemptSummary;
+import com.entrata.quiz.dto.QuizSummary;
+import com.entrata.quiz.entity.Quiz;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing ordered by (timestamp, id) descending: quizzes by createdAt,
+ * attempts by submittedAt. Encoded as an opaque URL-safe token for the {@code after} parameter.
+ */
+public record QuizCursor(LocalDateTime createdAt, Long id) {
+    
+    public static QuizCursor of(Quiz quiz) {
+        return new QuizCursor(quiz.getCreatedAt(), quiz.getId());
+    }
+    
+    public static QuizCursor of(QuizSummary summary) {
+        return new QuizCursor(summary.createdAt(), summary.id());
+    }
+    
+    public static QuizCursor of(AttemptSummary attempt) {
+        return new QuizCursor(attempt.submittedAt(), attempt.id());
+    }
+    
+    public static QuizCursor parse(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('_');
+            return new QuizCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+    
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
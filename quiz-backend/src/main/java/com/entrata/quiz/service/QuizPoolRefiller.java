@@ -0,0 +1,84 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Tops up the pre-generation pool by enqueueing PREFETCH generation jobs, so refills run on the
+ * shared workers behind any interactive work and within the node's LLM call budget. Outside
+ * the off-peak window a refill only happens while most of the budget is idle.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuizPoolRefiller {
+    
+    private final QuizPoolService quizPoolService;
+    private final GenerationJobQueue generationJobQueue;
+    private final GenerationConfig generationConfig;
+    private final LlmCallBudget llmCallBudget;
+    
+    @Scheduled(cron = "${generation.pool.refill-cron:0 */5 * * * *}")
+    public void scheduledRefill() {
+        GenerationConfig.Pool pool = generationConfig.getPool();
+        if (!pool.isEnabled()) {
+            return;
+        }
+        if (!isOffPeak(LocalTime.now()) && llmCallBudget.utilization() > pool.getPeakIdleBudgetFraction()) {
+            log.debug("Skipping pool refill: {} of {} LLM calls in flight during peak hours",
+                    llmCallBudget.getInFlight(), llmCallBudget.getMaxConcurrentCalls());
+            return;
+        }
+        refill();
+    }
+    
+    /**
+     * Enqueue jobs for every pooled topic below its target size.
+     *
+     * @return number of refill jobs enqueued
+     */
+    public int refill() {
+        GenerationConfig.Pool pool = generationConfig.getPool();
+        int remaining = pool.getMaxRefillJobsPerRun();
+        int enqueued = 0;
+        
+        for (Map.Entry<String, String> entry : quizPoolService.poolTopics().entrySet()) {
+            String poolKey = entry.getKey();
+            long deficit = pool.getSizePerTopic() - quizPoolService.available(poolKey) - quizPoolService.pendingRefills(poolKey);
+            
+            for (long i = 0; i < deficit && remaining > 0; i++, remaining--) {
+                generationJobQueue.enqueue(refillRequest(entry.getValue()), GenerationPriority.PREFETCH, poolKey);
+                enqueued++;
+            }
+        }
+        
+        if (enqueued > 0) {
+            log.info("Enqueued {} pre-generation pool refill jobs", enqueued);
+        }
+        return enqueued;
+    }
+    
+    boolean isOffPeak(LocalTime time) {
+        GenerationConfig.Pool pool = generationConfig.getPool();
+        int hour = time.getHour();
+        int start = pool.getOffPeakStartHour();
+        int end = pool.getOffPeakEndHour();
+        // Windows may wrap around midnight, e.g. 22-6
+        return start <= end ? hour >= start && hour < end : hour >= start || hour < end;
+    }
+    
+    private QuizGenerationRequest refillRequest(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        request.setQuestionCount(generationConfig.getPool().getQuestionCount());
+        return request;
+    }
+}
@@ -0,0 +1,145 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.GenerationStage;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.dto.QuizPoolStats;
+import com.entrata.quiz.event.QuizClaimedEvent;
+import com.entrata.quiz.repository.GenerationJobRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-generated quizzes for hot topics, kept in the quizzes table with a pool key until served.
+ * Generate requests for a pooled topic take a ready quiz instead of waiting for the LLM;
+ * {@link QuizPoolRefiller} tops the pool back up in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuizPoolService {
+    
+    private static final int CLAIM_CANDIDATES = 3;
+    
+    private final QuizRepository quizRepository;
+    private final GenerationJobRepository generationJobRepository;
+    private final GenerationConfig generationConfig;
+    private final LlmCallBudget llmCallBudget;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> misses = new ConcurrentHashMap<>();
+    
+    /**
+     * Take a ready quiz for the request out of the pool.
+     *
+     * @return the id of the quiz now owned by the caller, or empty if the topic is not pooled or the pool is drained
+     */
+    public Optional<Long> take(QuizGenerationRequest request) {
+        Optional<String> poolKey = poolKeyFor(request);
+        if (poolKey.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        String key = poolKey.get();
+        for (Long id : quizRepository.findPooledIds(key, PageRequest.of(0, CLAIM_CANDIDATES))) {
+            // Concurrent requests may race for the same quiz; the losers try the next one
+            if (quizRepository.claimPooled(id, key, LocalDateTime.now()) == 1) {
+                eventPublisher.publishEvent(new QuizClaimedEvent(id));
+                hits.computeIfAbsent(key, k -> new LongAdder()).increment();
+                log.info("Served quiz {} for topic '{}' from the pre-generation pool", id, request.getTopic());
+                return Optional.of(id);
+            }
+        }
+        
+        misses.computeIfAbsent(key, k -> new LongAdder()).increment();
+        log.info("Pre-generation pool for '{}' is empty, generating on demand", request.getTopic());
+        return Optional.empty();
+    }
+    
+    /**
+     * The pool a request can be served from: its topic must be a configured hot topic and it must
+     * ask for exactly what pooled quizzes contain (default description, pooled question count).
+     */
+    public Optional<String> poolKeyFor(QuizGenerationRequest request) {
+        GenerationConfig.Pool pool = generationConfig.getPool();
+        if (!pool.isEnabled() || request.getTopic() == null) {
+            return Optional.empty();
+        }
+        if (request.getDescription() != null && !request.getDescription().isBlank()) {
+            return Optional.empty();
+        }
+        int questionCount = request.getQuestionCount() != null
+                ? request.getQuestionCount() : QuizGenerationRequest.DEFAULT_QUESTION_COUNT;
+        if (questionCount != pool.getQuestionCount()) {
+            return Optional.empty();
+        }
+        
+        String key = TopicNormalizer.key(request.getTopic());
+        return poolTopics().containsKey(key) ? Optional.of(key) : Optional.empty();
+    }
+    
+    /**
+     * Configured hot topics by pool key; topics that normalize to the same key share one pool.
+     */
+    public Map<String, String> poolTopics() {
+        Map<String, String> topics = new LinkedHashMap<>();
+        for (String topic : generationConfig.getPool().getTopics()) {
+            topics.putIfAbsent(TopicNormalizer.key(topic), topic);
+        }
+        return topics;
+    }
+    
+    public long available(String poolKey) {
+        return quizRepository.countByPoolKey(poolKey);
+    }
+    
+    public long pendingRefills(String poolKey) {
+        return generationJobRepository.countByPoolKeyAndStageIn(poolKey,
+                EnumSet.of(GenerationStage.QUEUED, GenerationStage.RETRIEVING, GenerationStage.GENERATING, GenerationStage.PARSING));
+    }
+    
+    public QuizPoolStats getStats() {
+        List<QuizPoolStats.TopicStats> topics = poolTopics().entrySet().stream()
+                .map(entry -> QuizPoolStats.TopicStats.builder()
+                        .topic(entry.getValue())
+                        .available(available(entry.getKey()))
+                        .pendingRefills(pendingRefills(entry.getKey()))
+                        .hits(count(hits, entry.getKey()))
+                        .misses(count(misses, entry.getKey()))
+                        .build())
+                .toList();
+        
+        long totalHits = hits.values().stream().mapToLong(LongAdder::sum).sum();
+        long totalMisses = misses.values().stream().mapToLong(LongAdder::sum).sum();
+        long lookups = totalHits + totalMisses;
+        
+        return QuizPoolStats.builder()
+                .enabled(generationConfig.getPool().isEnabled())
+                .hits(totalHits)
+                .misses(totalMisses)
+                .hitRate(lookups == 0 ? 0.0 : (double) totalHits / lookups)
+                .llmCallsInFlight(llmCallBudget.getInFlight())
+                .maxConcurrentLlmCalls(llmCallBudget.getMaxConcurrentCalls())
+                .topics(topics)
+                .build();
+    }
+    
+    private long count(Map<String, LongAdder> counters, String poolKey) {
+        LongAdder counter = counters.get(poolKey);
+        return counter != null ? counter.sum() : 0;
+    }
+}
@@ -0,0 +1,537 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizClaimedEvent;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over quiz topics, titles and question texts, replacing
+ * {@code like '%x%'} scans for quiz search. Terms are {@link TopicNormalizer} tokens; every query
+ * token also matches the terms it is a prefix of, so "jav stream" finds "Java Streams".
+ * Matches must contain every query token and are ranked by a BM25-style score weighted by
+ * field (topic over title over question text), newest first on ties.
+ * <p>
+ * Documents get increasing ordinals and postings are appended in ordinal order. Deleted and
+ * re-indexed quizzes leave dead ordinals behind until enough accumulate to compact. Pooled
+ * quizzes are indexed but hidden until claimed.
+ * <p>
+ * Quizzes saved, claimed or deleted in this process update the index through events. Those
+ * saved or claimed by other processes on the same database are picked up by {@link #refresh()};
+ * quizzes they delete stay indexed until the next start, and search skips them when loading.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuizSearchIndex {
+    
+    /** Which fields a query token must occur in. */
+    public enum Scope {
+        TOPIC, ALL
+    }
+    
+    /**
+     * One page of matching quiz ids, best first. {@code nextCursor} is the {@code after} value for
+     * the next page, or null on the last one.
+     */
+    public record Hits(List<Long> ids, boolean hasNext, String nextCursor) {
+    }
+    
+    static final byte TOPIC = 1;
+    static final byte TITLE = 2;
+    static final byte QUESTION = 4;
+    
+    private static final float TOPIC_WEIGHT = 3f;
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float QUESTION_WEIGHT = 1f;
+    /** Term frequency saturation, as in BM25. */
+    private static final float K1 = 1.2f;
+    /** Matching only a longer term that starts with the query token counts for less than an exact match. */
+    private static final float PREFIX_FACTOR = 0.6f;
+    /**
+     * Bounds the work for short prefixes such as "co": the postings scored for one token. Past it,
+     * the terms with the most postings are kept, whatever their position in sort order.
+     */
+    static final int MAX_PREFIX_POSTINGS = 50_000;
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terms = new HashMap<>();
+    /** The same postings by term in sorted order, for prefix lookups. */
+    private final TreeMap<String, Postings> sortedTerms = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] quizIds = new long[1024];
+    private final BitSet live = new BitSet();
+    private final BitSet hidden = new BitSet();
+    private int nextOrdinal;
+    private final IndexRefreshWindow refreshWindow = new IndexRefreshWindow();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        refreshWindow.rebuilt();
+        Map<Long, List<String>> questionTexts = new HashMap<>();
+        for (Object[] row : questionRepository.findQuestionTexts()) {
+            questionTexts.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        List<QuizRepository.SearchEntry> entries = quizRepository.findSearchEntries();
+        
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (QuizRepository.SearchEntry entry : entries) {
+                add(entry.getId(), entry.getTopic(), entry.getTitle(),
+                        questionTexts.getOrDefault(entry.getId(), List.of()), entry.getPoolKey() != null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Quiz search index built with {} quizzes and {} terms in {} ms",
+                entries.size(), terms.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Index quizzes created or claimed lately that the index does not hold as they are now.
+     */
+    @Scheduled(fixedDelayString = "${indexes.refresh-millis:30000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Optional<LocalDateTime> since = refreshWindow.next();
+        if (since.isEmpty()) {
+            return;
+        }
+        List<QuizRepository.SearchEntry> entries = quizRepository.findSearchEntriesCreatedSince(since.get());
+        lock.readLock().lock();
+        try {
+            entries = entries.stream()
+                    .filter(entry -> !holds(entry.getId(), entry.getPoolKey() != null))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, List<String>> questionTexts = new HashMap<>();
+        for (Object[] row : questionRepository.findQuestionTextsByQuizIdIn(
+                entries.stream().map(QuizRepository.SearchEntry::getId).toList())) {
+            questionTexts.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        lock.writeLock().lock();
+        try {
+            for (QuizRepository.SearchEntry entry : entries) {
+                add(entry.getId(), entry.getTopic(), entry.getTitle(),
+                        questionTexts.getOrDefault(entry.getId(), List.of()), entry.getPoolKey() != null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Indexed {} quizzes saved or claimed elsewhere", entries.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizSaved(QuizSavedEvent event) {
+        Quiz quiz = event.quiz();
+        if (quiz.getId() == null) {
+            return;
+        }
+        List<String> questions = quiz.getQuestions() == null ? List.of()
+                : quiz.getQuestions().stream().map(Question::getQuestionText).toList();
+        lock.writeLock().lock();
+        try {
+            add(quiz.getId(), quiz.getTopic(), quiz.getTitle(), questions, quiz.getPoolKey() != null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizDeleted(QuizDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.quizId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizClaimed(QuizClaimedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(event.quizId());
+            if (ordinal != null) {
+                hidden.clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Quizzes matching every token of the query, best first.
+     *
+     * @param after cursor from a previous page; when set, {@code page} is ignored
+     * @throws IllegalArgumentException if {@code after} is not a cursor from this index
+     */
+    public Hits search(String query, Scope scope, int page, int size, String after) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TopicNormalizer.tokens(query)));
+        Cursor cursor = after != null && !after.isBlank() ? Cursor.parse(after) : null;
+        if (tokens.isEmpty()) {
+            return new Hits(List.of(), false, null);
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+        byte fields = scope == Scope.TOPIC ? TOPIC : TOPIC | TITLE | QUESTION;
+        int skip = cursor == null ? Math.max(0, page) * size : 0;
+        
+        lock.readLock().lock();
+        try {
+            return collect(tokens, fields, skip, size, cursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Hits collect(List<String> tokens, byte fields, int skip, int size, Cursor cursor) {
+        // Rarest token first: it bounds the candidates every later token has to confirm
+        List<List<Map.Entry<String, Postings>>> expansions = new ArrayList<>();
+        for (String token : tokens) {
+            List<Map.Entry<String, Postings>> matches = expand(token);
+            if (matches.isEmpty()) {
+                return new Hits(List.of(), false, null);
+            }
+            expansions.add(matches);
+        }
+        expansions.sort((a, b) -> Integer.compare(postingCount(a), postingCount(b)));
+        
+        int liveCount = live.cardinality();
+        float[] scores = new float[nextOrdinal];
+        // Number of tokens a document has matched so far; only full matches survive
+        byte[] matched = new byte[nextOrdinal];
+        int[] candidates = new int[0];
+        int candidateCount = 0;
+        
+        for (int t = 0; t < expansions.size(); t++) {
+            for (Map.Entry<String, Postings> term : expansions.get(t)) {
+                Postings postings = term.getValue();
+                float idf = (float) Math.log(1 + (liveCount - postings.size + 0.5) / (postings.size + 0.5));
+                if (idf <= 0) {
+                    idf = 0.01f;
+                }
+                float factor = tokens.contains(term.getKey()) ? 1f : PREFIX_FACTOR;
+                for (int i = 0; i < postings.size; i++) {
+                    if ((postings.fields[i] & fields) == 0) {
+                        continue;
+                    }
+                    int doc = postings.docs[i];
+                    if (matched[doc] == t) {
+                        matched[doc] = (byte) (t + 1);
+                        if (t == 0) {
+                            if (candidateCount == candidates.length) {
+                                candidates = Arrays.copyOf(candidates, Math.max(16, candidateCount * 2));
+                            }
+                            candidates[candidateCount++] = doc;
+                        }
+                    } else if (matched[doc] != t + 1) {
+                        continue;
+                    }
+                    float weight = postings.weights[i];
+                    scores[doc] += idf * factor * weight * (K1 + 1) / (weight + K1);
+                }
+            }
+        }
+        
+        // Keep the best skip + size + 1 after the cursor in a min-heap (worst on top)
+        int keep = skip + size + 1;
+        PriorityQueue<Integer> best = new PriorityQueue<>(keep, (a, b) -> compare(b, a, scores));
+        int required = expansions.size();
+        // Newest first, so that equal scores (ties go to the newer quiz) rarely displace the heap top
+        for (int i = candidateCount - 1; i >= 0; i--) {
+            int doc = candidates[i];
+            if (matched[doc] != required || !live.get(doc) || hidden.get(doc)) {
+                continue;
+            }
+            if (cursor != null && !cursor.isBefore(scores[doc], quizIds[doc])) {
+                continue;
+            }
+            if (best.size() < keep) {
+                best.add(doc);
+            } else if (compare(doc, best.peek(), scores) < 0) {
+                best.poll();
+                best.add(doc);
+            }
+        }
+        
+        List<Integer> ranked = new ArrayList<>(best);
+        ranked.sort((a, b) -> compare(a, b, scores));
+        boolean hasNext = ranked.size() > skip + size;
+        List<Integer> pageDocs = ranked.subList(Math.min(skip, ranked.size()), Math.min(skip + size, ranked.size()));
+        
+        List<Long> ids = new ArrayList<>(pageDocs.size());
+        pageDocs.forEach(doc -> ids.add(quizIds[doc]));
+        String nextCursor = null;
+        if (hasNext && !pageDocs.isEmpty()) {
+            int last = pageDocs.get(pageDocs.size() - 1);
+            nextCursor = new Cursor(scores[last], quizIds[last]).encode();
+        }
+        return new Hits(ids, hasNext, nextCursor);
+    }
+    
+    /** Higher score first, then newer (higher id) first. */
+    private int compare(int a, int b, float[] scores) {
+        int byScore = Float.compare(scores[b], scores[a]);
+        return byScore != 0 ? byScore : Long.compare(quizIds[b], quizIds[a]);
+    }
+    
+    private List<Map.Entry<String, Postings>> expand(String token) {
+        List<Map.Entry<String, Postings>> matches = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matches.add(Map.entry(token, exact));
+        }
+        if (token.length() < 2) {
+            return matches;
+        }
+        NavigableMap<String, Postings> prefixed = sortedTerms.subMap(token, false, token + Character.MAX_VALUE, false);
+        int total = exact != null ? exact.size : 0;
+        for (Postings postings : prefixed.values()) {
+            total += postings.size;
+        }
+        if (total <= MAX_PREFIX_POSTINGS) {
+            matches.addAll(prefixed.entrySet());
+            return matches;
+        }
+        
+        List<Map.Entry<String, Postings>> byPostings = new ArrayList<>(prefixed.entrySet());
+        byPostings.sort((a, b) -> Integer.compare(b.getValue().size, a.getValue().size));
+        int budget = MAX_PREFIX_POSTINGS - (exact != null ? exact.size : 0);
+        for (Map.Entry<String, Postings> entry : byPostings) {
+            if (entry.getValue().size > budget) {
+                break;
+            }
+            matches.add(entry);
+            budget -= entry.getValue().size;
+        }
+        return matches;
+    }
+    
+    private static int postingCount(List<Map.Entry<String, Postings>> terms) {
+        int count = 0;
+        for (Map.Entry<String, Postings> term : terms) {
+            count += term.getValue().size;
+        }
+        return count;
+    }
+    
+    private void add(Long quizId, String topic, String title, Collection<String> questions, boolean pooled) {
+        remove(quizId);
+        
+        Map<String, Occurrence> occurrences = new HashMap<>();
+        collectTerms(topic, TOPIC, TOPIC_WEIGHT, occurrences);
+        collectTerms(title, TITLE, TITLE_WEIGHT, occurrences);
+        for (String question : questions) {
+            collectTerms(question, QUESTION, QUESTION_WEIGHT, occurrences);
+        }
+        
+        int ordinal = nextOrdinal++;
+        if (ordinal == quizIds.length) {
+            quizIds = Arrays.copyOf(quizIds, quizIds.length * 2);
+        }
+        quizIds[ordinal] = quizId;
+        ordinals.put(quizId, ordinal);
+        live.set(ordinal);
+        hidden.set(ordinal, pooled);
+        
+        occurrences.forEach((term, occurrence) -> {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+                sortedTerms.put(term, postings);
+            }
+            postings.add(ordinal, occurrence.weight, occurrence.fields);
+        });
+    }
+    
+    private static void collectTerms(String text, byte field, float weight, Map<String, Occurrence> occurrences) {
+        for (String term : TopicNormalizer.tokens(text)) {
+            Occurrence occurrence = occurrences.computeIfAbsent(term, t -> new Occurrence());
+            occurrence.weight += weight;
+            occurrence.fields |= field;
+        }
+    }
+    
+    private boolean holds(Long quizId, boolean pooled) {
+        Integer ordinal = ordinals.get(quizId);
+        return ordinal != null && hidden.get(ordinal) == pooled;
+    }
+    
+    private void remove(Long quizId) {
+        Integer ordinal = ordinals.remove(quizId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            hidden.clear(ordinal);
+            if (nextOrdinal - live.cardinality() > Math.max(MIN_DEAD_TO_COMPACT, live.cardinality())) {
+                compact();
+            }
+        }
+    }
+    
+    private void clear() {
+        terms.clear();
+        sortedTerms.clear();
+        ordinals.clear();
+        live.clear();
+        hidden.clear();
+        nextOrdinal = 0;
+    }
+    
+    /**
+     * Drop dead ordinals and renumber the live ones densely, keeping their order.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int count = 0;
+        for (int doc = 0; doc < nextOrdinal; doc++) {
+            remap[doc] = live.get(doc) ? count++ : -1;
+        }
+        
+        long[] compactIds = new long[Math.max(1024, count)];
+        BitSet compactHidden = new BitSet();
+        for (int doc = 0; doc < nextOrdinal; doc++) {
+            if (remap[doc] >= 0) {
+                compactIds[remap[doc]] = quizIds[doc];
+                compactHidden.set(remap[doc], hidden.get(doc));
+                ordinals.put(quizIds[doc], remap[doc]);
+            }
+        }
+        terms.values().removeIf(postings -> postings.retain(remap) == 0);
+        sortedTerms.keySet().retainAll(terms.keySet());
+        
+        quizIds = compactIds;
+        hidden.clear();
+        hidden.or(compactHidden);
+        live.clear();
+        live.set(0, count);
+        log.debug("Compacted quiz search index from {} to {} ordinals", nextOrdinal, count);
+        nextOrdinal = count;
+    }
+    
+    /** A term's summed field weight and fields within one quiz. */
+    private static final class Occurrence {
+        
+        private float weight;
+        private byte fields;
+    }
+    
+    /**
+     * Documents containing one term, in ordinal order, with the term's weight and fields per document.
+     */
+    private static final class Postings {
+        
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private byte[] fields = new byte[4];
+        private int size;
+        
+        void add(int doc, float weight, byte field) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            fields[size] = field;
+            size++;
+        }
+        
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    weights[kept] = weights[i];
+                    fields[kept] = fields[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+    
+    /**
+     * Position in a ranked result list, as an opaque URL-safe token.
+     */
+    private record Cursor(float score, long id) {
+        
+        static Cursor parse(String token) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('_');
+                return new Cursor(Float.intBitsToFloat(Integer.parseUnsignedInt(decoded.substring(0, separator), 16)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+        }
+        
+        /** Whether a hit ranks after this position. */
+        boolean isBefore(float otherScore, long otherId) {
+            int byScore = Float.compare(score, otherScore);
+            return byScore > 0 || (byScore == 0 && id > otherId);
+        }
+        
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (Integer.toHexString(Float.floatToIntBits(score)) + "_" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,19 +1,31 @@
 package com.entrata.quiz.service;
 
+import com.entrata.quiz.dto.CursorPage;
+import com.entrata.quiz.dto.GenerationMode;
 import com.entrata.quiz.dto.QuizGenerationRequest;
 import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.dto.QuizSummary;
 import com.entrata.quiz.entity.Question;
 import com.entrata.quiz.entity.QuestionOption;
 import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
 import com.entrata.quiz.repository.QuizRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,54 +33,199 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QuizService {
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
     private final QuizRepository quizRepository;
     private final OpenAiService openAiService;
+    private final ExplanationService explanationService;
+    private final QuizPoolService quizPoolService;
+    private final QuestionBankService questionBankService;
+    private final SemanticTopicCache semanticTopicCache;
+    private final TokenUsageService tokenUsageService;
+    private final QuizSearchIndex quizSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public QuizResponse generateAndSaveQuiz(QuizGenerationRequest request) {
         log.info("Generating quiz for topic: {}", request.getTopic());
         
+        if (request.getMode() == GenerationMode.COMPOSE) {
+            Optional<Quiz> composed = questionBankService.compose(request);
+            if (composed.isPresent()) {
+                Quiz savedQuiz = quizRepository.save(composed.get());
+                log.info("Quiz composed from question bank and saved with ID: {}", savedQuiz.getId());
+                afterSave(savedQuiz);
+                return mapToQuizResponse(savedQuiz);
+            }
+            log.info("Question bank lacks coverage for topic: {}, generating instead", request.getTopic());
+        }
+        
+        // Near-duplicate topics of a recent quiz are answered with that quiz
+        Optional<Long> cachedQuizId = semanticTopicCache.lookup(request);
+        if (cachedQuizId.isPresent()) {
+            Optional<Quiz> cachedQuiz = quizRepository.findById(cachedQuizId.get());
+            if (cachedQuiz.isPresent()) {
+                return mapToQuizResponse(cachedQuiz.get());
+            }
+            semanticTopicCache.evict(cachedQuizId.get());
+        }
+        
+        // Hot topics are served from the pre-generation pool when a quiz is ready
+        Optional<Long> pooledQuizId = quizPoolService.take(request);
+        if (pooledQuizId.isPresent()) {
+            Quiz pooledQuiz = quizRepository.findById(pooledQuizId.get())
+                    .orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + pooledQuizId.get()));
+            return mapToQuizResponse(pooledQuiz);
+        }
+        
         // Generate quiz using OpenAI
         Quiz quiz = openAiService.generateQuiz(request);
+        quiz.setCreatedBy(TokenUsageService.currentUser());
         
         // Save quiz to database
         Quiz savedQuiz = quizRepository.save(quiz);
         
         log.info("Quiz generated and saved with ID: {}", savedQuiz.getId());
         
+        afterSave(savedQuiz);
+        
         return mapToQuizResponse(savedQuiz);
     }
     
+    /**
+     * Persist several already generated quizzes in one transaction.
+     */
+    @Transactional
+    public List<Quiz> saveGeneratedQuizzes(List<Quiz> quizzes) {
+        List<Quiz> savedQuizzes = quizRepository.saveAll(quizzes);
+        
+        log.info("Saved {} generated quizzes", savedQuizzes.size());
+        
+        savedQuizzes.forEach(this::afterSave);
+        return savedQuizzes;
+    }
+    
+    private void afterSave(Quiz savedQuiz) {
+        tokenUsageService.record(savedQuiz.getCreatedBy(), savedQuiz.getTopic(), savedQuiz.getTokenUsage());
+        // Deferred mode: explanations are generated in the background once the transaction commits
+        if (ExplanationService.hasPendingExplanations(savedQuiz)) {
+            explanationService.scheduleExplanations(savedQuiz);
+        }
+        eventPublisher.publishEvent(new QuizSavedEvent(savedQuiz));
+    }
+    
     @Cacheable(value = "quizzes", key = "#id")
     public QuizResponse getQuizById(Long id) {
         log.info("Fetching quiz with ID: {}", id);
         
-        Quiz quiz = quizRepository.findById(id)
+        return findQuiz(id)
                 .orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + id));
+    }
         
-        return mapToQuizResponse(quiz);
+    /**
+     * The quiz as {@link #getQuizById} returns it, read past the "quizzes" cache; the cache reloads
+     * entries through this in the background.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QuizResponse> findQuiz(Long id) {
+        return quizRepository.findById(id).map(this::mapToQuizResponse);
     }
     
-    public List<QuizResponse> getAllQuizzes() {
-        log.info("Fetching all quizzes");
+    /**
+     * One page of quizzes, newest first. With {@code after} (a cursor from a previous page) the page
+     * starts right after that quiz and {@code page} is ignored.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuizResponse> getQuizzes(int page, int size, String after) {
+        log.info("Fetching quizzes (page {}, size {}, after {})", page, size, after);
         
-        List<Quiz> quizzes = quizRepository.findAllByOrderByCreatedAtDesc();
+        Slice<Quiz> quizzes;
+        if (after != null && !after.isBlank()) {
+            QuizCursor cursor = QuizCursor.parse(after);
+            quizzes = quizRepository.findListedAfter(cursor.createdAt(), cursor.id(), PageRequest.of(0, pageSize(size)));
+        } else {
+            quizzes = quizRepository.findListed(PageRequest.of(Math.max(0, page), pageSize(size)));
+        }
         
-        return quizzes.stream()
-                .map(this::mapToQuizResponse)
-                .collect(Collectors.toList());
+        return toPage(quizzes, QuizCursor::of, this::mapToQuizResponse);
+    }
+    
+    /**
+     * Like {@link #getQuizzes} but only the fields a list view shows, without questions.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuizSummary> getQuizSummaries(int page, int size, String after) {
+        log.info("Fetching quiz summaries (page {}, size {}, after {})", page, size, after);
+        
+        Slice<QuizSummary> summaries;
+        if (after != null && !after.isBlank()) {
+            QuizCursor cursor = QuizCursor.parse(after);
+            summaries = quizRepository.findListedSummariesAfter(cursor.createdAt(), cursor.id(), PageRequest.of(0, pageSize(size)));
+        } else {
+            summaries = quizRepository.findListedSummaries(PageRequest.of(Math.max(0, page), pageSize(size)));
+        }
+        
+        return toPage(summaries, QuizCursor::of, summary -> summary);
     }
     
-    public List<QuizResponse> searchQuizzesByTopic(String topic) {
-        log.info("Searching quizzes by topic: {}", topic);
+    /**
+     * Quizzes matching the query in the search index, best match first, loaded in one batch.
+     * With {@code after} (a cursor from a previous page) {@code page} is ignored.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuizResponse> searchQuizzes(String query, QuizSearchIndex.Scope scope, int page, int size, String after) {
+        log.info("Searching quizzes for '{}' in {} (page {}, size {}, after {})", query, scope, page, size, after);
         
-        List<Quiz> quizzes = quizRepository.findByTopicContainingIgnoreCase(topic);
+        QuizSearchIndex.Hits hits = quizSearchIndex.search(query, scope, page, pageSize(size), after);
+        if (hits.ids().isEmpty()) {
+            return new CursorPage<>(List.of(), false, null);
+        }
+        List<Quiz> quizzes = inRankOrder(hits.ids(), quizRepository.findAllById(hits.ids()), Quiz::getId);
         
-        return quizzes.stream()
+        return new CursorPage<>(quizzes.stream()
                 .map(this::mapToQuizResponse)
+                .collect(Collectors.toList()), hits.hasNext(), hits.nextCursor());
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<QuizSummary> searchQuizSummaries(String query, QuizSearchIndex.Scope scope, int page, int size, String after) {
+        log.info("Searching quiz summaries for '{}' in {} (page {}, size {}, after {})", query, scope, page, size, after);
+        
+        QuizSearchIndex.Hits hits = quizSearchIndex.search(query, scope, page, pageSize(size), after);
+        if (hits.ids().isEmpty()) {
+            return new CursorPage<>(List.of(), false, null);
+        }
+        List<QuizSummary> summaries = inRankOrder(hits.ids(), quizRepository.findSummariesByIdIn(hits.ids()), QuizSummary::id);
+        
+        return new CursorPage<>(summaries, hits.hasNext(), hits.nextCursor());
+    }
+    
+    /**
+     * Rows in the order of the ranked ids; ids deleted since they were indexed are skipped.
+     */
+    private <T> List<T> inRankOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+    
+    private <T, R> CursorPage<R> toPage(Slice<T> slice, Function<T, QuizCursor> cursorOf, Function<T, R> mapper) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        
+        return new CursorPage<>(content.stream()
+                .map(mapper)
+                .collect(Collectors.toList()), slice.hasNext(), nextCursor);
+    }
+    
     @CacheEvict(value = "quizzes", key = "#id")
     public void deleteQuiz(Long id) {
         log.info("Deleting quiz with ID: {}", id);
@@ -78,6 +235,7 @@ public class QuizService {
         }
         
         quizRepository.deleteById(id);
+        eventPublisher.publishEvent(new QuizDeletedEvent(id));
     }
     
     private QuizResponse mapToQuizResponse(Quiz quiz) {
@@ -1,19 +1,33 @@
 package com.entrata.quiz.service;
 
+import com.entrata.quiz.config.SubmissionConfig;
+import com.entrata.quiz.dto.AttemptSummary;
+import com.entrata.quiz.dto.CursorPage;
+import com.entrata.quiz.dto.GradedSubmission;
 import com.entrata.quiz.dto.QuizResultResponse;
 import com.entrata.quiz.dto.QuizSubmissionRequest;
 import com.entrata.quiz.entity.*;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuestionResponseRepository;
 import com.entrata.quiz.repository.QuizAttemptRepository;
 import com.entrata.quiz.repository.QuizRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.HashMap;
+import java.util.UUID;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,151 +35,265 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QuizSubmissionService {
     
+    private static final String CORRECT_FEEDBACK = "Correct! ";
+    private static final String INCORRECT_FEEDBACK_SELECTED = "Incorrect. You selected '";
+    private static final String INCORRECT_FEEDBACK_CORRECT = "', but the correct answer is '";
+    private static final String INCORRECT_FEEDBACK_END = "'. ";
+    
     private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
     private final QuizAttemptRepository quizAttemptRepository;
+    private final QuestionResponseRepository questionResponseRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final SubmissionConfig submissionConfig;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
     public QuizAttempt submitQuizAndReturnAttempt(QuizSubmissionRequest request) {
+        return score(request, (attempt, answerKey) -> attempt);
+    }
+    
+    public QuizResultResponse submitQuiz(QuizSubmissionRequest request) {
+        return score(request, this::buildQuizResultResponse);
+    }
+    
+    /**
+     * Submit and build the response format the frontend expects.
+     */
+    public Map<String, Object> submitQuizForFrontend(QuizSubmissionRequest request) {
+        AnswerKey answerKey = answerKeyCache.get(request.getQuizId());
+        GradedSubmission graded = grade(request, answerKey);
+        transactionTemplate.executeWithoutResult(status -> quizAttemptRepository.save(toAttempt(graded, answerKey)));
+        return buildFrontendResponse(graded);
+    }
+    
+    /**
+     * Score the answers against the quiz's compiled answer key and save the attempt. The quiz and
+     * its questions are only referenced, not loaded. The key is resolved before the transaction is
+     * opened, since it may wait for deferred explanations.
+     */
+    private <T> T score(QuizSubmissionRequest request, BiFunction<QuizAttempt, AnswerKey, T> result) {
+        AnswerKey answerKey = answerKeyCache.get(request.getQuizId());
+        GradedSubmission graded = grade(request, answerKey);
+        return transactionTemplate.execute(status ->
+                result.apply(quizAttemptRepository.save(toAttempt(graded, answerKey)), answerKey));
+    }
+    
+    /**
+     * Score the answers against the quiz's compiled answer key without storing anything.
+     */
+    public GradedSubmission grade(QuizSubmissionRequest request) {
+        return grade(request, answerKeyCache.get(request.getQuizId()));
+    }
+    
+    private GradedSubmission grade(QuizSubmissionRequest request, AnswerKey answerKey) {
         log.info("Processing quiz submission for quiz ID: {} by user: {}", 
                 request.getQuizId(), request.getUserName());
         
-        // Fetch the quiz
-        Quiz quiz = quizRepository.findById(request.getQuizId())
-                .orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + request.getQuizId()));
-        
-        log.info("Quiz found with {} questions", quiz.getQuestions().size());
-        
         // Process answers and calculate score
-        List<QuestionResponse> questionResponses = new ArrayList<>();
+        List<GradedSubmission.Answer> answers = new ArrayList<>();
         int score = 0;
         
         for (QuizSubmissionRequest.QuestionAnswer answer : request.getAnswers()) {
-            log.info("Processing answer: questionId={}, selectedAnswer={}", 
-                    answer.getQuestionId(), answer.getSelectedAnswer());
-            
-            Question question = quiz.getQuestions().stream()
-                    .filter(q -> q.getId().equals(answer.getQuestionId()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Question not found with ID: " + answer.getQuestionId()));
+            int index = answerKey.indexOf(answer.getQuestionId());
+            if (index < 0) {
+                throw new RuntimeException("Question not found with ID: " + answer.getQuestionId());
+            }
             
-            // Get the selected answer text from the option index
-            String selectedAnswerText = getOptionTextByIndex(question, answer.getSelectedAnswer());
-            log.info("Question: '{}', Selected: '{}', Correct: '{}', Options: {}", 
-                    question.getQuestionText(), selectedAnswerText, question.getCorrectAnswer(), 
-                    question.getOptions().stream().map(opt -> opt.getOptionText()).collect(Collectors.toList()));
+            // Answers are option indexes; older clients send the option text
+            int option = answerKey.optionOf(index, answer.getSelectedAnswer());
+            String selectedAnswerText = option >= 0 ? answerKey.optionText(index, option) : answer.getSelectedAnswer();
             
-            // Compare the actual option text with the correct answer
-            boolean isCorrect = selectedAnswerText.equals(question.getCorrectAnswer());
+            boolean isCorrect = answerKey.isCorrect(index, option);
             if (isCorrect) {
                 score++;
-                log.info("Answer CORRECT - Score incremented to: {}", score);
-            } else {
-                log.info("Answer INCORRECT - Score remains: {}", score);
             }
+            log.debug("Question {}: selected '{}', correct '{}'", 
+                    answer.getQuestionId(), selectedAnswerText, answerKey.correctAnswer(index));
             
-            // Create question response
-            QuestionResponse questionResponse = QuestionResponse.builder()
-                    .question(question)
-                    .selectedAnswer(selectedAnswerText)
-                    .isCorrect(isCorrect)
-                    .feedback(generateFeedback(question, selectedAnswerText))
-                    .build();
-            
-            questionResponses.add(questionResponse);
+            answers.add(new GradedSubmission.Answer(answer.getQuestionId(), answerKey.questionNumber(index) - 1,
+                    option, selectedAnswerText, isCorrect, answerKey.correctAnswer(index),
+                    renderFeedback(selectedAnswerText, isCorrect, answerKey.correctAnswer(index),
+                            answerKey.explanation(index))));
         }
         
-        log.info("Final score calculation: {}/{}", score, quiz.getQuestions().size());
+        log.info("Quiz submission scored. Score: {}/{}", score, answerKey.size());
         
-        // Create quiz attempt
+        return new GradedSubmission(UUID.randomUUID(), request.getQuizId(), request.getUserName(),
+                LocalDateTime.now(), score, answerKey.size(), answers);
+    }
+    
+    /**
+     * The attempt to store for a graded submission; the quiz and its questions are only referenced.
+     * Empty when the quiz no longer exists. Call within a transaction.
+     */
+    public Optional<QuizAttempt> toAttempt(GradedSubmission graded) {
+        return answerKeyCache.find(graded.quizId()).map(answerKey -> toAttempt(graded, answerKey));
+    }
+    
+    private QuizAttempt toAttempt(GradedSubmission graded, AnswerKey answerKey) {
+        List<QuestionResponse> questionResponses = new ArrayList<>();
         QuizAttempt quizAttempt = QuizAttempt.builder()
-                .quiz(quiz)
-                .userName(request.getUserName())
-                .score(score)
-                .totalQuestions(quiz.getQuestions().size())
+                .submissionId(graded.submissionId())
+                .quiz(quizRepository.getReferenceById(graded.quizId()))
+                .userName(graded.userName())
+                .score(graded.score())
+                .totalQuestions(graded.totalQuestions())
+                .submittedAt(graded.submittedAt())
                 .responses(questionResponses)
                 .build();
         
-        // Set the quiz attempt reference in responses
-        questionResponses.forEach(response -> response.setQuizAttempt(quizAttempt));
-        
-        // Save the attempt
-        QuizAttempt savedAttempt = quizAttemptRepository.save(quizAttempt);
-        
-        log.info("Quiz submission processed. Score: {}/{}", score, quiz.getQuestions().size());
+        PackedResponses packed = submissionConfig.isCompactResponses() ? pack(graded, answerKey) : null;
+        if (packed != null) {
+            quizAttempt.setPackedResponses(packed.encode());
+            return quizAttempt;
+        }
         
-        return savedAttempt;
+        for (GradedSubmission.Answer answer : graded.answers()) {
+            questionResponses.add(QuestionResponse.builder()
+                    .quizAttempt(quizAttempt)
+                    .question(questionRepository.getReferenceById(answer.questionId()))
+                    .selectedAnswer(answer.selectedAnswer())
+                    .isCorrect(answer.correct())
+                    .build());
+        }
+        return quizAttempt;
     }
     
-    @Transactional
-    public QuizResultResponse submitQuiz(QuizSubmissionRequest request) {
-        QuizAttempt attempt = submitQuizAndReturnAttempt(request);
-        return buildQuizResultResponse(attempt, attempt.getQuiz());
+    /**
+     * The answers packed by their position in the answer key, or null when some answer cannot be
+     * (free text matching no option, or a question no longer in the quiz).
+     */
+    private PackedResponses pack(GradedSubmission graded, AnswerKey answerKey) {
+        int size = graded.answers().size();
+        int[] positions = new int[size];
+        int[] options = new int[size];
+        BitSet correct = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            GradedSubmission.Answer answer = graded.answers().get(i);
+            positions[i] = answerKey.indexOf(answer.questionId());
+            options[i] = answer.selectedOption();
+            if (positions[i] < 0 || options[i] < 0) {
+                return null;
+            }
+            correct.set(i, answer.correct());
+        }
+        return new PackedResponses(positions, options, correct);
     }
     
-    private String generateFeedback(Question question, String selectedAnswer) {
-        if (selectedAnswer.equals(question.getCorrectAnswer())) {
-            return "Correct! " + question.getExplanation();
-        } else {
-            return String.format("Incorrect. You selected '%s', but the correct answer is '%s'. %s", 
-                    selectedAnswer, question.getCorrectAnswer(), question.getExplanation());
+    /**
+     * Read-only views of the responses of an attempt, with their feedback rendered. For a compactly
+     * stored attempt they are rebuilt from the quiz's answer key. The views are not attached to the
+     * persistence context.
+     */
+    public List<QuestionResponse> responsesOf(QuizAttempt attempt) {
+        return responsesOf(attempt, answerKeyCache.get(attempt.getQuiz().getId()));
+    }
+    
+    private List<QuestionResponse> responsesOf(QuizAttempt attempt, AnswerKey answerKey) {
+        if (attempt.getPackedResponses() == null) {
+            return attempt.getResponses().stream()
+                    .map(response -> {
+                        int index = answerKey.indexOf(response.getQuestion().getId());
+                        // A question removed from the quiz since is rendered from its entity
+                        String feedback = index >= 0
+                                ? renderFeedback(response.getSelectedAnswer(), response.getIsCorrect(),
+                                        answerKey.correctAnswer(index), answerKey.explanation(index))
+                                : renderFeedback(response);
+                        return view(attempt, response.getQuestion(), response.getSelectedAnswer(),
+                                response.getIsCorrect(), feedback);
+                    })
+                    .collect(Collectors.toList());
+        }
+        PackedResponses packed = PackedResponses.decode(attempt.getPackedResponses());
+        List<QuestionResponse> responses = new ArrayList<>(packed.size());
+        for (int i = 0; i < packed.size(); i++) {
+            int index = packed.position(i);
+            String selectedAnswer = answerKey.optionText(index, packed.option(i));
+            boolean isCorrect = packed.isCorrect(i);
+            responses.add(view(attempt, questionRepository.getReferenceById(answerKey.questionId(index)),
+                    selectedAnswer, isCorrect, renderFeedback(selectedAnswer, isCorrect,
+                            answerKey.correctAnswer(index), answerKey.explanation(index))));
         }
+        return responses;
+    }
+    
+    private static QuestionResponse view(QuizAttempt attempt, Question question, String selectedAnswer,
+                                         boolean isCorrect, String feedback) {
+        return QuestionResponse.builder()
+                .quizAttempt(attempt)
+                .question(question)
+                .selectedAnswer(selectedAnswer)
+                .isCorrect(isCorrect)
+                .feedback(feedback)
+                .build();
     }
     
     /**
-     * Helper method to get the option text by index
-     * The selectedAnswer comes as a string representing the option index
+     * Feedback is rendered whenever a response is read rather than stored with it, since it is
+     * mostly the question's explanation repeated for every attempt.
      */
-    private String getOptionTextByIndex(Question question, String selectedAnswer) {
-        try {
-            int optionIndex = Integer.parseInt(selectedAnswer);
-            if (optionIndex < 0 || optionIndex >= question.getOptions().size()) {
-                throw new RuntimeException("Invalid option index: " + optionIndex);
-            }
-            return question.getOptions().get(optionIndex).getOptionText();
-        } catch (NumberFormatException e) {
-            // If it's not a number, assume it's already the answer text
-            return selectedAnswer;
+    private static String renderFeedback(QuestionResponse response) {
+        Question question = response.getQuestion();
+        return renderFeedback(response.getSelectedAnswer(), response.getIsCorrect(),
+                question.getCorrectAnswer(), question.getExplanation());
+    }
+    
+    private static String renderFeedback(String selectedAnswer, boolean isCorrect, String correctAnswer,
+                                         String explanation) {
+        String explanationText = explanation != null ? explanation : "";
+        if (isCorrect) {
+            return CORRECT_FEEDBACK + explanationText;
         }
+        return INCORRECT_FEEDBACK_SELECTED + selectedAnswer + INCORRECT_FEEDBACK_CORRECT + correctAnswer
+                + INCORRECT_FEEDBACK_END + explanationText;
     }
     
-    private QuizResultResponse buildQuizResultResponse(QuizAttempt attempt, Quiz quiz) {
+    private QuizResultResponse buildQuizResultResponse(QuizAttempt attempt, AnswerKey answerKey) {
         double percentage = (double) attempt.getScore() / attempt.getTotalQuestions() * 100;
-        
+    
         return QuizResultResponse.builder()
-                .quizId(quiz.getId())
-                .quizTitle(quiz.getTitle())
+                .quizId(answerKey.quizId())
+                .quizTitle(answerKey.quizTitle())
                 .userName(attempt.getUserName())
                 .score(attempt.getScore())
                 .totalQuestions(attempt.getTotalQuestions())
                 .percentage(Math.round(percentage * 100.0) / 100.0)
                 .submittedAt(attempt.getSubmittedAt())
-                .questionResults(attempt.getResponses().stream()
-                        .map(this::mapToQuestionResult)
+                .questionResults(responsesOf(attempt, answerKey).stream()
+                        .map(response -> {
+                            int index = answerKey.indexOf(response.getQuestion().getId());
+                            return QuizResultResponse.QuestionResult.builder()
+                                    .questionId(answerKey.questionId(index))
+                                    .questionText(answerKey.questionText(index))
+                                    .selectedAnswer(response.getSelectedAnswer())
+                                    .correctAnswer(answerKey.correctAnswer(index))
+                                    .isCorrect(response.getIsCorrect())
+                                    .explanation(answerKey.explanation(index))
+                                    .feedback(response.getFeedback())
+                                    .build();
+                        })
                         .collect(Collectors.toList()))
                 .build();
     }
     
     /**
-     * Create a frontend-compatible response format
+     * The frontend response for a graded submission, which carries everything the response needs.
      */
-    public Map<String, Object> buildFrontendResponse(QuizAttempt attempt, Quiz quiz) {
-        double percentage = (double) attempt.getScore() / attempt.getTotalQuestions() * 100;
-        
-        // Create feedback array in the format frontend expects
-        List<Map<String, Object>> feedback = attempt.getResponses().stream()
-                .map(response -> {
+    public Map<String, Object> buildFrontendResponse(GradedSubmission graded) {
+        List<Map<String, Object>> feedback = graded.answers().stream()
+                .map(answer -> {
                     Map<String, Object> feedbackItem = new HashMap<>();
-                    feedbackItem.put("questionIndex", response.getQuestion().getQuestionNumber() - 1); // Convert to 0-based index
-                    feedbackItem.put("correct", response.getIsCorrect());
-                    feedbackItem.put("explanation", response.getFeedback());
-                    feedbackItem.put("correctAnswer", response.getQuestion().getCorrectAnswer()); // Add correct answer
+                    feedbackItem.put("questionIndex", answer.questionIndex());
+                    feedbackItem.put("correct", answer.correct());
+                    feedbackItem.put("explanation", answer.feedback());
+                    feedbackItem.put("correctAnswer", answer.correctAnswer());
                     return feedbackItem;
                 })
                 .collect(Collectors.toList());
         
         Map<String, Object> frontendResponse = new HashMap<>();
-        frontendResponse.put("score", attempt.getScore());
-        frontendResponse.put("totalQuestions", attempt.getTotalQuestions());
+        frontendResponse.put("score", graded.score());
+        frontendResponse.put("totalQuestions", graded.totalQuestions());
         frontendResponse.put("feedback", feedback);
         
         return frontendResponse;
@@ -179,27 +307,123 @@ public class QuizSubmissionService {
                 .correctAnswer(response.getQuestion().getCorrectAnswer())
                 .isCorrect(response.getIsCorrect())
                 .explanation(response.getQuestion().getExplanation())
-                .feedback(response.getFeedback())
+                .feedback(renderFeedback(response))
                 .build();
     }
     
-    public List<QuizResultResponse> getUserQuizHistory(String userName) {
-        log.info("Fetching quiz history for user: {}", userName);
+    /**
+     * A user's attempts newest first, one page at a time. With {@code after} (a cursor from a
+     * previous page) the page starts right after that attempt and {@code page} is ignored.
+     *
+     * @param details whether to include per-question results, loaded in one batch for the page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuizResultResponse> getUserQuizHistory(String userName, int page, int size, String after,
+                                                            boolean details) {
+        log.info("Fetching quiz history for user: {} (page {}, size {}, after {})", userName, page, size, after);
         
-        List<QuizAttempt> attempts = quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc(userName);
+        Slice<AttemptSummary> attempts;
+        if (after != null && !after.isBlank()) {
+            QuizCursor cursor = QuizCursor.parse(after);
+            attempts = quizAttemptRepository.findSummariesByUserNameAfter(userName, cursor.createdAt(), cursor.id(),
+                    PageRequest.of(0, pageSize(size)));
+        } else {
+            attempts = quizAttemptRepository.findSummariesByUserName(userName,
+                    PageRequest.of(Math.max(0, page), pageSize(size)));
+        }
         
-        return attempts.stream()
-                .map(attempt -> buildQuizResultResponse(attempt, attempt.getQuiz()))
-                .collect(Collectors.toList());
+        return toResultPage(attempts, details);
     }
     
-    public List<QuizResultResponse> getQuizAttempts(Long quizId) {
-        log.info("Fetching all attempts for quiz ID: {}", quizId);
+    /**
+     * A quiz's attempts newest first, paged like {@link #getUserQuizHistory}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuizResultResponse> getQuizAttempts(Long quizId, int page, int size, String after,
+                                                         boolean details) {
+        log.info("Fetching attempts for quiz ID: {} (page {}, size {}, after {})", quizId, page, size, after);
         
-        List<QuizAttempt> attempts = quizAttemptRepository.findByQuizIdOrderBySubmittedAtDesc(quizId);
+        Slice<AttemptSummary> attempts;
+        if (after != null && !after.isBlank()) {
+            QuizCursor cursor = QuizCursor.parse(after);
+            attempts = quizAttemptRepository.findSummariesByQuizIdAfter(quizId, cursor.createdAt(), cursor.id(),
+                    PageRequest.of(0, pageSize(size)));
+        } else {
+            attempts = quizAttemptRepository.findSummariesByQuizId(quizId,
+                    PageRequest.of(Math.max(0, page), pageSize(size)));
+        }
         
-        return attempts.stream()
-                .map(attempt -> buildQuizResultResponse(attempt, attempt.getQuiz()))
-                .collect(Collectors.toList());
+        return toResultPage(attempts, details);
+    }
+    
+    private CursorPage<QuizResultResponse> toResultPage(Slice<AttemptSummary> slice, boolean details) {
+        List<AttemptSummary> attempts = slice.getContent();
+        Map<Long, List<QuizResultResponse.QuestionResult>> questionResults = details
+                ? loadQuestionResults(attempts) : Map.of();
+        String nextCursor = slice.hasNext() && !attempts.isEmpty()
+                ? QuizCursor.of(attempts.get(attempts.size() - 1)).encode() : null;
+        
+        return new CursorPage<>(attempts.stream()
+                .map(attempt -> {
+                    double percentage = (double) attempt.score() / attempt.totalQuestions() * 100;
+                    return QuizResultResponse.builder()
+                            .quizId(attempt.quizId())
+                            .quizTitle(attempt.quizTitle())
+                            .userName(attempt.userName())
+                            .score(attempt.score())
+                            .totalQuestions(attempt.totalQuestions())
+                            .percentage(Math.round(percentage * 100.0) / 100.0)
+                            .submittedAt(attempt.submittedAt())
+                            .questionResults(details ? questionResults.getOrDefault(attempt.id(), List.of()) : null)
+                            .build();
+                })
+                .collect(Collectors.toList()), slice.hasNext(), nextCursor);
+    }
+        
+    /**
+     * Per-question results of a page of attempts by attempt ID: row-stored responses come from one
+     * query with their questions, packed ones from the quizzes' cached answer keys.
+     */
+    private Map<Long, List<QuizResultResponse.QuestionResult>> loadQuestionResults(List<AttemptSummary> attempts) {
+        Map<Long, List<QuizResultResponse.QuestionResult>> results = new HashMap<>();
+        List<Long> rowStored = new ArrayList<>();
+        for (AttemptSummary attempt : attempts) {
+            if (attempt.packedResponses() == null) {
+                rowStored.add(attempt.id());
+                continue;
+            }
+            AnswerKey answerKey = answerKeyCache.get(attempt.quizId());
+            PackedResponses packed = PackedResponses.decode(attempt.packedResponses());
+            List<QuizResultResponse.QuestionResult> questionResults = new ArrayList<>(packed.size());
+            for (int i = 0; i < packed.size(); i++) {
+                int index = packed.position(i);
+                String selectedAnswer = answerKey.optionText(index, packed.option(i));
+                boolean isCorrect = packed.isCorrect(i);
+                questionResults.add(QuizResultResponse.QuestionResult.builder()
+                        .questionId(answerKey.questionId(index))
+                        .questionText(answerKey.questionText(index))
+                        .selectedAnswer(selectedAnswer)
+                        .correctAnswer(answerKey.correctAnswer(index))
+                        .isCorrect(isCorrect)
+                        .explanation(answerKey.explanation(index))
+                        .feedback(renderFeedback(selectedAnswer, isCorrect, answerKey.correctAnswer(index),
+                                answerKey.explanation(index)))
+                        .build());
+            }
+            results.put(attempt.id(), questionResults);
+        }
+        
+        if (!rowStored.isEmpty()) {
+            for (QuestionResponse response : questionResponseRepository.findWithQuestionByAttemptIdIn(rowStored)) {
+                // Reading the ID does not initialize the attempt proxy
+                results.computeIfAbsent(response.getQuizAttempt().getId(), id -> new ArrayList<>())
+                        .add(mapToQuestionResult(response));
+            }
+        }
+        return results;
+    }
+    
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), QuizService.MAX_PAGE_SIZE);
     }
 }
@@ -0,0 +1,79 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.dto.TokenUsageReport;
+import com.entrata.quiz.entity.TokenUsage;
+
+import java.util.Arrays;
+
+/**
+ * Token totals over a sliding window of hourly buckets. A bucket is reused once its hour has
+ * left the window, so memory stays constant per aggregation key.
+ */
+class RollingUsage {
+    
+    private static final long HOUR_MILLIS = 3_600_000L;
+    
+    private final long[] bucketHours;
+    private final long[] generations;
+    private final long[] promptTokens;
+    private final long[] completionTokens;
+    private final long[] cachedTokens;
+    private final double[] costUsd;
+    
+    RollingUsage(int windowHours) {
+        int buckets = Math.max(1, windowHours);
+        bucketHours = new long[buckets];
+        generations = new long[buckets];
+        promptTokens = new long[buckets];
+        completionTokens = new long[buckets];
+        cachedTokens = new long[buckets];
+        costUsd = new double[buckets];
+        Arrays.fill(bucketHours, -1);
+    }
+    
+    synchronized void add(long epochMillis, TokenUsage usage, double cost) {
+        long hour = epochMillis / HOUR_MILLIS;
+        int bucket = (int) (hour % bucketHours.length);
+        if (bucketHours[bucket] != hour) {
+            bucketHours[bucket] = hour;
+            generations[bucket] = 0;
+            promptTokens[bucket] = 0;
+            completionTokens[bucket] = 0;
+            cachedTokens[bucket] = 0;
+            costUsd[bucket] = 0;
+        }
+        generations[bucket]++;
+        promptTokens[bucket] += usage.prompt();
+        completionTokens[bucket] += usage.completion();
+        cachedTokens[bucket] += usage.cached();
+        costUsd[bucket] += cost;
+    }
+    
+    synchronized TokenUsageReport.Totals totals(long epochMillis) {
+        long hour = epochMillis / HOUR_MILLIS;
+        long count = 0;
+        long prompt = 0;
+        long completion = 0;
+        long cached = 0;
+        double cost = 0;
+        for (int bucket = 0; bucket < bucketHours.length; bucket++) {
+            if (bucketHours[bucket] < 0 || hour - bucketHours[bucket] >= bucketHours.length) {
+                continue;
+            }
+            count += generations[bucket];
+            prompt += promptTokens[bucket];
+            completion += completionTokens[bucket];
+            cached += cachedTokens[bucket];
+            cost += costUsd[bucket];
+        }
+        return TokenUsageReport.Totals.builder()
+                .generations(count)
+                .promptTokens(prompt)
+                .completionTokens(completion)
+                .cachedTokens(cached)
+                .totalTokens(prompt + completion)
+                .cachedPromptRatio(prompt == 0 ? 0.0 : (double) cached / prompt)
+                .estimatedCostUsd(cost)
+                .build();
+    }
+}
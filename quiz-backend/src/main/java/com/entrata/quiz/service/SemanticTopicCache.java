@@ -0,0 +1,196 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuizRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves an existing quiz for requests whose topic is a near duplicate of a recent quiz's topic
+ * ("Java streams", "Streams in Java", "java stream API"), so each of them does not trigger its own
+ * generation. Topics are embedded locally with {@link TopicEmbedder}; recent quizzes are kept in
+ * one {@link TopicVectorIndex} per question count, since a quiz is only reused for a request of
+ * the same size. Quizzes saved or claimed by other processes on the same database are added by
+ * {@link #refresh()}; one they deleted is evicted when it is about to be served.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticTopicCache {
+    
+    private final QuizRepository quizRepository;
+    private final GenerationConfig generationConfig;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, TopicVectorIndex> indexes = new HashMap<>();
+    /** Indexed quiz ids to their question count, oldest first. */
+    private final LinkedHashMap<Long, Integer> recent = new LinkedHashMap<>();
+    private final IndexRefreshWindow refreshWindow = new IndexRefreshWindow();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        GenerationConfig.SemanticCache config = generationConfig.getSemanticCache();
+        if (!config.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        refreshWindow.rebuilt();
+        List<QuizRepository.TopicEntry> entries = quizRepository.findRecentTopics(PageRequest.of(0, config.getMaxEntries()));
+        
+        lock.writeLock().lock();
+        try {
+            indexes.clear();
+            recent.clear();
+            // Newest first from the query; insert oldest first so eviction order holds
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                QuizRepository.TopicEntry entry = entries.get(i);
+                add(entry.getId(), entry.getTopic(), entry.getQuestionCount());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Semantic topic cache built with {} quizzes in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Add quizzes created or claimed lately that the cache does not hold yet, oldest first.
+     */
+    @Scheduled(fixedDelayString = "${indexes.refresh-millis:30000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Optional<LocalDateTime> since = refreshWindow.next();
+        if (since.isEmpty()) {
+            return;
+        }
+        List<QuizRepository.TopicEntry> entries = quizRepository.findTopicsCreatedSince(since.get());
+        lock.writeLock().lock();
+        try {
+            for (QuizRepository.TopicEntry entry : entries) {
+                if (!recent.containsKey(entry.getId())) {
+                    add(entry.getId(), entry.getTopic(), entry.getQuestionCount());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * A recent quiz whose topic is similar enough to the request's to be served instead.
+     */
+    public Optional<Long> lookup(QuizGenerationRequest request) {
+        GenerationConfig.SemanticCache config = generationConfig.getSemanticCache();
+        if (!config.isEnabled() || request.getTopic() == null) {
+            return Optional.empty();
+        }
+        // A description narrows the quiz; only plain topic requests are answered from the cache
+        if (request.getDescription() != null && !request.getDescription().isBlank()) {
+            return Optional.empty();
+        }
+        int questionCount = request.getQuestionCount() != null
+                ? request.getQuestionCount() : QuizGenerationRequest.DEFAULT_QUESTION_COUNT;
+        float[] query = TopicEmbedder.embed(request.getTopic());
+        
+        Optional<TopicVectorIndex.Match> match;
+        lock.readLock().lock();
+        try {
+            TopicVectorIndex index = indexes.get(questionCount);
+            match = index != null ? index.nearest(query) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        if (match.isPresent() && match.get().similarity() >= config.getSimilarityThreshold()) {
+            log.info("Topic '{}' matches quiz {} (similarity {}), serving it from the semantic cache",
+                    request.getTopic(), match.get().id(), String.format("%.3f", match.get().similarity()));
+            return Optional.of(match.get().id());
+        }
+        return Optional.empty();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizSaved(QuizSavedEvent event) {
+        Quiz quiz = event.quiz();
+        // Pooled quizzes are inventory for the pre-generation pool, not yet served to anyone
+        if (!generationConfig.getSemanticCache().isEnabled() || quiz.getId() == null || quiz.getPoolKey() != null
+                || quiz.getQuestions() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            add(quiz.getId(), quiz.getTopic(), quiz.getQuestions().size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizDeleted(QuizDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.quizId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Forget a quiz that turned out to be gone when it was about to be served.
+     */
+    public void evict(Long quizId) {
+        onQuizDeleted(new QuizDeletedEvent(quizId));
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return recent.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void add(Long quizId, String topic, int questionCount) {
+        GenerationConfig.SemanticCache config = generationConfig.getSemanticCache();
+        remove(quizId);
+        indexes.computeIfAbsent(questionCount, count -> new TopicVectorIndex(TopicEmbedder.DIMENSIONS,
+                        config.getGraphThreshold(), config.getGraphLinks(), config.getEfConstruction(), config.getEfSearch()))
+                .add(quizId, TopicEmbedder.embed(topic));
+        recent.put(quizId, questionCount);
+        
+        Iterator<Map.Entry<Long, Integer>> oldest = recent.entrySet().iterator();
+        while (recent.size() > config.getMaxEntries() && oldest.hasNext()) {
+            Map.Entry<Long, Integer> entry = oldest.next();
+            indexes.get(entry.getValue()).remove(entry.getKey());
+            oldest.remove();
+        }
+    }
+    
+    private void remove(Long quizId) {
+        Integer questionCount = recent.remove(quizId);
+        if (questionCount != null) {
+            indexes.get(questionCount).remove(quizId);
+        }
+    }
+}
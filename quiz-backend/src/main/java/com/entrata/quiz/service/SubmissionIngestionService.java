@@ -0,0 +1,248 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.SubmissionConfig;
+import com.entrata.quiz.dto.GradedSubmission;
+import com.entrata.quiz.dto.QuizSubmissionRequest;
+import com.entrata.quiz.entity.QuizAttempt;
+import com.entrata.quiz.repository.QuizAttemptRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes submissions in when an exam ends and hundreds arrive at once. Each submission is scored
+ * against the cached answer key, appended to the {@link SubmissionWriteAheadLog} and acknowledged;
+ * a single writer thread then stores the queued submissions as attempts, one transaction per group
+ * of up to max-batch submissions or flush-millis, whichever comes first. Submissions left in the log
+ * by a crash are stored again on startup, skipping those whose attempt already exists, and the
+ * queue is drained on shutdown.
+ * <p>
+ * When ingestion is disabled, submissions are scored and stored within the request.
+ */
+@Service
+@Slf4j
+public class SubmissionIngestionService {
+    
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    /** Longest the writer waits without checking for shutdown. */
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_WAIT_MILLIS = 30_000;
+    
+    private final QuizSubmissionService quizSubmissionService;
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final SubmissionWriteAheadLog writeAheadLog;
+    private final TransactionTemplate transactionTemplate;
+    private final SubmissionConfig.Ingestion config;
+    private final BlockingQueue<GradedSubmission> pending;
+    
+    private volatile boolean running;
+    private Thread writer;
+    /** Log records stored (or dropped as unstorable) since the log was last truncated; writer thread only. */
+    private long storedRecords;
+    
+    public SubmissionIngestionService(QuizSubmissionService quizSubmissionService,
+                                      QuizAttemptRepository quizAttemptRepository,
+                                      SubmissionWriteAheadLog writeAheadLog,
+                                      TransactionTemplate transactionTemplate,
+                                      SubmissionConfig submissionConfig) {
+        this.quizSubmissionService = quizSubmissionService;
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.writeAheadLog = writeAheadLog;
+        this.transactionTemplate = transactionTemplate;
+        this.config = submissionConfig.getIngestion();
+        this.pending = new LinkedBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+    }
+    
+    /**
+     * Score a submission and return the response format the frontend expects. With ingestion
+     * enabled the attempt is durably logged, but not yet stored, when this returns.
+     */
+    public Map<String, Object> submit(QuizSubmissionRequest request) {
+        if (!config.isEnabled()) {
+            return quizSubmissionService.submitQuizForFrontend(request);
+        }
+        
+        GradedSubmission graded = quizSubmissionService.grade(request);
+        writeAheadLog.append(graded);
+        enqueue(graded);
+        return quizSubmissionService.buildFrontendResponse(graded);
+    }
+    
+    /**
+     * Queue a logged submission, even if interrupted meanwhile: the log can only be truncated once
+     * every record in it has been stored, so a logged submission must never be left out.
+     */
+    private void enqueue(GradedSubmission graded) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.put(graded);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Submissions acknowledged but not yet stored.
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!config.isEnabled() || writer != null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "submission-writer");
+        writer.start();
+        
+        List<GradedSubmission> recovered = writeAheadLog.recovered();
+        if (!recovered.isEmpty()) {
+            log.info("Storing {} submissions recovered from the submission log", recovered.size());
+        }
+        for (GradedSubmission submission : recovered) {
+            try {
+                pending.put(submission);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    @PreDestroy
+    public synchronized void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Submission writer did not drain within {} ms; {} submissions remain in the log",
+                    SHUTDOWN_WAIT_MILLIS, pending.size());
+        }
+        writer = null;
+    }
+    
+    private void run() {
+        List<GradedSubmission> batch = new ArrayList<>(config.getMaxBatch());
+        while (running || !pending.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    collect(batch);
+                }
+                if (!batch.isEmpty()) {
+                    store(batch);
+                    storedRecords += batch.size();
+                    batch.clear();
+                }
+                if (pending.isEmpty() && writeAheadLog.truncate(storedRecords)) {
+                    storedRecords = 0;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                // The batch is kept and retried; it stays in the log meanwhile
+                log.error("Failed to store {} submissions, retrying: {}", batch.size(), e.getMessage());
+                pause();
+            }
+        }
+    }
+    
+    /**
+     * Wait for a first submission, then gather more until the group is full or its time is up.
+     * Shutdown cuts the wait short.
+     */
+    private void collect(List<GradedSubmission> batch) throws InterruptedException {
+        GradedSubmission first = pending.poll(Math.min(config.getFlushMillis(), POLL_MILLIS), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushMillis());
+        while (batch.size() < config.getMaxBatch()) {
+            pending.drainTo(batch, config.getMaxBatch() - batch.size());
+            long remaining = Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS));
+            if (batch.size() >= config.getMaxBatch() || remaining <= 0 || !running) {
+                break;
+            }
+            GradedSubmission next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+    
+    private void store(List<GradedSubmission> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (DataIntegrityViolationException e) {
+            // One bad submission (e.g. its quiz was deleted while the group was stored) must not hold back the others
+            log.warn("Storing {} submissions together failed, storing them one by one: {}", batch.size(), e.getMessage());
+            for (GradedSubmission submission : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(submission)));
+                } catch (DataIntegrityViolationException single) {
+                    log.error("Dropping submission {} for quiz {} by {}: {}", submission.submissionId(),
+                            submission.quizId(), submission.userName(), single.getMessage());
+                }
+            }
+        }
+        log.debug("Stored {} submissions", batch.size());
+    }
+    
+    private void insert(List<GradedSubmission> batch) {
+        // Submissions replayed from the log may have been stored before the crash
+        Set<UUID> existing = quizAttemptRepository.findSubmissionIdsIn(
+                batch.stream().map(GradedSubmission::submissionId).toList());
+        List<QuizAttempt> attempts = new ArrayList<>(batch.size());
+        for (GradedSubmission submission : batch) {
+            if (existing.contains(submission.submissionId())) {
+                continue;
+            }
+            Optional<QuizAttempt> attempt = quizSubmissionService.toAttempt(submission);
+            if (attempt.isPresent()) {
+                attempts.add(attempt.get());
+            } else {
+                // Acknowledged before its quiz was deleted, or replayed after it
+                log.error("Dropping submission {} for quiz {} by {}: the quiz no longer exists",
+                        submission.submissionId(), submission.quizId(), submission.userName());
+            }
+        }
+        quizAttemptRepository.saveAll(attempts);
+        quizAttemptRepository.flush();
+    }
+    
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.SubmissionConfig;
+import com.entrata.quiz.dto.GradedSubmission;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of acknowledged submissions that are not yet stored as attempts. A submission is
+ * acknowledged only once its record is forced to disk; concurrent submitters share one force, so a
+ * burst costs one fsync per group rather than one per submission. The log is truncated whenever
+ * everything in it has been stored, and replayed on startup otherwise. A torn record at the tail
+ * (crash mid-write) ends the replay and is overwritten.
+ * <p>
+ * Record layout: magic (int), payload length (int), payload CRC32 (int), JSON payload.
+ */
+@Component
+@Slf4j
+public class SubmissionWriteAheadLog {
+    
+    private static final int MAGIC = 0x51535742;
+    private static final int HEADER_BYTES = 4 + 4 + 4;
+    
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Object forceLock = new Object();
+    
+    private FileChannel channel;
+    private List<GradedSubmission> recovered = List.of();
+    private long records;
+    private volatile long writePosition;
+    private long forcedPosition;
+    
+    @Autowired
+    public SubmissionWriteAheadLog(SubmissionConfig submissionConfig, ObjectMapper objectMapper) {
+        this(submissionConfig.getIngestion().isEnabled() ? Path.of(submissionConfig.getIngestion().getWalPath()) : null,
+                objectMapper);
+    }
+    
+    /**
+     * @param path the log file, or null to leave the log closed when ingestion is off
+     */
+    SubmissionWriteAheadLog(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        if (path != null) {
+            open();
+        }
+    }
+    
+    /**
+     * Append a submission and force it to disk, together with any appended concurrently.
+     */
+    public void append(GradedSubmission submission) {
+        sync(write(submission));
+    }
+    
+    /**
+     * The submissions found in the log when it was opened, in the order they were acknowledged.
+     */
+    public synchronized List<GradedSubmission> recovered() {
+        return recovered;
+    }
+    
+    /**
+     * Records appended since the log was last truncated, including recovered ones.
+     */
+    public synchronized long records() {
+        return records;
+    }
+    
+    /**
+     * Empty the log, provided no records were appended beyond the given count, all of which the
+     * caller has stored.
+     */
+    public synchronized boolean truncate(long storedRecords) {
+        if (records != storedRecords || records == 0) {
+            return false;
+        }
+        try {
+            channel.truncate(0);
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Failed to truncate submission log {}: {}", path, e.getMessage());
+            return false;
+        }
+        records = 0;
+        recovered = List.of();
+        writePosition = 0;
+        synchronized (forceLock) {
+            forcedPosition = 0;
+        }
+        return true;
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close submission log {}: {}", path, e.getMessage());
+        }
+        channel = null;
+    }
+    
+    private synchronized long write(GradedSubmission submission) {
+        if (channel == null) {
+            throw new IllegalStateException("Submission log is not open");
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(submission);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize submission " + submission.submissionId(), e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(MAGIC)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        try {
+            long position = writePosition;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            writePosition = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to submission log " + path, e);
+        }
+        records++;
+        return writePosition;
+    }
+    
+    private void sync(long position) {
+        synchronized (forceLock) {
+            // Another submitter's force already covered this record
+            if (forcedPosition >= position) {
+                return;
+            }
+            long target = writePosition;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to force submission log " + path, e);
+            }
+            forcedPosition = target;
+        }
+    }
+    
+    private void open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recovered = scan();
+            records = recovered.size();
+            // Drop a torn tail so the next record starts on a clean boundary
+            channel.truncate(writePosition);
+            forcedPosition = writePosition;
+            log.info("Submission log {} opened with {} unstored submissions", path, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open submission log " + path, e);
+        }
+    }
+    
+    private List<GradedSubmission> scan() throws IOException {
+        List<GradedSubmission> submissions = new ArrayList<>();
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt(4);
+            if (header.getInt(0) != MAGIC || length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                channel.read(payload, position + HEADER_BYTES + payload.position());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != header.getInt(8)) {
+                break;
+            }
+            submissions.add(objectMapper.readValue(payload.array(), GradedSubmission.class));
+            position += HEADER_BYTES + length;
+        }
+        writePosition = position;
+        return submissions;
+    }
+}
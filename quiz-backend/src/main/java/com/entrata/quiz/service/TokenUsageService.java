@@ -0,0 +1,164 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.dto.TokenUsageReport;
+import com.entrata.quiz.entity.TokenUsage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling, in-memory token and cost aggregates per model, normalized topic and user, also
+ * published as {@code quiz.llm.tokens} and {@code quiz.llm.cost} meters (tagged by model only,
+ * to keep metric cardinality bounded). Topics and users are free text, so their windows are
+ * dropped once nothing has been recorded for them for a whole window.
+ */
+@Service
+@Slf4j
+public class TokenUsageService {
+    
+    static final String SYSTEM_USER = "system";
+    private static final String UNKNOWN_MODEL = "unknown";
+    
+    private final OpenAiConfig openAiConfig;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    
+    private final RollingUsage total;
+    private final Map<String, RollingUsage> byModel = new ConcurrentHashMap<>();
+    private final Cache<String, RollingUsage> byTopic;
+    private final Cache<String, RollingUsage> byUser;
+    
+    @Autowired
+    public TokenUsageService(OpenAiConfig openAiConfig, MeterRegistry meterRegistry) {
+        this(openAiConfig, meterRegistry, Clock.systemUTC());
+    }
+    
+    TokenUsageService(OpenAiConfig openAiConfig, MeterRegistry meterRegistry, Clock clock) {
+        this.openAiConfig = openAiConfig;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.total = new RollingUsage(openAiConfig.getUsage().getWindowHours());
+        this.byTopic = expiringWindows();
+        this.byUser = expiringWindows();
+    }
+    
+    /**
+     * Name of the authenticated user of the current request, or null outside a request.
+     */
+    public static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+    
+    public void record(String user, String topic, TokenUsage usage) {
+        if (usage == null || usage.total() == 0) {
+            return;
+        }
+        String model = usage.getModel() != null ? usage.getModel() : UNKNOWN_MODEL;
+        double cost = estimateCost(model, usage);
+        long now = clock.millis();
+        
+        total.add(now, usage, cost);
+        window(byModel, model).add(now, usage, cost);
+        window(byTopic.asMap(), TopicNormalizer.key(topic)).add(now, usage, cost);
+        window(byUser.asMap(), user != null ? user : SYSTEM_USER).add(now, usage, cost);
+        
+        counter("quiz.llm.tokens", model, "prompt").increment(usage.prompt() - usage.cached());
+        counter("quiz.llm.tokens", model, "cached").increment(usage.cached());
+        counter("quiz.llm.tokens", model, "completion").increment(usage.completion());
+        Counter.builder("quiz.llm.cost").baseUnit("usd").tag("model", model).register(meterRegistry).increment(cost);
+        
+        log.debug("Recorded {} prompt ({} cached) and {} completion tokens of {} for topic '{}' (~${})",
+                usage.prompt(), usage.cached(), usage.completion(), model, topic, String.format("%.5f", cost));
+    }
+    
+    public TokenUsageReport getReport() {
+        long now = clock.millis();
+        return TokenUsageReport.builder()
+                .windowHours(openAiConfig.getUsage().getWindowHours())
+                .total(total.totals(now))
+                .byModel(totals(byModel, now, Integer.MAX_VALUE))
+                .byTopic(totals(byTopic.asMap(), now, openAiConfig.getUsage().getMaxTopics()))
+                .byUser(totals(byUser.asMap(), now, Integer.MAX_VALUE))
+                .build();
+    }
+    
+    /**
+     * Estimated USD cost of the usage; cached prompt tokens are billed at the cached input price.
+     */
+    double estimateCost(String model, TokenUsage usage) {
+        OpenAiConfig.ModelPrice price = null;
+        int matchedLength = -1;
+        for (Map.Entry<String, OpenAiConfig.ModelPrice> entry : openAiConfig.getUsage().getPrices().entrySet()) {
+            if (model.startsWith(entry.getKey()) && entry.getKey().length() > matchedLength) {
+                price = entry.getValue();
+                matchedLength = entry.getKey().length();
+            }
+        }
+        if (price == null) {
+            return 0.0;
+        }
+        long uncachedPrompt = usage.prompt() - usage.cached();
+        return (uncachedPrompt * price.getInput() + usage.cached() * price.getCachedInput()
+                + usage.completion() * price.getOutput()) / 1_000_000.0;
+    }
+    
+    /**
+     * Topics and users tracked at the moment, including those only kept until their window expires.
+     */
+    long trackedKeys() {
+        byTopic.cleanUp();
+        byUser.cleanUp();
+        return byTopic.estimatedSize() + byUser.estimatedSize();
+    }
+    
+    /**
+     * Windows that expire once unused for the window length, measured on the service's clock.
+     * Upkeep runs on the recording thread: done in the background, a key read before its insert
+     * was applied could stay first in access order and keep idle keys behind it from expiring.
+     */
+    private Cache<String, RollingUsage> expiringWindows() {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofHours(openAiConfig.getUsage().getWindowHours()))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .build();
+    }
+    
+    private RollingUsage window(Map<String, RollingUsage> windows, String key) {
+        return windows.computeIfAbsent(key, k -> new RollingUsage(openAiConfig.getUsage().getWindowHours()));
+    }
+    
+    private Map<String, TokenUsageReport.Totals> totals(Map<String, RollingUsage> windows, long now, int limit) {
+        Map<String, TokenUsageReport.Totals> result = new LinkedHashMap<>();
+        windows.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().totals(now)))
+                .filter(entry -> entry.getValue().getGenerations() > 0)
+                .sorted(Comparator.comparingDouble((Map.Entry<String, TokenUsageReport.Totals> entry) ->
+                                entry.getValue().getEstimatedCostUsd())
+                        .thenComparingLong(entry -> entry.getValue().getTotalTokens())
+                        .reversed())
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+    
+    private Counter counter(String name, String model, String type) {
+        return Counter.builder(name).baseUnit("tokens").tag("model", model).tag("type", type).register(meterRegistry);
+    }
+}
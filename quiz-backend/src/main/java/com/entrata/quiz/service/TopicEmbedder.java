@@ -0,0 +1,83 @@
+package com.entrata.quiz.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Local, dependency-free topic embedding using the hashing trick: every normalized word and its
+ * character trigrams are hashed into a fixed number of signed buckets and the result is scaled to
+ * unit length, so the dot product of two embeddings is their cosine similarity.
+ * Trigrams make near spellings ("stream" / "streaming") similar; words carry most of the weight.
+ */
+public final class TopicEmbedder {
+    
+    public static final int DIMENSIONS = 256;
+    
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.3f;
+    /** Words that say little about the subject of a quiz ("Stream API" is about streams). */
+    private static final Set<String> GENERIC_WORDS = Set.of(
+        "api", "concept", "fundamental", "overview", "guide", "tutorial", "primer", "essential", "topic"
+    );
+    private static final float GENERIC_WEIGHT = 0.25f;
+    
+    private TopicEmbedder() {
+    }
+    
+    public static float[] embed(String topic) {
+        float[] vector = new float[DIMENSIONS];
+        for (String token : new LinkedHashSet<>(TopicNormalizer.tokens(topic))) {
+            float weight = GENERIC_WORDS.contains(token) ? GENERIC_WEIGHT : WORD_WEIGHT;
+            addFeature(vector, "w:" + token, weight);
+            String padded = "^" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, padded.substring(i, i + 3), weight * TRIGRAM_WEIGHT);
+            }
+        }
+        
+        float norm = (float) Math.sqrt(dot(vector, 0, vector, 0, DIMENSIONS));
+        if (norm > 0) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vector;
+    }
+    
+    /**
+     * Dot product of two slices. Four independent accumulators keep the loop free of a serial
+     * dependency chain so the JIT can pipeline it over the contiguous arrays.
+     */
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+    
+    private static void addFeature(float[] vector, String feature, float weight) {
+        int hash = mix(feature.hashCode());
+        int bucket = (hash >>> 1) % DIMENSIONS;
+        vector[bucket] += (hash & 1) == 0 ? weight : -weight;
+    }
+    
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
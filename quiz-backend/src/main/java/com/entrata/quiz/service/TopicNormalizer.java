@@ -0,0 +1,58 @@
+package com.entrata.quiz.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes free-text quiz topics so that trivially different spellings of the same topic
+ * ("Java streams", "Streams in Java") map to the same key.
+ */
+public final class TopicNormalizer {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "the", "in", "of", "on", "for", "to", "and", "with", "about", "into", "basics", "intro", "introduction"
+    );
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+    
+    private TopicNormalizer() {
+    }
+    
+    /**
+     * Lower-cased, singularized content words of the topic, without stop words.
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String raw : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (raw.isEmpty() || STOP_WORDS.contains(raw)) {
+                continue;
+            }
+            tokens.add(singularize(raw));
+        }
+        return tokens;
+    }
+    
+    /**
+     * Order-independent key for a topic: its distinct tokens, sorted and space-separated.
+     */
+    public static String key(String topic) {
+        return String.join(" ", new TreeSet<>(tokens(topic)));
+    }
+    
+    private static String singularize(String token) {
+        if (token.length() > 4 && token.endsWith("ies")) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
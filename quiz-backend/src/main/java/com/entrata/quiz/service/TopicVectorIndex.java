@@ -0,0 +1,141 @@
+package com.entrata.quiz.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Nearest-neighbor index of unit vectors by cosine similarity. Vectors are stored back to back in
+ * one float arena; small indexes are scanned exhaustively, which is faster than any graph at that
+ * size, and once the index grows past {@code graphThreshold} entries an HNSW graph is built over
+ * the same arena and used instead. Removed entries are skipped and compacted away once they make
+ * up half of the arena. Not thread-safe; callers serialize writes against reads.
+ */
+public class TopicVectorIndex {
+    
+    public record Match(long id, float similarity) {
+    }
+    
+    private final int dimensions;
+    private final int graphThreshold;
+    private final int graphLinks;
+    private final int efConstruction;
+    private final int efSearch;
+    
+    private float[] arena;
+    private long[] ids;
+    private final BitSet removed = new BitSet();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int used;
+    private HnswGraph graph;
+    
+    public TopicVectorIndex(int dimensions, int graphThreshold, int graphLinks, int efConstruction, int efSearch) {
+        this.dimensions = dimensions;
+        this.graphThreshold = graphThreshold;
+        this.graphLinks = graphLinks;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.arena = new float[16 * dimensions];
+        this.ids = new long[16];
+    }
+    
+    public void add(long id, float[] vector) {
+        remove(id);
+        if (used == ids.length) {
+            arena = Arrays.copyOf(arena, arena.length * 2);
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        System.arraycopy(vector, 0, arena, used * dimensions, dimensions);
+        ids[used] = id;
+        slots.put(id, used);
+        used++;
+        
+        if (graph != null) {
+            graph.insert(arena);
+        } else if (size() > graphThreshold) {
+            buildGraph();
+        }
+    }
+    
+    public void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        removed.set(slot);
+        if (removed.cardinality() * 2 > used) {
+            compact();
+        }
+    }
+    
+    public Optional<Match> nearest(float[] query) {
+        if (graph != null) {
+            for (HnswGraph.Scored scored : graph.search(arena, query, efSearch)) {
+                if (!removed.get(scored.node())) {
+                    return Optional.of(new Match(ids[scored.node()], scored.similarity()));
+                }
+            }
+            return Optional.empty();
+        }
+        
+        int best = -1;
+        float bestSimilarity = Float.NEGATIVE_INFINITY;
+        for (int slot = 0; slot < used; slot++) {
+            if (removed.get(slot)) {
+                continue;
+            }
+            float similarity = TopicEmbedder.dot(query, 0, arena, slot * dimensions, dimensions);
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = slot;
+            }
+        }
+        return best < 0 ? Optional.empty() : Optional.of(new Match(ids[best], bestSimilarity));
+    }
+    
+    public boolean contains(long id) {
+        return slots.containsKey(id);
+    }
+    
+    public int size() {
+        return slots.size();
+    }
+    
+    public boolean usesGraph() {
+        return graph != null;
+    }
+    
+    private void buildGraph() {
+        graph = new HnswGraph(dimensions, graphLinks, efConstruction);
+        while (graph.size() < used) {
+            graph.insert(arena);
+        }
+    }
+    
+    /**
+     * Drop removed entries from the arena, keeping insertion order, and rebuild the graph if one
+     * is in use. Graph nodes are arena slots, so removed nodes can only be dropped by a rebuild.
+     */
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (removed.get(slot)) {
+                continue;
+            }
+            if (live != slot) {
+                System.arraycopy(arena, slot * dimensions, arena, live * dimensions, dimensions);
+                ids[live] = ids[slot];
+                slots.put(ids[live], live);
+            }
+            live++;
+        }
+        used = live;
+        removed.clear();
+        graph = null;
+        if (size() > graphThreshold) {
+            buildGraph();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- Offline bulk generations, so that their batches are still polled and ingested after a restart
+create table bulk_jobs (
+    id varchar(36) not null,
+    batch_id varchar(100) not null,
+    status varchar(20) not null check (status in ('SUBMITTED','INGESTING','COMPLETED','FAILED')),
+    upstream_status varchar(50),
+    requests_json TEXT not null,
+    results_json TEXT,
+    submitted_at timestamp(6) not null,
+    completed_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_bulk_jobs_status on bulk_jobs (status);
@@ -0,0 +1,3 @@
+-- Lease on a bulk job taken for ingestion, so that a job left INGESTING by a crash is claimed again
+alter table bulk_jobs add column locked_by varchar(36);
+alter table bulk_jobs add column locked_until timestamp(6);
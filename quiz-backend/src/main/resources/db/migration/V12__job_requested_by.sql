@@ -0,0 +1,3 @@
+-- Submitter of queued and bulk generation jobs, whose workers run without an authenticated user
+alter table generation_jobs add column requested_by varchar(100);
+alter table bulk_jobs add column requested_by varchar(100);
@@ -0,0 +1,89 @@
+-- Schema as Hibernate's auto DDL created it when the file-mode "api" and "worker" profiles were
+-- introduced, the oldest schema a database file can have. Such files are baselined at this
+-- version; V2 onward bring them, and new databases, up to date. Every later migration therefore
+-- tolerates changes that ddl-auto: update may already have made.
+
+create table quizzes (
+    id bigint generated by default as identity,
+    topic varchar(255) not null,
+    title varchar(255) not null,
+    description TEXT,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table questions (
+    id bigint generated by default as identity,
+    quiz_id bigint not null,
+    question_number integer not null,
+    question_text TEXT not null,
+    correct_answer varchar(255) not null,
+    explanation TEXT,
+    primary key (id),
+    constraint fk_questions_quiz foreign key (quiz_id) references quizzes
+);
+
+create table question_options (
+    id bigint generated by default as identity,
+    question_id bigint not null,
+    option_label varchar(255) not null,
+    option_text TEXT not null,
+    primary key (id),
+    constraint fk_question_options_question foreign key (question_id) references questions
+);
+
+create table quiz_attempts (
+    id bigint generated by default as identity,
+    quiz_id bigint not null,
+    user_name varchar(255) not null,
+    score integer not null,
+    total_questions integer not null,
+    submitted_at timestamp(6) not null,
+    primary key (id),
+    constraint fk_quiz_attempts_quiz foreign key (quiz_id) references quizzes
+);
+
+create table question_responses (
+    id bigint generated by default as identity,
+    quiz_attempt_id bigint not null,
+    question_id bigint not null,
+    selected_answer varchar(255) not null,
+    is_correct boolean not null,
+    feedback TEXT,
+    primary key (id),
+    constraint fk_question_responses_attempt foreign key (quiz_attempt_id) references quiz_attempts,
+    constraint fk_question_responses_question foreign key (question_id) references questions
+);
+
+create table generation_jobs (
+    id varchar(36) not null,
+    topic varchar(255) not null,
+    request_json TEXT not null,
+    priority varchar(20) not null check (priority in ('INTERACTIVE','PREFETCH')),
+    stage varchar(20) not null check (stage in ('QUEUED','RETRIEVING','GENERATING','PARSING','SAVED','FAILED','DEAD')),
+    attempts integer not null,
+    max_attempts integer not null,
+    available_at timestamp(6) not null,
+    locked_by varchar(100),
+    locked_until timestamp(6),
+    quiz_id bigint,
+    error varchar(1000),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_generation_jobs_stage_available on generation_jobs (stage, available_at);
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(255) not null unique,
+    password varchar(255) not null,
+    email varchar(255) not null,
+    role varchar(255) not null check (role in ('USER','ADMIN')),
+    is_enabled boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
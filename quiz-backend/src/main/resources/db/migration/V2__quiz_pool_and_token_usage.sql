@@ -0,0 +1,10 @@
+-- Pre-generation pool: pooled quizzes and their refill jobs carry the pool key
+alter table quizzes add column if not exists pool_key varchar(200);
+alter table generation_jobs add column if not exists pool_key varchar(200);
+
+-- Token usage recorded per quiz
+alter table quizzes add column if not exists llm_model varchar(100);
+alter table quizzes add column if not exists prompt_tokens bigint;
+alter table quizzes add column if not exists completion_tokens bigint;
+alter table quizzes add column if not exists cached_tokens bigint;
+alter table quizzes add column if not exists created_by varchar(100);
@@ -0,0 +1,7 @@
+-- Idempotency key of submissions ingested through the write-ahead log. Databases updated by
+-- ddl-auto already have a unique constraint on it; a second unique index does no harm.
+alter table quiz_attempts add column if not exists submission_id uuid;
+create unique index if not exists uk_quiz_attempts_submission_id on quiz_attempts (submission_id);
+
+-- Answers packed into the attempt row
+alter table quiz_attempts add column if not exists packed_responses varbinary(1024);
@@ -0,0 +1,2 @@
+-- Options stored as a JSON array of [label, text] pairs in the question row
+alter table questions add column if not exists options TEXT;
@@ -0,0 +1,18 @@
+-- Secondary indexes for the repository finders. H2 already indexes primary keys, unique
+-- columns (users.username, quiz_attempts.submission_id) and foreign keys (questions.quiz_id,
+-- question_responses.quiz_attempt_id). IF NOT EXISTS covers databases baselined from auto DDL,
+-- which may already have some of these from the entity mappings.
+
+-- Quiz listings: where pool_key is null order by created_at desc, id desc; pooled quizzes by pool_key
+create index if not exists idx_quizzes_pool_key_created on quizzes (pool_key, created_at, id);
+drop index if exists idx_quizzes_pool_key;
+
+-- Attempt history by user and by quiz, newest first
+create index if not exists idx_quiz_attempts_user_submitted on quiz_attempts (user_name, submitted_at);
+create index if not exists idx_quiz_attempts_quiz_submitted on quiz_attempts (quiz_id, submitted_at);
+
+-- Job claiming: stage = 'QUEUED' and available_at <= now
+create index if not exists idx_generation_jobs_stage_available on generation_jobs (stage, available_at);
+
+-- Login and registration checks by email
+create index if not exists idx_users_email on users (email);
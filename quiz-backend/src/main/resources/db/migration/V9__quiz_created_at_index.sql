@@ -0,0 +1,3 @@
+-- The in-memory indexes periodically read the quizzes created (or claimed from the pool) since
+-- their previous read, across all pool keys
+create index if not exists idx_quizzes_created_at on quizzes (created_at);
@@ -15,7 +15,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Simple working test to demonstrate the testing framework setup
  * This test validates basic entity functionality without complex mocking
  */
-@SpringBootTest
+@SpringBootTest(properties = "openai.api-key=test-api-key-for-integration-tests")
 class SimpleTest {
 
     @Test
@@ -138,13 +138,11 @@ class SimpleTest {
         QuestionOption option = QuestionOption.builder()
                 .optionLabel("A")
                 .optionText("Programming Language")
-                .question(question)
                 .build();
 
         question.getOptions().add(option);
 
         assertEquals(1, question.getOptions().size());
         assertEquals(option, question.getOptions().get(0));
-        assertEquals(question, option.getQuestion());
     }
 }
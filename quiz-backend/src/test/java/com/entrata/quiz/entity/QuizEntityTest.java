@@ -43,10 +43,8 @@ class QuizEntityTest {
 
         // Create QuestionOption
         option = QuestionOption.builder()
-                .id(1L)
                 .optionLabel("A")
                 .optionText("true")
-                .question(question)
                 .build();
 
         // Create QuizAttempt
@@ -152,10 +150,8 @@ class QuizEntityTest {
     @Test
     void questionOption_ShouldHaveCorrectProperties() {
         // Then
-        assertEquals(1L, option.getId());
         assertEquals("A", option.getOptionLabel());
         assertEquals("true", option.getOptionText());
-        assertEquals(question, option.getQuestion());
     }
 
     @Test
@@ -164,13 +160,11 @@ class QuizEntityTest {
         QuestionOption newOption = QuestionOption.builder()
                 .optionLabel("B")
                 .optionText("false")
-                .question(question)
                 .build();
 
         // Then
         assertEquals("B", newOption.getOptionLabel());
         assertEquals("false", newOption.getOptionText());
-        assertEquals(question, newOption.getQuestion());
     }
 
     @Test
@@ -318,4 +312,24 @@ class QuizEntityTest {
         // Then
         assertEquals(60.0, percentage, 0.01);
     }
+
+    @Test
+    void questionOptionsConverter_ShouldRoundTripOptionsInOrder() {
+        // Given
+        QuestionOptionsConverter converter = new QuestionOptionsConverter();
+        List<QuestionOption> options = List.of(
+                QuestionOption.builder().optionLabel("A").optionText("Say \"hi\", ✓").build(),
+                QuestionOption.builder().optionLabel("B").optionText("false").build());
+
+        // When
+        String column = converter.convertToDatabaseColumn(options);
+        List<QuestionOption> read = converter.convertToEntityAttribute(column);
+
+        // Then
+        assertEquals(options, read);
+        assertSame(converter.convertToEntityAttribute(column).get(0).getOptionLabel(), read.get(0).getOptionLabel(),
+                "labels are interned");
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty(), "a question without stored options has none");
+    }
 }
@@ -0,0 +1,101 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the "api" profile, one of several JVMs sharing a database file.
+ */
+@SpringBootTest
+@ActiveProfiles("api")
+class ApiProfileIntegrationTest {
+
+    private static final Path DB_DIR = createDbDir();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) {
+        registry.add("QUIZ_DB_PATH", () -> DB_DIR.resolve("quizdb").toString());
+        registry.add("openai.api-key", () -> "test-api-key-for-integration-tests");
+    }
+
+    @Test
+    void findById_ShouldSeeWritesOfOtherNodes() {
+        // Given - a quiz this node has read once
+        Long id = quizRepository.save(createQuiz()).getId();
+        transactionTemplate.execute(status -> quizRepository.findById(id).orElseThrow().getQuestions().size());
+
+        // When - another node fills in an explanation
+        jdbcTemplate.update("update questions set explanation = 'Written by a worker' where quiz_id = ?", id);
+
+        // Then
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions();
+        assertFalse(options.isSecondLevelCacheEnabled());
+        assertFalse(options.isQueryCacheEnabled());
+        assertEquals("Written by a worker", transactionTemplate.execute(status ->
+                quizRepository.findById(id).orElseThrow().getQuestions().get(0).getExplanation()));
+    }
+
+    private static Quiz createQuiz() {
+        Quiz quiz = Quiz.builder()
+                .topic("Java")
+                .title("Java Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        Question question = Question.builder()
+                .questionText("What runs Java bytecode?")
+                .correctAnswer("JVM")
+                .questionNumber(1)
+                .quiz(quiz)
+                .options(new ArrayList<>())
+                .build();
+        for (String text : List.of("JVM", "Python")) {
+            question.getOptions().add(QuestionOption.builder()
+                    .optionLabel(text.substring(0, 1))
+                    .optionText(text)
+                    .build());
+        }
+        quiz.getQuestions().add(question);
+        return quiz;
+    }
+
+    private static Path createDbDir() {
+        try {
+            return Files.createTempDirectory("quiz-api-profile");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
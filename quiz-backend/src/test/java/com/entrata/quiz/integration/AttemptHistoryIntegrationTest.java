@@ -0,0 +1,215 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizSubmissionRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.QuestionResponse;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.entity.QuizAttempt;
+import com.entrata.quiz.repository.QuizAttemptRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizSubmissionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AttemptHistoryIntegrationTest {
+
+    private static final int ATTEMPT_COUNT = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizSubmissionService quizSubmissionService;
+
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        quiz = quizRepository.save(createQuiz());
+
+        // Row-stored attempts, two per timestamp so the cursor has to break ties by ID
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<QuizAttempt> attempts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPT_COUNT; i++) {
+            QuizAttempt attempt = QuizAttempt.builder()
+                    .quiz(quiz)
+                    .userName("alice")
+                    .score(1)
+                    .totalQuestions(2)
+                    .submittedAt(start.plusMinutes(i / 2))
+                    .responses(new ArrayList<>())
+                    .build();
+            for (Question question : quiz.getQuestions()) {
+                boolean correct = question.getQuestionNumber() == 1;
+                attempt.getResponses().add(QuestionResponse.builder()
+                        .quizAttempt(attempt)
+                        .question(question)
+                        .selectedAnswer(correct ? question.getCorrectAnswer() : "Option B")
+                        .isCorrect(correct)
+                        .build());
+            }
+            attempts.add(attempt);
+        }
+        quizAttemptRepository.saveAll(attempts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        quizAttemptRepository.deleteAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void getUserQuizHistory_ShouldWalkAllPagesWithOneQueryEach() throws Exception {
+        // Given
+        List<LocalDateTime> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        QueryCounter.reset();
+
+        // When
+        do {
+            var request = get("/api/quiz-submissions/user/{userName}/history", "alice")
+                    .param("size", "10")
+                    .param("details", "false");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            for (JsonNode attempt : objectMapper.readTree(result.getResponse().getContentAsString())) {
+                seen.add(LocalDateTime.parse(attempt.get("submittedAt").asText()));
+                assertEquals("Java Quiz", attempt.get("quizTitle").asText());
+                assertFalse(attempt.hasNonNull("questionResults"));
+            }
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        // Then - newest first with no attempt repeated or skipped at a tied page boundary
+        List<LocalDateTime> expected = new ArrayList<>();
+        for (int i = ATTEMPT_COUNT - 1; i >= 0; i--) {
+            expected.add(LocalDateTime.of(2024, 1, 1, 9, i / 2));
+        }
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+        // Each page is a single projection query joining attempts and quizzes
+        assertEquals(3, QueryCounter.count(), "queries to walk three summary pages");
+    }
+
+    @Test
+    void getQuizAttempts_ShouldBatchLoadDetailsInOneFollowUpQuery() throws Exception {
+        // Given
+        QueryCounter.reset();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/quiz-submissions/quiz/{quizId}/attempts", quiz.getId())
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "true"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        // Then - the page and then every response on it with its question, instead of 1 + N + 2N
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(20, body.size());
+        JsonNode results = body.get(19).get("questionResults");
+        assertEquals(2, results.size());
+        assertEquals("Option B", results.get(1).get("selectedAnswer").asText());
+        assertTrue(results.get(1).get("feedback").asText().startsWith("Incorrect. You selected 'Option B'"));
+        assertEquals(2, QueryCounter.count(), "queries to load a page with details");
+    }
+
+    @Test
+    void getUserQuizHistory_ShouldRenderPackedAttemptsFromCachedAnswerKey() throws Exception {
+        // Given - submitted attempts are packed and leave the quiz's answer key cached
+        QuizSubmissionRequest request = new QuizSubmissionRequest();
+        request.setQuizId(quiz.getId());
+        request.setUserName("bob");
+        List<QuizSubmissionRequest.QuestionAnswer> answers = new ArrayList<>();
+        for (Question question : quiz.getQuestions()) {
+            QuizSubmissionRequest.QuestionAnswer answer = new QuizSubmissionRequest.QuestionAnswer();
+            answer.setQuestionId(question.getId());
+            answer.setSelectedAnswer(question.getCorrectAnswer());
+            answers.add(answer);
+        }
+        request.setAnswers(answers);
+        quizSubmissionService.submitQuizAndReturnAttempt(request);
+        QueryCounter.reset();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/quiz-submissions/user/{userName}/history", "bob"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "false"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andReturn();
+
+        // Then
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString()).get(0).get("questionResults");
+        assertEquals(2, results.size());
+        assertEquals("Option A", results.get(1).get("selectedAnswer").asText());
+        assertEquals(1, QueryCounter.count(), "queries to load packed attempts with details");
+
+        mockMvc.perform(get("/api/quiz-submissions/user/{userName}/history", "bob").param("after", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Quiz createQuiz() {
+        Quiz quiz = Quiz.builder()
+                .topic("Java")
+                .title("Java Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= 2; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q)
+                    .correctAnswer("Option A")
+                    .explanation("Explanation " + q)
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
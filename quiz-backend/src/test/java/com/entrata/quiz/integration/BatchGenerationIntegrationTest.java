@@ -0,0 +1,129 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.BatchQuizGenerationRequest;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.OpenAiService;
+import com.entrata.quiz.service.RetrievalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchGenerationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @MockBean
+    private OpenAiService openAiService;
+
+    @AfterEach
+    void tearDown() {
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateBatch_ShouldStreamStatusPerTopicAndShareRetrieval() throws Exception {
+        // Given - generation fails for one topic, related topics share a retrieval
+        when(openAiService.retrieveContext(anyString()))
+                .thenReturn(new RetrievalService.RetrievalContext("Java streams", "", List.of()));
+        when(openAiService.generateQuiz(any(QuizGenerationRequest.class), any(Function.class)))
+                .thenAnswer(invocation -> {
+                    QuizGenerationRequest request = invocation.getArgument(0);
+                    Function<String, RetrievalService.RetrievalContext> contextProvider = invocation.getArgument(1);
+                    contextProvider.apply(request.getTopic());
+                    if (request.getTopic().startsWith("Broken")) {
+                        throw new RuntimeException("Failed to generate quiz: OpenAI API error");
+                    }
+                    return createQuiz(request.getTopic());
+                });
+
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Java streams", "Streams in Java", "Broken topic"));
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(post("/api/quizzes/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        asyncResult.getAsyncResult(10_000);
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        List<String> lines = body.lines().filter(line -> !line.isBlank()).toList();
+        assertEquals(3, lines.size());
+        long saved = lines.stream().filter(line -> line.contains("\"status\":\"SAVED\"")).count();
+        long failed = lines.stream().filter(line -> line.contains("\"status\":\"FAILED\"")).count();
+        assertEquals(2, saved);
+        assertEquals(1, failed);
+        assertEquals(2, quizRepository.count());
+
+        // "Java streams" and "Streams in Java" normalize to the same key, so only two retrievals run
+        verify(openAiService, times(2)).retrieveContext(anyString());
+    }
+
+    private Quiz createQuiz(String topic) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .description("Generated in a batch")
+                .questions(new ArrayList<>())
+                .build();
+
+        Question question = Question.builder()
+                .questionText("What is " + topic + "?")
+                .correctAnswer("A concept")
+                .explanation("It is a concept.")
+                .questionNumber(1)
+                .quiz(quiz)
+                .build();
+        question.setOptions(List.of(
+                QuestionOption.builder().optionLabel("A").optionText("A concept").build(),
+                QuestionOption.builder().optionLabel("B").optionText("A database").build(),
+                QuestionOption.builder().optionLabel("C").optionText("A browser").build(),
+                QuestionOption.builder().optionLabel("D").optionText("A compiler").build()));
+        quiz.getQuestions().add(question);
+        return quiz;
+    }
+}
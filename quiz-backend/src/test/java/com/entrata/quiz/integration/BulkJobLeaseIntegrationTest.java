@@ -0,0 +1,136 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.BulkGenerationJob;
+import com.entrata.quiz.entity.BulkJob;
+import com.entrata.quiz.repository.BulkJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the lease queries of bulk jobs against the database, with explicit clocks so that a lease
+ * expires without waiting for it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BulkJobLeaseIntegrationTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime LEASE_END = NOW.plusMinutes(5);
+
+    @Autowired
+    private BulkJobRepository bulkJobRepository;
+
+    @AfterEach
+    void tearDown() {
+        bulkJobRepository.deleteAll();
+    }
+
+    @Test
+    void claimIngestion_ShouldRefuseSecondClaimantUntilLeaseExpires() {
+        // Given
+        String id = bulkJobRepository.save(submittedJob("job-1")).getId();
+        assertEquals(List.of(id), pollable(NOW));
+
+        // When
+        int first = claim(id, "worker-a", NOW);
+        int whileHeld = claim(id, "worker-b", NOW.plusMinutes(4));
+        List<String> pollableWhileHeld = pollable(NOW.plusMinutes(4));
+        List<String> pollableAfterExpiry = pollable(LEASE_END.plusSeconds(1));
+        int afterExpiry = claim(id, "worker-b", LEASE_END.plusSeconds(1));
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(0, whileHeld);
+        assertTrue(pollableWhileHeld.isEmpty());
+        assertEquals(List.of(id), pollableAfterExpiry);
+        assertEquals(1, afterExpiry);
+        BulkJob job = bulkJobRepository.findById(id).orElseThrow();
+        assertEquals(BulkGenerationJob.Status.INGESTING, job.getStatus());
+        assertEquals("worker-b", job.getLockedBy());
+        assertEquals("completed", job.getUpstreamStatus());
+    }
+
+    @Test
+    void updateProgressAndRelease_ShouldOnlyApplyForTheCurrentClaimant() {
+        // Given - worker-a's lease expired and worker-b took the job over
+        String id = bulkJobRepository.save(submittedJob("job-2")).getId();
+        claim(id, "worker-a", NOW);
+        claim(id, "worker-b", LEASE_END.plusSeconds(1));
+
+        // When
+        int staleProgress = bulkJobRepository.updateProgress(id, "worker-a", "[\"stale\"]",
+                BulkGenerationJob.Status.INGESTING, LEASE_END.plusMinutes(10));
+        int staleRelease = bulkJobRepository.release(id, "worker-a", BulkGenerationJob.Status.COMPLETED,
+                "[\"stale\"]", LEASE_END, BulkGenerationJob.Status.INGESTING);
+        int progress = bulkJobRepository.updateProgress(id, "worker-b", "[\"Java\"]",
+                BulkGenerationJob.Status.INGESTING, LEASE_END.plusMinutes(10));
+
+        // Then - only the current claimant moves the job, and its progress extends the lease
+        assertEquals(0, staleProgress);
+        assertEquals(0, staleRelease);
+        assertEquals(1, progress);
+        BulkJob job = bulkJobRepository.findById(id).orElseThrow();
+        assertEquals(BulkGenerationJob.Status.INGESTING, job.getStatus());
+        assertEquals("[\"Java\"]", job.getResultsJson());
+        assertEquals(LEASE_END.plusMinutes(10), job.getLockedUntil());
+        assertTrue(pollable(LEASE_END.plusMinutes(5)).isEmpty());
+    }
+
+    @Test
+    void release_ShouldFinishOrHandBackTheJob() {
+        // Given
+        String handedBack = bulkJobRepository.save(submittedJob("job-3")).getId();
+        String finished = bulkJobRepository.save(submittedJob("job-4")).getId();
+        claim(handedBack, "worker-a", NOW);
+        claim(finished, "worker-a", NOW);
+
+        // When
+        int released = bulkJobRepository.release(handedBack, "worker-a", BulkGenerationJob.Status.SUBMITTED,
+                null, null, BulkGenerationJob.Status.INGESTING);
+        int completed = bulkJobRepository.release(finished, "worker-a", BulkGenerationJob.Status.COMPLETED,
+                "[\"Java\"]", NOW.plusMinutes(1), BulkGenerationJob.Status.INGESTING);
+
+        // Then - a handed-back job is polled again straight away, and a finished one never is
+        assertEquals(1, released);
+        assertEquals(1, completed);
+        BulkJob job = bulkJobRepository.findById(handedBack).orElseThrow();
+        assertEquals(BulkGenerationJob.Status.SUBMITTED, job.getStatus());
+        assertNull(job.getLockedBy());
+        assertNull(job.getLockedUntil());
+        assertEquals(List.of(handedBack), pollable(NOW));
+        assertEquals(List.of(handedBack), pollable(LEASE_END.plusHours(1)));
+        BulkJob done = bulkJobRepository.findById(finished).orElseThrow();
+        assertEquals(BulkGenerationJob.Status.COMPLETED, done.getStatus());
+        assertEquals(NOW.plusMinutes(1), done.getCompletedAt());
+        assertEquals(0, claim(finished, "worker-b", LEASE_END.plusHours(1)));
+    }
+
+    private int claim(String id, String claimant, LocalDateTime now) {
+        return bulkJobRepository.claimIngestion(id, "completed", claimant, BulkGenerationJob.Status.SUBMITTED,
+                BulkGenerationJob.Status.INGESTING, now.plusMinutes(5), now);
+    }
+
+    private List<String> pollable(LocalDateTime now) {
+        return bulkJobRepository.findPollable(BulkGenerationJob.Status.SUBMITTED,
+                BulkGenerationJob.Status.INGESTING, now);
+    }
+
+    private static BulkJob submittedJob(String id) {
+        return BulkJob.builder()
+                .id(id)
+                .batchId("batch-" + id)
+                .status(BulkGenerationJob.Status.SUBMITTED)
+                .upstreamStatus("in_progress")
+                .requestsJson("[]")
+                .submittedAt(NOW.minusMinutes(30))
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import com.entrata.quiz.entity.QuestionOption;
 import com.entrata.quiz.repository.QuizRepository;
 import com.entrata.quiz.repository.QuizAttemptRepository;
 import com.entrata.quiz.service.OpenAiService;
+import com.entrata.quiz.service.QuizSearchIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,6 +52,9 @@ class FullWorkflowIntegrationTest {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
+    @Autowired
+    private QuizSearchIndex quizSearchIndex;
+
     @MockBean
     private OpenAiService openAiService;
 
@@ -134,7 +138,8 @@ class FullWorkflowIntegrationTest {
                 .andExpect(jsonPath("$[0].quizId").value(quizId.intValue()))
                 .andExpect(jsonPath("$[0].userName").value("integrationTestUser"));
 
-        // Step 6: Search for quizzes
+        // Step 6: Search for quizzes (the test transaction never commits, so index explicitly)
+        quizSearchIndex.rebuild();
         mockMvc.perform(get("/api/quizzes/search")
                 .param("topic", "Java"))
                 .andExpect(status().isOk())
@@ -256,18 +261,18 @@ class FullWorkflowIntegrationTest {
 
         // Create options for question1
         List<QuestionOption> options1 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("A programming language").question(question1).build(),
-                QuestionOption.builder().optionLabel("B").optionText("A database").question(question1).build(),
-                QuestionOption.builder().optionLabel("C").optionText("An operating system").question(question1).build(),
-                QuestionOption.builder().optionLabel("D").optionText("A web browser").question(question1).build()
+                QuestionOption.builder().optionLabel("A").optionText("A programming language").build(),
+                QuestionOption.builder().optionLabel("B").optionText("A database").build(),
+                QuestionOption.builder().optionLabel("C").optionText("An operating system").build(),
+                QuestionOption.builder().optionLabel("D").optionText("A web browser").build()
         );
 
         // Create options for question2
         List<QuestionOption> options2 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").question(question2).build(),
-                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").question(question2).build(),
-                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").question(question2).build(),
-                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").question(question2).build()
+                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").build(),
+                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").build(),
+                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").build(),
+                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").build()
         );
 
         question1.setOptions(options1);
@@ -0,0 +1,214 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.GenerationStage;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.GenerationJob;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.GenerationJobRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.GenerationJobQueue;
+import com.entrata.quiz.service.GenerationWorker;
+import com.entrata.quiz.service.OpenAiService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs several independent workers against one file-mode H2 database, the way separately
+ * deployed worker processes share the generation_jobs table.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/generation-queue-test;AUTO_SERVER=TRUE",
+        "generation.jobs.worker-enabled=false",
+        "generation.jobs.retry-backoff-seconds=0",
+        "generation.jobs.max-attempts=2"
+})
+class GenerationQueueIntegrationTest {
+
+    @Autowired
+    private GenerationJobQueue queue;
+
+    @Autowired
+    private GenerationJobRepository generationJobRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @MockBean
+    private OpenAiService openAiService;
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ExecutorService::shutdownNow);
+        generationJobRepository.deleteAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void workers_ShouldRunEveryJobExactlyOnce() throws Exception {
+        // Given
+        Map<String, AtomicInteger> runs = new ConcurrentHashMap<>();
+        when(openAiService.generateQuiz(any(QuizGenerationRequest.class), any(Function.class), any(Consumer.class)))
+                .thenAnswer(invocation -> {
+                    QuizGenerationRequest request = invocation.getArgument(0);
+                    Consumer<GenerationStage> progress = invocation.getArgument(2);
+                    progress.accept(GenerationStage.GENERATING);
+                    runs.computeIfAbsent(request.getTopic(), topic -> new AtomicInteger()).incrementAndGet();
+                    Thread.sleep(20);
+                    return quiz(request.getTopic());
+                });
+
+        List<String> jobIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            jobIds.add(queue.enqueue(request("Topic " + i), GenerationPriority.INTERACTIVE).getId());
+        }
+
+        // When - three workers, two threads each, poll concurrently
+        List<GenerationWorker> workers = List.of(worker("worker-a", 2), worker("worker-b", 2), worker("worker-c", 2));
+        awaitFinished(jobIds, workers);
+
+        // Then
+        assertEquals(20, runs.size());
+        runs.forEach((topic, count) -> assertEquals(1, count.get(), "ran more than once: " + topic));
+        for (String jobId : jobIds) {
+            GenerationJob job = generationJobRepository.findById(jobId).orElseThrow();
+            assertEquals(GenerationStage.SAVED, job.getStage());
+            assertNotNull(job.getQuizId());
+            assertNull(job.getLockedBy());
+        }
+        assertEquals(20, quizRepository.count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimNext_ShouldPreferInteractiveJobsAndReclaimExpiredLeases() {
+        // Given - a prefetch job queued first, then an interactive one, plus a job whose worker died
+        GenerationJob prefetch = queue.enqueue(request("Prefetch"), GenerationPriority.PREFETCH);
+        GenerationJob interactive = queue.enqueue(request("Interactive"), GenerationPriority.INTERACTIVE);
+        GenerationJob abandoned = queue.enqueue(request("Abandoned"), GenerationPriority.PREFETCH);
+        abandoned.setStage(GenerationStage.GENERATING);
+        abandoned.setAttempts(1);
+        abandoned.setLockedBy("crashed-worker");
+        abandoned.setLockedUntil(LocalDateTime.now().minusMinutes(1));
+        generationJobRepository.save(abandoned);
+
+        // When
+        GenerationJob first = queue.claimNext("worker-a").orElseThrow();
+        GenerationJob second = queue.claimNext("worker-a").orElseThrow();
+        GenerationJob third = queue.claimNext("worker-a").orElseThrow();
+
+        // Then
+        assertEquals(interactive.getId(), first.getId());
+        assertEquals(prefetch.getId(), second.getId());
+        assertEquals(abandoned.getId(), third.getId());
+        assertEquals(2, third.getAttempts());
+        assertTrue(queue.claimNext("worker-b").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_ShouldAttributeQuizToTheUserWhoEnqueuedTheJob() throws Exception {
+        // Given - enqueued by alice's request; the worker thread has no authenticated user
+        when(openAiService.generateQuiz(any(QuizGenerationRequest.class), any(Function.class), any(Consumer.class)))
+                .thenAnswer(invocation -> quiz(invocation.<QuizGenerationRequest>getArgument(0).getTopic()));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        String jobId;
+        try {
+            jobId = queue.enqueue(request("Attributed"), GenerationPriority.INTERACTIVE).getId();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        // When
+        awaitFinished(List.of(jobId), List.of(worker("worker-a", 1)));
+
+        // Then
+        GenerationJob job = generationJobRepository.findById(jobId).orElseThrow();
+        assertEquals("alice", job.getRequestedBy());
+        assertEquals("alice", quizRepository.findById(job.getQuizId()).orElseThrow().getCreatedBy());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_ShouldRetryAndThenDeadLetterFailingJob() throws Exception {
+        // Given
+        when(openAiService.generateQuiz(any(QuizGenerationRequest.class), any(Function.class), any(Consumer.class)))
+                .thenThrow(new RuntimeException("Failed to generate quiz: OpenAI API error"));
+        String jobId = queue.enqueue(request("Always failing"), GenerationPriority.INTERACTIVE).getId();
+
+        // When
+        awaitFinished(List.of(jobId), List.of(worker("worker-a", 1)));
+
+        // Then
+        GenerationJob job = generationJobRepository.findById(jobId).orElseThrow();
+        assertEquals(GenerationStage.DEAD, job.getStage());
+        assertEquals(2, job.getAttempts());
+        assertEquals("Failed to generate quiz: OpenAI API error", job.getError());
+        assertEquals(0, quizRepository.count());
+    }
+
+    private GenerationWorker worker(String workerId, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        executors.add(executor);
+        return new GenerationWorker(queue, executor, threads, workerId);
+    }
+
+    private void awaitFinished(List<String> jobIds, List<GenerationWorker> workers) throws InterruptedException {
+        ExecutorService pollers = Executors.newFixedThreadPool(workers.size());
+        executors.add(pollers);
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<GenerationJob> jobs = generationJobRepository.findAllById(jobIds);
+            if (jobs.size() == jobIds.size() && jobs.stream().allMatch(job -> job.getStage().isTerminal())) {
+                return;
+            }
+            workers.forEach(worker -> pollers.execute(worker::poll));
+            Thread.sleep(25);
+        }
+        fail("Jobs did not finish in time");
+    }
+
+    private QuizGenerationRequest request(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        return request;
+    }
+
+    private Quiz quiz(String topic) {
+        return Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .description("Generated by a worker")
+                .questions(Collections.synchronizedList(new ArrayList<>()))
+                .build();
+    }
+}
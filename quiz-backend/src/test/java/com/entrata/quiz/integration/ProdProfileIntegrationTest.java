@@ -0,0 +1,151 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.dto.QuizResultResponse;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizService;
+import com.entrata.quiz.service.QuizSubmissionService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.CoreMigrationType;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the "prod" profile against a database file that ddl-auto: update created and kept up to
+ * date before migrations existed, as api and worker nodes left it.
+ */
+@SpringBootTest
+@ActiveProfiles("prod")
+class ProdProfileIntegrationTest {
+
+    private static final Path DB_DIR = createDbDir();
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizSubmissionService quizSubmissionService;
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) {
+        registry.add("QUIZ_DB_PATH", () -> DB_DIR.resolve("quizdb").toString());
+        registry.add("openai.api-key", () -> "test-api-key-for-integration-tests");
+    }
+
+    @BeforeAll
+    static void createLegacyDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + DB_DIR.resolve("quizdb"), "sa", "password");
+             Statement statement = connection.createStatement()) {
+            // The oldest file schema, with rows whose ids came from identity columns
+            statement.execute("runscript from 'classpath:db/migration/V1__baseline_schema.sql'");
+            statement.execute("insert into quizzes (id, topic, title, created_at, updated_at) "
+                    + "values (120, 'Java', 'Java Quiz', now(), now())");
+            statement.execute("insert into questions (id, quiz_id, question_number, question_text, correct_answer) "
+                    + "values (480, 120, 1, 'What is a JVM?', 'A virtual machine')");
+            statement.execute("insert into questions (id, quiz_id, question_number, question_text, correct_answer) "
+                    + "values (481, 120, 2, 'What does javac emit?', 'Bytecode')");
+            statement.execute("insert into question_options (question_id, option_label, option_text) "
+                    + "values (481, 'A', 'Bytecode'), (480, 'B', 'A compiler'), (481, 'B', 'Assembly'), "
+                    + "(480, 'A', 'A virtual machine')");
+            statement.execute("insert into quiz_attempts (id, quiz_id, user_name, score, total_questions, submitted_at) "
+                    + "values (300, 120, 'alice', 1, 1, now())");
+            statement.execute("insert into question_responses (id, quiz_attempt_id, question_id, selected_answer, "
+                    + "is_correct, feedback) values (900, 300, 480, 'A virtual machine', true, 'Correct! ')");
+            // What ddl-auto: update added later: columns, and sequences starting below those ids
+            statement.execute("alter table quizzes add column pool_key varchar(200)");
+            statement.execute("create sequence quiz_seq start with 1 increment by 50");
+            statement.execute("create sequence question_seq start with 1 increment by 50");
+            statement.execute("create index idx_quizzes_pool_key on quizzes (pool_key)");
+        }
+    }
+
+    @Test
+    void startup_ShouldBaselineAndMigrateLegacyFileDatabase() {
+        // Then - the context only starts when the migrated schema validates
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals(CoreMigrationType.BASELINE, applied[0].getType());
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"),
+                Arrays.stream(applied).map(info -> info.getVersion().getVersion()).toList());
+
+        assertEquals("131072", jdbcTemplate.queryForObject(
+                "select setting_value from information_schema.settings where setting_name = 'CACHE_SIZE'", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where index_name = 'IDX_QUIZZES_POOL_KEY'", Integer.class));
+    }
+
+    @Test
+    void save_ShouldTakeIdsPastLegacyRows() {
+        // When
+        Quiz quiz = quizRepository.save(Quiz.builder()
+                .topic("Python")
+                .title("Python Quiz")
+                .questions(new ArrayList<>())
+                .build());
+
+        // Then
+        assertTrue(quiz.getId() > 120, "new id " + quiz.getId());
+        assertEquals("Java Quiz", quizRepository.findById(120L).orElseThrow().getTitle());
+        quizRepository.delete(quiz);
+    }
+
+    @Test
+    void getQuizById_ShouldReadOptionsMovedFromOptionRows() {
+        // When
+        QuizResponse quiz = quizService.getQuizById(120L);
+
+        // Then - in the order the rows were stored
+        List<QuizResponse.QuestionResponse> questions = quiz.getQuestions();
+        assertEquals(List.of("B", "A"), questions.get(0).getOptions().stream()
+                .map(QuizResponse.QuestionOptionResponse::getOptionLabel).toList());
+        assertEquals("Assembly", questions.get(1).getOptions().get(1).getOptionText());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'QUESTION_OPTIONS'", Integer.class));
+    }
+
+    @Test
+    void getUserQuizHistory_ShouldRenderFeedbackClearedFromLegacyResponses() {
+        // Then
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from question_responses where feedback is not null", Integer.class));
+        QuizResultResponse attempt = quizSubmissionService.getUserQuizHistory("alice", 0, 20, null, true)
+                .getItems().get(0);
+        assertEquals("Correct! ", attempt.getQuestionResults().get(0).getFeedback());
+    }
+
+    private static Path createDbDir() {
+        try {
+            return Files.createTempDirectory("quiz-prod-profile");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
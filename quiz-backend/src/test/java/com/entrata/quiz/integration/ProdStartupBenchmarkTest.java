@@ -0,0 +1,133 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.QuizApplication;
+import com.entrata.quiz.service.QuizService;
+import com.entrata.quiz.service.QuizSubmissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup of the "prod" profile over a legacy database file of about a million rows, and read
+ * latency once it is up; run with -Dbenchmark=true.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProdStartupBenchmarkTest {
+
+    private static final int QUIZZES = 20_000;
+    private static final int QUESTIONS_PER_QUIZ = 5;
+    private static final int OPTIONS_PER_QUESTION = 4;
+    private static final int ATTEMPTS = 100_000;
+    private static final int USERS = 1_000;
+    private static final int READS = 1_000;
+
+    @TempDir
+    Path dbDir;
+
+    @Test
+    void benchmarkStartupAndHotQueries() throws Exception {
+        String dbPath = dbDir.resolve("quizdb").toString();
+        long rows = seedLegacyDatabase(dbPath);
+
+        // First start: baseline, every migration over the legacy rows, then validation
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = boot(dbPath)) {
+            long bootMillis = (System.nanoTime() - start) / 1_000_000;
+            long migrateMillis = Arrays.stream(context.getBean(Flyway.class).info().applied())
+                    .map(MigrationInfo::getExecutionTime)
+                    .filter(Objects::nonNull)
+                    .mapToLong(Integer::longValue)
+                    .sum();
+            log.info("Seeded {} rows; first start: {} ms, of which migrations {} ms", rows, bootMillis, migrateMillis);
+        }
+
+        // Restart: nothing to migrate, only validation
+        start = System.nanoTime();
+        try (ConfigurableApplicationContext context = boot(dbPath)) {
+            log.info("Restart: {} ms", (System.nanoTime() - start) / 1_000_000);
+
+            QuizService quizService = context.getBean(QuizService.class);
+            QuizSubmissionService quizSubmissionService = context.getBean(QuizSubmissionService.class);
+            assertEquals(QUESTIONS_PER_QUIZ, quizService.getQuizById(1L).getQuestions().size());
+
+            log.info("Quiz by id: {} us, first list page: {} us, user history: {} us",
+                    averageMicros(i -> quizService.getQuizById(1L + i * 17L % QUIZZES)),
+                    averageMicros(i -> quizService.getQuizSummaries(0, 20, null)),
+                    averageMicros(i -> quizSubmissionService.getUserQuizHistory("user" + i % USERS, 0, 20, null, true)));
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(String dbPath) {
+        return new SpringApplicationBuilder(QuizApplication.class)
+                .profiles("prod")
+                .properties("QUIZ_DB_PATH=" + dbPath,
+                        "server.port=0",
+                        "OPENAI_API_KEY=test-api-key-for-integration-tests")
+                .run();
+    }
+
+    /**
+     * Average over {@link #READS} calls, after as many to warm up.
+     */
+    private static long averageMicros(IntConsumer read) {
+        for (int i = 0; i < READS; i++) {
+            read.accept(READS + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            read.accept(i);
+        }
+        return (System.nanoTime() - start) / 1_000 / READS;
+    }
+
+    /**
+     * The oldest file schema, filled the way ddl-auto: update left it: options as rows, and
+     * feedback stored with every response.
+     */
+    private static long seedLegacyDatabase(String dbPath) throws Exception {
+        int questions = QUIZZES * QUESTIONS_PER_QUIZ;
+        int options = questions * OPTIONS_PER_QUESTION;
+        int responses = ATTEMPTS * QUESTIONS_PER_QUIZ;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + dbPath, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("runscript from 'classpath:db/migration/V1__baseline_schema.sql'");
+            statement.execute("insert into quizzes (id, topic, title, created_at, updated_at) "
+                    + "select x, 'Topic ' || x, 'Quiz ' || x, now(), now() from system_range(1, " + QUIZZES + ")");
+            statement.execute("insert into questions (id, quiz_id, question_number, question_text, correct_answer, explanation) "
+                    + "select x, (x - 1) / " + QUESTIONS_PER_QUIZ + " + 1, mod(x - 1, " + QUESTIONS_PER_QUIZ + ") + 1, "
+                    + "'Question ' || x, 'Option A', 'Because' from system_range(1, " + questions + ")");
+            statement.execute("insert into question_options (id, question_id, option_label, option_text) "
+                    + "select x, (x - 1) / " + OPTIONS_PER_QUESTION + " + 1, "
+                    + "char(65 + mod(x - 1, " + OPTIONS_PER_QUESTION + ")), "
+                    + "'Option ' || char(65 + mod(x - 1, " + OPTIONS_PER_QUESTION + ")) "
+                    + "from system_range(1, " + options + ")");
+            statement.execute("insert into quiz_attempts (id, quiz_id, user_name, score, total_questions, submitted_at) "
+                    + "select x, mod(x - 1, " + QUIZZES + ") + 1, 'user' || mod(x, " + USERS + "), 1, "
+                    + QUESTIONS_PER_QUIZ + ", dateadd('SECOND', x, timestamp '2024-01-01 00:00:00') "
+                    + "from system_range(1, " + ATTEMPTS + ")");
+            statement.execute("insert into question_responses (id, quiz_attempt_id, question_id, selected_answer, "
+                    + "is_correct, feedback) "
+                    + "select x, (x - 1) / " + QUESTIONS_PER_QUIZ + " + 1, "
+                    + "mod((x - 1) / " + QUESTIONS_PER_QUIZ + ", " + QUIZZES + ") * " + QUESTIONS_PER_QUIZ
+                    + " + mod(x - 1, " + QUESTIONS_PER_QUIZ + ") + 1, 'Option A', true, 'Correct! Because' "
+                    + "from system_range(1, " + responses + ")");
+        }
+        return QUIZZES + questions + options + ATTEMPTS + responses;
+    }
+}
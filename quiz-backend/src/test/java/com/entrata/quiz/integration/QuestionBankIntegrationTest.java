@@ -0,0 +1,89 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuestionBankService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class QuestionBankIntegrationTest {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @AfterEach
+    void tearDown() {
+        quizRepository.deleteAll();
+        questionBankService.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldIndexProjectedQuestionsAndComposeWithLaterExplanations() {
+        // Given - a deferred quiz stored before its explanations, indexed from the database
+        Quiz stored = quizRepository.save(createQuiz("Kafka Streams", 3));
+        questionBankService.rebuild();
+        stored.getQuestions().forEach(question ->
+                questionRepository.updateExplanation(question.getId(), "Explained " + question.getQuestionNumber()));
+
+        // When
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic("Kafka Streams");
+        request.setQuestionCount(3);
+        Quiz composed = questionBankService.compose(request).orElseThrow();
+
+        // Then
+        assertEquals(3, composed.getQuestions().size());
+        for (Question question : composed.getQuestions()) {
+            assertEquals(4, question.getOptions().size());
+            assertEquals("Option A", question.getOptions().get(0).getOptionText());
+            assertNotNull(question.getExplanation(), "explanations stored after indexing are read back");
+        }
+    }
+
+    private Quiz createQuiz(String topic, int questionCount) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= questionCount; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic)
+                    .correctAnswer("Option A")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B", "C", "D")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
@@ -0,0 +1,166 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizBodyCache;
+import com.entrata.quiz.service.QuizService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuizBodyCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizBodyCache quizBodyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void getQuizById_ShouldServeSameBytesPlainOrGzipped() throws Exception {
+        // Given
+        Long id = quizRepository.save(createQuiz("Java", 10)).getId();
+        byte[] plain = mockMvc.perform(get("/api/quizzes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        QueryCounter.reset();
+
+        // When
+        MvcResult gzipped = mockMvc.perform(get("/api/quizzes/{id}", id)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        // Then - the body Jackson wrote on the first read, compressed on that read too
+        byte[] compressed = gzipped.getResponse().getContentAsByteArray();
+        assertTrue(compressed.length < plain.length / 2, compressed.length + " of " + plain.length + " bytes");
+        assertArrayEquals(plain, gunzip(compressed));
+        assertEquals(0, QueryCounter.count(), "queries to serve a cached body");
+        assertArrayEquals(objectMapper.writeValueAsBytes(quizService.getQuizById(id)), plain);
+
+        JsonNode quiz = objectMapper.readTree(plain);
+        assertEquals("Java Quiz", quiz.get("title").asText());
+        assertEquals(10, quiz.get("questions").size());
+
+        // A refused gzip gets the plain body
+        mockMvc.perform(get("/api/quizzes/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(plain));
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "quiz-bodies").tag("result", "hit")
+                .functionCounter().count() >= 2);
+    }
+
+    @Test
+    void getQuizById_ShouldSendSmallQuizUncompressed() throws Exception {
+        // Given
+        Long id = quizRepository.save(createQuiz("Go", 1)).getId();
+
+        // When & Then
+        mockMvc.perform(get("/api/quizzes/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(containsString("\"title\":\"Go Quiz\"")));
+    }
+
+    @Test
+    void deleteQuiz_ShouldDropCachedBody() throws Exception {
+        // Given
+        Long id = quizRepository.save(createQuiz("Python", 5)).getId();
+        mockMvc.perform(get("/api/quizzes/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk());
+        assertNotNull(quizBodyCache.get(id).gzip());
+        long cached = quizBodyCache.size();
+
+        // When
+        mockMvc.perform(delete("/api/quizzes/{id}", id)).andExpect(status().isNoContent());
+
+        // Then
+        assertEquals(cached - 1, quizBodyCache.size());
+        mockMvc.perform(get("/api/quizzes/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private Quiz createQuiz(String topic, int questionCount) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= questionCount; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic + " and how it behaves in production")
+                    .correctAnswer("Option A")
+                    .explanation("Option A is correct because of how " + topic + " handles case " + q)
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B", "C", "D")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
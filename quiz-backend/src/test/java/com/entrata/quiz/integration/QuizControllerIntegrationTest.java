@@ -7,6 +7,7 @@ import com.entrata.quiz.entity.Question;
 import com.entrata.quiz.entity.QuestionOption;
 import com.entrata.quiz.repository.QuizRepository;
 import com.entrata.quiz.service.OpenAiService;
+import com.entrata.quiz.service.QuizSearchIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +49,9 @@ class QuizControllerIntegrationTest {
     @Autowired
     private QuizRepository quizRepository;
 
+    @Autowired
+    private QuizSearchIndex quizSearchIndex;
+
     @MockBean
     private OpenAiService openAiService;
 
@@ -88,6 +94,32 @@ class QuizControllerIntegrationTest {
                 .andExpect(jsonPath("$.questions[0].options[0].optionText").value("A programming language"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitGenerationJob_ShouldReturnAcceptedAndBePollable() throws Exception {
+        // Given - the job runs on a worker thread; fail it so nothing is written outside this transaction
+        when(openAiService.generateQuiz(any(QuizGenerationRequest.class), any(Function.class), any(Consumer.class)))
+                .thenThrow(new RuntimeException("Failed to generate quiz: OpenAI API error"));
+
+        // When
+        String body = mockMvc.perform(post("/api/quizzes/jobs")
+                .param("priority", "PREFETCH")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").isNotEmpty())
+                .andExpect(jsonPath("$.topic").value("Java Programming"))
+                .andExpect(jsonPath("$.priority").value("PREFETCH"))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(body).get("id").asText();
+
+        // Then
+        mockMvc.perform(get("/api/quizzes/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(jobId))
+                .andExpect(jsonPath("$.stage").exists());
+    }
+
     @Test
     void generateQuiz_WithInvalidRequest_ShouldReturnBadRequest() throws Exception {
         // Given
@@ -128,6 +160,13 @@ class QuizControllerIntegrationTest {
                 .andExpect(jsonPath("$.questions", hasSize(2)));
     }
 
+    @Test
+    void getBulkGeneration_WhenJobDoesNotExist_ShouldReturnNotFound() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/quizzes/generate/bulk/{jobId}", "no-such-job"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getQuizById_WhenQuizDoesNotExist_ShouldReturnBadRequest() throws Exception {
         // When & Then
@@ -174,6 +213,7 @@ class QuizControllerIntegrationTest {
         
         quizRepository.save(javaQuiz);
         quizRepository.save(pythonQuiz);
+        quizSearchIndex.rebuild();
 
         // When & Then
         mockMvc.perform(get("/api/quizzes/search")
@@ -188,6 +228,7 @@ class QuizControllerIntegrationTest {
         // Given
         Quiz javaQuiz = createSampleQuiz();
         quizRepository.save(javaQuiz);
+        quizSearchIndex.rebuild();
 
         // When & Then
         mockMvc.perform(get("/api/quizzes/search")
@@ -273,18 +314,18 @@ class QuizControllerIntegrationTest {
 
         // Create options for question1
         List<QuestionOption> options1 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("A programming language").question(question1).build(),
-                QuestionOption.builder().optionLabel("B").optionText("A database").question(question1).build(),
-                QuestionOption.builder().optionLabel("C").optionText("An operating system").question(question1).build(),
-                QuestionOption.builder().optionLabel("D").optionText("A web browser").question(question1).build()
+                QuestionOption.builder().optionLabel("A").optionText("A programming language").build(),
+                QuestionOption.builder().optionLabel("B").optionText("A database").build(),
+                QuestionOption.builder().optionLabel("C").optionText("An operating system").build(),
+                QuestionOption.builder().optionLabel("D").optionText("A web browser").build()
         );
 
         // Create options for question2
         List<QuestionOption> options2 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").question(question2).build(),
-                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").question(question2).build(),
-                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").question(question2).build(),
-                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").question(question2).build()
+                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").build(),
+                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").build(),
+                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").build(),
+                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").build()
         );
 
         question1.setOptions(options1);
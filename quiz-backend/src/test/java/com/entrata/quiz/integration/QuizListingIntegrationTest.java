@@ -0,0 +1,239 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizSearchIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuizListingIntegrationTest {
+
+    private static final int QUIZ_COUNT = 45;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizSearchIndex quizSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Quiz> quizzes = new ArrayList<>();
+        for (int i = 0; i < QUIZ_COUNT; i++) {
+            quizzes.add(createQuiz(i % 3 == 0 ? "Java topic " + i : "Python topic " + i));
+        }
+        quizRepository.saveAll(quizzes);
+        quizSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void getAllQuizzes_ShouldLoadPageWithConstantQueryCount() throws Exception {
+        // Given
+        QueryCounter.reset();
+
+        // When - 20 quizzes with 5 questions of 4 options each
+        MvcResult result = mockMvc.perform(get("/api/quizzes").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "true"))
+                .andReturn();
+
+        // Then - one query for the page and one for its questions, options included, instead of 1 + N + 5N
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(20, body.size());
+        assertEquals(4, body.get(19).get("questions").get(4).get("options").size());
+        assertEquals(2, QueryCounter.count(), "queries to list a page");
+    }
+
+    @Test
+    void getQuizById_ShouldReadCachedQuizAndLoadQuestionsInOneQuery() throws Exception {
+        // Given
+        Long id = quizRepository.findAll().get(0).getId();
+        QueryCounter.reset();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/quizzes/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then - the quiz was cached when it was saved; its questions, options included, take one query
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(5, body.get("questions").size());
+        assertEquals("B", body.get("questions").get(0).get("options").get(1).get("optionLabel").asText());
+        assertEquals(1, QueryCounter.count(), "queries to load a quiz");
+    }
+
+    @Test
+    void getAllQuizzes_ShouldWalkAllPagesWithCursor() throws Exception {
+        // Given
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        // When
+        do {
+            var request = get("/api/quizzes").param("size", "20");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            for (JsonNode quiz : objectMapper.readTree(result.getResponse().getContentAsString())) {
+                assertTrue(seen.add(quiz.get("id").asLong()), "quiz listed twice: " + quiz.get("id"));
+            }
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(QUIZ_COUNT, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void searchQuizzesByTopic_ShouldPageByOffset() throws Exception {
+        // When & Then - 15 Java quizzes
+        MvcResult last = mockMvc.perform(get("/api/quizzes/search")
+                        .param("topic", "java")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "false"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andReturn();
+        assertEquals(5, objectMapper.readTree(last.getResponse().getContentAsString()).size());
+
+        mockMvc.perform(get("/api/quizzes").param("after", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllQuizzes_SummaryViewShouldUseSingleQuery() throws Exception {
+        // Given
+        QueryCounter.reset();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/quizzes").param("size", "20").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "true"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        // Then - counts come from SQL, no questions or options are loaded
+        JsonNode first = objectMapper.readTree(result.getResponse().getContentAsString()).get(0);
+        assertEquals(5, first.get("questionCount").asInt());
+        assertTrue(first.get("title").asText().endsWith(" Quiz"));
+        assertNotNull(first.get("createdAt"));
+        assertFalse(first.has("questions"));
+        assertEquals(1, QueryCounter.count(), "queries to list a summary page");
+    }
+
+    @Test
+    void searchQuizzesByTopic_SummaryViewShouldFollowCursor() throws Exception {
+        // Given
+        MvcResult first = mockMvc.perform(get("/api/quizzes/search")
+                        .param("topic", "java").param("size", "10").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        // When & Then - the remaining 5 of 15 Java quizzes
+        MvcResult next = mockMvc.perform(get("/api/quizzes/search")
+                        .param("topic", "java").param("size", "10").param("view", "summary").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "false"))
+                .andReturn();
+        assertEquals(5, objectMapper.readTree(next.getResponse().getContentAsString()).size());
+
+        mockMvc.perform(get("/api/quizzes").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchQuizzes_ShouldMatchQuestionTextByPrefixAndBatchLoad() throws Exception {
+        // Given - questions read "Question 1 about Java topic 42"
+        QueryCounter.reset();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/quizzes/search").param("q", "quest jav 42"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then - loaded in the same 2 queries as a list page
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(1, body.size());
+        assertEquals("Java topic 42", body.get(0).get("topic").asText());
+        assertEquals(2, QueryCounter.count(), "queries to load a search page");
+
+        // Topic search does not look at question text
+        mockMvc.perform(get("/api/quizzes/search").param("topic", "quest jav 42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/quizzes/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Quiz createQuiz(String topic) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= 5; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic)
+                    .correctAnswer("Option A")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B", "C", "D")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
@@ -263,18 +263,18 @@ class QuizSubmissionControllerIntegrationTest {
 
         // Create options for question1
         List<QuestionOption> options1 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("A programming language").question(question1).build(),
-                QuestionOption.builder().optionLabel("B").optionText("A database").question(question1).build(),
-                QuestionOption.builder().optionLabel("C").optionText("An operating system").question(question1).build(),
-                QuestionOption.builder().optionLabel("D").optionText("A web browser").question(question1).build()
+                QuestionOption.builder().optionLabel("A").optionText("A programming language").build(),
+                QuestionOption.builder().optionLabel("B").optionText("A database").build(),
+                QuestionOption.builder().optionLabel("C").optionText("An operating system").build(),
+                QuestionOption.builder().optionLabel("D").optionText("A web browser").build()
         );
 
         // Create options for question2
         List<QuestionOption> options2 = List.of(
-                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").question(question2).build(),
-                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").question(question2).build(),
-                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").question(question2).build(),
-                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").question(question2).build()
+                QuestionOption.builder().optionLabel("A").optionText("Java Virtual Machine").build(),
+                QuestionOption.builder().optionLabel("B").optionText("Java Version Manager").build(),
+                QuestionOption.builder().optionLabel("C").optionText("Java Variable Method").build(),
+                QuestionOption.builder().optionLabel("D").optionText("Java Visual Mode").build()
         );
 
         question1.setOptions(options1);
@@ -0,0 +1,93 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.entity.QuizAttempt;
+import com.entrata.quiz.repository.QuizAttemptRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the schema from the migrations alone and has Hibernate validate the entities against it,
+ * as the "prod", "api" and "worker" profiles do.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SchemaMigrationIntegrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @AfterEach
+    void tearDown() {
+        quizAttemptRepository.deleteAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void migrate_ShouldApplyAllVersionsAndMatchEntities() {
+        // Then - the context only starts when the migrated schema validates
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"), Arrays.stream(applied).map(info -> info.getVersion().getVersion()).toList());
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where index_name like 'IDX_%'", String.class);
+        assertTrue(indexes.containsAll(List.of(
+                "IDX_QUIZZES_POOL_KEY_CREATED",
+                "IDX_QUIZ_ATTEMPTS_USER_SUBMITTED",
+                "IDX_QUIZ_ATTEMPTS_QUIZ_SUBMITTED",
+                "IDX_GENERATION_JOBS_STAGE_AVAILABLE",
+                "IDX_USERS_EMAIL")), indexes.toString());
+    }
+
+    @Test
+    void userHistoryQuery_ShouldSeekOnUserIndex() {
+        // Given
+        Quiz quiz = quizRepository.save(Quiz.builder()
+                .topic("Java")
+                .title("Java Quiz")
+                .questions(new ArrayList<>())
+                .build());
+        quizAttemptRepository.save(QuizAttempt.builder()
+                .quiz(quiz)
+                .userName("alice")
+                .score(1)
+                .totalQuestions(1)
+                .build());
+
+        // When
+        String plan = jdbcTemplate.queryForObject("explain select a.id from quiz_attempts a join quizzes q "
+                + "on q.id = a.quiz_id where a.user_name = 'alice' order by a.submitted_at desc, a.id desc", String.class);
+
+        // Then
+        assertTrue(plan.contains("IDX_QUIZ_ATTEMPTS_USER_SUBMITTED: USER_NAME = 'alice'"), plan);
+        assertEquals(1, quizAttemptRepository.findSummariesByUserName("alice", Pageable.ofSize(20)).getNumberOfElements());
+    }
+}
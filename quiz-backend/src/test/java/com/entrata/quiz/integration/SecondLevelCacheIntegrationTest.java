@@ -0,0 +1,174 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizService;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @AfterEach
+    void tearDown() {
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void findById_ShouldServeQuizQuestionsAndOptionsFromCacheOnceLoaded() {
+        // Given
+        Long id = quizRepository.save(createQuiz("Java")).getId();
+        loadQuestions(id);
+        double hits = secondLevelCacheHits();
+        QueryCounter.reset();
+
+        // When
+        List<Question> questions = loadQuestions(id);
+
+        // Then
+        assertEquals(3, questions.size());
+        assertEquals("Option B", questions.get(2).getOptions().get(1).getOptionText());
+        assertEquals(0, QueryCounter.count(), "queries to reload a cached quiz");
+        assertTrue(secondLevelCacheHits() > hits, "second-level cache hits are published as metrics");
+    }
+
+    @Test
+    void getQuizzes_ShouldServeListingFromQueryCacheUntilQuizzesChange() {
+        // Given
+        quizRepository.save(createQuiz("Java"));
+        quizService.getQuizzes(0, 20, null);
+        QueryCounter.reset();
+
+        // When
+        List<QuizResponse> cached = quizService.getQuizzes(0, 20, null).getItems();
+
+        // Then
+        assertEquals(1, cached.size());
+        assertEquals(3, cached.get(0).getQuestions().size());
+        assertEquals(0, QueryCounter.count(), "queries to list a cached page");
+
+        // A new quiz invalidates the cached page
+        quizRepository.save(createQuiz("Python"));
+        List<QuizResponse> refreshed = quizService.getQuizzes(0, 20, null).getItems();
+        assertEquals("Python", refreshed.get(0).getTopic());
+        assertEquals(2, refreshed.size());
+    }
+
+    @Test
+    void updateExplanation_ShouldEvictCachedQuestions() {
+        // Given
+        Long id = quizRepository.save(createQuiz("Java")).getId();
+        Long questionId = loadQuestions(id).get(0).getId();
+
+        // When - deferred explanations are written with a bulk update
+        questionRepository.updateExplanation(questionId, "Filled in later");
+
+        // Then
+        assertEquals("Filled in later", loadQuestions(id).get(0).getExplanation());
+    }
+
+    @Test
+    void save_ShouldRefreshCachedQuestionUpdatedThroughSession() {
+        // Given
+        Long id = quizRepository.save(createQuiz("Java")).getId();
+        Question question = loadQuestions(id).get(0);
+
+        // When
+        question.setExplanation("Edited");
+        transactionTemplate.executeWithoutResult(status -> questionRepository.save(question));
+
+        // Then
+        assertEquals("Edited", loadQuestions(id).get(0).getExplanation());
+    }
+
+    @Test
+    void regions_ShouldExpireEntriesAfterWrite() {
+        for (String region : List.of(Quiz.class.getName(), Quiz.class.getName() + ".questions", Question.class.getName(),
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)) {
+            CaffeineConfiguration<?, ?> configuration = hibernateCacheManager.getCache(region)
+                    .getConfiguration(CaffeineConfiguration.class);
+            assertEquals(OptionalLong.of(Duration.ofMinutes(10).toNanos()), configuration.getExpireAfterWrite(), region);
+        }
+    }
+
+    private List<Question> loadQuestions(Long quizId) {
+        return transactionTemplate.execute(status -> {
+            List<Question> questions = quizRepository.findById(quizId).orElseThrow().getQuestions();
+            questions.forEach(question -> question.getOptions().size());
+            return new ArrayList<>(questions);
+        });
+    }
+
+    private double secondLevelCacheHits() {
+        return meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit")
+                .functionCounters().stream()
+                .mapToDouble(FunctionCounter::count)
+                .sum();
+    }
+
+    private Quiz createQuiz(String topic) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= 3; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic)
+                    .correctAnswer("Option A")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
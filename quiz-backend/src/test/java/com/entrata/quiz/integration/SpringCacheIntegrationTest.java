@@ -0,0 +1,137 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizResponse;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizService;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SpringCacheIntegrationTest {
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        quizCache().invalidateAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void getQuizById_ShouldServeRepeatReadsFromBoundedCacheWithMetrics() {
+        // Given
+        Long id = quizRepository.save(createQuiz("Java")).getId();
+        quizService.getQuizById(id);
+        QueryCounter.reset();
+
+        // When
+        QuizResponse quiz = quizService.getQuizById(id);
+
+        // Then - bounded by estimated bytes, not entry count
+        assertEquals("Java Quiz", quiz.getTitle());
+        assertEquals(0, QueryCounter.count(), "queries to read a cached quiz");
+        // Weights are applied by the cache's maintenance, which otherwise runs on its executor
+        quizCache().cleanUp();
+        var eviction = quizCache().policy().eviction().orElseThrow();
+        assertEquals(64L * 1024 * 1024, eviction.getMaximum());
+        assertTrue(eviction.weightedSize().orElseThrow() > 1_000, "a 3-question quiz weighs over 1 KB");
+        assertEquals(Duration.ofHours(1), quizCache().policy().expireAfterAccess().orElseThrow().getExpiresAfter());
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "quizzes").tag("result", "hit")
+                .functionCounter().count() >= 1);
+        assertTrue(meterRegistry.get("cache.hit.ratio").tag("cache", "quizzes").gauge().value() > 0);
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "quizzes").functionCounter());
+        assertNotNull(meterRegistry.find("cache.load.duration").tag("cache", "quizzes").timeGauge());
+    }
+
+    @Test
+    void refresh_ShouldReloadChangedQuizAndDropDeletedOne() throws InterruptedException {
+        // Given
+        Quiz pooled = createQuiz("Python");
+        pooled.setPoolKey("python");
+        Long id = quizRepository.save(pooled).getId();
+        quizService.getQuizById(id);
+        LoadingCache<Object, Object> cache = (LoadingCache<Object, Object>) quizCache();
+        assertEquals(Duration.ofMinutes(10), cache.policy().refreshAfterWrite().orElseThrow().getRefreshesAfter());
+
+        // When - serving a pooled quiz gives it a new creation time
+        LocalDateTime servedAt = LocalDateTime.of(2030, 1, 1, 12, 0);
+        assertEquals(1, quizRepository.claimPooled(id, "python", servedAt));
+        cache.refresh(id).join();
+
+        // Then - the reloaded value replaces the entry once the refresh completes
+        awaitTrue(() -> servedAt.equals(quizService.getQuizById(id).getCreatedAt()));
+
+        quizRepository.deleteById(id);
+        cache.refresh(id).join();
+        awaitTrue(() -> cache.getIfPresent(id) == null);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10 s");
+            Thread.sleep(20);
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> quizCache() {
+        return ((CaffeineCache) cacheManager.getCache("quizzes")).getNativeCache();
+    }
+
+    private Quiz createQuiz(String topic) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= 3; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic)
+                    .correctAnswer("Option A")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
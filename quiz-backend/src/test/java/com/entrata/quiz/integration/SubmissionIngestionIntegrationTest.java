@@ -0,0 +1,284 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.config.SubmissionConfig;
+import com.entrata.quiz.dto.GradedSubmission;
+import com.entrata.quiz.dto.QuizSubmissionRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.entity.QuizAttempt;
+import com.entrata.quiz.repository.QuizAttemptRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizService;
+import com.entrata.quiz.service.QuizSubmissionService;
+import com.entrata.quiz.service.SubmissionIngestionService;
+import com.entrata.quiz.service.SubmissionWriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SubmissionIngestionIntegrationTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizSubmissionService quizSubmissionService;
+
+    @Autowired
+    private SubmissionIngestionService submissionIngestionService;
+
+    @Autowired
+    private SubmissionWriteAheadLog writeAheadLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void ingestionProperties(DynamicPropertyRegistry registry) {
+        registry.add("submission.ingestion.enabled", () -> "true");
+        registry.add("submission.ingestion.flush-millis", () -> "20");
+        registry.add("submission.ingestion.max-batch", () -> "16");
+        registry.add("submission.ingestion.wal-path", () -> tempDir.resolve("submissions.wal").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        quizAttemptRepository.deleteAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void submit_ShouldAcknowledgeBurstAndStoreEverySubmission() throws Exception {
+        // Given
+        Quiz quiz = quizRepository.save(createQuiz());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<Map<String, Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            QuizSubmissionRequest request = request(quiz, "student" + i, "0", "1");
+            responses.add(executor.submit(() -> submissionIngestionService.submit(request)));
+        }
+        for (Future<Map<String, Object>> response : responses) {
+            assertEquals(1, response.get().get("score"));
+            assertEquals(2, response.get().get("totalQuestions"));
+        }
+        executor.shutdown();
+
+        // Then - stored in the background, after which the log is emptied
+        awaitTrue(() -> quizAttemptRepository.count() == 100);
+        awaitTrue(() -> writeAheadLog.records() == 0);
+        List<QuizAttempt> attempts = quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc("student7");
+        assertEquals(1, attempts.size());
+        assertEquals(1, attempts.get(0).getScore());
+        assertNotNull(attempts.get(0).getSubmissionId());
+    }
+
+    @Test
+    void start_ShouldStoreRecoveredSubmissionsOnce() throws Exception {
+        // Given - two submissions were logged before a crash, and one of them was already stored
+        Quiz quiz = quizRepository.save(createQuiz());
+        GradedSubmission stored = quizSubmissionService.grade(request(quiz, "alice", "0", "0"));
+        GradedSubmission unstored = quizSubmissionService.grade(request(quiz, "bob", "0", "1"));
+        transactionTemplate.executeWithoutResult(status ->
+                quizAttemptRepository.save(quizSubmissionService.toAttempt(stored).orElseThrow()));
+
+        Path file = tempDir.resolve("crashed.wal");
+        SubmissionWriteAheadLog crashed = new SubmissionWriteAheadLog(config(file, 20), objectMapper);
+        crashed.append(stored);
+        crashed.append(unstored);
+        crashed.close();
+
+        // When
+        SubmissionWriteAheadLog reopened = new SubmissionWriteAheadLog(config(file, 20), objectMapper);
+        SubmissionIngestionService restarted = new SubmissionIngestionService(quizSubmissionService,
+                quizAttemptRepository, reopened, transactionTemplate, config(file, 20));
+        restarted.start();
+
+        // Then
+        awaitTrue(() -> reopened.records() == 0);
+        restarted.stop();
+        reopened.close();
+        assertEquals(1, quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc("alice").size());
+        List<QuizAttempt> bob = quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc("bob");
+        assertEquals(1, bob.size());
+        assertEquals(unstored.submissionId(), bob.get(0).getSubmissionId());
+        assertEquals(0, Duration.between(unstored.submittedAt(), bob.get(0).getSubmittedAt()).toMillis(),
+                "the attempt keeps the time it was acknowledged");
+    }
+
+    @Test
+    void stop_ShouldStoreQueuedSubmissionsBeforeReturning() {
+        // Given - a flush interval far longer than the test
+        Quiz quiz = quizRepository.save(createQuiz());
+        Path file = tempDir.resolve("shutdown.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(config(file, 60_000), objectMapper);
+        SubmissionIngestionService service = new SubmissionIngestionService(quizSubmissionService,
+                quizAttemptRepository, log, transactionTemplate, config(file, 60_000));
+        service.start();
+        for (int i = 0; i < 5; i++) {
+            service.submit(request(quiz, "late" + i, "0", "1"));
+        }
+
+        // When
+        service.stop();
+
+        // Then
+        assertEquals(0, service.pendingCount());
+        assertEquals(5, quizAttemptRepository.count());
+        assertEquals(0, log.records());
+        log.close();
+    }
+
+    @Test
+    void stop_WhenQuizWasDeletedWhileQueued_ShouldDropItsSubmissionsAndStoreTheRest() {
+        // Given - submissions for two quizzes are acknowledged, then one quiz is deleted
+        Quiz kept = quizRepository.save(createQuiz());
+        Quiz deleted = quizRepository.save(createQuiz());
+        Path file = tempDir.resolve("deleted.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(config(file, 60_000), objectMapper);
+        SubmissionIngestionService service = new SubmissionIngestionService(quizSubmissionService,
+                quizAttemptRepository, log, transactionTemplate, config(file, 60_000));
+        service.start();
+        service.submit(request(kept, "alice", "0", "1"));
+        service.submit(request(deleted, "bob", "0", "1"));
+        service.submit(request(kept, "carol", "1", "1"));
+        quizService.deleteQuiz(deleted.getId());
+
+        // When
+        service.stop();
+
+        // Then - the writer is not stuck retrying, and the log is emptied
+        assertEquals(0, service.pendingCount());
+        assertEquals(2, quizAttemptRepository.count());
+        assertTrue(quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc("bob").isEmpty());
+        assertEquals(0, log.records());
+        log.close();
+    }
+
+    @Test
+    void submit_WhenInterruptedWhileQueueIsFull_ShouldStillStoreTheSubmission() throws Exception {
+        // Given - a one-slot queue already taken, and no writer draining it yet
+        Quiz quiz = quizRepository.save(createQuiz());
+        Path file = tempDir.resolve("interrupted.wal");
+        SubmissionConfig config = config(file, 20);
+        config.getIngestion().setQueueCapacity(1);
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(config, objectMapper);
+        SubmissionIngestionService service = new SubmissionIngestionService(quizSubmissionService,
+                quizAttemptRepository, log, transactionTemplate, config);
+        service.submit(request(quiz, "alice", "0", "1"));
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread blocked = new Thread(() -> {
+            service.submit(request(quiz, "bob", "0", "1"));
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        blocked.start();
+        awaitTrue(() -> blocked.getState() == Thread.State.WAITING);
+
+        // When
+        blocked.interrupt();
+        service.start();
+        blocked.join(10_000);
+
+        // Then - the logged submission was queued regardless, and the interrupt is kept
+        assertTrue(stillInterrupted.get());
+        awaitTrue(() -> log.records() == 0);
+        service.stop();
+        log.close();
+        assertEquals(1, quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc("bob").size());
+    }
+
+    private static SubmissionConfig config(Path walPath, long flushMillis) {
+        SubmissionConfig config = new SubmissionConfig();
+        config.getIngestion().setEnabled(true);
+        config.getIngestion().setFlushMillis(flushMillis);
+        config.getIngestion().setWalPath(walPath.toString());
+        return config;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10 s");
+            Thread.sleep(20);
+        }
+    }
+
+    private static QuizSubmissionRequest request(Quiz quiz, String userName, String... selectedOptions) {
+        QuizSubmissionRequest request = new QuizSubmissionRequest();
+        request.setQuizId(quiz.getId());
+        request.setUserName(userName);
+        List<QuizSubmissionRequest.QuestionAnswer> answers = new ArrayList<>();
+        for (int i = 0; i < selectedOptions.length; i++) {
+            QuizSubmissionRequest.QuestionAnswer answer = new QuizSubmissionRequest.QuestionAnswer();
+            answer.setQuestionId(quiz.getQuestions().get(i).getId());
+            answer.setSelectedAnswer(selectedOptions[i]);
+            answers.add(answer);
+        }
+        request.setAnswers(answers);
+        return request;
+    }
+
+    private static Quiz createQuiz() {
+        Quiz quiz = Quiz.builder()
+                .topic("Java")
+                .title("Java Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= 2; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q)
+                    .correctAnswer("Option A")
+                    .explanation("Because")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (String label : List.of("A", "B")) {
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
@@ -0,0 +1,134 @@
+package com.entrata.quiz.integration;
+
+import com.entrata.quiz.dto.QuizSubmissionRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.QuizAttemptRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import com.entrata.quiz.service.QuizSubmissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.entrata.quiz.integration.QueryCounter")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Slf4j
+class WriteBatchingIntegrationTest {
+
+    private static final int QUESTIONS = 5;
+    private static final int OPTIONS = 4;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizSubmissionService quizSubmissionService;
+
+    @AfterEach
+    void tearDown() {
+        quizAttemptRepository.deleteAll();
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void saveQuizAndSubmit_ShouldBatchInserts() {
+        // Given - warm the id pools so sequence calls do not count
+        submit(quizRepository.save(createQuiz("Warm up")));
+
+        // When
+        QueryCounter.reset();
+        Quiz quiz = quizRepository.save(createQuiz("Java"));
+        int quizStatements = QueryCounter.count();
+
+        QueryCounter.reset();
+        submit(quiz);
+        int submissionStatements = QueryCounter.count();
+
+        // Then - one batched insert per table instead of 1 + 5 + 20 and 1 + 5, plus the occasional
+        // id pool refill and, for the submission, reading the quiz
+        assertTrue(quizStatements <= 6, "statements to save a quiz: " + quizStatements);
+        assertTrue(submissionStatements <= 6, "statements to submit: " + submissionStatements);
+    }
+
+    /**
+     * Write throughput for quizzes and submissions; run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkWriteThroughput() {
+        int rounds = 2000;
+        for (int i = 0; i < 200; i++) {
+            submit(quizRepository.save(createQuiz("Warm up " + i)));
+        }
+
+        List<Quiz> quizzes = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            quizzes.add(quizRepository.save(createQuiz("Topic " + i)));
+        }
+        double quizSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        quizzes.forEach(this::submit);
+        double submissionSeconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("Quiz saves: {}/s, submissions: {}/s", Math.round(rounds / quizSeconds), Math.round(rounds / submissionSeconds));
+    }
+
+    private void submit(Quiz quiz) {
+        QuizSubmissionRequest request = new QuizSubmissionRequest();
+        request.setQuizId(quiz.getId());
+        request.setUserName("benchmark");
+        List<QuizSubmissionRequest.QuestionAnswer> answers = new ArrayList<>();
+        for (Question question : quiz.getQuestions()) {
+            QuizSubmissionRequest.QuestionAnswer answer = new QuizSubmissionRequest.QuestionAnswer();
+            answer.setQuestionId(question.getId());
+            answer.setSelectedAnswer("1");
+            answers.add(answer);
+        }
+        request.setAnswers(answers);
+        quizSubmissionService.submitQuizAndReturnAttempt(request);
+    }
+
+    private Quiz createQuiz(String topic) {
+        Quiz quiz = Quiz.builder()
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int q = 1; q <= QUESTIONS; q++) {
+            Question question = Question.builder()
+                    .questionText("Question " + q + " about " + topic)
+                    .correctAnswer("Option B")
+                    .explanation("Because")
+                    .questionNumber(q)
+                    .quiz(quiz)
+                    .options(new ArrayList<>())
+                    .build();
+            for (int o = 0; o < OPTIONS; o++) {
+                String label = String.valueOf((char) ('A' + o));
+                question.getOptions().add(QuestionOption.builder()
+                        .optionLabel(label)
+                        .optionText("Option " + label)
+                        .build());
+            }
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+}
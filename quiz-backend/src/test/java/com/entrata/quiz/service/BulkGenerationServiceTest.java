@@ -0,0 +1,458 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.config.RagConfig;
+import com.entrata.quiz.dto.BatchQuizGenerationRequest;
+import com.entrata.quiz.dto.BatchTopicResult;
+import com.entrata.quiz.dto.BulkGenerationJob;
+import com.entrata.quiz.entity.BulkJob;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.repository.BulkJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkGenerationServiceTest {
+
+    private static final String QUIZ_CONTENT = "TITLE: Bulk Quiz\n\nDESCRIPTION: Generated offline.\n\n"
+            + "QUESTION 1:\nWhat is 2 + 2?\nA) 3\nB) 4\nC) 5\nD) 22\nCORRECT: B\nEXPLANATION: Basic addition.";
+
+    @Mock
+    private RagConfig ragConfig;
+
+    @Mock
+    private RetrievalService retrievalService;
+
+    @Mock
+    private QuizService quizService;
+
+    @Mock
+    private BulkJobRepository bulkJobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path workDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, BulkJob> storedJobs = new HashMap<>();
+    private BatchApiStandIn standIn;
+    private BulkGenerationService bulkGenerationService;
+    private BulkGenerationService restartedService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        standIn = new BatchApiStandIn(objectMapper);
+
+        OpenAiConfig openAiConfig = new OpenAiConfig();
+        openAiConfig.setApiKey("test-api-key");
+        openAiConfig.setModel("gpt-4o-mini");
+        openAiConfig.setBaseUrl(standIn.baseUrl());
+
+        GenerationConfig generationConfig = new GenerationConfig();
+        generationConfig.getBulk().setWorkDir(workDir.toString());
+        generationConfig.getBatch().setPersistBatchSize(2);
+
+        WebClient webClient = WebClient.create();
+        OpenAiService openAiService = new OpenAiService(openAiConfig, ragConfig, webClient, retrievalService,
+                new LlmCallBudget(openAiConfig), new CompletionStore(openAiConfig));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OpenAiBatchClient batchClient = new OpenAiBatchClient(openAiConfig, generationConfig, webClient, objectMapper);
+        bulkGenerationService = new BulkGenerationService(
+                openAiService, quizService, batchClient, bulkJobRepository, transactionTemplate, generationConfig, objectMapper);
+        restartedService = new BulkGenerationService(
+                openAiService, quizService, batchClient, bulkJobRepository, transactionTemplate, generationConfig, objectMapper);
+
+        lenient().when(ragConfig.isEnabled()).thenReturn(false);
+        // The bulk_jobs table, as a map
+        lenient().when(bulkJobRepository.save(any(BulkJob.class))).thenAnswer(invocation -> {
+            BulkJob job = invocation.getArgument(0);
+            storedJobs.put(job.getId(), copy(job));
+            return job;
+        });
+        lenient().when(bulkJobRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(storedJobs.get(invocation.<String>getArgument(0))).map(this::copy));
+        lenient().when(bulkJobRepository.findPollable(any(), any(), any())).thenAnswer(invocation -> storedJobs.values().stream()
+                .filter(job -> job.getStatus() == invocation.getArgument(0)
+                        || (job.getStatus() == invocation.getArgument(1) && job.getLockedUntil() != null
+                            && job.getLockedUntil().isBefore(invocation.getArgument(2))))
+                .map(BulkJob::getId)
+                .toList());
+        lenient().when(bulkJobRepository.claimIngestion(anyString(), anyString(), anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    BulkJob job = storedJobs.get(invocation.<String>getArgument(0));
+                    boolean claimable = job != null && (job.getStatus() == invocation.getArgument(3)
+                            || (job.getStatus() == invocation.getArgument(4) && job.getLockedUntil() != null
+                                && job.getLockedUntil().isBefore(invocation.getArgument(6))));
+                    if (!claimable) {
+                        return 0;
+                    }
+                    job.setStatus(invocation.getArgument(4));
+                    job.setUpstreamStatus(invocation.getArgument(1));
+                    job.setLockedBy(invocation.getArgument(2));
+                    job.setLockedUntil(invocation.getArgument(5));
+                    return 1;
+                });
+        lenient().when(bulkJobRepository.updateProgress(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    BulkJob job = storedJobs.get(invocation.<String>getArgument(0));
+                    if (!holds(job, invocation.getArgument(1), invocation.getArgument(3))) {
+                        return 0;
+                    }
+                    job.setResultsJson(invocation.getArgument(2));
+                    job.setLockedUntil(invocation.getArgument(4));
+                    return 1;
+                });
+        lenient().when(bulkJobRepository.release(anyString(), anyString(), any(), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    BulkJob job = storedJobs.get(invocation.<String>getArgument(0));
+                    if (!holds(job, invocation.getArgument(1), invocation.getArgument(5))) {
+                        return 0;
+                    }
+                    job.setStatus(invocation.getArgument(2));
+                    job.setResultsJson(invocation.getArgument(3));
+                    job.setCompletedAt(invocation.getArgument(4));
+                    job.setLockedBy(null);
+                    job.setLockedUntil(null);
+                    return 1;
+                });
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void poll_ShouldAttributeQuizzesToTheUserWhoSubmittedTheJob() {
+        // Given - submitted by alice; the poller later runs without an authenticated user
+        List<Quiz> saved = new ArrayList<>();
+        when(quizService.saveGeneratedQuizzes(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic", "Broken topic"));
+        request.setQuestionCount(1);
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        SecurityContextHolder.clearContext();
+
+        // When
+        bulkGenerationService.poll(submitted.getId());
+        restartedService.pollPendingJobs();
+
+        // Then
+        assertEquals(1, saved.size());
+        assertEquals("alice", saved.get(0).getCreatedBy());
+    }
+
+    @Test
+    void submitAndPoll_ShouldUploadJsonlAndIngestResultsWhenBatchCompletes() throws IOException {
+        // Given
+        AtomicLong ids = new AtomicLong();
+        when(quizService.saveGeneratedQuizzes(anyList())).thenAnswer(invocation -> {
+            List<Quiz> quizzes = invocation.getArgument(0);
+            quizzes.forEach(quiz -> quiz.setId(ids.incrementAndGet()));
+            return quizzes;
+        });
+
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic", "Algebra", "Geometry", "Broken topic"));
+        request.setQuestionCount(1);
+
+        // When - the batch finishes after a restart, and is picked up by the new instance's poller
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        BulkGenerationJob.Status statusWhileRunning = bulkGenerationService.poll(submitted.getId()).getStatus();
+        restartedService.pollPendingJobs();
+        BulkGenerationJob finished = restartedService.poll(submitted.getId());
+
+        // Then - one JSONL line per topic was uploaded and kept in the work directory
+        assertEquals(4, standIn.uploadedLines().size());
+        assertTrue(standIn.uploadedLines().get(0).contains("\"custom_id\":\"topic-0-0\""));
+        assertTrue(standIn.uploadedLines().get(0).contains("/v1/chat/completions"));
+        assertTrue(Files.exists(workDir.resolve(submitted.getId() + "-requests.jsonl")));
+
+        assertEquals(BulkGenerationJob.Status.SUBMITTED, statusWhileRunning);
+        assertEquals(BulkGenerationJob.Status.COMPLETED, finished.getStatus());
+        List<BatchTopicResult> results = finished.getResults();
+        assertEquals(4, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(BatchTopicResult.Status.SAVED, results.get(i).getStatus());
+            assertEquals("Bulk Quiz", results.get(i).getTitle());
+            assertEquals(1, results.get(i).getQuestionCount());
+        }
+        assertEquals("Broken topic", results.get(3).getTopic());
+        assertEquals(BatchTopicResult.Status.FAILED, results.get(3).getStatus());
+        assertEquals("Content policy violation", results.get(3).getError());
+
+        // Parsed quizzes are saved in groups of persist-batch-size
+        verify(quizService, times(2)).saveGeneratedQuizzes(anyList());
+        assertEquals(List.of("Arithmetic", "Algebra", "Geometry", "Broken topic"), finished.getTopics());
+    }
+
+    @Test
+    void submitAndPoll_ShouldSliceLargeQuizzesAndFailTopicsMissingQuestions() {
+        // Given - 7 questions are asked for in slices of 5 and 2, but every completion holds one question
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic", "Broken topic"));
+        request.setQuestionCount(7);
+
+        // When
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        bulkGenerationService.poll(submitted.getId());
+        BulkGenerationJob finished = bulkGenerationService.poll(submitted.getId());
+
+        // Then
+        assertEquals(4, standIn.uploadedLines().size());
+        assertTrue(standIn.uploadedLines().get(1).contains("\"custom_id\":\"topic-0-1\""));
+        assertEquals(BatchTopicResult.Status.FAILED, finished.getResults().get(0).getStatus());
+        assertEquals("Only 1 of 7 requested questions were returned", finished.getResults().get(0).getError());
+        verify(quizService, never()).saveGeneratedQuizzes(anyList());
+    }
+
+    @Test
+    void poll_ShouldLeaveIngestionToTheCallerThatClaimedIt() throws IOException {
+        // Given - another process has taken the finished batch for ingestion
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic"));
+        request.setQuestionCount(1);
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        bulkGenerationService.poll(submitted.getId());
+        storedJobs.get(submitted.getId()).setStatus(BulkGenerationJob.Status.INGESTING);
+
+        // When
+        BulkGenerationJob polled = restartedService.poll(submitted.getId());
+
+        // Then
+        assertEquals(BulkGenerationJob.Status.INGESTING, polled.getStatus());
+        verify(quizService, never()).saveGeneratedQuizzes(anyList());
+    }
+
+    @Test
+    void poll_WhenJobDoesNotExist_ShouldThrowNotFound() {
+        // When
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> bulkGenerationService.poll("no-such-job"));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    void pollPendingJobs_ShouldTakeOverExpiredIngestionWithoutSavingTopicsTwice() throws IOException {
+        // Given - a process saved the first group of a finished batch, then died holding the job
+        AtomicLong ids = new AtomicLong(100);
+        when(quizService.saveGeneratedQuizzes(anyList())).thenAnswer(invocation -> {
+            List<Quiz> quizzes = invocation.getArgument(0);
+            quizzes.forEach(quiz -> quiz.setId(ids.incrementAndGet()));
+            return quizzes;
+        });
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic", "Algebra", "Geometry"));
+        request.setQuestionCount(1);
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        bulkGenerationService.poll(submitted.getId());
+
+        BulkJob crashed = storedJobs.get(submitted.getId());
+        BatchTopicResult saved = BatchTopicResult.builder()
+                .topic("Arithmetic").status(BatchTopicResult.Status.SAVED).quizId(42L).title("Bulk Quiz").questionCount(1)
+                .build();
+        crashed.setResultsJson(objectMapper.writeValueAsString(Arrays.asList(saved, null, null)));
+        crashed.setStatus(BulkGenerationJob.Status.INGESTING);
+        crashed.setLockedBy("crashed-process");
+        crashed.setLockedUntil(LocalDateTime.now().minusMinutes(1));
+
+        // When
+        restartedService.pollPendingJobs();
+
+        // Then - only the topics not yet saved were saved, and the job was released
+        BulkGenerationJob finished = restartedService.poll(submitted.getId());
+        assertEquals(BulkGenerationJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(42L, finished.getResults().get(0).getQuizId());
+        assertEquals(BatchTopicResult.Status.SAVED, finished.getResults().get(1).getStatus());
+        assertEquals(BatchTopicResult.Status.FAILED, finished.getResults().get(2).getStatus());
+        verify(quizService, times(1)).saveGeneratedQuizzes(argThat(quizzes -> quizzes.size() == 1));
+        assertNull(storedJobs.get(submitted.getId()).getLockedBy());
+    }
+
+    @Test
+    void poll_WhenTakenOverMidway_ShouldStopWithoutRecordingTheLostGroup() {
+        // Given - the first group is saved and recorded, then another process takes the job over
+        when(quizService.saveGeneratedQuizzes(anyList())).thenAnswer(invocation -> {
+            List<Quiz> quizzes = invocation.getArgument(0);
+            quizzes.forEach(quiz -> quiz.setId(7L));
+            return quizzes;
+        });
+        BatchQuizGenerationRequest request = new BatchQuizGenerationRequest();
+        request.setTopics(List.of("Arithmetic", "Algebra", "Geometry", "Broken topic"));
+        request.setQuestionCount(1);
+        BulkGenerationJob submitted = bulkGenerationService.submit(request);
+        bulkGenerationService.poll(submitted.getId());
+        AtomicInteger progressWrites = new AtomicInteger();
+        Answer<?> recordProgress = invocation -> {
+            if (progressWrites.incrementAndGet() > 1) {
+                // Another process took over the job meanwhile
+                storedJobs.get(invocation.<String>getArgument(0)).setLockedBy("other-process");
+                return 0;
+            }
+            BulkJob job = storedJobs.get(invocation.<String>getArgument(0));
+            job.setResultsJson(invocation.getArgument(2));
+            return 1;
+        };
+        when(bulkJobRepository.updateProgress(anyString(), anyString(), anyString(), any(), any())).thenAnswer(recordProgress);
+
+        // When
+        assertThrows(RuntimeException.class, () -> bulkGenerationService.poll(submitted.getId()));
+
+        // Then - the saved group is recorded, the lost one is not, and the job stays with its new owner
+        BulkJob job = storedJobs.get(submitted.getId());
+        assertEquals(BulkGenerationJob.Status.INGESTING, job.getStatus());
+        assertEquals("other-process", job.getLockedBy());
+        assertTrue(job.getResultsJson().contains("\"quizId\":7"));
+        assertFalse(job.getResultsJson().contains("Geometry"));
+    }
+
+    private boolean holds(BulkJob job, String lockedBy, BulkGenerationJob.Status ingesting) {
+        return job != null && lockedBy.equals(job.getLockedBy()) && job.getStatus() == ingesting;
+    }
+
+    private BulkJob copy(BulkJob job) {
+        return new BulkJob(job.getId(), job.getBatchId(), job.getStatus(), job.getUpstreamStatus(),
+                job.getRequestsJson(), job.getResultsJson(), job.getRequestedBy(), job.getSubmittedAt(),
+                job.getCompletedAt(), job.getLockedBy(), job.getLockedUntil());
+    }
+
+    /**
+     * Minimal local server speaking the Files/Batches protocol: the last request of a batch
+     * fails, every other one gets a canned completion.
+     */
+    private static class BatchApiStandIn {
+
+        private final ObjectMapper objectMapper;
+        private final HttpServer server;
+        private final List<String> uploadedLines = new ArrayList<>();
+        private final AtomicInteger batchPolls = new AtomicInteger();
+
+        BatchApiStandIn(ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v1/files", this::handleFiles);
+            server.createContext("/v1/batches", this::handleBatches);
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://localhost:" + server.getAddress().getPort() + "/v1";
+        }
+
+        List<String> uploadedLines() {
+            return uploadedLines;
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handleFiles(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            if ("POST".equals(exchange.getRequestMethod())) {
+                String multipart = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                multipart.lines().filter(line -> line.startsWith("{")).forEach(uploadedLines::add);
+                respond(exchange, "{\"id\":\"file-in\",\"purpose\":\"batch\"}");
+            } else if (path.equals("/v1/files/file-out/content")) {
+                StringBuilder output = new StringBuilder();
+                for (int i = 0; i < uploadedLines.size() - 1; i++) {
+                    output.append(resultLine(customId(i))).append('\n');
+                }
+                respond(exchange, output.toString());
+            } else if (path.equals("/v1/files/file-err/content")) {
+                respond(exchange, "{\"custom_id\":\"" + customId(uploadedLines.size() - 1) + "\",\"response\":null,"
+                        + "\"error\":{\"code\":\"content_policy\",\"message\":\"Content policy violation\"}}\n");
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+
+        private void handleBatches(HttpExchange exchange) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            if ("POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, "{\"id\":\"batch-1\",\"status\":\"validating\"}");
+            } else if (batchPolls.incrementAndGet() == 1) {
+                respond(exchange, "{\"id\":\"batch-1\",\"status\":\"in_progress\"}");
+            } else {
+                respond(exchange, "{\"id\":\"batch-1\",\"status\":\"completed\","
+                        + "\"output_file_id\":\"file-out\",\"error_file_id\":\"file-err\"}");
+            }
+        }
+
+        private String customId(int index) throws IOException {
+            return objectMapper.readTree(uploadedLines.get(index)).path("custom_id").asText();
+        }
+
+        private String resultLine(String customId) throws IOException {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("custom_id", customId);
+            ObjectNode response = line.putObject("response");
+            response.put("status_code", 200);
+            ObjectNode message = response.putObject("body").putArray("choices").addObject().putObject("message");
+            message.put("role", "assistant");
+            message.put("content", QUIZ_CONTENT);
+            line.putNull("error");
+            return objectMapper.writeValueAsString(line);
+        }
+
+        private void respond(HttpExchange exchange, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+    }
+}
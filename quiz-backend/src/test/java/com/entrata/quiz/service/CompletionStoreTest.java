@@ -0,0 +1,98 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void replay_ShouldServeCompletionsRecordedInEarlierRun() {
+        // Given
+        Path file = tempDir.resolve("completions.store");
+        CompletionStore recorder = new CompletionStore(OpenAiConfig.RecordingMode.RECORD, file);
+        recorder.record("{\"prompt\": \"java\"}", "{\"content\": \"Java quiz\"}");
+        recorder.record("{\"prompt\": \"kotlin\"}", "{\"content\": \"Kotlin quiz ✓\"}");
+        assertTrue(recorder.replay("{\"prompt\": \"java\"}").isEmpty(), "record mode never replays");
+        recorder.close();
+
+        // When
+        CompletionStore replayer = new CompletionStore(OpenAiConfig.RecordingMode.REPLAY_ONLY, file);
+
+        // Then
+        assertEquals(2, replayer.size());
+        assertTrue(replayer.isReplayOnly());
+        assertEquals(Optional.of("{\"content\": \"Java quiz\"}"), replayer.replay("{\"prompt\": \"java\"}"));
+        assertEquals(Optional.of("{\"content\": \"Kotlin quiz ✓\"}"), replayer.replay("{\"prompt\": \"kotlin\"}"));
+        assertTrue(replayer.replay("{\"prompt\": \"scala\"}").isEmpty());
+        replayer.close();
+    }
+
+    @Test
+    void record_ShouldGrowMappingBeyondInitialSize() {
+        // Given
+        Path file = tempDir.resolve("completions.store");
+        CompletionStore store = new CompletionStore(OpenAiConfig.RecordingMode.REPLAY, file);
+        String completion = "x".repeat(100_000);
+
+        // When
+        for (int i = 0; i < 30; i++) {
+            store.record("prompt " + i, completion + i);
+        }
+
+        // Then
+        assertEquals(30, store.size());
+        assertEquals(Optional.of(completion + 29), store.replay("prompt 29"));
+        store.close();
+        assertEquals(Optional.of(completion + 0), new CompletionStore(OpenAiConfig.RecordingMode.REPLAY, file).replay("prompt 0"));
+    }
+
+    @Test
+    void open_ShouldIgnoreTornRecordAtTail() throws Exception {
+        // Given - the second record's payload is damaged as if the process died mid-write
+        Path file = tempDir.resolve("completions.store");
+        CompletionStore store = new CompletionStore(OpenAiConfig.RecordingMode.RECORD, file);
+        store.record("first", "first completion");
+        store.record("second", "second completion");
+        store.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long secondPayload = (44 + "first completion".length()) + 44;
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0}), secondPayload);
+        }
+
+        // When
+        CompletionStore reopened = new CompletionStore(OpenAiConfig.RecordingMode.REPLAY, file);
+        reopened.record("third", "third completion");
+
+        // Then
+        assertEquals(2, reopened.size());
+        assertEquals(Optional.of("first completion"), reopened.replay("first"));
+        assertTrue(reopened.replay("second").isEmpty());
+        assertEquals(Optional.of("third completion"), reopened.replay("third"));
+    }
+
+    @Test
+    void record_ShouldDoNothingWhenOff() {
+        // Given
+        CompletionStore store = new CompletionStore(OpenAiConfig.RecordingMode.OFF, tempDir.resolve("unused.store"));
+
+        // When
+        store.record("prompt", "completion");
+
+        // Then
+        assertEquals(0, store.size());
+        assertTrue(store.replay("prompt").isEmpty());
+        assertFalse(tempDir.resolve("unused.store").toFile().exists());
+    }
+}
@@ -0,0 +1,110 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.GenerationJobResponse;
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.GenerationStage;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.GenerationJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GenerationJobServiceTest {
+
+    @Mock
+    private GenerationJobQueue queue;
+
+    @Mock
+    private ObjectProvider<GenerationWorker> localWorker;
+
+    @Mock
+    private GenerationWorker worker;
+
+    private GenerationConfig generationConfig;
+    private GenerationJobService generationJobService;
+
+    @BeforeEach
+    void setUp() {
+        generationConfig = new GenerationConfig();
+        generationJobService = new GenerationJobService(queue, generationConfig, localWorker);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_ShouldEnqueueAndWakeLocalWorker() {
+        // Given
+        QuizGenerationRequest request = request("Java");
+        when(queue.countQueued(GenerationPriority.INTERACTIVE)).thenReturn(0L);
+        when(queue.enqueue(request, GenerationPriority.INTERACTIVE)).thenReturn(queuedJob("job-1", "Java"));
+        doAnswer(invocation -> {
+            ((Consumer<GenerationWorker>) invocation.getArgument(0)).accept(worker);
+            return null;
+        }).when(localWorker).ifAvailable(any(Consumer.class));
+
+        // When
+        GenerationJobResponse response = generationJobService.submit(request, GenerationPriority.INTERACTIVE);
+
+        // Then
+        assertEquals("job-1", response.getId());
+        assertEquals(GenerationStage.QUEUED, response.getStage());
+        assertEquals(GenerationPriority.INTERACTIVE, response.getPriority());
+        verify(worker).poll();
+    }
+
+    @Test
+    void submit_ShouldRejectPrefetchWhenItsQueueIsFull() {
+        // Given
+        generationConfig.getJobs().setPrefetchQueueCapacity(1);
+        when(queue.countQueued(GenerationPriority.PREFETCH)).thenReturn(1L);
+
+        // When & Then
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> generationJobService.submit(request("Java"), GenerationPriority.PREFETCH));
+        assertEquals(503, rejected.getStatusCode().value());
+        verify(queue, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void getJob_WithUnknownId_ShouldThrowNotFound() {
+        // Given
+        when(queue.find("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> generationJobService.getJob("missing"));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Generation job not found with ID: missing", exception.getReason());
+    }
+
+    private GenerationJob queuedJob(String id, String topic) {
+        return GenerationJob.builder()
+                .id(id)
+                .topic(topic)
+                .priority(GenerationPriority.INTERACTIVE)
+                .stage(GenerationStage.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private QuizGenerationRequest request(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        return request;
+    }
+}
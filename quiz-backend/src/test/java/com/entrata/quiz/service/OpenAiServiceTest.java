@@ -3,6 +3,8 @@ package com.entrata.quiz.service;
 import com.entrata.quiz.config.OpenAiConfig;
 import com.entrata.quiz.config.RagConfig;
 import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
 import com.entrata.quiz.entity.Quiz;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -44,6 +49,12 @@ class OpenAiServiceTest {
     @Mock
     private RetrievalService retrievalService;
 
+    @Mock
+    private LlmCallBudget llmCallBudget;
+
+    @Mock
+    private CompletionStore completionStore;
+
     @InjectMocks
     private OpenAiService openAiService;
 
@@ -55,12 +66,12 @@ class OpenAiServiceTest {
         sampleRequest = new QuizGenerationRequest();
         sampleRequest.setTopic("Java");
         
-        when(openAiConfig.getApiKey()).thenReturn("test-api-key");
-        when(openAiConfig.getModel()).thenReturn("gpt-4o-mini");
-        when(openAiConfig.getBaseUrl()).thenReturn("https://api.openai.com/v1");
+        lenient().when(openAiConfig.getApiKey()).thenReturn("test-api-key");
+        lenient().when(openAiConfig.getModel()).thenReturn("gpt-4o-mini");
+        lenient().when(openAiConfig.getBaseUrl()).thenReturn("https://api.openai.com/v1");
         
         // Mock RAG config to be disabled for unit tests
-        when(ragConfig.isEnabled()).thenReturn(false);
+        lenient().when(ragConfig.isEnabled()).thenReturn(false);
 
         sampleOpenAiResponse = """
             {
@@ -121,7 +132,13 @@ class OpenAiServiceTest {
         assertEquals(4, firstQuestion.getOptions().size());
         assertEquals("public static void main(String[] args)", firstQuestion.getOptions().get(0).getOptionText());
         
+        assertEquals("gpt-4o-mini", result.getTokenUsage().getModel());
+        assertEquals(150, result.getTokenUsage().getPromptTokens());
+        assertEquals(400, result.getTokenUsage().getCompletionTokens());
+        assertEquals(0, result.getTokenUsage().getCachedTokens());
+
         verify(webClient, times(1)).post();
+        verify(completionStore).record(contains("\"model\": \"gpt-4o-mini\""), eq(sampleOpenAiResponse));
     }
 
     @Test
@@ -140,4 +157,156 @@ class OpenAiServiceTest {
         verify(requestBodySpec, times(1)).header("Authorization", "Bearer test-api-key");
         verify(requestBodySpec, times(1)).header("Content-Type", "application/json");
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateQuiz_WithLargeQuestionCount_ShouldFanOutAndDeduplicate() {
+        // Given - each slice returns the same 5 questions, so only 5 remain after de-duplication
+        setupWebClientMocks();
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(sampleOpenAiResponse));
+        when(openAiConfig.getQuestionsPerCall()).thenReturn(5);
+        when(openAiConfig.getMaxParallelCalls()).thenReturn(4);
+        sampleRequest.setQuestionCount(10);
+
+        // When
+        Quiz result = openAiService.generateQuiz(sampleRequest);
+
+        // Then
+        verify(webClient, times(2)).post();
+        assertEquals("Java Fundamentals Quiz", result.getTitle());
+        assertEquals(1100, result.getTokenUsage().total());
+        assertEquals(5, result.getQuestions().size());
+        for (int i = 0; i < result.getQuestions().size(); i++) {
+            assertEquals(i + 1, result.getQuestions().get(i).getQuestionNumber());
+            assertSame(result, result.getQuestions().get(i).getQuiz());
+        }
+    }
+
+    @Test
+    void generateQuiz_WithDeferredExplanations_ShouldLeaveExplanationsPending() {
+        // Given
+        setupWebClientMocks();
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(sampleOpenAiResponse));
+        sampleRequest.setDeferExplanations(true);
+
+        // When
+        Quiz result = openAiService.generateQuiz(sampleRequest);
+
+        // Then
+        assertEquals(5, result.getQuestions().size());
+        result.getQuestions().forEach(question -> assertNull(question.getExplanation()));
+        verify(requestBodySpec).bodyValue(argThat(body -> !body.toString().contains("EXPLANATION: [Why this is correct]")));
+    }
+
+    @Test
+    void generateExplanations_ShouldReturnExplanationsByQuestionNumber() {
+        // Given
+        setupWebClientMocks();
+        String explanationResponse = sampleOpenAiResponse.replaceFirst(
+                "\"content\": \"[^\"]*\"",
+                "\"content\": \"EXPLANATION 1: main must be public and static.\\\\nEXPLANATION 2: int is primitive.\"");
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(explanationResponse));
+        List<Question> questions = List.of(
+                Question.builder().questionNumber(1).questionText("Main method?").correctAnswer("public static")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("public static").build()))
+                        .build(),
+                Question.builder().questionNumber(2).questionText("Primitive type?").correctAnswer("int")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("int").build()))
+                        .build());
+
+        // When
+        OpenAiService.Explanations explanations = openAiService.generateExplanations("Java", questions);
+
+        // Then
+        assertEquals("main must be public and static.", explanations.byNumber().get(1));
+        assertEquals("int is primitive.", explanations.byNumber().get(2));
+        assertEquals(550, explanations.usage().total());
+    }
+
+    @Test
+    void generateExplanations_WhenCompletionIsCutOff_ShouldLeaveOutTheLastExplanation() {
+        // Given - the completion stopped at max_tokens in the middle of the second explanation
+        setupWebClientMocks();
+        String explanationResponse = sampleOpenAiResponse
+                .replaceFirst("\"content\": \"[^\"]*\"",
+                        "\"content\": \"EXPLANATION 1: main must be public and static.\\\\nEXPLANATION 2: int is\"")
+                .replace("\"finish_reason\": \"stop\"", "\"finish_reason\": \"length\"");
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(explanationResponse));
+        List<Question> questions = List.of(
+                Question.builder().questionNumber(1).questionText("Main method?").correctAnswer("public static")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("public static").build()))
+                        .build(),
+                Question.builder().questionNumber(2).questionText("Primitive type?").correctAnswer("int")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("int").build()))
+                        .build());
+
+        // When
+        OpenAiService.Explanations explanations = openAiService.generateExplanations("Java", questions);
+
+        // Then
+        assertEquals("main must be public and static.", explanations.byNumber().get(1));
+        assertFalse(explanations.byNumber().containsKey(2));
+    }
+
+    @Test
+    void generateExplanations_ForLargeQuiz_ShouldAskInSlices() {
+        // Given - two questions per call, for questions 1, 2 and 4
+        setupWebClientMocks();
+        when(openAiConfig.getQuestionsPerCall()).thenReturn(2);
+        String firstSlice = sampleOpenAiResponse.replaceFirst("\"content\": \"[^\"]*\"",
+                "\"content\": \"EXPLANATION 1: main must be public and static.\\\\nEXPLANATION 2: int is primitive.\"");
+        String secondSlice = sampleOpenAiResponse.replaceFirst("\"content\": \"[^\"]*\"",
+                "\"content\": \"EXPLANATION 4: extends declares a subclass.\"");
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(firstSlice), Mono.just(secondSlice));
+        List<Question> questions = List.of(
+                Question.builder().questionNumber(1).questionText("Main method?").correctAnswer("public static")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("public static").build()))
+                        .build(),
+                Question.builder().questionNumber(2).questionText("Primitive type?").correctAnswer("int")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("int").build()))
+                        .build(),
+                Question.builder().questionNumber(4).questionText("Subclass keyword?").correctAnswer("extends")
+                        .options(List.of(QuestionOption.builder().optionLabel("A").optionText("extends").build()))
+                        .build());
+
+        // When
+        OpenAiService.Explanations explanations = openAiService.generateExplanations("Java", questions);
+
+        // Then
+        verify(webClient, times(2)).post();
+        assertEquals("int is primitive.", explanations.byNumber().get(2));
+        assertEquals("extends declares a subclass.", explanations.byNumber().get(4));
+        assertEquals(1100, explanations.usage().total());
+    }
+
+    @Test
+    void parseCompletions_ShouldParseEachSliceForItsOwnSize() {
+        // Given - five questions split 3 + 2; the first slice answered with more than it was asked for
+        when(openAiConfig.getQuestionsPerCall()).thenReturn(3);
+        sampleRequest.setQuestionCount(5);
+        String secondSlice = sampleOpenAiResponse.replaceFirst("\"content\": \"[^\"]*\"",
+                "\"content\": \"TITLE: Java Quiz\\\\nQUESTION 1:\\\\nWhich collection keeps insertion order?\\\\n"
+                        + "A) HashSet\\\\nB) LinkedHashSet\\\\nC) TreeSet\\\\nD) EnumSet\\\\nCORRECT: B\\\\n"
+                        + "EXPLANATION: LinkedHashSet keeps a linked list of entries.\\\\n\\\\nQUESTION 2:\\\\n"
+                        + "Which keyword prevents overriding?\\\\nA) static\\\\nB) final\\\\nC) const\\\\nD) sealed\\\\n"
+                        + "CORRECT: B\\\\nEXPLANATION: A final method cannot be overridden.\"");
+
+        // When
+        Quiz quiz = openAiService.parseCompletions(Map.of(0, sampleOpenAiResponse, 1, secondSlice), sampleRequest);
+
+        // Then - three questions from the first slice, then both of the second
+        assertEquals(5, quiz.getQuestions().size());
+        assertEquals("Which collection keeps insertion order?", quiz.getQuestions().get(3).getQuestionText());
+        assertEquals("Which keyword prevents overriding?", quiz.getQuestions().get(4).getQuestionText());
+    }
+
+    @Test
+    void parseCompletions_WithUnknownSlice_ShouldThrow() {
+        // Given
+        when(openAiConfig.getQuestionsPerCall()).thenReturn(3);
+        sampleRequest.setQuestionCount(5);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> openAiService.parseCompletions(Map.of(2, sampleOpenAiResponse), sampleRequest));
+    }
+}
@@ -0,0 +1,53 @@
+package com.entrata.quiz.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedResponsesTest {
+
+    @Test
+    void decode_ShouldReadBackWhatWasEncoded() {
+        // Given - more answers than fit one mask byte, and positions needing multi-byte varints
+        int size = 50;
+        int[] positions = new int[size];
+        int[] options = new int[size];
+        BitSet correct = new BitSet();
+        for (int i = 0; i < size; i++) {
+            positions[i] = i * 7;
+            options[i] = i % 4;
+            correct.set(i, i % 3 == 0);
+        }
+
+        // When
+        byte[] encoded = new PackedResponses(positions, options, correct).encode();
+        PackedResponses decoded = PackedResponses.decode(encoded);
+
+        // Then
+        assertEquals(size, decoded.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(positions[i], decoded.position(i));
+            assertEquals(options[i], decoded.option(i));
+            assertEquals(i % 3 == 0, decoded.isCorrect(i), "answer " + i);
+        }
+        assertTrue(encoded.length < 2 + size * 3 + 7, "encoded size: " + encoded.length);
+    }
+
+    @Test
+    void encode_ShouldKeepMaskWidthWhenTrailingAnswersAreWrong() {
+        // Given
+        BitSet correct = new BitSet();
+        correct.set(0);
+
+        // When
+        byte[] encoded = new PackedResponses(new int[] {0, 1, 2}, new int[] {1, 0, 3}, correct).encode();
+
+        // Then - version, count, three position/option pairs, one mask byte
+        assertEquals(1 + 1 + 6 + 1, encoded.length);
+        PackedResponses decoded = PackedResponses.decode(encoded);
+        assertTrue(decoded.isCorrect(0));
+        assertFalse(decoded.isCorrect(2));
+    }
+}
@@ -0,0 +1,205 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.dto.BankQuestion;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.QuestionOption;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.ExplanationsStoredEvent;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionBankServiceTest {
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private QuestionBankService questionBankService;
+
+    @Test
+    void compose_ShouldSampleDistinctQuestionsPreferringExactTopic() {
+        // Given - 4 exact-topic questions, 3 from a broader topic, one duplicate text
+        questionBankService.onQuizSaved(new QuizSavedEvent(quiz("Java Streams", 4, "streams")));
+        questionBankService.onQuizSaved(new QuizSavedEvent(quiz("Advanced Java Streams", 3, "advanced")));
+        Quiz duplicate = quiz("Java Streams", 1, "streams");
+        questionBankService.onQuizSaved(new QuizSavedEvent(duplicate));
+
+        // When
+        Optional<Quiz> composed = questionBankService.compose(request("streams in java", 5));
+
+        // Then
+        assertTrue(composed.isPresent());
+        List<Question> questions = composed.get().getQuestions();
+        assertEquals(5, questions.size());
+        Set<String> texts = new HashSet<>();
+        questions.forEach(question -> texts.add(question.getQuestionText()));
+        assertEquals(5, texts.size());
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(texts.contains("What is streams fact " + i + "?"), "exact-topic questions come first");
+        }
+        assertEquals(1, questions.get(0).getQuestionNumber());
+        assertEquals(4, questions.get(0).getOptions().size());
+        assertNull(questions.get(0).getId());
+        assertEquals(7, questionBankService.size());
+    }
+
+    @Test
+    void compose_ShouldReturnEmptyWhenBankLacksCoverage() {
+        // Given
+        questionBankService.onQuizSaved(new QuizSavedEvent(quiz("Java Streams", 3, "streams")));
+
+        // When & Then
+        assertTrue(questionBankService.compose(request("Java Streams", 5)).isEmpty());
+        assertTrue(questionBankService.compose(request("Kotlin", 1)).isEmpty());
+    }
+
+    @Test
+    void onQuizDeleted_ShouldRemoveItsQuestions() {
+        // Given
+        Quiz quiz = quiz("Java Streams", 5, "streams");
+        questionBankService.onQuizSaved(new QuizSavedEvent(quiz));
+
+        // When
+        questionBankService.onQuizDeleted(new QuizDeletedEvent(quiz.getId()));
+
+        // Then
+        assertEquals(0, questionBankService.size());
+        assertTrue(questionBankService.compose(request("Java Streams", 5)).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldIndexStoredQuestions() {
+        // Given
+        Quiz stored = quiz("Spring Security", 5, "security");
+        when(questionRepository.findBankQuestions()).thenReturn(bankQuestions(stored));
+
+        // When
+        questionBankService.rebuild();
+
+        // Then
+        assertEquals(5, questionBankService.size());
+        assertTrue(questionBankService.compose(request("Spring Security", 5)).isPresent());
+    }
+
+    @Test
+    void refresh_ShouldAddQuestionsOfQuizzesSavedByOtherProcesses() {
+        // Given
+        when(questionRepository.findBankQuestions()).thenReturn(List.of());
+        questionBankService.rebuild();
+        Quiz savedElsewhere = quiz("Spring Security", 5, "security");
+        when(questionRepository.findBankQuestionsCreatedSince(any())).thenReturn(bankQuestions(savedElsewhere));
+
+        // When
+        questionBankService.refresh();
+        questionBankService.refresh();
+
+        // Then
+        assertEquals(5, questionBankService.size());
+        assertTrue(questionBankService.compose(request("Spring Security", 5)).isPresent());
+    }
+
+    @Test
+    void compose_ShouldCarryExplanationsStoredAfterTheQuizWasSaved() {
+        // Given - a deferred quiz is indexed before its explanations exist
+        Quiz deferred = quiz("Java Streams", 2, "streams");
+        deferred.getQuestions().forEach(question -> question.setExplanation(null));
+        questionBankService.onQuizSaved(new QuizSavedEvent(deferred));
+        Question first = deferred.getQuestions().get(0);
+        Question second = deferred.getQuestions().get(1);
+        when(questionRepository.findExplanationsByIdIn(List.of(second.getId())))
+                .thenReturn(List.<Object[]>of(new Object[]{second.getId(), "Stored elsewhere"}));
+
+        // When
+        questionBankService.onExplanationsStored(new ExplanationsStoredEvent(deferred.getId(),
+                Map.of(first.getId(), "Generated later")));
+        Quiz composed = questionBankService.compose(request("Java Streams", 2)).orElseThrow();
+
+        // Then - the stored one is taken from the event, the other read from the database
+        Map<String, String> explanations = new HashMap<>();
+        composed.getQuestions().forEach(question -> explanations.put(question.getQuestionText(), question.getExplanation()));
+        assertEquals("Generated later", explanations.get(first.getQuestionText()));
+        assertEquals("Stored elsewhere", explanations.get(second.getQuestionText()));
+    }
+
+    @Test
+    void compose_ShouldTakeSingleDigitMillisecondsOnLargeBank() {
+        // Given - 20,000 questions across 400 topics
+        for (int topic = 0; topic < 400; topic++) {
+            questionBankService.onQuizSaved(new QuizSavedEvent(quiz("Topic" + topic + " Java", 50, "t" + topic)));
+        }
+        for (int i = 0; i < 50; i++) {
+            questionBankService.compose(request("Topic7 Java", 5));
+        }
+
+        // When
+        long start = System.nanoTime();
+        int runs = 200;
+        for (int i = 0; i < runs; i++) {
+            assertTrue(questionBankService.compose(request("Topic" + (i % 400) + " Java", 5)).isPresent());
+        }
+        double averageMillis = (System.nanoTime() - start) / 1_000_000.0 / runs;
+
+        // Then
+        assertTrue(averageMillis < 10, "average compose time was " + averageMillis + " ms");
+    }
+
+    private Quiz quiz(String topic, int questionCount, String prefix) {
+        Quiz quiz = Quiz.builder()
+                .id(ids.incrementAndGet())
+                .topic(topic)
+                .title(topic + " Quiz")
+                .questions(new ArrayList<>())
+                .build();
+        for (int i = 1; i <= questionCount; i++) {
+            Question question = Question.builder()
+                    .id(ids.incrementAndGet())
+                    .questionText("What is " + prefix + " fact " + i + "?")
+                    .correctAnswer("Answer " + i)
+                    .explanation("Because " + i)
+                    .questionNumber(i)
+                    .quiz(quiz)
+                    .build();
+            List<QuestionOption> options = new ArrayList<>();
+            for (String label : List.of("A", "B", "C", "D")) {
+                options.add(QuestionOption.builder().optionLabel(label).optionText("Option " + label).build());
+            }
+            question.setOptions(options);
+            quiz.getQuestions().add(question);
+        }
+        return quiz;
+    }
+
+    private List<BankQuestion> bankQuestions(Quiz quiz) {
+        return quiz.getQuestions().stream().map(question -> BankQuestion.of(question, quiz)).toList();
+    }
+
+    private QuizGenerationRequest request(String topic, int questionCount) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        request.setQuestionCount(questionCount);
+        return request;
+    }
+}
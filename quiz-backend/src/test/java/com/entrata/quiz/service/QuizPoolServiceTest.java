@@ -0,0 +1,137 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.dto.GenerationPriority;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.dto.QuizPoolStats;
+import com.entrata.quiz.event.QuizClaimedEvent;
+import com.entrata.quiz.repository.GenerationJobRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuizPoolServiceTest {
+
+    private static final String JAVA_KEY = TopicNormalizer.key("Java Streams");
+
+    @Mock
+    private QuizRepository quizRepository;
+
+    @Mock
+    private GenerationJobRepository generationJobRepository;
+
+    @Mock
+    private GenerationJobQueue generationJobQueue;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private GenerationConfig generationConfig;
+    private QuizPoolService quizPoolService;
+    private QuizPoolRefiller quizPoolRefiller;
+
+    @BeforeEach
+    void setUp() {
+        generationConfig = new GenerationConfig();
+        generationConfig.getPool().setEnabled(true);
+        generationConfig.getPool().setTopics(List.of("Java Streams", "Spring Boot"));
+        generationConfig.getPool().setSizePerTopic(3);
+
+        LlmCallBudget llmCallBudget = new LlmCallBudget(new OpenAiConfig());
+        quizPoolService = new QuizPoolService(quizRepository, generationJobRepository, generationConfig, llmCallBudget, eventPublisher);
+        quizPoolRefiller = new QuizPoolRefiller(quizPoolService, generationJobQueue, generationConfig, llmCallBudget);
+    }
+
+    @Test
+    void take_ShouldClaimNextPooledQuizAndCountHitsAndMisses() {
+        // Given - another request wins quiz 10, so quiz 11 is taken; then the pool is empty
+        when(quizRepository.findPooledIds(eq(JAVA_KEY), any(Pageable.class)))
+                .thenReturn(List.of(10L, 11L))
+                .thenReturn(List.of());
+        when(quizRepository.claimPooled(eq(10L), eq(JAVA_KEY), any())).thenReturn(0);
+        when(quizRepository.claimPooled(eq(11L), eq(JAVA_KEY), any())).thenReturn(1);
+
+        // When
+        Optional<Long> first = quizPoolService.take(request("streams in java"));
+        Optional<Long> second = quizPoolService.take(request("Java Streams"));
+        Optional<Long> notPooled = quizPoolService.take(request("Kotlin Coroutines"));
+
+        // Then
+        assertEquals(Optional.of(11L), first);
+        assertTrue(second.isEmpty());
+        assertTrue(notPooled.isEmpty());
+
+        QuizPoolStats stats = quizPoolService.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+        assertEquals(1, stats.getTopics().get(0).getHits());
+        verify(eventPublisher).publishEvent(new QuizClaimedEvent(11L));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void take_ShouldIgnoreRequestsThatDifferFromPooledQuizzes() {
+        // Given
+        QuizGenerationRequest withDescription = request("Java Streams");
+        withDescription.setDescription("Focus on collectors");
+        QuizGenerationRequest longer = request("Java Streams");
+        longer.setQuestionCount(20);
+
+        // When & Then
+        assertTrue(quizPoolService.take(withDescription).isEmpty());
+        assertTrue(quizPoolService.take(longer).isEmpty());
+        verifyNoInteractions(quizRepository);
+    }
+
+    @Test
+    void refill_ShouldEnqueuePrefetchJobsForTheDeficit() {
+        // Given - Java Streams has 1 ready and 1 pending, Spring Boot is empty
+        String springKey = TopicNormalizer.key("Spring Boot");
+        when(quizRepository.countByPoolKey(JAVA_KEY)).thenReturn(1L);
+        when(quizRepository.countByPoolKey(springKey)).thenReturn(0L);
+        when(generationJobRepository.countByPoolKeyAndStageIn(eq(JAVA_KEY), anyCollection())).thenReturn(1L);
+        when(generationJobRepository.countByPoolKeyAndStageIn(eq(springKey), anyCollection())).thenReturn(0L);
+
+        // When
+        int enqueued = quizPoolRefiller.refill();
+
+        // Then
+        assertEquals(4, enqueued);
+        verify(generationJobQueue, times(1)).enqueue(any(QuizGenerationRequest.class), eq(GenerationPriority.PREFETCH), eq(JAVA_KEY));
+        verify(generationJobQueue, times(3)).enqueue(any(QuizGenerationRequest.class), eq(GenerationPriority.PREFETCH), eq(springKey));
+    }
+
+    @Test
+    void isOffPeak_ShouldSupportWindowsAcrossMidnight() {
+        // Given
+        generationConfig.getPool().setOffPeakStartHour(22);
+        generationConfig.getPool().setOffPeakEndHour(6);
+
+        // When & Then
+        assertTrue(quizPoolRefiller.isOffPeak(LocalTime.of(23, 30)));
+        assertTrue(quizPoolRefiller.isOffPeak(LocalTime.of(3, 0)));
+        assertFalse(quizPoolRefiller.isOffPeak(LocalTime.of(12, 0)));
+    }
+
+    private QuizGenerationRequest request(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        return request;
+    }
+}
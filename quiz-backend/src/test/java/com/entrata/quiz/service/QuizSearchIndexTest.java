@@ -0,0 +1,187 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizClaimedEvent;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuizRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuizSearchIndexTest {
+
+    private QuizSearchIndex quizSearchIndex;
+    private QuizRepository quizRepository;
+    private QuestionRepository questionRepository;
+
+    @BeforeEach
+    void setUp() {
+        quizRepository = mock(QuizRepository.class);
+        questionRepository = mock(QuestionRepository.class);
+        quizSearchIndex = new QuizSearchIndex(quizRepository, questionRepository);
+    }
+
+    @Test
+    void search_ShouldMatchAllTokensByPrefixAndRankTopicMatchesFirst() {
+        // Given
+        save(quiz(1L, "Python basics", "Python Quiz", "Is Java compiled or interpreted?"));
+        save(quiz(2L, "Java Streams", "Java Streams Quiz", "What does Stream.map return?"));
+        save(quiz(3L, "Java Collections", "Java Collections Quiz", "Which list is synchronized?"));
+        save(quiz(4L, "Streaming in Kafka", "Kafka Quiz", "What is a topic partition?"));
+
+        // When & Then
+        assertEquals(List.of(3L, 2L, 1L), ids("java", QuizSearchIndex.Scope.ALL));
+        assertEquals(List.of(3L, 2L), ids("jav", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(List.of(2L, 4L), ids("stream", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(List.of(2L), ids("streams in java", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(List.of(3L), ids("java synchron", QuizSearchIndex.Scope.ALL));
+        assertEquals(List.of(), ids("java synchron", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(List.of(), ids("the of", QuizSearchIndex.Scope.ALL));
+    }
+
+    @Test
+    void search_ShouldFollowSavesDeletesAndClaims() {
+        // Given
+        save(quiz(1L, "Java Streams", "Java Streams Quiz"));
+        Quiz pooled = quiz(2L, "Java Generics", "Java Generics Quiz");
+        pooled.setPoolKey("generic java");
+        save(pooled);
+        assertEquals(List.of(1L), ids("java", QuizSearchIndex.Scope.TOPIC));
+
+        // When
+        quizSearchIndex.onQuizClaimed(new QuizClaimedEvent(2L));
+        save(quiz(1L, "Kotlin Flows", "Kotlin Flows Quiz"));
+        quizSearchIndex.onQuizDeleted(new QuizDeletedEvent(3L));
+
+        // Then
+        assertEquals(List.of(2L), ids("java", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(List.of(1L), ids("kotlin", QuizSearchIndex.Scope.TOPIC));
+        quizSearchIndex.onQuizDeleted(new QuizDeletedEvent(2L));
+        assertEquals(List.of(), ids("java", QuizSearchIndex.Scope.TOPIC));
+        assertEquals(1, quizSearchIndex.size());
+    }
+
+    @Test
+    void refresh_ShouldIndexQuizzesSavedOrClaimedByOtherProcesses() {
+        // Given - a pooled quiz indexed at startup, then claimed elsewhere, and a quiz saved elsewhere
+        when(quizRepository.findSearchEntries()).thenReturn(List.of(searchEntry(1L, "Java Generics", "java generics")));
+        quizSearchIndex.rebuild();
+        save(quiz(3L, "Java Records", "Java Records Quiz"));
+        when(quizRepository.findSearchEntriesCreatedSince(any())).thenReturn(List.of(
+                searchEntry(1L, "Java Generics", null), searchEntry(2L, "Java Streams", null),
+                searchEntry(3L, "Java Records", null)));
+        when(questionRepository.findQuestionTextsByQuizIdIn(List.of(1L, 2L)))
+                .thenReturn(List.<Object[]>of(new Object[] {2L, "What does flatMap do?"}));
+
+        // When
+        quizSearchIndex.refresh();
+
+        // Then - quizzes already held as they are are not read again
+        assertEquals(List.of(1L, 2L, 3L), ids("java", QuizSearchIndex.Scope.TOPIC).stream().sorted().toList());
+        assertEquals(List.of(2L), ids("flatmap", QuizSearchIndex.Scope.ALL));
+        verify(questionRepository).findQuestionTextsByQuizIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void search_ShouldPageWithCursorAndOffsetAcrossCompaction() {
+        // Given - 3000 quizzes, a third of them about Java; deleting most forces a compaction
+        for (long id = 1; id <= 3000; id++) {
+            save(quiz(id, (id % 3 == 0 ? "Java topic " : "Python topic ") + id, "Quiz " + id));
+        }
+        for (long id = 1; id <= 2000; id++) {
+            quizSearchIndex.onQuizDeleted(new QuizDeletedEvent(id));
+        }
+
+        // When
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            QuizSearchIndex.Hits hits = quizSearchIndex.search("java", QuizSearchIndex.Scope.TOPIC, 0, 100, cursor);
+            hits.ids().forEach(id -> assertTrue(seen.add(id), "listed twice: " + id));
+            cursor = hits.nextCursor();
+            pages++;
+        } while (cursor != null);
+        QuizSearchIndex.Hits secondPage = quizSearchIndex.search("java", QuizSearchIndex.Scope.TOPIC, 1, 100, null);
+
+        // Then - 334 Java quizzes among ids 2001..3000, newest first on equal scores
+        assertEquals(334, seen.size());
+        assertEquals(4, pages);
+        assertEquals(2700L, secondPage.ids().get(0));
+        assertTrue(secondPage.hasNext());
+        assertThrows(IllegalArgumentException.class,
+                () -> quizSearchIndex.search("java", QuizSearchIndex.Scope.TOPIC, 0, 10, "%%%"));
+    }
+
+    @Test
+    void search_ShouldExpandPrefixToTermsSortingAfterManySiblings() {
+        // Given - 100 question terms starting with "con" that sort before "concurrency"
+        long id = 0;
+        for (char first = 'a'; first <= 'b'; first++) {
+            for (char second = 'a'; second <= 'j'; second++) {
+                for (char third = 'a'; third <= 'e'; third++) {
+                    save(quiz(++id, "Trivia", "Trivia Quiz", "Is con" + first + second + third + " a word?"));
+                }
+            }
+        }
+        save(quiz(500L, "Java threads", "Java Quiz", "What makes concurrency hard?"));
+
+        // When & Then
+        assertEquals(List.of(500L), ids("concu", QuizSearchIndex.Scope.ALL));
+        assertTrue(ids("con", QuizSearchIndex.Scope.ALL).contains(500L));
+    }
+
+    private List<Long> ids(String query, QuizSearchIndex.Scope scope) {
+        return quizSearchIndex.search(query, scope, 0, 20, null).ids();
+    }
+
+    private static QuizRepository.SearchEntry searchEntry(Long id, String topic, String poolKey) {
+        return new QuizRepository.SearchEntry() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getTopic() {
+                return topic;
+            }
+
+            public String getTitle() {
+                return topic + " Quiz";
+            }
+
+            public String getPoolKey() {
+                return poolKey;
+            }
+        };
+    }
+
+    private void save(Quiz quiz) {
+        quizSearchIndex.onQuizSaved(new QuizSavedEvent(quiz));
+    }
+
+    private Quiz quiz(Long id, String topic, String title, String... questionTexts) {
+        List<Question> questions = new ArrayList<>();
+        for (String text : questionTexts) {
+            questions.add(Question.builder().questionText(text).build());
+        }
+        return Quiz.builder()
+                .id(id)
+                .topic(topic)
+                .title(title)
+                .questions(questions)
+                .build();
+    }
+}
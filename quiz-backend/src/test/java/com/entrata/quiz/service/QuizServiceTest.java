@@ -1,8 +1,11 @@
 package com.entrata.quiz.service;
 
+import com.entrata.quiz.dto.CursorPage;
+import com.entrata.quiz.dto.GenerationMode;
 import com.entrata.quiz.dto.QuizGenerationRequest;
 import com.entrata.quiz.dto.QuizResponse;
 import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizSavedEvent;
 import com.entrata.quiz.repository.QuizRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -29,6 +35,21 @@ class QuizServiceTest {
     @Mock
     private OpenAiService openAiService;
 
+    @Mock
+    private QuizPoolService quizPoolService;
+
+    @Mock
+    private QuestionBankService questionBankService;
+
+    @Mock
+    private SemanticTopicCache semanticTopicCache;
+
+    @Mock
+    private TokenUsageService tokenUsageService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private QuizService quizService;
 
@@ -54,36 +75,42 @@ class QuizServiceTest {
     }
 
     @Test
-    void getAllQuizzes_ShouldReturnListOfQuizzes() {
+    void getQuizzes_ShouldReturnPageWithNextCursor() {
         // Given
         List<Quiz> quizzes = List.of(sampleQuiz);
-        when(quizRepository.findAllByOrderByCreatedAtDesc()).thenReturn(quizzes);
+        when(quizRepository.findListed(PageRequest.of(0, 1))).thenReturn(new SliceImpl<>(quizzes, PageRequest.of(0, 1), true));
 
         // When
-        List<QuizResponse> result = quizService.getAllQuizzes();
+        CursorPage<QuizResponse> result = quizService.getQuizzes(0, 1, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Java", result.get(0).getTopic());
-        assertEquals("Java Basics Quiz", result.get(0).getTitle());
-        
-        verify(quizRepository, times(1)).findAllByOrderByCreatedAtDesc();
+        assertEquals(1, result.getItems().size());
+        assertEquals("Java", result.getItems().get(0).getTopic());
+        assertEquals("Java Basics Quiz", result.getItems().get(0).getTitle());
+        assertTrue(result.isHasNext());
+        assertEquals(QuizCursor.of(sampleQuiz), QuizCursor.parse(result.getNextCursor()));
     }
 
     @Test
-    void getAllQuizzes_ShouldReturnEmptyListWhenNoQuizzes() {
+    void getQuizzes_WithCursor_ShouldContinueAfterIt() {
         // Given
-        when(quizRepository.findAllByOrderByCreatedAtDesc()).thenReturn(new ArrayList<>());
+        QuizCursor cursor = new QuizCursor(LocalDateTime.of(2026, 1, 1, 12, 0), 42L);
+        when(quizRepository.findListedAfter(cursor.createdAt(), 42L, PageRequest.of(0, QuizService.MAX_PAGE_SIZE)))
+                .thenReturn(new SliceImpl<>(new ArrayList<>()));
 
         // When
-        List<QuizResponse> result = quizService.getAllQuizzes();
+        CursorPage<QuizResponse> result = quizService.getQuizzes(3, 1000, cursor.encode());
 
         // Then
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        
-        verify(quizRepository, times(1)).findAllByOrderByCreatedAtDesc();
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getQuizzes_WithMalformedCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> quizService.getQuizzes(0, 20, "not-a-cursor"));
     }
 
     @Test
@@ -136,6 +163,69 @@ class QuizServiceTest {
         verify(quizRepository, times(1)).save(any(Quiz.class));
     }
 
+    @Test
+    void generateAndSaveQuiz_ShouldServeFromPoolWithoutCallingOpenAi() {
+        // Given
+        when(quizPoolService.take(sampleRequest)).thenReturn(Optional.of(1L));
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+
+        // When
+        QuizResponse result = quizService.generateAndSaveQuiz(sampleRequest);
+
+        // Then
+        assertEquals(1L, result.getId());
+        assertEquals("Java Basics Quiz", result.getTitle());
+        verify(openAiService, never()).generateQuiz(any(QuizGenerationRequest.class));
+        verify(quizRepository, never()).save(any(Quiz.class));
+    }
+
+    @Test
+    void generateAndSaveQuiz_InComposeMode_ShouldUseQuestionBank() {
+        // Given
+        sampleRequest.setMode(GenerationMode.COMPOSE);
+        when(questionBankService.compose(sampleRequest)).thenReturn(Optional.of(sampleQuiz));
+        when(quizRepository.save(sampleQuiz)).thenReturn(sampleQuiz);
+
+        // When
+        QuizResponse result = quizService.generateAndSaveQuiz(sampleRequest);
+
+        // Then
+        assertEquals("Java Basics Quiz", result.getTitle());
+        verify(openAiService, never()).generateQuiz(any(QuizGenerationRequest.class));
+        verify(eventPublisher).publishEvent(any(QuizSavedEvent.class));
+    }
+
+    @Test
+    void generateAndSaveQuiz_InComposeMode_ShouldFallBackToOpenAiWithoutCoverage() {
+        // Given
+        sampleRequest.setMode(GenerationMode.COMPOSE);
+        when(questionBankService.compose(sampleRequest)).thenReturn(Optional.empty());
+        when(openAiService.generateQuiz(sampleRequest)).thenReturn(sampleQuiz);
+        when(quizRepository.save(sampleQuiz)).thenReturn(sampleQuiz);
+
+        // When
+        QuizResponse result = quizService.generateAndSaveQuiz(sampleRequest);
+
+        // Then
+        assertEquals("Java Basics Quiz", result.getTitle());
+        verify(openAiService, times(1)).generateQuiz(sampleRequest);
+    }
+
+    @Test
+    void generateAndSaveQuiz_ShouldServeNearDuplicateTopicFromSemanticCache() {
+        // Given
+        when(semanticTopicCache.lookup(sampleRequest)).thenReturn(Optional.of(1L));
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+
+        // When
+        QuizResponse result = quizService.generateAndSaveQuiz(sampleRequest);
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(openAiService, never()).generateQuiz(any(QuizGenerationRequest.class));
+        verify(quizRepository, never()).save(any(Quiz.class));
+    }
+
     @Test
     void generateAndSaveQuiz_ShouldHandleOpenAiServiceException() {
         // Given
@@ -1,25 +1,42 @@
 package com.entrata.quiz.service;
 
+import com.entrata.quiz.config.SubmissionConfig;
+import com.entrata.quiz.dto.AttemptSummary;
+import com.entrata.quiz.dto.CursorPage;
+import com.entrata.quiz.dto.GradedSubmission;
 import com.entrata.quiz.dto.QuizResultResponse;
 import com.entrata.quiz.dto.QuizSubmissionRequest;
 import com.entrata.quiz.entity.*;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuestionRepository;
+import com.entrata.quiz.repository.QuestionResponseRepository;
 import com.entrata.quiz.repository.QuizAttemptRepository;
 import com.entrata.quiz.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,10 +45,22 @@ class QuizSubmissionServiceTest {
     @Mock
     private QuizRepository quizRepository;
 
+    @Mock
+    private QuestionRepository questionRepository;
+
     @Mock
     private QuizAttemptRepository quizAttemptRepository;
 
-    @InjectMocks
+    @Mock
+    private QuestionResponseRepository questionResponseRepository;
+
+    @Mock
+    private ExplanationService explanationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AnswerKeyCache answerKeyCache;
     private QuizSubmissionService quizSubmissionService;
 
     private Quiz sampleQuiz;
@@ -43,6 +72,16 @@ class QuizSubmissionServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        answerKeyCache = new AnswerKeyCache(quizRepository, explanationService, transactionManager);
+        quizSubmissionService = new QuizSubmissionService(quizRepository, questionRepository, quizAttemptRepository,
+                questionResponseRepository, answerKeyCache, new SubmissionConfig(),
+                new TransactionTemplate(transactionManager));
+        lenient().when(questionRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> Question.builder().id(invocation.getArgument(0)).build());
+        lenient().when(quizRepository.getReferenceById(any()))
+                .thenAnswer(invocation -> Quiz.builder().id(invocation.getArgument(0)).build());
+
         // Create sample quiz
         sampleQuiz = Quiz.builder()
                 .id(1L)
@@ -56,13 +95,11 @@ class QuizSubmissionServiceTest {
 
         // Create sample options
         sampleOptionA = QuestionOption.builder()
-                .id(1L)
                 .optionLabel("A")
                 .optionText("true")
                 .build();
 
         sampleOptionB = QuestionOption.builder()
-                .id(2L)
                 .optionLabel("B")
                 .optionText("false")
                 .build();
@@ -156,20 +193,39 @@ class QuizSubmissionServiceTest {
         verify(quizAttemptRepository, times(1)).save(any(QuizAttempt.class));
     }
 
+    @Test
+    void submitQuizAndReturnAttempt_ShouldWaitForDeferredExplanations() {
+        // Given - the quiz was generated in deferred mode and has no explanation yet
+        sampleQuestion.setExplanation(null);
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+        CompletableFuture<Map<Long, String>> explanations =
+                CompletableFuture.completedFuture(Map.of(1L, "Booleans default to false."));
+        when(explanationService.explanationsFor(sampleQuiz)).thenReturn(explanations);
+        when(explanationService.awaitExplanations(1L, explanations))
+                .thenReturn(Map.of(1L, "Booleans default to false."));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        QuizAttempt result = quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest);
+
+        // Then - the wait happens between loading the quiz and the transaction that stores the attempt
+        assertEquals("Correct! Booleans default to false.", quizSubmissionService.responsesOf(result).get(0).getFeedback());
+        InOrder inOrder = inOrder(transactionManager, explanationService, quizAttemptRepository);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(explanationService).awaitExplanations(1L, explanations);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(quizAttemptRepository).save(any(QuizAttempt.class));
+    }
+
     @Test
     void buildFrontendResponse_ShouldCreateCorrectResponse() {
-        // Given - Create a proper quiz attempt with responses
-        QuestionResponse questionResponse = QuestionResponse.builder()
-                .question(sampleQuestion)
-                .selectedAnswer("false")
-                .isCorrect(true)
-                .feedback("Correct! The default value of a boolean variable in Java is false.")
-                .build();
-        
-        sampleAttempt.setResponses(List.of(questionResponse));
+        // Given - a graded submission as acknowledged to the client
+        GradedSubmission graded = new GradedSubmission(UUID.randomUUID(), 1L, "Test User", LocalDateTime.now(), 1, 1,
+                List.of(new GradedSubmission.Answer(1L, 0, 1, "false", true, "false",
+                        "Correct! The default value of a boolean variable in Java is false.")));
 
         // When
-        Map<String, Object> result = quizSubmissionService.buildFrontendResponse(sampleAttempt, sampleQuiz);
+        Map<String, Object> result = quizSubmissionService.buildFrontendResponse(graded);
 
         // Then
         assertNotNull(result);
@@ -189,38 +245,155 @@ class QuizSubmissionServiceTest {
     }
 
     @Test
-    void getUserQuizHistory_ShouldReturnUserAttempts() {
+    void submitQuizAndReturnAttempt_ShouldScoreRepeatSubmissionsFromCompiledKey() {
+        // Given
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        QuizSubmissionRequest byText = new QuizSubmissionRequest();
+        byText.setQuizId(1L);
+        byText.setUserName("Other User");
+        QuizSubmissionRequest.QuestionAnswer textAnswer = new QuizSubmissionRequest.QuestionAnswer();
+        textAnswer.setQuestionId(1L);
+        textAnswer.setSelectedAnswer("true");
+        byText.setAnswers(List.of(textAnswer));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        answerKeyCache.bindTo(meterRegistry);
+
+        // When
+        QuizAttempt first = quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest);
+        QuizAttempt second = quizSubmissionService.submitQuizAndReturnAttempt(byText);
+        answerKeyCache.onQuizSaved(new QuizSavedEvent(sampleQuiz));
+        quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest);
+
+        // Then - the quiz is loaded once until it changes
+        assertEquals(1, first.getScore());
+        assertEquals(0, second.getScore());
+        assertEquals("Incorrect. You selected 'true', but the correct answer is 'false'. "
+                + "The default value of a boolean variable in Java is false.", quizSubmissionService.responsesOf(second).get(0).getFeedback());
+        verify(quizRepository, times(2)).findById(1L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "answer-keys").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(1L, answerKeyCache.size());
+    }
+
+    @Test
+    void submitQuizAndReturnAttempt_ShouldRejectUnknownQuestionsAndOptions() {
+        // Given
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+        sampleRequest.getAnswers().get(0).setSelectedAnswer("2");
+        QuizSubmissionRequest unknownQuestion = new QuizSubmissionRequest();
+        unknownQuestion.setQuizId(1L);
+        unknownQuestion.setUserName("Test User");
+        QuizSubmissionRequest.QuestionAnswer answer = new QuizSubmissionRequest.QuestionAnswer();
+        answer.setQuestionId(99L);
+        answer.setSelectedAnswer("0");
+        unknownQuestion.setAnswers(List.of(answer));
+
+        // When & Then
+        assertEquals("Invalid option index: 2", assertThrows(RuntimeException.class,
+                () -> quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest)).getMessage());
+        assertEquals("Question not found with ID: 99", assertThrows(RuntimeException.class,
+                () -> quizSubmissionService.submitQuizAndReturnAttempt(unknownQuestion)).getMessage());
+        verify(quizAttemptRepository, never()).save(any(QuizAttempt.class));
+    }
+
+    @Test
+    void submitQuizAndReturnAttempt_ShouldPackResponsesIntoAttemptRow() {
+        // Given
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        QuizAttempt attempt = quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest);
+        attempt.setId(7L);
+        when(quizAttemptRepository.findSummariesByUserName(eq("Test User"), any()))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(attempt))));
+        List<QuizResultResponse> history = quizSubmissionService.getUserQuizHistory("Test User", 0, 20, null, true).getItems();
+
+        // Then - no response rows, and the history reads the same as for a row-stored attempt
+        assertNotNull(attempt.getPackedResponses());
+        assertTrue(attempt.getResponses().isEmpty());
+        QuizResultResponse.QuestionResult result = history.get(0).getQuestionResults().get(0);
+        assertEquals(1L, result.getQuestionId());
+        assertEquals("false", result.getSelectedAnswer());
+        assertTrue(result.getIsCorrect());
+        assertEquals("Correct! The default value of a boolean variable in Java is false.", result.getFeedback());
+        verify(quizRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void submitQuizAndReturnAttempt_ShouldKeepResponseRowsForUnmatchedText() {
         // Given
-        String userName = "Test User";
-        when(quizAttemptRepository.findByUserNameOrderBySubmittedAtDesc(userName))
-                .thenReturn(List.of(sampleAttempt));
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(sampleQuiz));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        sampleRequest.getAnswers().get(0).setSelectedAnswer("maybe");
 
         // When
-        List<QuizResultResponse> result = quizSubmissionService.getUserQuizHistory(userName);
+        QuizAttempt attempt = quizSubmissionService.submitQuizAndReturnAttempt(sampleRequest);
 
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Test User", result.get(0).getUserName());
-        
-        verify(quizAttemptRepository, times(1)).findByUserNameOrderBySubmittedAtDesc(userName);
+        assertNull(attempt.getPackedResponses());
+        assertEquals(1, attempt.getResponses().size());
+        assertEquals("maybe", attempt.getResponses().get(0).getSelectedAnswer());
+        assertFalse(attempt.getResponses().get(0).getIsCorrect());
     }
 
     @Test
-    void getQuizAttempts_ShouldReturnQuizAttempts() {
+    void getUserQuizHistory_ShouldReturnPageWithDetailsInOneBatch() {
+        // Given - two row-stored attempts, one with a response
+        QuizAttempt older = QuizAttempt.builder()
+                .id(2L)
+                .quiz(sampleQuiz)
+                .userName("Test User")
+                .score(0)
+                .totalQuestions(1)
+                .submittedAt(sampleAttempt.getSubmittedAt().minusMinutes(5))
+                .build();
+        QuestionResponse response = QuestionResponse.builder()
+                .quizAttempt(sampleAttempt)
+                .question(sampleQuestion)
+                .selectedAnswer("false")
+                .isCorrect(true)
+                .build();
+        when(quizAttemptRepository.findSummariesByUserName(eq("Test User"), any()))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(sampleAttempt), summaryOf(older)), PageRequest.of(0, 2), true));
+        when(questionResponseRepository.findWithQuestionByAttemptIdIn(List.of(1L, 2L))).thenReturn(List.of(response));
+
+        // When
+        CursorPage<QuizResultResponse> page = quizSubmissionService.getUserQuizHistory("Test User", 0, 2, null, true);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasNext());
+        assertEquals(QuizCursor.of(summaryOf(older)).encode(), page.getNextCursor());
+        QuizResultResponse.QuestionResult result = page.getItems().get(0).getQuestionResults().get(0);
+        assertEquals("Correct! The default value of a boolean variable in Java is false.", result.getFeedback());
+        assertEquals("Java Basics Quiz", page.getItems().get(0).getQuizTitle());
+        assertTrue(page.getItems().get(1).getQuestionResults().isEmpty());
+        verify(questionResponseRepository, times(1)).findWithQuestionByAttemptIdIn(any());
+    }
+
+    @Test
+    void getQuizAttempts_ShouldSkipDetailsUnlessRequested() {
         // Given
-        Long quizId = 1L;
-        when(quizAttemptRepository.findByQuizIdOrderBySubmittedAtDesc(quizId))
-                .thenReturn(List.of(sampleAttempt));
+        QuizCursor cursor = new QuizCursor(sampleAttempt.getSubmittedAt().plusMinutes(1), 9L);
+        when(quizAttemptRepository.findSummariesByQuizIdAfter(eq(1L), eq(cursor.createdAt()), eq(9L), any()))
+                .thenReturn(new SliceImpl<>(List.of(summaryOf(sampleAttempt))));
 
         // When
-        List<QuizResultResponse> result = quizSubmissionService.getQuizAttempts(quizId);
+        CursorPage<QuizResultResponse> page = quizSubmissionService.getQuizAttempts(1L, 0, 20, cursor.encode(), false);
 
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(1L, result.get(0).getQuizId());
-        
-        verify(quizAttemptRepository, times(1)).findByQuizIdOrderBySubmittedAtDesc(quizId);
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getQuizId());
+        assertNull(page.getItems().get(0).getQuestionResults());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(questionResponseRepository);
+    }
+
+    private static AttemptSummary summaryOf(QuizAttempt attempt) {
+        return new AttemptSummary(attempt.getId(), 1L, "Java Basics Quiz", attempt.getUserName(), attempt.getScore(),
+                attempt.getTotalQuestions(), attempt.getSubmittedAt(), attempt.getPackedResponses());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.GenerationConfig;
+import com.entrata.quiz.dto.QuizGenerationRequest;
+import com.entrata.quiz.entity.Question;
+import com.entrata.quiz.entity.Quiz;
+import com.entrata.quiz.event.QuizDeletedEvent;
+import com.entrata.quiz.event.QuizSavedEvent;
+import com.entrata.quiz.repository.QuizRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SemanticTopicCacheTest {
+
+    private GenerationConfig generationConfig;
+    private QuizRepository quizRepository;
+    private SemanticTopicCache semanticTopicCache;
+
+    @BeforeEach
+    void setUp() {
+        generationConfig = new GenerationConfig();
+        quizRepository = mock(QuizRepository.class);
+        semanticTopicCache = new SemanticTopicCache(quizRepository, generationConfig);
+    }
+
+    @Test
+    void lookup_ShouldMatchNearDuplicateTopics() {
+        // Given
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(1L, "Java streams", 5)));
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(2L, "Java threads", 5)));
+
+        // When & Then
+        assertEquals(Optional.of(1L), semanticTopicCache.lookup(request("Streams in Java", 5)));
+        assertEquals(Optional.of(1L), semanticTopicCache.lookup(request("java stream API", 5)));
+        assertEquals(Optional.of(2L), semanticTopicCache.lookup(request("Threads in Java", 5)));
+        assertTrue(semanticTopicCache.lookup(request("Java collections", 5)).isEmpty());
+        assertTrue(semanticTopicCache.lookup(request("JavaScript", 5)).isEmpty());
+    }
+
+    @Test
+    void lookup_ShouldOnlyServeQuizzesOfTheRequestedSizeWithoutDescription() {
+        // Given
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(1L, "Java streams", 5)));
+        QuizGenerationRequest described = request("Java streams", 5);
+        described.setDescription("Focus on collectors");
+
+        // When & Then
+        assertTrue(semanticTopicCache.lookup(request("Java streams", 10)).isEmpty());
+        assertTrue(semanticTopicCache.lookup(described).isEmpty());
+    }
+
+    @Test
+    void onQuizSaved_ShouldSkipPooledQuizzesAndEvictOldest() {
+        // Given
+        generationConfig.getSemanticCache().setMaxEntries(2);
+        Quiz pooled = quiz(1L, "Docker", 5);
+        pooled.setPoolKey("docker");
+
+        // When
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(pooled));
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(2L, "Java streams", 5)));
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(3L, "Python generators", 5)));
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(4L, "Spring Security", 5)));
+
+        // Then
+        assertEquals(2, semanticTopicCache.size());
+        assertTrue(semanticTopicCache.lookup(request("Docker", 5)).isEmpty());
+        assertTrue(semanticTopicCache.lookup(request("Java streams", 5)).isEmpty());
+        assertEquals(Optional.of(4L), semanticTopicCache.lookup(request("Spring Security", 5)));
+    }
+
+    @Test
+    void onQuizDeleted_ShouldStopServingQuiz() {
+        // Given
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(1L, "Java streams", 5)));
+
+        // When
+        semanticTopicCache.onQuizDeleted(new QuizDeletedEvent(1L));
+
+        // Then
+        assertTrue(semanticTopicCache.lookup(request("Java streams", 5)).isEmpty());
+        assertEquals(0, semanticTopicCache.size());
+    }
+
+    @Test
+    void refresh_ShouldAddQuizzesSavedByOtherProcesses() {
+        // Given
+        semanticTopicCache.rebuild();
+        semanticTopicCache.onQuizSaved(new QuizSavedEvent(quiz(1L, "Java streams", 5)));
+        when(quizRepository.findTopicsCreatedSince(any())).thenReturn(List.of(
+                topicEntry(1L, "Java streams"), topicEntry(2L, "Python generators")));
+
+        // When
+        semanticTopicCache.refresh();
+
+        // Then
+        assertEquals(2, semanticTopicCache.size());
+        assertEquals(Optional.of(2L), semanticTopicCache.lookup(request("Generators in Python", 5)));
+    }
+
+    private static QuizRepository.TopicEntry topicEntry(Long id, String topic) {
+        return new QuizRepository.TopicEntry() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getTopic() {
+                return topic;
+            }
+
+            public Integer getQuestionCount() {
+                return 5;
+            }
+        };
+    }
+
+    private Quiz quiz(Long id, String topic, int questionCount) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= questionCount; i++) {
+            questions.add(Question.builder().questionNumber(i).questionText("Question " + i).build());
+        }
+        return Quiz.builder().id(id).topic(topic).title(topic + " Quiz").questions(questions).build();
+    }
+
+    private QuizGenerationRequest request(String topic, int questionCount) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        request.setQuestionCount(questionCount);
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.dto.GradedSubmission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionWriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void open_ShouldRecoverSubmissionsAppendedInEarlierRun() throws Exception {
+        // Given
+        Path file = tempDir.resolve("submissions.wal");
+        SubmissionWriteAheadLog writer = new SubmissionWriteAheadLog(file, objectMapper);
+        GradedSubmission first = submission("alice");
+        GradedSubmission second = submission("bob ✓");
+        writer.append(first);
+        writer.append(second);
+        writer.close();
+
+        // When
+        SubmissionWriteAheadLog reopened = new SubmissionWriteAheadLog(file, objectMapper);
+
+        // Then
+        assertEquals(List.of(first, second), reopened.recovered());
+        assertEquals(2, reopened.records());
+        reopened.close();
+    }
+
+    @Test
+    void append_ShouldKeepEveryRecordWhenSubmittersRace() throws Exception {
+        // Given
+        Path file = tempDir.resolve("submissions.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(file, objectMapper);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> appends = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            GradedSubmission submission = submission("user" + i);
+            appends.add(executor.submit(() -> log.append(submission)));
+        }
+        for (Future<?> append : appends) {
+            append.get();
+        }
+        executor.shutdown();
+        log.close();
+
+        // Then
+        assertEquals(200, new SubmissionWriteAheadLog(file, objectMapper).recovered().size());
+    }
+
+    @Test
+    void truncate_ShouldOnlyEmptyLogWhenEveryRecordIsStored() throws Exception {
+        // Given
+        Path file = tempDir.resolve("submissions.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(file, objectMapper);
+        log.append(submission("alice"));
+        log.append(submission("bob"));
+
+        // When & Then - a record appended after the caller's count keeps the log
+        assertFalse(log.truncate(1));
+        assertTrue(log.truncate(2));
+        assertEquals(0, Files.size(file));
+        assertEquals(0, log.records());
+
+        GradedSubmission later = submission("carol");
+        log.append(later);
+        log.close();
+        assertEquals(List.of(later), new SubmissionWriteAheadLog(file, objectMapper).recovered());
+    }
+
+    @Test
+    void open_ShouldIgnoreTornRecordAtTail() throws Exception {
+        // Given - the second record is cut short as if the process died mid-write
+        Path file = tempDir.resolve("submissions.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(file, objectMapper);
+        GradedSubmission first = submission("alice");
+        log.append(first);
+        long firstEnd = Files.size(file);
+        log.append(submission("bob"));
+        log.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0}), firstEnd + 20);
+        }
+
+        // When
+        SubmissionWriteAheadLog reopened = new SubmissionWriteAheadLog(file, objectMapper);
+        GradedSubmission third = submission("carol");
+        reopened.append(third);
+        reopened.close();
+
+        // Then
+        assertEquals(List.of(first, third), new SubmissionWriteAheadLog(file, objectMapper).recovered());
+    }
+
+    @Test
+    void append_ShouldLeaveOutRenderedFeedback() throws Exception {
+        // Given
+        Path file = tempDir.resolve("submissions.wal");
+        SubmissionWriteAheadLog log = new SubmissionWriteAheadLog(file, objectMapper);
+        GradedSubmission.Answer answer = new GradedSubmission.Answer(10L, 0, 0, "A programming language", true,
+                "A programming language", "Correct! Java is a programming language.");
+
+        // When
+        log.append(new GradedSubmission(UUID.randomUUID(), 1L, "alice", LocalDateTime.of(2024, 5, 1, 9, 30, 15),
+                1, 1, List.of(answer)));
+        log.close();
+
+        // Then
+        assertFalse(Files.readString(file, StandardCharsets.ISO_8859_1).contains("Correct!"));
+        GradedSubmission.Answer recovered = new SubmissionWriteAheadLog(file, objectMapper).recovered()
+                .get(0).answers().get(0);
+        assertEquals("A programming language", recovered.selectedAnswer());
+        assertNull(recovered.feedback());
+    }
+
+    private static GradedSubmission submission(String userName) {
+        return new GradedSubmission(UUID.randomUUID(), 1L, userName, LocalDateTime.of(2024, 5, 1, 9, 30, 15),
+                1, 2, List.of(
+                        new GradedSubmission.Answer(10L, 0, 0, "A programming language", true,
+                                "A programming language", null),
+                        new GradedSubmission.Answer(11L, 1, -1, "Java Vendor Machine", false,
+                                "Java Virtual Machine", null)));
+    }
+}
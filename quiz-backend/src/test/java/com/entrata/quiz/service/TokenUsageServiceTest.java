@@ -0,0 +1,138 @@
+package com.entrata.quiz.service;
+
+import com.entrata.quiz.config.OpenAiConfig;
+import com.entrata.quiz.dto.TokenUsageReport;
+import com.entrata.quiz.entity.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenUsageServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OpenAiConfig openAiConfig;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        openAiConfig = new OpenAiConfig();
+        openAiConfig.getUsage().setWindowHours(24);
+        OpenAiConfig.ModelPrice mini = new OpenAiConfig.ModelPrice();
+        mini.setInput(0.15);
+        mini.setCachedInput(0.075);
+        mini.setOutput(0.60);
+        OpenAiConfig.ModelPrice gpt4o = new OpenAiConfig.ModelPrice();
+        gpt4o.setInput(2.50);
+        gpt4o.setCachedInput(1.25);
+        gpt4o.setOutput(10.00);
+        openAiConfig.getUsage().getPrices().put("gpt-4o-mini", mini);
+        openAiConfig.getUsage().getPrices().put("gpt-4o", gpt4o);
+        now = Instant.parse("2026-01-01T12:00:00Z");
+    }
+
+    @Test
+    void record_ShouldAggregatePerModelTopicAndUser() {
+        // Given
+        TokenUsageService service = service();
+
+        // When
+        service.record("alice", "Java streams", TokenUsage.of("gpt-4o-mini-2024-07-18", 1_000_000, 100_000, 400_000));
+        service.record("alice", "Streams in Java", TokenUsage.of("gpt-4o-mini", 1000, 500, 0));
+        service.record(null, "Docker", TokenUsage.of("gpt-4o", 2000, 1000, 0));
+        TokenUsageReport report = service.getReport();
+
+        // Then
+        assertEquals(3, report.getTotal().getGenerations());
+        assertEquals(1_003_000, report.getTotal().getPromptTokens());
+        TokenUsageReport.Totals javaStreams = report.getByTopic().get("java stream");
+        assertEquals(2, javaStreams.getGenerations());
+        // 600k uncached * 0.15 + 400k cached * 0.075 + 100k output * 0.60 per million, plus the small call
+        assertEquals(0.09 + 0.03 + 0.06 + (1000 * 0.15 + 500 * 0.60) / 1e6, javaStreams.getEstimatedCostUsd(), 1e-9);
+        assertEquals(400_000.0 / 1_001_000, javaStreams.getCachedPromptRatio(), 1e-9);
+        assertEquals(2, report.getByUser().get("alice").getGenerations());
+        assertEquals(1, report.getByUser().get(TokenUsageService.SYSTEM_USER).getGenerations());
+        assertEquals((2000 * 2.50 + 1000 * 10.00) / 1e6, report.getByModel().get("gpt-4o").getEstimatedCostUsd(), 1e-9);
+        assertEquals(1_000_000 - 400_000 + 1000 + 2000,
+                meterRegistry.get("quiz.llm.tokens").tag("type", "prompt").counters().stream()
+                        .mapToDouble(counter -> counter.count()).sum(), 1e-6);
+    }
+
+    @Test
+    void getReport_ShouldDropUsageOutsideWindow() {
+        // Given
+        TokenUsageService service = service();
+        service.record("alice", "Java", TokenUsage.of("gpt-4o-mini", 100, 50, 0));
+
+        // When
+        now = now.plus(Duration.ofHours(23));
+        service.record("alice", "Java", TokenUsage.of("gpt-4o-mini", 10, 5, 0));
+        long withinWindow = service.getReport().getTotal().getTotalTokens();
+        now = now.plus(Duration.ofHours(2));
+        TokenUsageReport later = service.getReport();
+
+        // Then
+        assertEquals(165, withinWindow);
+        assertEquals(15, later.getTotal().getTotalTokens());
+        assertEquals(1, later.getByTopic().get("java").getGenerations());
+    }
+
+    @Test
+    void record_ShouldForgetTopicsAndUsersIdleForAWholeWindow() {
+        // Given
+        TokenUsageService service = service();
+        service.record("alice", "Java", TokenUsage.of("gpt-4o-mini", 100, 50, 0));
+        service.record("bob", "Kotlin coroutines", TokenUsage.of("gpt-4o-mini", 100, 50, 0));
+
+        // When
+        now = now.plus(Duration.ofHours(20));
+        service.record("alice", "Java", TokenUsage.of("gpt-4o-mini", 10, 5, 0));
+        long tracked = service.trackedKeys();
+        now = now.plus(Duration.ofHours(5));
+
+        // Then - only alice's Java usage was recorded within the last window
+        assertEquals(4, tracked);
+        assertEquals(2, service.trackedKeys());
+        assertEquals(1, service.getReport().getByTopic().get("java").getGenerations());
+    }
+
+    @Test
+    void record_ShouldIgnoreMissingOrEmptyUsage() {
+        // Given
+        TokenUsageService service = service();
+
+        // When
+        service.record("alice", "Java", null);
+        service.record("alice", "Java", TokenUsage.of("gpt-4o-mini", 0, 0, 0));
+
+        // Then
+        assertEquals(0, service.getReport().getTotal().getGenerations());
+        assertTrue(service.getReport().getByUser().isEmpty());
+    }
+
+    private TokenUsageService service() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new TokenUsageService(openAiConfig, meterRegistry, clock);
+    }
+}
@@ -0,0 +1,98 @@
+package com.entrata.quiz.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopicVectorIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void nearest_ShouldScanSmallIndexExactly() {
+        // Given
+        TopicVectorIndex index = new TopicVectorIndex(DIMENSIONS, 100, 8, 50, 20);
+        Random random = new Random(1);
+        float[][] vectors = randomVectors(random, 50);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add(i, vectors[i]);
+        }
+
+        // When
+        Optional<TopicVectorIndex.Match> match = index.nearest(vectors[17]);
+
+        // Then
+        assertFalse(index.usesGraph());
+        assertTrue(match.isPresent());
+        assertEquals(17, match.get().id());
+        assertEquals(1.0f, match.get().similarity(), 1e-5);
+    }
+
+    @Test
+    void nearest_ShouldUseGraphPastThresholdAndFindMostNeighbors() {
+        // Given
+        TopicVectorIndex graphIndex = new TopicVectorIndex(DIMENSIONS, 200, 12, 100, 50);
+        TopicVectorIndex exactIndex = new TopicVectorIndex(DIMENSIONS, Integer.MAX_VALUE, 12, 100, 50);
+        Random random = new Random(2);
+        float[][] vectors = randomVectors(random, 3000);
+        for (int i = 0; i < vectors.length; i++) {
+            graphIndex.add(i, vectors[i]);
+            exactIndex.add(i, vectors[i]);
+        }
+
+        // When
+        int found = 0;
+        int queries = 200;
+        for (int i = 0; i < queries; i++) {
+            float[] query = randomVectors(random, 1)[0];
+            if (graphIndex.nearest(query).get().id() == exactIndex.nearest(query).get().id()) {
+                found++;
+            }
+        }
+
+        // Then
+        assertTrue(graphIndex.usesGraph());
+        assertTrue(found >= queries * 0.9, "graph recall was " + found + "/" + queries);
+    }
+
+    @Test
+    void remove_ShouldHideEntriesAndCompact() {
+        // Given
+        TopicVectorIndex index = new TopicVectorIndex(DIMENSIONS, 10, 8, 50, 20);
+        float[][] vectors = randomVectors(new Random(3), 40);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add(i, vectors[i]);
+        }
+
+        // When
+        for (int i = 0; i < 30; i++) {
+            index.remove(i);
+        }
+
+        // Then
+        assertEquals(10, index.size());
+        assertFalse(index.contains(5));
+        assertTrue(index.contains(35));
+        assertEquals(35, index.nearest(vectors[35]).get().id());
+        assertNotEquals(5, index.nearest(vectors[5]).get().id());
+    }
+
+    private float[][] randomVectors(Random random, int count) {
+        float[][] vectors = new float[count][DIMENSIONS];
+        for (float[] vector : vectors) {
+            float norm = 0;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] = (float) random.nextGaussian();
+                norm += vector[i] * vector[i];
+            }
+            norm = (float) Math.sqrt(norm);
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vectors;
+    }
+}